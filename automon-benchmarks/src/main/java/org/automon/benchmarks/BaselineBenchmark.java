@@ -0,0 +1,33 @@
+package org.automon.benchmarks;
+
+import org.automon.benchmarks.targets.Unwoven;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a call to a method that isn't woven. Subtract this from the other benchmarks to get the cost of the advice.
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class BaselineBenchmark {
+
+    private final Unwoven target = new Unwoven();
+
+    private int value;
+
+    @Benchmark
+    public int unwoven() {
+        return target.execute(value++);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int unwovenContended() {
+        return target.execute(value);
+    }
+}
@@ -0,0 +1,37 @@
+package org.automon.benchmarks;
+
+import org.openjdk.jmh.profile.GCProfiler;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.CommandLineOptionException;
+import org.openjdk.jmh.runner.options.CommandLineOptions;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+
+import java.io.IOException;
+
+/**
+ * Runs the benchmarks with the GC profiler so the allocation rate per call (`gc.alloc.rate.norm`) is reported along
+ * with the time per call. Any JMH command line options can be passed (run with `-h` to see them).
+ *
+ * <pre>
+ * java -jar target/benchmarks.jar
+ * java -jar target/benchmarks.jar MonitoringBenchmark -p openMon=nullimp,micrometer
+ * java -jar target/benchmarks.jar TracingBenchmark.requestId -t 8
+ * </pre>
+ */
+public class BenchmarkMain {
+
+    public static void main(String[] args) throws RunnerException, CommandLineOptionException, IOException {
+        CommandLineOptions commandLineOptions = new CommandLineOptions(args);
+        if (commandLineOptions.shouldHelp() || commandLineOptions.shouldList()) {
+            org.openjdk.jmh.Main.main(args);
+            return;
+        }
+
+        new Runner(new OptionsBuilder()
+                .parent(commandLineOptions)
+                .addProfiler(GCProfiler.class)
+                .build())
+                .run();
+    }
+}
@@ -0,0 +1,53 @@
+package org.automon.benchmarks;
+
+import org.aspectj.lang.Aspects;
+import org.automon.benchmarks.aspects.BenchmarkMonitoringAspect;
+import org.automon.benchmarks.targets.Monitored;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a call to a method woven by `MonitoringAspect` with each of the `OpenMon` implementations.
+ * <p>
+ * The contended benchmark runs on all available processors so it shows how well each `OpenMon` scales when every
+ * thread records the same join point. Note `sysout` writes every call to the console so it is mostly a measure of
+ * console io.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class MonitoringBenchmark {
+
+    /**
+     * The `OpenMon` key passed to {@link org.automon.aspects.monitoring.BaseMonitoringAspect#setOpenMon(String)}.
+     */
+    @Param({"nullimp", "jamon", "metrics", "micrometer", "sysout"})
+    private String openMon;
+
+    private final Monitored target = new Monitored();
+
+    private int value;
+
+    @Setup
+    public void setUp() {
+        BenchmarkMonitoringAspect aspect = Aspects.aspectOf(BenchmarkMonitoringAspect.class);
+        aspect.setOpenMon(openMon);
+        aspect.enable(true);
+    }
+
+    @Benchmark
+    public int monitored() {
+        return target.execute(value++);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int monitoredContended() {
+        return target.execute(value);
+    }
+}
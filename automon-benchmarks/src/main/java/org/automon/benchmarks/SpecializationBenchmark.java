@@ -0,0 +1,76 @@
+package org.automon.benchmarks;
+
+import org.aspectj.lang.Aspects;
+import org.automon.benchmarks.aspects.BenchmarkMonitoringAspect;
+import org.automon.benchmarks.targets.Monitored;
+import org.automon.implementations.SpecializedOpenMon;
+import org.automon.utils.AutomonPropertiesLoader;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares a call to a method woven by `MonitoringAspect` when the advice calls the `OpenMon` through the interface
+ * with the same call when it calls the {@link SpecializedOpenMon} (`org.automon.specialize=true`).
+ * <p>
+ * Before measuring, the advice is run with several `OpenMon` implementations as it would be in an application that
+ * uses more than one (or replaced one via JMX), so the `OpenMon` call sites in the advice are megamorphic. The
+ * `interfaceCall` benchmark then shows the cost of the resulting virtual calls, and `specialized` the cost once they
+ * can be inlined again.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class SpecializationBenchmark {
+
+    private static final String[] POLLUTING_OPEN_MONS = {"nullimp", "jamon", "metrics", "micrometer"};
+
+    /**
+     * The `OpenMon` key of the measured implementation.
+     */
+    @Param({"jamon", "micrometer"})
+    private String openMon;
+
+    private final Monitored target = new Monitored();
+
+    private int value;
+
+    @Setup
+    public void setUp() {
+        boolean specialize = Boolean.getBoolean(AutomonPropertiesLoader.SPECIALIZE);
+        if (specialize) {
+            // read when the properties are first loaded, i.e. when the aspect below is created
+            System.setProperty(AutomonPropertiesLoader.CONFIGURED_OPEN_MON, openMon);
+        }
+
+        BenchmarkMonitoringAspect aspect = Aspects.aspectOf(BenchmarkMonitoringAspect.class);
+        aspect.enable(true);
+        for (String pollutingOpenMon : POLLUTING_OPEN_MONS) {
+            aspect.setOpenMon(pollutingOpenMon);
+            for (int i = 0; i < 20_000; i++) {
+                target.execute(i);
+            }
+        }
+
+        if (specialize) {
+            aspect.setOpenMon(SpecializedOpenMon.get());
+        } else {
+            aspect.setOpenMon(openMon);
+        }
+    }
+
+    @Benchmark
+    public int interfaceCall() {
+        return target.execute(value++);
+    }
+
+    @Benchmark
+    @Fork(value = 1, jvmArgsAppend = "-D" + AutomonPropertiesLoader.SPECIALIZE + "=true")
+    public int specialized() {
+        return target.execute(value++);
+    }
+}
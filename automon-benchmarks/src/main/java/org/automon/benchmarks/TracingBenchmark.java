@@ -0,0 +1,106 @@
+package org.automon.benchmarks;
+
+import org.aspectj.lang.Aspects;
+import org.automon.aspects.tracing.BaseContextAspect;
+import org.automon.aspects.tracing.BaseTracingAspect;
+import org.automon.benchmarks.aspects.BenchmarkBasicContextTracingAspect;
+import org.automon.benchmarks.aspects.BenchmarkFullContextDataAspect;
+import org.automon.benchmarks.aspects.BenchmarkFullContextTracingAspect;
+import org.automon.benchmarks.aspects.BenchmarkRequestIdAspect;
+import org.automon.benchmarks.targets.BasicContextTraced;
+import org.automon.benchmarks.targets.FullContextDataTraced;
+import org.automon.benchmarks.targets.FullContextTraced;
+import org.automon.benchmarks.targets.RequestIdTraced;
+import org.openjdk.jmh.annotations.*;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Measures a call to a method woven by each of the tracing and context aspects.
+ * <p>
+ * log4j2.xml sends the log records to a `Null` appender, so when logging is enabled the benchmarks include building
+ * the MDC/NDC context and the log event but not writing it anywhere.
+ * </p>
+ */
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+@State(Scope.Benchmark)
+public class TracingBenchmark {
+
+    /**
+     * Passed to {@link BaseTracingAspect#enableLogging(boolean)} for the tracing aspects.
+     */
+    @Param({"true", "false"})
+    private boolean logging;
+
+    private final BasicContextTraced basicContextTraced = new BasicContextTraced();
+    private final FullContextTraced fullContextTraced = new FullContextTraced();
+    private final RequestIdTraced requestIdTraced = new RequestIdTraced();
+    private final FullContextDataTraced fullContextDataTraced = new FullContextDataTraced();
+
+    private int value;
+
+    @Setup
+    public void setUp() {
+        enable(Aspects.aspectOf(BenchmarkBasicContextTracingAspect.class));
+        enable(Aspects.aspectOf(BenchmarkFullContextTracingAspect.class));
+        enable(Aspects.aspectOf(BenchmarkRequestIdAspect.class));
+        enable(Aspects.aspectOf(BenchmarkFullContextDataAspect.class));
+    }
+
+    private void enable(BaseTracingAspect aspect) {
+        aspect.enable(true);
+        aspect.enableLogging(logging);
+    }
+
+    private void enable(BaseContextAspect aspect) {
+        aspect.enable(true);
+    }
+
+    @Benchmark
+    public int basicContextTracing() {
+        return basicContextTraced.execute(value++);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int basicContextTracingContended() {
+        return basicContextTraced.execute(value);
+    }
+
+    @Benchmark
+    public int fullContextTracing() {
+        return fullContextTraced.execute(value++);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int fullContextTracingContended() {
+        return fullContextTraced.execute(value);
+    }
+
+    @Benchmark
+    public int requestId() {
+        return requestIdTraced.execute(value++);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int requestIdContended() {
+        return requestIdTraced.execute(value);
+    }
+
+    @Benchmark
+    public int fullContextData() {
+        return fullContextDataTraced.execute(value++);
+    }
+
+    @Benchmark
+    @Threads(Threads.MAX)
+    public int fullContextDataContended() {
+        return fullContextDataTraced.execute(value);
+    }
+}
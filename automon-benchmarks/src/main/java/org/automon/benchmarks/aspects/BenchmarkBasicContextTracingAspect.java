@@ -0,0 +1,17 @@
+package org.automon.benchmarks.aspects;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.automon.aspects.tracing.aspectj.BasicContextTracingAspect;
+
+/**
+ * Weaves {@link org.automon.benchmarks.targets.BasicContextTraced}.
+ */
+@Aspect
+public class BenchmarkBasicContextTracingAspect extends BasicContextTracingAspect {
+
+    @Pointcut("execution(* org.automon.benchmarks.targets.BasicContextTraced.*(..))")
+    public void select() {
+    }
+
+}
@@ -0,0 +1,17 @@
+package org.automon.benchmarks.aspects;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.automon.aspects.tracing.aspectj.FullContextDataAspect;
+
+/**
+ * Weaves {@link org.automon.benchmarks.targets.FullContextDataTraced}.
+ */
+@Aspect
+public class BenchmarkFullContextDataAspect extends FullContextDataAspect {
+
+    @Pointcut("execution(* org.automon.benchmarks.targets.FullContextDataTraced.*(..))")
+    public void select() {
+    }
+
+}
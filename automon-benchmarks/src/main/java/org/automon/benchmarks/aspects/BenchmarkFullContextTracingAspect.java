@@ -0,0 +1,17 @@
+package org.automon.benchmarks.aspects;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.automon.aspects.tracing.aspectj.FullContextTracingAspect;
+
+/**
+ * Weaves {@link org.automon.benchmarks.targets.FullContextTraced}.
+ */
+@Aspect
+public class BenchmarkFullContextTracingAspect extends FullContextTracingAspect {
+
+    @Pointcut("execution(* org.automon.benchmarks.targets.FullContextTraced.*(..))")
+    public void select() {
+    }
+
+}
@@ -0,0 +1,17 @@
+package org.automon.benchmarks.aspects;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.automon.aspects.monitoring.MonitoringAspect;
+
+/**
+ * Weaves {@link org.automon.benchmarks.targets.Monitored}.
+ */
+@Aspect
+public class BenchmarkMonitoringAspect extends MonitoringAspect {
+
+    @Pointcut("execution(* org.automon.benchmarks.targets.Monitored.*(..))")
+    public void select() {
+    }
+
+}
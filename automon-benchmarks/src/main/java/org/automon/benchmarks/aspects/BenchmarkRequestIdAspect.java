@@ -0,0 +1,17 @@
+package org.automon.benchmarks.aspects;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.automon.aspects.tracing.aspectj.RequestIdAspect;
+
+/**
+ * Weaves {@link org.automon.benchmarks.targets.RequestIdTraced}.
+ */
+@Aspect
+public class BenchmarkRequestIdAspect extends RequestIdAspect {
+
+    @Pointcut("execution(* org.automon.benchmarks.targets.RequestIdTraced.*(..))")
+    public void select() {
+    }
+
+}
@@ -0,0 +1,17 @@
+package org.automon.benchmarks.targets;
+
+/**
+ * Woven by {@link org.automon.benchmarks.aspects.BenchmarkFullContextDataAspect}.
+ */
+public class FullContextDataTraced {
+
+    /**
+     * A small amount of work so the cost of the advice dominates the measurement, but the call can't be optimized away.
+     *
+     * @param value The value to work on.
+     * @return A value computed from the argument.
+     */
+    public int execute(int value) {
+        return (value * 31) ^ (value >>> 7);
+    }
+}
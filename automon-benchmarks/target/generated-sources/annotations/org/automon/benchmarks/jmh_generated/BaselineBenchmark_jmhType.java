@@ -0,0 +1,4 @@
+package org.automon.benchmarks.jmh_generated;
+public class BaselineBenchmark_jmhType extends BaselineBenchmark_jmhType_B3 {
+}
+
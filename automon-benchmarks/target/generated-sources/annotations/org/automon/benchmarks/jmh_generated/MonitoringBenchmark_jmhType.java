@@ -0,0 +1,4 @@
+package org.automon.benchmarks.jmh_generated;
+public class MonitoringBenchmark_jmhType extends MonitoringBenchmark_jmhType_B3 {
+}
+
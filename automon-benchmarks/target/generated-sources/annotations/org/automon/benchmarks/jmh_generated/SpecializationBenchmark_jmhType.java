@@ -0,0 +1,4 @@
+package org.automon.benchmarks.jmh_generated;
+public class SpecializationBenchmark_jmhType extends SpecializationBenchmark_jmhType_B3 {
+}
+
@@ -0,0 +1,4 @@
+package org.automon.benchmarks.jmh_generated;
+public class TracingBenchmark_jmhType extends TracingBenchmark_jmhType_B3 {
+}
+
@@ -1,12 +1,18 @@
 package org.automon.aspects.monitoring;
 
+import org.aspectj.lang.JoinPoint;
 import org.automon.implementations.NullImp;
 import org.automon.implementations.OpenMon;
+import org.automon.implementations.OpenMonBase;
 import org.automon.implementations.OpenMonFactory;
+import org.automon.implementations.SpecializedOpenMon;
 import org.automon.jmx.MonitoringMXBean;
 import org.automon.utils.AutomonPropertiesLoader;
+import org.automon.utils.JoinPointControl;
 import org.automon.utils.Utils;
 
+import java.util.Collections;
+import java.util.Map;
 import java.util.Properties;
 
 /**
@@ -17,7 +23,17 @@ import java.util.Properties;
  *     <li>Managing Automon implementations (e.g., Jamon, Metrics, JavaSimon)</li>
  *     <li>Registering the aspect with JMX for dynamic configuration</li>
  *     <li>Enabling/disabling monitoring at runtime</li>
+ *     <li>Sampling which calls are monitored (see {@link Sampler})</li>
+ *     <li>Enabling/disabling and sampling individual join points at runtime (see {@link JoinPointControl})</li>
  * </ul>
+ * <p>
+ * The `OpenMon` can be replaced at runtime (e.g. via JMX) while calls are being monitored. Each call acquires the
+ * current {@link OpenMonBinding} and stops its context on the same `OpenMon`, and the replaced `OpenMon` is closed
+ * after its last in-flight call completes.
+ * <p>
+ * The configured `OpenMon` is created on the first monitored call (or first use of {@link #getOpenMon()}) rather than
+ * when the aspect is created, so weaving many aspects doesn't slow startup. Set `org.automon.lazy=false` to create it
+ * with the aspect instead.
  */
 public class BaseMonitoringAspect implements MonitoringMXBean {
 
@@ -29,28 +45,101 @@ public class BaseMonitoringAspect implements MonitoringMXBean {
     /**
      * Flag indicating whether monitoring is enabled (default: true).
      */
-    private boolean enabled = true;
+    private volatile boolean enabled = true;
 
     /**
      * Factory for creating `OpenMon` instances.
      */
-    private final OpenMonFactory factory = new OpenMonFactory(new NullImp());
+    private final OpenMonFactory factory = OpenMonFactory.getSharedInstance(getClass().getClassLoader());
+
+    /**
+     * Tracks the calls using each binding, and closes the replaced ones.
+     */
+    private final OpenMonEpochs epochs = new OpenMonEpochs();
+
+    /**
+     * The current monitoring implementation and its epoch (default: NullImp).
+     */
+    private volatile OpenMonBinding binding = new OpenMonBinding(new NullImp(), 0, false, epochs);
+
+    /**
+     * Decides which calls are monitored (default: all of them).
+     */
+    private volatile Sampler sampler = Sampler.ALL;
+
+    /**
+     * True until the configured `OpenMon` is created or another one is set.
+     */
+    private volatile boolean openMonPending;
+
+    /**
+     * The configured `OpenMon` key(s), created when the first call is monitored.
+     */
+    private String pendingOpenMonKey;
 
     /**
-     * The current monitoring implementation (default: NullImp).
+     * The time it took to initialize the aspect, in nanoseconds.
      */
-    private OpenMon openMon = new NullImp();
+    private volatile long initializationNanos;
+
+    /**
+     * The time it took to create the configured `OpenMon`, in nanoseconds (0 until it is created).
+     */
+    private volatile long openMonCreationNanos;
+
+    /**
+     * Initializes the sampler from the `org.automon.sampling.*` properties.
+     */
+    private void initSampler() {
+        AutomonPropertiesLoader properties = Utils.AUTOMON_PROPERTIES;
+        setSampler(new Sampler(
+                Sampler.Mode.from(properties.getProperties().getProperty(AutomonPropertiesLoader.SAMPLING_MODE)),
+                properties.getDouble(AutomonPropertiesLoader.SAMPLING_RATE, Sampler.DEFAULT_RATE),
+                properties.getInt(AutomonPropertiesLoader.SAMPLING_SAMPLES_PER_SECOND, Sampler.DEFAULT_SAMPLES_PER_SECOND)));
+    }
 
     /**
      * Initializes the OpenMon implementation based on user configuration or defaults.
      */
     private void initOpenMon() {
+        if (SpecializedOpenMon.get() != null) {
+            // created once and shared by the aspects so the advice can call it directly
+            setOpenMon(SpecializedOpenMon.get());
+            return;
+        }
         Properties properties = Utils.AUTOMON_PROPERTIES.getProperties();
         String openMonStr = properties.getProperty(AutomonPropertiesLoader.CONFIGURED_OPEN_MON);
-        if (Utils.hasPackageName(openMonStr)) {
-            factory.add(openMonStr);
+        if (openMonStr != null) {
+            for (String key : Utils.tokenize(openMonStr, ",")) {
+                if (Utils.hasPackageName(key)) {
+                    factory.add(key);
+                }
+            }
+        }
+
+        if ("false".equalsIgnoreCase(properties.getProperty(AutomonPropertiesLoader.LAZY_OPEN_MON, "true").trim())) {
+            createOpenMon(openMonStr);
+        } else {
+            synchronized (this) {
+                pendingOpenMonKey = openMonStr;
+                openMonPending = true;
+            }
+        }
+    }
+
+    /**
+     * Creates the configured `OpenMon` if it is still pending.
+     */
+    private synchronized void createPendingOpenMon() {
+        if (openMonPending) {
+            createOpenMon(pendingOpenMonKey);
         }
-        setOpenMon(openMonStr);
+    }
+
+    private void createOpenMon(String openMonKey) {
+        long start = System.nanoTime();
+        setOpenMon(openMonKey);
+        openMonCreationNanos = System.nanoTime() - start;
     }
 
     /**
@@ -61,10 +150,13 @@ public class BaseMonitoringAspect implements MonitoringMXBean {
      * @param enable  Whether monitoring is initially enabled.
      */
     protected void initialize(String purpose, boolean enable) {
+        long start = System.nanoTime();
         enable(enable);
         initOpenMon();
+        initSampler();
         setPurpose(purpose);
         registerJmxController();
+        initializationNanos = System.nanoTime() - start;
     }
 
     /**
@@ -100,16 +192,43 @@ public class BaseMonitoringAspect implements MonitoringMXBean {
      * @return The `OpenMon` instance used for monitoring.
      */
     public OpenMon getOpenMon() {
-        return openMon;
+        if (openMonPending) {
+            createPendingOpenMon();
+        }
+        return binding.getOpenMon();
+    }
+
+    /**
+     * Acquires the current monitoring implementation for a call. The call must use the returned binding's `OpenMon`
+     * for both `start` and `stop`, and release the binding on the same thread when it completes, even if the
+     * `OpenMon` is replaced in between.
+     *
+     * @return The acquired binding.
+     */
+    public OpenMonBinding acquireOpenMon() {
+        if (openMonPending) {
+            createPendingOpenMon();
+        }
+        epochs.enter(binding.getEpoch());
+        // read again after entering: a binding replacing the one read above is at least as new, so it is protected too
+        return binding;
     }
 
     /**
-     * Sets the monitoring implementation using the provided `OpenMon` instance.
+     * Sets the monitoring implementation using the provided `OpenMon` instance. Calls that already started keep using
+     * the previous implementation, which is closed (if it is `AutoCloseable`) after the last of them completes, unless
+     * it is the {@link SpecializedOpenMon} shared by the aspects.
      *
      * @param openMon The `OpenMon` implementation to use for monitoring.
      */
-    public void setOpenMon(OpenMon openMon) {
-        this.openMon = openMon;
+    public synchronized void setOpenMon(OpenMon openMon) {
+        OpenMonBinding previous = binding;
+        if (previous.getOpenMon() != openMon) {
+            binding = new OpenMonBinding(openMon, previous.getEpoch() + 1, openMon == SpecializedOpenMon.get(), epochs);
+            epochs.retire(previous);
+        }
+        // cleared after the binding is published so a call that sees it cleared also sees the binding
+        openMonPending = false;
     }
 
     /**
@@ -117,14 +236,15 @@ public class BaseMonitoringAspect implements MonitoringMXBean {
      * If the key is null or empty, it attempts to create the first available pre-installed OpenMon.
      * If none can be created, it defaults to `NullImp` which disables monitoring.
      *
-     * @param openMonKey The key (e.g., "jamon", "metrics") representing the desired `OpenMon` implementation.
+     * @param openMonKey The key (e.g., "jamon", "metrics") representing the desired `OpenMon` implementation, or several
+     *                   comma-separated keys (e.g., "jamon,micrometer") to record to each of them.
      */
     @Override
     public void setOpenMon(String openMonKey) {
         if (openMonKey == null || openMonKey.trim().isEmpty()) {
-            this.openMon = factory.getFirstInstance();
+            setOpenMon(factory.getFirstInstance());
         } else {
-            this.openMon = factory.getInstance(openMonKey);
+            setOpenMon(factory.getInstance(openMonKey));
         }
     }
 
@@ -135,11 +255,166 @@ public class BaseMonitoringAspect implements MonitoringMXBean {
      */
     @Override
     public String getOpenMonString() {
-        return openMon.toString();
+        return getOpenMon().toString();
+    }
+
+    /**
+     * Gets the number of times the `OpenMon` was replaced.
+     *
+     * @return The epoch of the current `OpenMon`.
+     */
+    @Override
+    public long getOpenMonEpoch() {
+        return binding.getEpoch();
+    }
+
+    /**
+     * Gets the number of threads whose outermost monitored call started with the current `OpenMon`. Nested calls
+     * aren't counted.
+     *
+     * @return The number of in-flight calls.
+     */
+    @Override
+    public long getInFlightCalls() {
+        return epochs.getThreadsInFlight(binding.getEpoch());
+    }
+
+    /**
+     * Gets the time it took to initialize the aspect.
+     *
+     * @return The time in nanoseconds.
+     */
+    @Override
+    public long getInitializationNanos() {
+        return initializationNanos;
+    }
+
+    /**
+     * Gets the time it took to create the configured `OpenMon`.
+     *
+     * @return The time in nanoseconds, or 0 if it hasn't been created yet or was set explicitly.
+     */
+    @Override
+    public long getOpenMonCreationNanos() {
+        return openMonCreationNanos;
+    }
+
+    /**
+     * Gets the statistics of the current `OpenMon`'s store of recently thrown exceptions.
+     *
+     * @return The exception store statistics, or an empty map if the `OpenMon` doesn't track exceptions.
+     */
+    @Override
+    public Map<String, Long> getExceptionStatistics() {
+        if (getOpenMon() instanceof OpenMonBase<?> openMonBase) {
+            return openMonBase.getExceptionStatistics();
+        }
+        return Collections.emptyMap();
+    }
+
+    /**
+     * Returns true if monitoring is enabled, the join point wasn't disabled in {@link JoinPointControl}, and this call
+     * to the join point was selected by its sample rate there and by the sampler.
+     *
+     * @param jp The join point being called.
+     * @return true if the call should be monitored.
+     */
+    public boolean shouldMonitor(JoinPoint.StaticPart jp) {
+        return enabled && JoinPointControl.getInstance().shouldMonitor(jp) && sampler.sample(jp);
+    }
+
+    /**
+     * Retrieves the sampler that decides which calls are monitored.
+     *
+     * @return The `Sampler`.
+     */
+    public Sampler getSampler() {
+        return sampler;
+    }
+
+    /**
+     * Sets the sampler that decides which calls are monitored. A null sampler monitors every call.
+     *
+     * @param sampler The `Sampler` to use.
+     */
+    public void setSampler(Sampler sampler) {
+        this.sampler = (sampler == null) ? Sampler.ALL : sampler;
+    }
+
+    /**
+     * Gets the sampling mode.
+     *
+     * @return all, fixed, ratelimited or adaptive.
+     */
+    @Override
+    public String getSamplingMode() {
+        return sampler.getMode().name().toLowerCase();
+    }
+
+    /**
+     * Changes the sampling mode keeping the current rate and samples per second. The sampling statistics are reset.
+     *
+     * @param mode all, fixed, ratelimited or adaptive.
+     */
+    @Override
+    public void setSamplingMode(String mode) {
+        setSampler(new Sampler(Sampler.Mode.from(mode), getSampleRate(), getSamplesPerSecond()));
+    }
+
+    /**
+     * Gets the probability a call is monitored in `fixed` mode.
+     *
+     * @return 0.0 to 1.0
+     */
+    @Override
+    public double getSampleRate() {
+        return sampler.getRate();
+    }
+
+    /**
+     * Changes the probability a call is monitored in `fixed` mode. The sampling statistics are reset.
+     *
+     * @param rate 0.0 to 1.0
+     */
+    @Override
+    public void setSampleRate(double rate) {
+        setSampler(new Sampler(sampler.getMode(), rate, getSamplesPerSecond()));
+    }
+
+    /**
+     * Gets the number of calls per second per join point monitored in `ratelimited` and `adaptive` mode.
+     *
+     * @return The maximum number of monitored calls per second for each join point.
+     */
+    @Override
+    public int getSamplesPerSecond() {
+        return sampler.getSamplesPerSecond();
+    }
+
+    /**
+     * Changes the number of calls per second per join point monitored in `ratelimited` and `adaptive` mode. The
+     * sampling statistics are reset.
+     *
+     * @param samplesPerSecond The maximum number of monitored calls per second for each join point.
+     */
+    @Override
+    public void setSamplesPerSecond(int samplesPerSecond) {
+        setSampler(new Sampler(sampler.getMode(), getSampleRate(), samplesPerSecond));
+    }
+
+    /**
+     * Gets the fraction of calls that were monitored for each join point.
+     *
+     * @return The effective sample rate of each join point keyed by its label.
+     */
+    @Override
+    public Map<String, Double> getEffectiveSampleRates() {
+        return sampler.getEffectiveSampleRates();
     }
 
     /**
-     * Retrieves the `OpenMonFactory` used to create `OpenMon` instances.
+     * Retrieves the `OpenMonFactory` used to create `OpenMon` instances. It is shared by the aspects of the same class
+     * loader.
      *
      * @return The `OpenMonFactory`.
      */
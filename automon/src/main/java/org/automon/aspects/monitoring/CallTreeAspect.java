@@ -0,0 +1,34 @@
+package org.automon.aspects.monitoring;
+
+import org.aspectj.lang.annotation.Aspect;
+import org.automon.implementations.CallTree;
+
+/**
+ * A monitoring aspect that profiles the selected methods with the {@link CallTree} `OpenMon`, whatever `org.automon`
+ * is set to. Each request (outermost selected call) builds a call tree with the call counts, inclusive and exclusive
+ * times and exceptions of the join points it called, which is merged into an aggregated call graph. The call trees of
+ * slow requests are logged and available via JMX.
+ *
+ * <p>Developers should inherit from this class and implement the `select()` pointcut to define the methods to
+ * profile, e.g. the entry points of requests and the services and repositories they call.</p>
+ */
+@Aspect
+public abstract class CallTreeAspect extends MonitoringAspect {
+
+    /**
+     * Constructs a new `CallTreeAspect` with profiling enabled based on configuration properties.
+     */
+    public CallTreeAspect() {
+        setOpenMon(new CallTree());
+    }
+
+    /**
+     * Constructs a new `CallTreeAspect` with the specified enabled state.
+     *
+     * @param enable Whether profiling is initially enabled.
+     */
+    public CallTreeAspect(boolean enable) {
+        super(enable);
+        setOpenMon(new CallTree());
+    }
+}
@@ -6,6 +6,9 @@ import org.aspectj.lang.annotation.AfterThrowing;
 import org.aspectj.lang.annotation.Around;
 import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
+import org.automon.implementations.OpenMon;
+import org.automon.implementations.SpecializedOpenMon;
+import org.automon.utils.JoinPointControl;
 import org.automon.utils.Utils;
 
 /**
@@ -50,11 +53,17 @@ public abstract class MonitoringAspect extends BaseMonitoringAspect {
      * <p>
      * This advice wraps the execution of the selected methods and performs the following:
      * <ol>
-     *     <li>Starts a timer or monitor using the appropriate `OpenMon` implementation.</li>
+     *     <li>Checks the aspect and the join point ({@link JoinPointControl}) are enabled and the call was selected by
+     *     the {@link Sampler} (every call by default).</li>
+     *     <li>Acquires the current `OpenMon` implementation, so the call is stopped by the implementation that started
+     *     it even if it is replaced meanwhile.</li>
+     *     <li>Starts a timer or monitor using the `OpenMon` implementation. The {@link SpecializedOpenMon}, if enabled,
+     *     is called directly rather than through the `OpenMon` interface so the JIT can inline it.</li>
      *     <li>Proceeds with the method execution.</li>
      *     <li>Stops the timer/monitor if the method completes successfully.</li>
      *     <li>Stops the timer/monitor and records an exception if the method throws an exception.</li>
      *     <li>Rethrows any exception thrown by the method.</li>
+     *     <li>Releases the `OpenMon` implementation.</li>
      * </ol>
      *
      * @param joinPoint The `ProceedingJoinPoint` representing the intercepted method call.
@@ -65,15 +74,39 @@ public abstract class MonitoringAspect extends BaseMonitoringAspect {
     public Object aroundAdvice(ProceedingJoinPoint joinPoint) throws Throwable {
         // Note: context is typically a Timer/Monitor object returned by the monitoring implementation (Jamon, JavaSimon, Metrics,...)
         // though to this advice it is simply an object and the advice doesn't care what the intent of the context/object is.
-        if (isEnabled()) {
-            Object context = getOpenMon().start(joinPoint.getStaticPart());
+        if (shouldMonitor(joinPoint.getStaticPart())) {
+            OpenMonBinding binding = acquireOpenMon();
             try {
-                Object retVal = joinPoint.proceed();
-                getOpenMon().stop(context);
+                OpenMon openMon = binding.getOpenMon();
+                OpenMon specialized = SpecializedOpenMon.get();
+                if (openMon == specialized) {
+                    // same as below, but the calls are on a constant so they stay monomorphic
+                    // and are inlined however many OpenMon types this advice has seen
+                    Object context = specialized.start(joinPoint.getStaticPart());
+                    Object retVal;
+                    try {
+                        retVal = joinPoint.proceed();
+                    } catch (Throwable throwable) {
+                        specialized.stop(context, throwable);
+                        throw throwable;
+                    }
+                    specialized.stop(context);
+                    return retVal;
+                }
+                Object context = openMon.start(joinPoint.getStaticPart());
+                Object retVal;
+                // stop is outside the try so an exception thrown by the OpenMon itself can't stop the call twice, which
+                // would pop the caller's start time off the thread's NanoTimer
+                try {
+                    retVal = joinPoint.proceed();
+                } catch (Throwable throwable) {
+                    openMon.stop(context, throwable);
+                    throw throwable;
+                }
+                openMon.stop(context);
                 return retVal;
-            } catch (Throwable throwable) {
-                getOpenMon().stop(context, throwable);
-                throw throwable;
+            } finally {
+                binding.release();
             }
         } else {
             return joinPoint.proceed();
@@ -89,8 +122,13 @@ public abstract class MonitoringAspect extends BaseMonitoringAspect {
      */
     @AfterThrowing(pointcut = "select()", throwing = "throwable")
     public void afterThrowingAdvice(JoinPoint joinPoint, Throwable throwable) {
-        if (isEnabled()) {
-            getOpenMon().exception(joinPoint, throwable);
+        if (isEnabled() && JoinPointControl.getInstance().isEnabled(joinPoint.getStaticPart())) {
+            OpenMonBinding binding = acquireOpenMon();
+            try {
+                binding.getOpenMon().exception(joinPoint, throwable);
+            } finally {
+                binding.release();
+            }
         }
     }
 }
\ No newline at end of file
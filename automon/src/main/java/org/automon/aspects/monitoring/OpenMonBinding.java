@@ -0,0 +1,123 @@
+package org.automon.aspects.monitoring;
+
+import org.automon.implementations.OpenMon;
+
+/**
+ * <p>An `OpenMon` installed in a {@link BaseMonitoringAspect} and the epoch it was installed in. The aspect publishes
+ * the binding with a single volatile write, so a call sees the `OpenMon` and its epoch together, and a call keeps the
+ * binding it acquired until it completes, so `stop` is always called on the `OpenMon` that created the context even if
+ * the `OpenMon` was replaced in between.</p>
+ *
+ * <p>When the aspect switches to another `OpenMon` the old binding is retired. Once no call can be using it anymore
+ * (see {@link OpenMonEpochs}) it is closed (if it is `AutoCloseable`), e.g. to flush and stop the thread of
+ * `AsyncOpenMon`, unless the `OpenMon` is shared by the aspects (see
+ * {@link org.automon.implementations.SpecializedOpenMon}).</p>
+ *
+ * <pre>
+ * OpenMonBinding binding = aspect.acquireOpenMon();
+ * try {
+ *     Object context = binding.getOpenMon().start(jp);
+ *     ...
+ * } finally {
+ *     binding.release();
+ * }
+ * </pre>
+ */
+public final class OpenMonBinding {
+
+    private final OpenMon openMon;
+    private final long epoch;
+    private final boolean shared;
+    private final OpenMonEpochs epochs;
+    private volatile boolean retired;
+    private volatile boolean closed;
+
+    /**
+     * Binds an `OpenMon`.
+     *
+     * @param openMon The `OpenMon`.
+     * @param epoch   The number of `OpenMon`s installed in the aspect before this one.
+     * @param shared  true if other aspects may use the `OpenMon`, in which case it isn't closed when retired.
+     * @param epochs  Tracks the calls of the aspect.
+     */
+    OpenMonBinding(OpenMon openMon, long epoch, boolean shared, OpenMonEpochs epochs) {
+        this.openMon = openMon;
+        this.epoch = epoch;
+        this.shared = shared;
+        this.epochs = epochs;
+    }
+
+    /**
+     * Registers the completion of a call that acquired the binding. Retired bindings that no call uses anymore are
+     * closed.
+     */
+    public void release() {
+        epochs.exit();
+    }
+
+    /**
+     * Marks the binding as replaced.
+     */
+    void retire() {
+        retired = true;
+    }
+
+    /**
+     * Closes the `OpenMon` once the binding was retired and drained, unless it is shared.
+     */
+    void close() {
+        if (closed) {
+            return;
+        }
+        closed = true;
+        if (!shared && openMon instanceof AutoCloseable closeable) {
+            try {
+                closeable.close();
+            } catch (Exception e) {
+                // non-propagation of this exception is by design. Also any logging framework
+                // is not guaranteed to be there so one is not used.
+                e.printStackTrace();
+            }
+        }
+    }
+
+    /**
+     * @return The `OpenMon`.
+     */
+    public OpenMon getOpenMon() {
+        return openMon;
+    }
+
+    /**
+     * @return The number of `OpenMon`s installed in the aspect before this one.
+     */
+    public long getEpoch() {
+        return epoch;
+    }
+
+    /**
+     * @return true if another `OpenMon` has replaced this one.
+     */
+    public boolean isRetired() {
+        return retired;
+    }
+
+    /**
+     * @return true if the `OpenMon` may be used by other aspects, so it isn't closed when retired.
+     */
+    public boolean isShared() {
+        return shared;
+    }
+
+    /**
+     * @return true if the binding was retired and drained, i.e. its `OpenMon` was closed (unless it is shared).
+     */
+    public boolean isClosed() {
+        return closed;
+    }
+
+    @Override
+    public String toString() {
+        return openMon + " (epoch=" + epoch + ")";
+    }
+}
@@ -0,0 +1,159 @@
+package org.automon.aspects.monitoring;
+
+import java.lang.ref.WeakReference;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+
+/**
+ * <p>Tracks which {@link OpenMonBinding}s of a {@link BaseMonitoringAspect} are in use, and closes the retired ones
+ * once no call can be using them.</p>
+ *
+ * <p>Each thread announces the epoch of the binding its outermost monitored call started with in a slot that only it
+ * writes, so a call never writes to memory shared with other threads. Nested calls only increment the depth of the
+ * slot, as the outer call's epoch is no newer than the binding they use and so protects it as well. A retired binding
+ * is closed once no slot announces its epoch or an older one. The slots are only scanned when a binding is retired, and
+ * again when a call that may have been using a retired binding completes.</p>
+ *
+ * <p>The slots are created by their thread, so they are allocated in the thread's own memory and rarely share a cache
+ * line.</p>
+ */
+final class OpenMonEpochs {
+
+    /**
+     * The epoch of a thread that isn't in a monitored call. It is newer than any binding, so it protects none of them.
+     */
+    private static final long IDLE = Long.MAX_VALUE;
+
+    private final ThreadLocal<Slot> slot = ThreadLocal.withInitial(this::register);
+
+    /**
+     * The slots of the threads that made a monitored call. The references are weak so the slots of terminated threads
+     * are dropped. Only used while holding the lock.
+     */
+    private final List<WeakReference<Slot>> slots = new ArrayList<>();
+
+    /**
+     * The retired bindings that aren't closed yet, oldest first. Only used while holding the lock.
+     */
+    private final List<OpenMonBinding> retired = new ArrayList<>();
+
+    /**
+     * The epoch of the newest retired binding that isn't closed yet, or -1 if there is none.
+     */
+    private volatile long retiredEpoch = -1;
+
+    private synchronized Slot register() {
+        Slot created = new Slot();
+        slots.add(new WeakReference<>(created));
+        return created;
+    }
+
+    /**
+     * Registers that the current thread starts a monitored call. The call must then use the aspect's binding read
+     * after this, as only bindings at least as new as the epoch are protected.
+     *
+     * @param epoch The epoch of the aspect's current binding.
+     */
+    void enter(long epoch) {
+        Slot current = slot.get();
+        if (current.depth++ == 0) {
+            current.epoch = epoch;
+        }
+    }
+
+    /**
+     * Registers that the current thread completed a monitored call, and closes the retired bindings that no call uses
+     * anymore if it may have been using one of them.
+     */
+    void exit() {
+        Slot current = slot.get();
+        if (--current.depth == 0) {
+            long epoch = current.epoch;
+            current.epoch = IDLE;
+            // retire() sets retiredEpoch before scanning the slots, so either it sees this call completed or this call
+            // sees the binding was retired
+            if (epoch <= retiredEpoch) {
+                reclaim();
+            }
+        }
+    }
+
+    /**
+     * Marks the binding as replaced, and closes it now if no calls are using it. The aspect must publish the binding
+     * replacing it first.
+     *
+     * @param binding The binding that was replaced.
+     */
+    void retire(OpenMonBinding binding) {
+        synchronized (this) {
+            binding.retire();
+            retired.add(binding);
+            retiredEpoch = binding.getEpoch();
+        }
+        reclaim();
+    }
+
+    private void reclaim() {
+        List<OpenMonBinding> drained = new ArrayList<>();
+        synchronized (this) {
+            long oldestInUse = IDLE;
+            for (Iterator<WeakReference<Slot>> iterator = slots.iterator(); iterator.hasNext(); ) {
+                Slot next = iterator.next().get();
+                if (next == null) {
+                    iterator.remove();
+                } else {
+                    oldestInUse = Math.min(oldestInUse, next.epoch);
+                }
+            }
+            for (Iterator<OpenMonBinding> iterator = retired.iterator(); iterator.hasNext(); ) {
+                OpenMonBinding binding = iterator.next();
+                if (binding.getEpoch() < oldestInUse) {
+                    iterator.remove();
+                    drained.add(binding);
+                }
+            }
+            retiredEpoch = retired.isEmpty() ? -1 : retired.get(retired.size() - 1).getEpoch();
+        }
+        // closed without holding the lock as closing may wait, i.e. for the thread of an AsyncOpenMon
+        for (OpenMonBinding binding : drained) {
+            binding.close();
+        }
+    }
+
+    /**
+     * Returns the number of threads whose outermost monitored call started with the binding of the given epoch or a
+     * newer one. Nested calls aren't counted.
+     *
+     * @param epoch The epoch.
+     * @return The number of threads in a monitored call.
+     */
+    synchronized long getThreadsInFlight(long epoch) {
+        long count = 0;
+        for (WeakReference<Slot> reference : slots) {
+            Slot next = reference.get();
+            if (next != null && next.epoch != IDLE && next.epoch >= epoch) {
+                count++;
+            }
+        }
+        return count;
+    }
+
+    /**
+     * @return The number of retired bindings that aren't closed yet.
+     */
+    synchronized int getRetired() {
+        return retired.size();
+    }
+
+    private static final class Slot {
+        /**
+         * The number of nested monitored calls. Only used by the slot's thread.
+         */
+        private int depth;
+        /**
+         * Only written by the slot's thread.
+         */
+        private volatile long epoch = IDLE;
+    }
+}
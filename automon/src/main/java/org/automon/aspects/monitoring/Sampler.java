@@ -0,0 +1,258 @@
+package org.automon.aspects.monitoring;
+
+import org.aspectj.lang.JoinPoint;
+import org.automon.utils.AutomonClock;
+import org.automon.utils.Utils;
+
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Decides which calls to a join point a monitoring aspect should time, so the cost of monitoring a very frequently
+ * called method can be kept within a budget without losing visibility of it.
+ * <p>
+ * The supported modes are:
+ * <ul>
+ *     <li>`all` - Every call is monitored. This is the default and has no overhead.</li>
+ *     <li>`fixed` - Each call is monitored with a fixed probability (`rate`, i.e. 0.01 is 1 in 100 calls).</li>
+ *     <li>`ratelimited` - At most `samplesPerSecond` calls per second are monitored for each join point. The first calls in
+ *     each second are the ones monitored.</li>
+ *     <li>`adaptive` - Each join point is monitored with a probability that is recalculated every second from its call
+ *     rate in the previous second, so about `samplesPerSecond` calls per second are monitored and spread across the second.
+ *     Hot join points automatically back off to a lower rate and rarely called ones are always monitored. As with
+ *     `ratelimited` no more than `samplesPerSecond` calls per second are monitored.</li>
+ * </ul>
+ * <p>
+ * When sampling, the `OpenMon` only sees the sampled calls. The effective sample rate of each join point (sampled calls
+ * divided by all calls) is available from {@link #getEffectiveSampleRates()} and can be used to extrapolate counts,
+ * i.e. the actual number of calls is approximately the monitored count divided by the rate. Timing statistics such as
+ * the average are unaffected.
+ * </p>
+ */
+public class Sampler {
+
+    /**
+     * The sampling modes.
+     */
+    public enum Mode {
+        ALL, FIXED, RATELIMITED, ADAPTIVE;
+
+        /**
+         * Returns the mode with the given name (case-insensitive), or `ALL` if the name is null, empty or unknown.
+         *
+         * @param name The name of the mode (all, fixed, ratelimited or adaptive).
+         * @return The matching mode.
+         */
+        public static Mode from(String name) {
+            if (name == null || name.trim().isEmpty()) {
+                return ALL;
+            }
+
+            try {
+                return valueOf(name.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                System.err.println("Automon: Unknown sampling mode '" + name + "', so every call will be monitored. Valid values: all, fixed, ratelimited, adaptive");
+                return ALL;
+            }
+        }
+    }
+
+    /**
+     * Default probability used by `fixed` mode.
+     */
+    public static final double DEFAULT_RATE = 0.01;
+
+    /**
+     * Default number of samples per second per join point used by `ratelimited` and `adaptive` mode.
+     */
+    public static final int DEFAULT_SAMPLES_PER_SECOND = 100;
+
+    /**
+     * Monitors every call.
+     */
+    public static final Sampler ALL = new Sampler(Mode.ALL, DEFAULT_RATE, DEFAULT_SAMPLES_PER_SECOND);
+
+    private static final long WINDOW_NANOS = 1_000_000_000L;
+
+    private final Mode mode;
+    private final double rate;
+    private final int samplesPerSecond;
+    private final LongSupplier nanoClock;
+
+    /**
+     * Sampling state for each join point. Not used in `all` mode.
+     */
+    private final Map<JoinPoint.StaticPart, JoinPointSamples> joinPoints = new ConcurrentHashMap<>();
+
+    /**
+     * Constructs a sampler.
+     *
+     * @param mode             The sampling mode.
+     * @param rate             The probability a call is monitored in `fixed` mode (0.0 to 1.0).
+     * @param samplesPerSecond The maximum number of calls per second per join point monitored in `ratelimited` and
+     *                         `adaptive` mode.
+     */
+    public Sampler(Mode mode, double rate, int samplesPerSecond) {
+        this(mode, rate, samplesPerSecond, () -> AutomonClock.get().nanoTime());
+    }
+
+    /**
+     * Constructs a sampler using the given clock. This method is primarily intended for testing purposes.
+     */
+    Sampler(Mode mode, double rate, int samplesPerSecond, LongSupplier nanoClock) {
+        this.mode = mode;
+        this.rate = Math.max(0.0, Math.min(1.0, rate));
+        this.samplesPerSecond = Math.max(0, samplesPerSecond);
+        this.nanoClock = nanoClock;
+    }
+
+    /**
+     * Returns true if this call to the join point should be monitored.
+     *
+     * @param jp The join point being called.
+     * @return true if the call should be monitored.
+     */
+    public boolean sample(JoinPoint.StaticPart jp) {
+        if (mode == Mode.ALL) {
+            return true;
+        }
+
+        JoinPointSamples samples = joinPoints.get(jp);
+        if (samples == null) {
+            samples = joinPoints.computeIfAbsent(jp, key -> new JoinPointSamples(nanoClock.getAsLong()));
+        }
+
+        return samples.sample();
+    }
+
+    /**
+     * @return The sampling mode.
+     */
+    public Mode getMode() {
+        return mode;
+    }
+
+    /**
+     * @return The probability a call is monitored in `fixed` mode.
+     */
+    public double getRate() {
+        return rate;
+    }
+
+    /**
+     * @return The maximum number of calls per second per join point monitored in `ratelimited` and `adaptive` mode.
+     */
+    public int getSamplesPerSecond() {
+        return samplesPerSecond;
+    }
+
+    /**
+     * Returns the fraction of calls that were monitored for each join point that has been called, keyed by the join
+     * point label. Empty in `all` mode as every call is monitored.
+     *
+     * @return The effective sample rate (0.0 to 1.0) of each join point.
+     */
+    public Map<String, Double> getEffectiveSampleRates() {
+        Map<String, Double> rates = new TreeMap<>();
+        joinPoints.forEach((jp, samples) -> rates.put(Utils.getLabel(jp), samples.getEffectiveRate()));
+        return rates;
+    }
+
+    /**
+     * Returns the effective sample rate of the join point, or 1.0 if it hasn't been called.
+     *
+     * @param jp The join point.
+     * @return The fraction of calls to the join point that were monitored.
+     */
+    public double getEffectiveSampleRate(JoinPoint.StaticPart jp) {
+        JoinPointSamples samples = joinPoints.get(jp);
+        return samples == null ? 1.0 : samples.getEffectiveRate();
+    }
+
+    @Override
+    public String toString() {
+        return "mode=" + mode.name().toLowerCase() + ", rate=" + rate + ", samplesPerSecond=" + samplesPerSecond;
+    }
+
+    /**
+     * The sampling state of one join point.
+     */
+    private final class JoinPointSamples {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder sampled = new LongAdder();
+
+        /**
+         * Start of the current one second window.
+         */
+        private final AtomicLong windowStart;
+        /**
+         * Calls in the current window (used to calculate the adaptive probability).
+         */
+        private final LongAdder windowCalls = new LongAdder();
+        /**
+         * Sampled calls in the current window.
+         */
+        private final AtomicInteger windowSampled = new AtomicInteger();
+        /**
+         * Probability a call is monitored in `adaptive` mode. Every call is monitored until the call rate is known.
+         */
+        private volatile double probability = 1.0;
+
+        private JoinPointSamples(long now) {
+            windowStart = new AtomicLong(now);
+        }
+
+        private boolean sample() {
+            calls.increment();
+            boolean sample = switch (mode) {
+                case FIXED -> ThreadLocalRandom.current().nextDouble() < rate;
+                case RATELIMITED -> {
+                    rollWindow();
+                    yield windowSampled.get() < samplesPerSecond && windowSampled.incrementAndGet() <= samplesPerSecond;
+                }
+                case ADAPTIVE -> {
+                    rollWindow();
+                    windowCalls.increment();
+                    yield ThreadLocalRandom.current().nextDouble() < probability &&
+                            windowSampled.get() < samplesPerSecond && windowSampled.incrementAndGet() <= samplesPerSecond;
+                }
+                default -> true;
+            };
+
+            if (sample) {
+                sampled.increment();
+            }
+            return sample;
+        }
+
+        /**
+         * Starts a new window if the current one is over. Only the thread that wins the race recalculates the probability.
+         */
+        private void rollWindow() {
+            long start = windowStart.get();
+            long now = nanoClock.getAsLong();
+            long elapsed = now - start;
+            if (elapsed < WINDOW_NANOS || !windowStart.compareAndSet(start, now)) {
+                return;
+            }
+
+            long callsInWindow = windowCalls.sumThenReset();
+            windowSampled.set(0);
+            if (mode == Mode.ADAPTIVE) {
+                double callsPerSecond = callsInWindow * ((double) WINDOW_NANOS / elapsed);
+                probability = callsPerSecond <= samplesPerSecond ? 1.0 : samplesPerSecond / callsPerSecond;
+            }
+        }
+
+        private double getEffectiveRate() {
+            long total = calls.sum();
+            return total == 0 ? 1.0 : (double) sampled.sum() / total;
+        }
+    }
+}
@@ -10,6 +10,9 @@ import org.slf4j.LoggerFactory;
  * Base class for aspects that manage contextual data in the SLF4J MDC (Mapped Diagnostic Context) and NDC (Nested Diagnostic Context).
  * It provides basic enable/disable functionality and JMX registration for dynamic configuration. This class only
  * writes to the context and does not log/trace the information.
+ *
+ * <p>Where the context is kept (the MDC/NDC, the structured `TraceContext` or the linked `ContextChain`) is selected
+ * at startup with `org.automon.tracing.context` (see {@link org.automon.utils.LogTracingHelper.ContextMode}).</p>
  */
 public class BaseContextAspect implements EnableMXBean {
 
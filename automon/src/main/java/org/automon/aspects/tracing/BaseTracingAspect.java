@@ -1,10 +1,20 @@
 package org.automon.aspects.tracing;
 
+import org.aspectj.lang.JoinPoint;
 import org.automon.jmx.TracingMXBean;
+import org.automon.utils.AsyncTraceWriter;
+import org.automon.utils.AutomonPropertiesLoader;
+import org.automon.utils.JoinPointControl;
 import org.automon.utils.LogTracingHelper;
 import org.automon.utils.Utils;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.slf4j.event.Level;
+
+import java.util.HashMap;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Abstract base aspect for tracing using AspectJ.
@@ -17,6 +27,21 @@ import org.slf4j.LoggerFactory;
  * </ul>
  *
  * <p>Subclasses need to implement the `select()` pointcut to define the specific methods or classes to trace.</p>
+ *
+ * <p>**Slow Calls Only:** When a slow call threshold is set (`&lt;aspect class&gt;.slowThresholdMs` or
+ * `org.automon.tracing.slowThresholdMs` in `automon.properties`, or {@link #setSlowThresholdMs(double)}) the 'BEFORE'
+ * and 'AFTER' messages aren't logged. Instead, a single 'SLOW' message with the full context is logged (at WARN) when
+ * a call takes at least the threshold, and the 'AFTER' message of a failed call is always logged. The context is still
+ * added on entry so logging done by the traced code has it. Thresholds can also be set for individual join points
+ * (see {@link #setJoinPointSlowThresholdMs(String, double)}), and the messages of individual join points can be turned
+ * off or logged in full at runtime via JMX (see {@link JoinPointControl}).</p>
+ *
+ * <p>**Asynchronous Logging:** When `org.automon.tracing.async=true` (or {@link #enableAsyncLogging(boolean)}) the
+ * messages are queued with a copy of the context and logged by the {@link AsyncTraceWriter} thread, so the logging
+ * backend's latency isn't added to the traced call.</p>
+ *
+ * <p>The context is written through {@link org.automon.utils.LogTracingHelper}, whose backend (the MDC/NDC, the
+ * structured `TraceContext` or the linked `ContextChain`) is selected at startup with `org.automon.tracing.context`.</p>
  */
 public abstract class BaseTracingAspect implements TracingMXBean {
 
@@ -28,6 +53,14 @@ public abstract class BaseTracingAspect implements TracingMXBean {
      * Constant indicating the "AFTER" phase in tracing.
      */
     protected static final String AFTER = "AFTER";
+    /**
+     * Constant indicating a call that took at least the slow call threshold.
+     */
+    protected static final String SLOW = "SLOW";
+    /**
+     * Marks a join point with no threshold of its own in {@link #resolvedSlowThresholdsNs}.
+     */
+    private static final long NO_JOIN_POINT_THRESHOLD = Long.MIN_VALUE;
     /**
      * Logger instance for the aspect.
      */
@@ -48,6 +81,23 @@ public abstract class BaseTracingAspect implements TracingMXBean {
      * The purpose associated with this JMX registration.
      */
     private String purpose = "trace";
+    /**
+     * The slow call threshold in nanoseconds. Negative logs every call.
+     */
+    private volatile long slowThresholdNs = -1;
+    /**
+     * Writes the messages from a background thread. Null if they are logged on the traced thread.
+     */
+    private volatile AsyncTraceWriter asyncTraceWriter;
+    /**
+     * Thresholds for individual join points. Replaced (never modified) when one changes.
+     */
+    private volatile JoinPointSlowThresholds joinPointSlowThresholds = JoinPointSlowThresholds.NONE;
+    /**
+     * The threshold of each join point seen, so the signature is only created once per join point. An entry resolved
+     * from an earlier generation of {@link #joinPointSlowThresholds} is resolved again.
+     */
+    private final Map<JoinPoint.StaticPart, ResolvedSlowThreshold> resolvedSlowThresholdsNs = new ConcurrentHashMap<>();
 
     /**
      * Initializes the aspect with the given purpose, enabled state, and logging enabled state.
@@ -61,10 +111,13 @@ public abstract class BaseTracingAspect implements TracingMXBean {
         setPurpose(purpose);
         enable(enable);
         enableLogging(enableLogging);
+        setSlowThresholdMs(Utils.getSlowThresholdMs(getClass().getName()));
+        enableAsyncLogging("true".equalsIgnoreCase(Utils.AUTOMON_PROPERTIES.getProperties().
+                getProperty(AutomonPropertiesLoader.TRACING_ASYNC, "false").trim()));
         registerJmxController();
 
-        LOGGER.info("Aspect configuration and JMX registration - AspectPurpose: {}, isEnabled: {}, isLoggingEnabled: {}",
-                purpose, isEnabled(), isLoggingEnabled());
+        LOGGER.info("Aspect configuration and JMX registration - AspectPurpose: {}, isEnabled: {}, isLoggingEnabled: {}, slowThresholdMs: {}",
+                purpose, isEnabled(), isLoggingEnabled(), getSlowThresholdMs());
     }
 
     /**
@@ -79,26 +132,194 @@ public abstract class BaseTracingAspect implements TracingMXBean {
         try (helper) { // Ensure cleanup of NDC/MDC even if an exception occurs
             helper.withException(throwable.getClass().getCanonicalName());
             if (isLoggingEnabled()) {
-                LOGGER.error(AFTER, throwable); // Log the 'AFTER' message with the exception
+                log(Level.ERROR, AFTER, throwable); // Log the 'AFTER' message with the exception
             }
         }
     }
 
     /**
-     * Logs a "BEFORE" message using the associated logger, only if logging is enabled.
+     * Logs a "BEFORE" message using the associated logger, only if logging is enabled. The slow call threshold isn't
+     * checked (see {@link #logBefore(JoinPoint.StaticPart)}).
      */
     protected void logBefore() {
         if (isLoggingEnabled()) {
-            LOGGER.info(BEFORE);
+            log(Level.INFO, BEFORE, null);
         }
     }
 
     /**
-     * Logs an "AFTER" message using the associated logger, only if logging is enabled.
+     * Logs an "AFTER" message using the associated logger, only if logging is enabled. The slow call threshold isn't
+     * checked (see {@link #logAfter(JoinPoint.StaticPart, long)}).
      */
     protected void logAfter() {
         if (isLoggingEnabled()) {
-            LOGGER.info(AFTER);
+            log(Level.INFO, AFTER, null);
+        }
+    }
+
+    /**
+     * Logs a "BEFORE" message if logging is enabled and the join point isn't only logged when slow.
+     *
+     * @param jp The join point being entered.
+     */
+    protected void logBefore(JoinPoint.StaticPart jp) {
+        if (isLoggingEnabled()) {
+            JoinPointControl.TraceLevel traceLevel = JoinPointControl.getInstance().getTraceLevel(jp);
+            if (traceLevel == JoinPointControl.TraceLevel.ALL ||
+                    (traceLevel == JoinPointControl.TraceLevel.DEFAULT && getSlowThresholdNs(jp) < 0)) {
+                log(Level.INFO, BEFORE, null);
+            }
+        }
+    }
+
+    /**
+     * Logs an "AFTER" message if logging is enabled. If the join point has a slow call threshold a "SLOW" message is
+     * logged instead, and only if the call took at least the threshold.
+     *
+     * @param jp              The join point that completed.
+     * @param executionTimeNs The execution time in nanoseconds.
+     */
+    protected void logAfter(JoinPoint.StaticPart jp, long executionTimeNs) {
+        if (isLoggingEnabled()) {
+            JoinPointControl.TraceLevel traceLevel = JoinPointControl.getInstance().getTraceLevel(jp);
+            if (traceLevel != JoinPointControl.TraceLevel.DEFAULT) {
+                if (traceLevel == JoinPointControl.TraceLevel.ALL) {
+                    log(Level.INFO, AFTER, null);
+                }
+                return;
+            }
+            long thresholdNs = getSlowThresholdNs(jp);
+            if (thresholdNs < 0) {
+                log(Level.INFO, AFTER, null);
+            } else if (executionTimeNs >= thresholdNs) {
+                log(Level.WARN, SLOW, null);
+            }
+        }
+    }
+
+    /**
+     * Logs the message on this thread, or queues it with the context for the {@link AsyncTraceWriter} if asynchronous
+     * logging is enabled.
+     *
+     * @param level     INFO, WARN or ERROR.
+     * @param message   The message.
+     * @param throwable The exception to log (may be null).
+     */
+    protected void log(Level level, String message, Throwable throwable) {
+        AsyncTraceWriter writer = asyncTraceWriter;
+        if (writer != null && writer.offer(LOGGER, level, message, throwable)) {
+            return;
+        }
+        switch (level) {
+            case ERROR -> LOGGER.error(message, throwable);
+            case WARN -> LOGGER.warn(message, throwable);
+            default -> LOGGER.info(message, throwable);
+        }
+    }
+
+    /**
+     * Returns the slow call threshold of the join point: its own if one was set, otherwise the aspect's.
+     *
+     * @param jp The join point.
+     * @return The threshold in nanoseconds. Negative if every call is logged.
+     */
+    protected long getSlowThresholdNs(JoinPoint.StaticPart jp) {
+        JoinPointSlowThresholds thresholds = joinPointSlowThresholds;
+        if (thresholds.bySignature.isEmpty()) {
+            return slowThresholdNs;
+        }
+        ResolvedSlowThreshold resolved = resolvedSlowThresholdsNs.get(jp);
+        if (resolved == null || resolved.generation != thresholds.generation) {
+            // a racing put of an older generation is resolved again by the next call
+            resolved = new ResolvedSlowThreshold(thresholds.generation,
+                    thresholds.bySignature.getOrDefault(jp.getSignature().toShortString(), NO_JOIN_POINT_THRESHOLD));
+            resolvedSlowThresholdsNs.put(jp, resolved);
+        }
+        return resolved.thresholdNs == NO_JOIN_POINT_THRESHOLD ? slowThresholdNs : resolved.thresholdNs;
+    }
+
+    private static long toNanos(double milliseconds) {
+        return milliseconds < 0 ? -1 : (long) (milliseconds * 1_000_000);
+    }
+
+    private static double toMillis(long nanoseconds) {
+        return nanoseconds < 0 ? -1 : nanoseconds / 1_000_000.0;
+    }
+
+    @Override
+    public void enableAsyncLogging(boolean enabled) {
+        asyncTraceWriter = enabled ? AsyncTraceWriter.getInstance() : null;
+    }
+
+    @Override
+    public boolean isAsyncLoggingEnabled() {
+        return asyncTraceWriter != null;
+    }
+
+    @Override
+    public void setSlowThresholdMs(double thresholdMs) {
+        slowThresholdNs = toNanos(thresholdMs);
+    }
+
+    @Override
+    public double getSlowThresholdMs() {
+        return toMillis(slowThresholdNs);
+    }
+
+    @Override
+    public synchronized void setJoinPointSlowThresholdMs(String signature, double thresholdMs) {
+        Map<String, Long> bySignature = new HashMap<>(joinPointSlowThresholds.bySignature);
+        bySignature.put(signature, toNanos(thresholdMs));
+        joinPointSlowThresholds = joinPointSlowThresholds.next(bySignature);
+    }
+
+    @Override
+    public synchronized void removeJoinPointSlowThreshold(String signature) {
+        Map<String, Long> bySignature = new HashMap<>(joinPointSlowThresholds.bySignature);
+        bySignature.remove(signature);
+        joinPointSlowThresholds = joinPointSlowThresholds.next(bySignature);
+        if (bySignature.isEmpty()) {
+            resolvedSlowThresholdsNs.clear(); // not read again until a threshold is set, which starts a new generation
+        }
+    }
+
+    @Override
+    public Map<String, Double> getJoinPointSlowThresholdsMs() {
+        Map<String, Double> thresholds = new TreeMap<>();
+        joinPointSlowThresholds.bySignature.forEach((signature, thresholdNs) -> thresholds.put(signature, toMillis(thresholdNs)));
+        return thresholds;
+    }
+
+    /**
+     * The join point thresholds in nanoseconds keyed by short signature (as in the NDC), and a generation that is
+     * incremented each time they change.
+     */
+    private static final class JoinPointSlowThresholds {
+        private static final JoinPointSlowThresholds NONE = new JoinPointSlowThresholds(Map.of(), 0);
+
+        private final Map<String, Long> bySignature;
+        private final long generation;
+
+        private JoinPointSlowThresholds(Map<String, Long> bySignature, long generation) {
+            this.bySignature = bySignature;
+            this.generation = generation;
+        }
+
+        private JoinPointSlowThresholds next(Map<String, Long> bySignature) {
+            return new JoinPointSlowThresholds(Map.copyOf(bySignature), generation + 1);
+        }
+    }
+
+    /**
+     * The threshold of a join point and the generation of the thresholds it was resolved from.
+     */
+    private static final class ResolvedSlowThreshold {
+        private final long generation;
+        private final long thresholdNs;
+
+        private ResolvedSlowThreshold(long generation, long thresholdNs) {
+            this.generation = generation;
+            this.thresholdNs = thresholdNs;
         }
     }
 
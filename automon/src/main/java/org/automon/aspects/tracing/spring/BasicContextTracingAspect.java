@@ -8,6 +8,7 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.automon.aspects.tracing.BaseTracingAspect;
 import org.automon.jmx.TracingMXBean;
+import org.automon.utils.AutomonClock;
 import org.automon.utils.Utils;
 
 /**
@@ -103,15 +104,16 @@ public abstract class BasicContextTracingAspect extends BaseTracingAspect {
             // Note: helper.withBasicContext(..) is not called directly as the annotation style aspects don't have
             // thisEnclosingJoinPointStaticPart, so the call that needs this as an argument is not called below.
             // Other than that, the following is the same as helper.withBasicContext(..).
-            helper.withKind(thisJoinPointStaticPart).
-                    withSignature(thisJoinPointStaticPart);
-            logBefore();
+            helper.withSignature(thisJoinPointStaticPart).
+                    withKind(thisJoinPointStaticPart);
+            logBefore(thisJoinPointStaticPart);
 
-            long startTime = System.currentTimeMillis();
+            long startTime = AutomonClock.get().nanoTime();
             Object returnValue = joinPoint.proceed();
-            helper.withExecutionTime(System.currentTimeMillis() - startTime);
+            long executionTimeNs = AutomonClock.get().nanoTime() - startTime;
+            helper.withExecutionTimeNs(executionTimeNs);
 
-            logAfter();
+            logAfter(thisJoinPointStaticPart, executionTimeNs);
             helper.removeBasicContext();
 
             return returnValue;
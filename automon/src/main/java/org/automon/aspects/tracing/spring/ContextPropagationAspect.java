@@ -0,0 +1,86 @@
+package org.automon.aspects.tracing.spring;
+
+import org.aspectj.lang.ProceedingJoinPoint;
+import org.aspectj.lang.annotation.Around;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.aspectj.lang.reflect.CodeSignature;
+import org.automon.aspects.tracing.BaseContextAspect;
+import org.automon.utils.ContextSnapshot;
+import org.automon.utils.Utils;
+
+/**
+ * <p>Aspect that carries the Automon context (the request id and the traced signatures) over to the tasks handed to
+ * executors, so logging done by the task has the same context as the code that submitted it. This works for both
+ * Spring and non-Spring applications.</p>
+ *
+ * <p>The `Runnable`, `Callable`, `Supplier`, `Function`, `Consumer` (...) arguments of the calls selected by
+ * {@link #select()} are wrapped so they run with a {@link ContextSnapshot} of the calling thread. The snapshot only
+ * holds the Automon context, not the whole MDC, and nothing is wrapped when the calling thread has no context.</p>
+ *
+ * <p>Executors can also be wrapped without weaving using {@link ContextSnapshot#wrap(java.util.concurrent.ExecutorService)}.
+ * There is no native AspectJ version of this aspect as native advice can't replace arguments generically.</p>
+ *
+ * <p>This aspect can be dynamically enabled or disabled at runtime using the {@link org.automon.jmx.EnableMXBean}.</p>
+ */
+@Aspect // Indicates that this class is a Spring AOP aspect
+public abstract class ContextPropagationAspect extends BaseContextAspect {
+
+    /**
+     * The purpose of this aspect for JMX registration (default: "context_propagation").
+     */
+    static final String PURPOSE = "context_propagation";
+
+    /**
+     * Constructs a new `ContextPropagationAspect`. It checks the `automon.properties` file to determine if the aspect
+     * should be enabled. If the property is not found, it defaults to enabled.
+     */
+    public ContextPropagationAspect() {
+        initialize(PURPOSE, Utils.shouldEnable(getClass().getName()));
+    }
+
+    /**
+     * Constructs a new `ContextPropagationAspect` and sets the initial enabled state.
+     *
+     * @param enable The initial enable state for the aspect.
+     */
+    public ContextPropagationAspect(boolean enable) {
+        initialize(PURPOSE, enable);
+    }
+
+    /**
+     * Abstract pointcut that defines the calls whose task arguments should run with the caller's context.
+     * <p>
+     * **Examples:**
+     * </p>
+     *
+     * <pre>
+     * &#64;Pointcut("org.automon.pointcuts.Jdk.executors() &amp;&amp; within(com.example..*)")
+     * </pre>
+     *
+     * <pre>
+     * &#64;Pointcut("execution(* org.springframework.core.task.TaskExecutor+.*(..))")
+     * </pre>
+     */
+    @Pointcut
+    public abstract void select();
+
+    /**
+     * Around advice: proceeds with the task arguments wrapped so they run with the calling thread's context.
+     *
+     * @param joinPoint The call that hands over the tasks.
+     * @return The result of the call.
+     * @throws Throwable If the call throws an exception.
+     */
+    @Around("select()")
+    public Object aroundAdvice(ProceedingJoinPoint joinPoint) throws Throwable {
+        if (isEnabled() && joinPoint.getSignature() instanceof CodeSignature signature) {
+            Object[] args = joinPoint.getArgs();
+            Object[] wrapped = ContextSnapshot.capture().wrapArguments(signature.getParameterTypes(), args);
+            if (wrapped != args) {
+                return joinPoint.proceed(wrapped);
+            }
+        }
+        return joinPoint.proceed();
+    }
+}
@@ -79,9 +79,9 @@ public abstract class FullContextDataAspect extends BaseContextAspect {
     public void beforeAdvice(JoinPoint joinPoint) {
         if (isEnabled()) {
             JoinPoint.StaticPart thisJoinPointStaticPart = joinPoint.getStaticPart();
-            helper.withKind(thisJoinPointStaticPart).
+            helper.withSignature(thisJoinPointStaticPart).
+                    withKind(thisJoinPointStaticPart).
                     withParameters(joinPoint).
-                    withSignature(thisJoinPointStaticPart).
                     withTarget(joinPoint).
                     withThis(joinPoint);
         }
@@ -8,6 +8,7 @@ import org.aspectj.lang.annotation.Aspect;
 import org.aspectj.lang.annotation.Pointcut;
 import org.automon.aspects.tracing.BaseTracingAspect;
 import org.automon.jmx.TracingMXBean;
+import org.automon.utils.AutomonClock;
 import org.automon.utils.Utils;
 
 /**
@@ -103,19 +104,23 @@ public abstract class FullContextTracingAspect extends BaseTracingAspect {
             // Note: helper.withFullContext(..) is not called directly as the annotation style aspects don't have
             // thisEnclosingJoinPointStaticPart so the call that needs this as an argument is not called below.
             // Other than that the following is the same as helper.withFullContext(..).
-            helper.withKind(thisJoinPointStaticPart).
+            helper.withSignature(thisJoinPointStaticPart).
+                    withKind(thisJoinPointStaticPart).
                     withParameters(joinPoint).
-                    withSignature(thisJoinPointStaticPart).
                     withTarget(joinPoint).
                     withThis(joinPoint);
-            logBefore();
+            logBefore(thisJoinPointStaticPart);
 
-            long startTime = System.currentTimeMillis();
+            long startTime = AutomonClock.get().nanoTime();
             Object returnValue = joinPoint.proceed();
-            helper.withExecutionTime(System.currentTimeMillis() - startTime);
-            helper.withReturnValue(objectToString(returnValue));
+            long executionTimeNs = AutomonClock.get().nanoTime() - startTime;
+            if (isLoggingEnabled()) {
+                // only the AFTER message reads these so they aren't converted to strings when it isn't logged
+                helper.withExecutionTimeNs(executionTimeNs);
+                helper.withReturnValue(returnValue);
+            }
 
-            logAfter();
+            logAfter(thisJoinPointStaticPart, executionTimeNs);
             helper.removeFullContext();
 
             return returnValue;
@@ -56,7 +56,7 @@ public abstract class RequestIdAspect extends BaseContextAspect {
 
     /**
      * Before advice: Executed before the join point defined by {@link #select()}.
-     * Adds a unique request ID to the MDC if the aspect is enabled.
+     * Adds a unique request ID (a UUID unless `org.automon.requestId.generator` is set) to the MDC if the aspect is enabled.
      */
     @Before("select()")
     public void beforeAdvice() {
@@ -0,0 +1,397 @@
+package org.automon.implementations;
+
+import org.aspectj.lang.JoinPoint;
+import org.automon.jmx.AsyncOpenMonMXBean;
+import org.automon.utils.AutomonPropertiesLoader;
+import org.automon.utils.StripedLongRingBuffer;
+import org.automon.utils.Utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>An `OpenMon` that takes the work of updating the monitoring tool's registry off the application threads.</p>
+ *
+ * <p>`start` and `stop` only time the join point (see {@link NanoOpenMonBase}). `stop` then writes a single `long`
+ * event holding the join point id, the outcome and the duration into a {@link StripedLongRingBuffer}. A background
+ * daemon thread drains the buffer in batches and passes each duration to another `OpenMon` (jamon, metrics, micrometer,
+ * ...) through {@link DurationRecorder#record(JoinPoint.StaticPart, long)}, or
+ * {@link DurationRecorder#record(JoinPoint.StaticPart, long, Throwable)} without the exception for a call that threw
+ * one. Nothing is allocated per call.</p>
+ *
+ * <p>If a thread's stripe of the buffer is full the event is either dropped (`drop`, the default) or recorded on the
+ * calling thread (`sync`), and both are counted. The counters are available via JMX ({@link AsyncOpenMonMXBean}).</p>
+ *
+ * <p>Exceptions are passed to the backing `OpenMon` on the calling thread as they are rare and need the `JoinPoint`.
+ * Note `Jamon` can't attach exception details to the time monitor of a failed call in this mode.</p>
+ *
+ * <p>To enable this class, add the following to your `automon.properties` file (the `org.automon.async.*` properties
+ * in {@link AutomonPropertiesLoader} tune the buffer):</p>
+ * <pre>
+ * org.automon=async
+ * org.automon.async.openMon=micrometer
+ * </pre>
+ */
+public class AsyncOpenMon extends NanoOpenMonBase implements AsyncOpenMonMXBean, AutoCloseable {
+
+    /**
+     * What to do with an event when the calling thread's stripe of the buffer is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Lose the event.
+         */
+        DROP,
+        /**
+         * Record the event on the calling thread.
+         */
+        SYNC;
+
+        static OverflowPolicy from(String name) {
+            if (name != null && name.trim().equalsIgnoreCase("sync")) {
+                return SYNC;
+            }
+            return DROP;
+        }
+    }
+
+    /**
+     * The purpose used for the JMX registration.
+     */
+    static final String PURPOSE = "async_openmon";
+
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+    static final int DEFAULT_BATCH_SIZE = 1024;
+
+    private static final int DURATION_BITS = 40;
+    private static final long MAX_DURATION = (1L << DURATION_BITS) - 1; // about 18 minutes
+    private static final long FAILED_BIT = 1L << DURATION_BITS;
+    private static final int ID_SHIFT = DURATION_BITS + 1;
+    private static final int MAX_ID = (1 << (Long.SIZE - ID_SHIFT)) - 1;
+    private static final long IDLE_PARK_NANOS = TimeUnit.MILLISECONDS.toNanos(1);
+
+    private static final AtomicInteger INSTANCES = new AtomicInteger();
+
+    private final OpenMon<?> openMon;
+    private final DurationRecorder recorder;
+    private final StripedLongRingBuffer buffer;
+    private final int batchSize;
+    private final String name;
+    private final Thread consumer;
+    private volatile OverflowPolicy overflowPolicy;
+    private volatile boolean running = true;
+
+    private final LongAdder buffered = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder recordedOnCallerThread = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicBoolean errorPrinted = new AtomicBoolean();
+    /**
+     * Held while draining, as the buffer is drained by the publishing thread of an event that raced with `close`.
+     */
+    private final Object drainLock = new Object();
+    // only written while holding the drain lock
+    private volatile long consumed;
+    private volatile long batches;
+
+    /**
+     * Constructs an `AsyncOpenMon` configured by the `org.automon.async.*` properties.
+     */
+    public AsyncOpenMon() {
+        this(createOpenMon(Utils.AUTOMON_PROPERTIES.getProperties().getProperty(AutomonPropertiesLoader.ASYNC_OPEN_MON)));
+    }
+
+    /**
+     * Constructs an `AsyncOpenMon` that records to the given `OpenMon`, with the buffer configured by the
+     * `org.automon.async.*` properties.
+     *
+     * @param openMon The `OpenMon` durations are recorded to. It must implement `DurationRecorder`.
+     */
+    public AsyncOpenMon(OpenMon<?> openMon) {
+        this(openMon,
+                Utils.AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.ASYNC_STRIPES, Runtime.getRuntime().availableProcessors()),
+                Utils.AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.ASYNC_BUFFER_SIZE, DEFAULT_BUFFER_SIZE),
+                Utils.AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.ASYNC_BATCH_SIZE, DEFAULT_BATCH_SIZE),
+                OverflowPolicy.from(Utils.AUTOMON_PROPERTIES.getProperties().getProperty(AutomonPropertiesLoader.ASYNC_OVERFLOW)));
+    }
+
+    /**
+     * Constructs an `AsyncOpenMon` and starts its consumer thread.
+     *
+     * @param openMon        The `OpenMon` durations are recorded to. It must implement `DurationRecorder` and not
+     *                       require the calling thread (see {@link DurationRecorder#isCallerThreadRequired()}).
+     * @param stripes        The number of buffer stripes (rounded up to a power of 2).
+     * @param bufferSize     The number of events each stripe holds (rounded up to a power of 2).
+     * @param batchSize      The maximum number of events drained from a stripe at a time.
+     * @param overflowPolicy What to do with an event when the buffer is full.
+     */
+    public AsyncOpenMon(OpenMon<?> openMon, int stripes, int bufferSize, int batchSize, OverflowPolicy overflowPolicy) {
+        if (openMon instanceof DurationRecorder durationRecorder && durationRecorder.isCallerThreadRequired()) {
+            System.err.println("Automon: AsyncOpenMon can't record to " + openMon + " as it reads the state of the" +
+                    " calling thread, which isn't available to the consumer thread. Durations will not be recorded.");
+            NullImp nullImp = new NullImp();
+            this.openMon = nullImp;
+            this.recorder = nullImp;
+        } else if (openMon instanceof DurationRecorder durationRecorder && !(openMon instanceof AsyncOpenMon)) {
+            this.openMon = openMon;
+            this.recorder = durationRecorder;
+        } else {
+            System.err.println("Automon: AsyncOpenMon can't record to " + openMon + " as it doesn't implement " +
+                    DurationRecorder.class.getName() + ". Durations will not be recorded.");
+            NullImp nullImp = new NullImp();
+            this.openMon = nullImp;
+            this.recorder = nullImp;
+        }
+        this.buffer = new StripedLongRingBuffer(stripes, bufferSize);
+        this.batchSize = Math.max(1, batchSize);
+        this.overflowPolicy = overflowPolicy;
+        this.name = "AsyncOpenMon-" + INSTANCES.incrementAndGet();
+
+        consumer = new Thread(this::consume, "automon-" + name);
+        consumer.setDaemon(true);
+        consumer.start();
+        Utils.registerWithJmx(PURPOSE, name, this);
+    }
+
+    private static OpenMon<?> createOpenMon(String openMonKey) {
+        OpenMonFactory factory = OpenMonFactory.getSharedInstance(AsyncOpenMon.class.getClassLoader());
+        if (openMonKey == null || openMonKey.trim().isEmpty()) {
+            return factory.getFirstInstance();
+        }
+        if (Utils.hasPackageName(openMonKey)) {
+            factory.add(openMonKey);
+        }
+        return factory.getInstance(openMonKey);
+    }
+
+    /**
+     * Buffers the execution time so it is recorded by the consumer thread.
+     *
+     * @param jp              The static part of the JoinPoint representing the intercepted method.
+     * @param executionTimeNs The execution time in nanoseconds.
+     */
+    @Override
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs) {
+        publish(jp, executionTimeNs, false);
+    }
+
+    /**
+     * Buffers the execution time of a call that threw an exception.
+     *
+     * @param jp        The join point returned by `start`.
+     * @param throwable The exception that was thrown.
+     */
+    @Override
+    public void stop(JoinPoint.StaticPart jp, Throwable throwable) {
+        publish(jp, NanoTimer.get().stop(), true);
+    }
+
+    /**
+     * Buffers the execution time of a call that threw an exception. Only the outcome is buffered, so the backing
+     * `OpenMon` records it without the exception.
+     *
+     * @param jp              The static part of the JoinPoint representing the intercepted method.
+     * @param executionTimeNs The execution time in nanoseconds.
+     * @param throwable       The exception that was thrown (not buffered).
+     */
+    @Override
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs, Throwable throwable) {
+        publish(jp, executionTimeNs, true);
+    }
+
+    /**
+     * Passes the exception to the backing `OpenMon` on the calling thread.
+     *
+     * @param jp        The `JoinPoint` where the exception was thrown.
+     * @param throwable The exception that was thrown.
+     */
+    @Override
+    public void exception(JoinPoint jp, Throwable throwable) {
+        openMon.exception(jp, throwable);
+    }
+
+    private void publish(JoinPoint.StaticPart jp, long executionTimeNs, boolean failedCall) {
+        int id = Utils.JOIN_POINTS.getId(jp);
+        if (id <= MAX_ID && running && buffer.offer(encode(id, executionTimeNs, failedCall))) {
+            buffered.increment();
+            if (!running) {
+                // closed after running was read, so the consumer's last drain may have missed the event
+                drainAll();
+            }
+        } else if (overflowPolicy == OverflowPolicy.SYNC || id > MAX_ID) {
+            recordedOnCallerThread.increment();
+            record(jp, executionTimeNs, failedCall);
+        } else {
+            dropped.increment();
+        }
+    }
+
+    /**
+     * Packs an event into a long: the join point id in the high 23 bits, then the failed flag, and the duration in
+     * nanoseconds in the low 40 bits (capped at about 18 minutes).
+     */
+    static long encode(int id, long executionTimeNs, boolean failedCall) {
+        long duration = Math.min(Math.max(executionTimeNs, 0), MAX_DURATION);
+        return ((long) id << ID_SHIFT) | (failedCall ? FAILED_BIT : 0) | duration;
+    }
+
+    static int decodeId(long event) {
+        return (int) (event >>> ID_SHIFT);
+    }
+
+    static long decodeDuration(long event) {
+        return event & MAX_DURATION;
+    }
+
+    static boolean decodeFailed(long event) {
+        return (event & FAILED_BIT) != 0;
+    }
+
+    private void recordEvent(long event) {
+        consumed++;
+        JoinPoint.StaticPart jp = Utils.JOIN_POINTS.get(decodeId(event));
+        record(jp, decodeDuration(event), decodeFailed(event));
+    }
+
+    private void record(JoinPoint.StaticPart jp, long executionTimeNs, boolean failedCall) {
+        try {
+            if (failedCall) {
+                failed.increment();
+                recorder.record(jp, executionTimeNs, null);
+            } else {
+                recorder.record(jp, executionTimeNs);
+            }
+        } catch (RuntimeException e) {
+            // print the first one only so a broken OpenMon can't flood the console
+            errors.increment();
+            if (errorPrinted.compareAndSet(false, true)) {
+                e.printStackTrace();
+            }
+        }
+    }
+
+    private void consume() {
+        while (running) {
+            if (drain() == 0) {
+                LockSupport.parkNanos(IDLE_PARK_NANOS);
+            }
+        }
+        drainAll(); // record anything buffered before close
+    }
+
+    private int drain() {
+        synchronized (drainLock) {
+            int drained = buffer.drain(this::recordEvent, batchSize);
+            if (drained > 0) {
+                batches++;
+            }
+            return drained;
+        }
+    }
+
+    private void drainAll() {
+        while (drain() > 0) {
+            // until the buffer is empty
+        }
+    }
+
+    /**
+     * Records any buffered events and stops the consumer thread. An event published while it closes is recorded by
+     * the publishing thread, and events published afterwards are handled by the overflow policy.
+     */
+    @Override
+    public void close() {
+        running = false;
+        LockSupport.unpark(consumer);
+        try {
+            consumer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        drainAll(); // in case the consumer didn't stop in time
+
+        try {
+            Utils.unregisterWithJmx(PURPOSE, name);
+        } catch (Exception e) {
+            // non-propagation of this exception is by design
+        }
+    }
+
+    /**
+     * Returns the `OpenMon` events are recorded to.
+     *
+     * @return The backing `OpenMon`.
+     */
+    public OpenMon<?> getOpenMon() {
+        return openMon;
+    }
+
+    @Override
+    public String getOpenMonString() {
+        return openMon.toString();
+    }
+
+    @Override
+    public String getOverflowPolicy() {
+        return overflowPolicy.name().toLowerCase();
+    }
+
+    @Override
+    public void setOverflowPolicy(String overflowPolicy) {
+        this.overflowPolicy = OverflowPolicy.from(overflowPolicy);
+    }
+
+    @Override
+    public long getBufferCapacity() {
+        return buffer.capacity();
+    }
+
+    @Override
+    public long getBufferSize() {
+        return buffer.size();
+    }
+
+    @Override
+    public long getBuffered() {
+        return buffered.sum();
+    }
+
+    @Override
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public long getRecordedOnCallerThread() {
+        return recordedOnCallerThread.sum();
+    }
+
+    @Override
+    public long getConsumed() {
+        return consumed;
+    }
+
+    @Override
+    public long getBatches() {
+        return batches;
+    }
+
+    @Override
+    public long getFailed() {
+        return failed.sum();
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public String toString() {
+        return name + "(" + openMon + ")";
+    }
+}
@@ -2,6 +2,9 @@ package org.automon.implementations;
 
 /**
  * A basic timer implementation for measuring elapsed time.
+ * <p>
+ * Note a timer object is created per invocation. The built-in implementations use the allocation-free
+ * {@link NanoTimer} instead.
  */
 public class BasicTimer {
 
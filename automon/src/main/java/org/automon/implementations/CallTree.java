@@ -0,0 +1,447 @@
+package org.automon.implementations;
+
+import org.aspectj.lang.JoinPoint;
+import org.automon.jmx.CallEdgeSnapshot;
+import org.automon.jmx.CallTreeMXBean;
+import org.automon.utils.AutomonClock;
+import org.automon.utils.AutomonPropertiesLoader;
+import org.automon.utils.LogTracingHelper;
+import org.automon.utils.Utils;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.Deque;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>An `OpenMon` implementation that profiles where the time of a request goes. Each thread builds the call tree of
+ * the monitored join points it executes: a node per distinct call path with its number of calls, inclusive time
+ * (including the monitored join points it called), exclusive time (excluding them) and number of exceptions. Calls to
+ * the same join point from the same caller, i.e. loops, share a node.</p>
+ *
+ * <p>When the outermost call (the request) returns, its tree is merged into a call graph shared by every `CallTree`
+ * instance, whose edges (caller to callee) aggregate all requests. If the request took longer than
+ * `org.automon.calltree.slowThresholdMs` (default 1000, negative to disable) its tree is logged at WARN level with the
+ * request id and kept with the most recent slow trees. The graph and the slow trees are available from
+ * {@link #getGraph()} and via JMX ({@link CallTreeMXBean}, `org.automon:type=aspect,purpose=calltree,name=CallTree`).</p>
+ *
+ * <p>Memory is bounded: a request's tree holds at most `org.automon.calltree.maxNodes` (default 1000) nodes, further
+ * new call paths are counted as truncated and their time stays in the caller's exclusive time, and the graph holds at
+ * most `org.automon.calltree.maxEdges` (default 10000) edges. `org.automon.calltree.slowTrees` (default 10) is the
+ * number of slow trees kept.</p>
+ *
+ * <p>To enable this class for monitoring, add the following line to your `automon.properties` file (or extend
+ * `CallTreeAspect`):</p>
+ *
+ * <pre>
+ * org.automon=calltree
+ * </pre>
+ *
+ * <p>Note only the monitored join points are in the tree, and a call the sampler skips isn't, so its time is part of
+ * its caller's exclusive time.</p>
+ */
+public class CallTree extends OpenMonBase<CallTree.Node> {
+
+    static final int DEFAULT_MAX_NODES = 1000;
+    static final int DEFAULT_MAX_EDGES = 10_000;
+    static final double DEFAULT_SLOW_THRESHOLD_MS = 1000;
+    static final int DEFAULT_SLOW_TREES = 10;
+
+    private static final String PURPOSE = "calltree";
+    private static final Logger LOGGER = LoggerFactory.getLogger(CallTree.class);
+
+    /**
+     * Returned by `start` for a call that doesn't fit in the request's tree.
+     */
+    private static final Node TRUNCATED = new Node(null, null);
+
+    private static final Graph GRAPH = new Graph(
+            Utils.AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.CALL_TREE_MAX_NODES, DEFAULT_MAX_NODES),
+            Utils.AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.CALL_TREE_MAX_EDGES, DEFAULT_MAX_EDGES),
+            Utils.AUTOMON_PROPERTIES.getDouble(AutomonPropertiesLoader.CALL_TREE_SLOW_THRESHOLD_MS, DEFAULT_SLOW_THRESHOLD_MS),
+            Utils.AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.CALL_TREE_SLOW_TREES, DEFAULT_SLOW_TREES));
+
+    private static final ThreadLocal<Tree> TREES = ThreadLocal.withInitial(Tree::new);
+
+    static {
+        Utils.registerWithJmx(PURPOSE, "CallTree", GRAPH);
+    }
+
+    private final Graph graph;
+
+    /**
+     * Constructs an instance that merges its trees into the shared graph.
+     */
+    public CallTree() {
+        this(GRAPH);
+    }
+
+    /**
+     * Constructs an instance that merges its trees into the given graph. This method is primarily intended for testing
+     * purposes.
+     *
+     * @param graph The graph.
+     */
+    CallTree(Graph graph) {
+        this.graph = graph;
+    }
+
+    /**
+     * Returns the graph shared by every `CallTree`. This is also the object registered with JMX.
+     *
+     * @return The shared graph.
+     */
+    public static Graph getGraph() {
+        return GRAPH;
+    }
+
+    /**
+     * Adds the join point to the calling thread's tree, starting a new tree if it is the outermost call.
+     *
+     * @param jp The static part of the JoinPoint representing the intercepted method.
+     * @return The join point's node, which is passed back to `stop`.
+     */
+    @Override
+    public Node start(JoinPoint.StaticPart jp) {
+        Node node = TREES.get().enter(jp, graph.maxNodes);
+        if (node == TRUNCATED) {
+            graph.truncatedCalls.increment();
+        } else {
+            node.startNs = AutomonClock.get().nanoTime();
+        }
+        return node;
+    }
+
+    /**
+     * Adds the execution time to the node. If it is the outermost call the tree is merged into the graph.
+     *
+     * @param node The node returned by `start`.
+     */
+    @Override
+    public void stop(Node node) {
+        if (node == TRUNCATED) {
+            return;
+        }
+        Tree tree = TREES.get();
+        if (tree.exit(node, AutomonClock.get().nanoTime() - node.startNs)) {
+            graph.merge(node, tree.requestId);
+            tree.requestId = null;
+        }
+    }
+
+    /**
+     * Counts the exception on the node, adds its execution time and tracks the exception.
+     *
+     * @param node      The node returned by `start`.
+     * @param throwable The exception thrown by the intercepted method.
+     */
+    @Override
+    public void stop(Node node, Throwable throwable) {
+        if (node != TRUNCATED) {
+            node.exceptions++;
+        }
+        super.stop(node, throwable);
+    }
+
+    /**
+     * The call tree of the request the thread is executing.
+     */
+    private static final class Tree {
+        private Node current;
+        private int size;
+        private String requestId;
+
+        private Node enter(JoinPoint.StaticPart jp, int maxNodes) {
+            if (current == null) {
+                size = 1;
+                requestId = MDC.get(LogTracingHelper.REQUEST_ID);
+                current = new Node(jp, null);
+                return current;
+            }
+
+            Node child = current.getChild(jp);
+            if (child == null) {
+                if (size >= maxNodes) {
+                    return TRUNCATED;
+                }
+                child = current.addChild(jp);
+                size++;
+            }
+            current = child;
+            return child;
+        }
+
+        /**
+         * @return true if the node is the root, i.e. the request is complete.
+         */
+        private boolean exit(Node node, long elapsedNs) {
+            node.calls++;
+            node.inclusiveNs += elapsedNs;
+            if (node.parent != null) {
+                node.parent.childNs += elapsedNs;
+            }
+            current = node.parent;
+            return node.parent == null;
+        }
+    }
+
+    /**
+     * A call path of a request's tree. Only accessed by the thread executing the request.
+     */
+    public static final class Node {
+        private final JoinPoint.StaticPart jp;
+        private final Node parent;
+        private Map<JoinPoint.StaticPart, Node> children;
+        private long startNs;
+        private long calls;
+        private long inclusiveNs;
+        private long childNs;
+        private long exceptions;
+
+        private Node(JoinPoint.StaticPart jp, Node parent) {
+            this.jp = jp;
+            this.parent = parent;
+        }
+
+        private Node getChild(JoinPoint.StaticPart childJp) {
+            return children == null ? null : children.get(childJp);
+        }
+
+        private Node addChild(JoinPoint.StaticPart childJp) {
+            if (children == null) {
+                children = new LinkedHashMap<>();
+            }
+            Node child = new Node(childJp, this);
+            children.put(childJp, child);
+            return child;
+        }
+
+        private Collection<Node> getChildren() {
+            return children == null ? Collections.emptyList() : children.values();
+        }
+
+        private long getExclusiveNs() {
+            return inclusiveNs - childNs;
+        }
+    }
+
+    /**
+     * The call graph aggregated from every request and the most recent slow call trees.
+     */
+    public static final class Graph implements CallTreeMXBean {
+
+        private final int maxNodes;
+        private final int maxEdges;
+        private final int maxSlowTrees;
+        private volatile long slowThresholdNs;
+        private final Map<Edge, EdgeStats> edges = new ConcurrentHashMap<>();
+        /**
+         * Most recent first. Guarded by itself.
+         */
+        private final Deque<String> slowTrees = new ArrayDeque<>();
+        private final LongAdder droppedCalls = new LongAdder();
+        private final LongAdder truncatedCalls = new LongAdder();
+        private final LongAdder requests = new LongAdder();
+
+        Graph(int maxNodes, int maxEdges, double slowThresholdMs, int maxSlowTrees) {
+            this.maxNodes = Math.max(1, maxNodes);
+            this.maxEdges = Math.max(0, maxEdges);
+            this.maxSlowTrees = Math.max(0, maxSlowTrees);
+            setSlowThresholdMs(slowThresholdMs);
+        }
+
+        /**
+         * Adds the calls of a completed request to the graph and exports its tree if it was slow.
+         */
+        private void merge(Node root, String requestId) {
+            requests.increment();
+            Deque<Node> pending = new ArrayDeque<>();
+            pending.push(root);
+            while (!pending.isEmpty()) {
+                Node node = pending.pop();
+                Edge edge = new Edge(node.parent == null ? null : node.parent.jp, node.jp);
+                EdgeStats stats = edges.get(edge);
+                if (stats == null) {
+                    if (edges.size() >= maxEdges) {
+                        droppedCalls.add(node.calls);
+                        node.getChildren().forEach(pending::push);
+                        continue;
+                    }
+                    stats = edges.computeIfAbsent(edge, key -> new EdgeStats());
+                }
+                stats.calls.add(node.calls);
+                stats.inclusiveNs.add(node.inclusiveNs);
+                stats.exclusiveNs.add(node.getExclusiveNs());
+                stats.exceptions.add(node.exceptions);
+                node.getChildren().forEach(pending::push);
+            }
+
+            long threshold = slowThresholdNs;
+            if (threshold >= 0 && root.inclusiveNs >= threshold) {
+                export(root, requestId);
+            }
+        }
+
+        private void export(Node root, String requestId) {
+            StringBuilder tree = new StringBuilder("Slow request ").append(toMs(root.inclusiveNs)).append(" ms");
+            if (requestId != null) {
+                tree.append(" (").append(LogTracingHelper.REQUEST_ID).append('=').append(requestId).append(')');
+            }
+            tree.append(':');
+            render(root, 0, tree);
+            String rendered = tree.toString();
+
+            synchronized (slowTrees) {
+                slowTrees.addFirst(rendered);
+                while (slowTrees.size() > maxSlowTrees) {
+                    slowTrees.removeLast();
+                }
+            }
+            LOGGER.warn(rendered);
+        }
+
+        private static void render(Node node, int depth, StringBuilder tree) {
+            tree.append('\n').append("  ".repeat(depth)).append(Utils.getLabel(node.jp))
+                    .append(" calls=").append(node.calls)
+                    .append(" total=").append(toMs(node.inclusiveNs)).append("ms")
+                    .append(" self=").append(toMs(node.getExclusiveNs())).append("ms");
+            if (node.exceptions > 0) {
+                tree.append(" exceptions=").append(node.exceptions);
+            }
+
+            List<Node> children = new ArrayList<>(node.getChildren());
+            children.sort(Comparator.comparingLong((Node child) -> child.inclusiveNs).reversed());
+            for (Node child : children) {
+                render(child, depth + 1, tree);
+            }
+        }
+
+        private static String toMs(long ns) {
+            return String.format("%.3f", ns / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        /**
+         * Returns the aggregated calls from one join point to another.
+         *
+         * @param caller The calling join point (null for the outermost calls of a request).
+         * @param callee The called join point.
+         * @return The snapshot, or null if there is no such edge.
+         */
+        public CallEdgeSnapshot getEdge(JoinPoint.StaticPart caller, JoinPoint.StaticPart callee) {
+            Edge edge = new Edge(caller, callee);
+            EdgeStats stats = edges.get(edge);
+            return stats == null ? null : stats.snapshot(edge);
+        }
+
+        @Override
+        public List<CallEdgeSnapshot> getEdges() {
+            List<CallEdgeSnapshot> snapshots = new ArrayList<>(edges.size());
+            edges.forEach((edge, stats) -> snapshots.add(stats.snapshot(edge)));
+            snapshots.sort(Comparator.comparingLong(CallEdgeSnapshot::getInclusiveNs).reversed());
+            return snapshots;
+        }
+
+        @Override
+        public int getSize() {
+            return edges.size();
+        }
+
+        @Override
+        public int getMaxEdges() {
+            return maxEdges;
+        }
+
+        @Override
+        public long getDroppedCalls() {
+            return droppedCalls.sum();
+        }
+
+        @Override
+        public long getTruncatedCalls() {
+            return truncatedCalls.sum();
+        }
+
+        @Override
+        public long getRequests() {
+            return requests.sum();
+        }
+
+        @Override
+        public List<String> getSlowTrees() {
+            synchronized (slowTrees) {
+                return new ArrayList<>(slowTrees);
+            }
+        }
+
+        @Override
+        public double getSlowThresholdMs() {
+            return slowThresholdNs < 0 ? -1 : slowThresholdNs / (double) TimeUnit.MILLISECONDS.toNanos(1);
+        }
+
+        @Override
+        public void setSlowThresholdMs(double slowThresholdMs) {
+            this.slowThresholdNs = slowThresholdMs < 0 ? -1 : (long) (slowThresholdMs * TimeUnit.MILLISECONDS.toNanos(1));
+        }
+
+        @Override
+        public void reset() {
+            edges.clear();
+            synchronized (slowTrees) {
+                slowTrees.clear();
+            }
+            droppedCalls.reset();
+            truncatedCalls.reset();
+            requests.reset();
+        }
+    }
+
+    /**
+     * A caller and callee pair.
+     */
+    private static final class Edge {
+        private final JoinPoint.StaticPart caller;
+        private final JoinPoint.StaticPart callee;
+
+        private Edge(JoinPoint.StaticPart caller, JoinPoint.StaticPart callee) {
+            this.caller = caller;
+            this.callee = callee;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            return o instanceof Edge edge && caller == edge.caller && callee == edge.callee;
+        }
+
+        @Override
+        public int hashCode() {
+            return 31 * Objects.hashCode(caller) + Objects.hashCode(callee);
+        }
+    }
+
+    /**
+     * The aggregated calls of an edge.
+     */
+    private static final class EdgeStats {
+        private final LongAdder calls = new LongAdder();
+        private final LongAdder inclusiveNs = new LongAdder();
+        private final LongAdder exclusiveNs = new LongAdder();
+        private final LongAdder exceptions = new LongAdder();
+
+        private CallEdgeSnapshot snapshot(Edge edge) {
+            return new CallEdgeSnapshot(edge.caller == null ? "" : Utils.getLabel(edge.caller), Utils.getLabel(edge.callee),
+                    calls.sum(), inclusiveNs.sum(), exclusiveNs.sum(), exceptions.sum());
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.automon.implementations;
+
+import org.aspectj.lang.JoinPoint;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.StringJoiner;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>An `OpenMon` that records each call to several monitoring tools, i.e. Jamon and Micrometer during a migration,
+ * with one aspect. The join point is timed once (see {@link NanoOpenMonBase}) and the execution time is passed to each
+ * `OpenMon` through {@link DurationRecorder#record(JoinPoint.StaticPart, long)}, so monitoring with N tools costs one
+ * timing plus N registry updates rather than N aspects.</p>
+ *
+ * <p>To enable it, list the `OpenMon` keys separated by commas in your `automon.properties` file:</p>
+ *
+ * <pre>
+ * org.automon=jamon,micrometer
+ * </pre>
+ *
+ * <p>A slow tool can be isolated from the application threads (and the other tools) by recording to it from the
+ * background thread of an {@link AsyncOpenMon}. `org.automon.composite.async` lists the keys to wrap (or `*` for all of
+ * them), and the buffer is configured by the `org.automon.async.*` properties:</p>
+ *
+ * <pre>
+ * org.automon.composite.async=micrometer
+ * </pre>
+ *
+ * <p>Tools that read the state of the calling thread when recording (i.e. `TraceFile`, see
+ * {@link DurationRecorder#isCallerThreadRequired()}) are never wrapped, even with `*`, and are recorded on the calling
+ * thread.</p>
+ *
+ * <p>An exception thrown by one tool is counted and doesn't stop the call being recorded to the others. Exceptions
+ * thrown by the monitored code are passed to every tool as each labels them its own way, and the execution time of a
+ * call that threw one is passed with the exception to
+ * {@link DurationRecorder#record(JoinPoint.StaticPart, long, Throwable)}, so tools that count failures or keep
+ * exception details (i.e. `Counters`, `TraceFile` and `Jamon`) see the call failed. A tool wrapped in an
+ * `AsyncOpenMon` only gets the outcome, without the exception. Only `OpenMon`s that implement
+ * {@link DurationRecorder} can be combined (all of the provided implementations except `CallTree`).</p>
+ */
+public class CompositeOpenMon extends NanoOpenMonBase implements AutoCloseable {
+
+    private final OpenMon<?>[] openMons;
+    private final DurationRecorder[] recorders;
+    private final LongAdder errors = new LongAdder();
+    private final AtomicBoolean errorPrinted = new AtomicBoolean();
+
+    /**
+     * Constructs an `OpenMon` that records to each of the given ones.
+     *
+     * @param openMons The `OpenMon`s. Those that don't implement `DurationRecorder` are ignored.
+     */
+    public CompositeOpenMon(List<? extends OpenMon<?>> openMons) {
+        List<OpenMon<?>> accepted = new ArrayList<>();
+        for (OpenMon<?> openMon : openMons) {
+            if (openMon instanceof DurationRecorder) {
+                accepted.add(openMon);
+            } else {
+                System.err.println("Automon: CompositeOpenMon can't record to " + openMon + " as it doesn't implement " +
+                        DurationRecorder.class.getName() + ", so it will be ignored.");
+            }
+        }
+        this.openMons = accepted.toArray(new OpenMon<?>[0]);
+        this.recorders = new DurationRecorder[this.openMons.length];
+        for (int i = 0; i < this.openMons.length; i++) {
+            recorders[i] = (DurationRecorder) this.openMons[i];
+        }
+    }
+
+    /**
+     * Records the execution time to each `OpenMon`.
+     *
+     * @param jp              The static part of the JoinPoint representing the intercepted method.
+     * @param executionTimeNs The execution time in nanoseconds.
+     */
+    @Override
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs) {
+        for (DurationRecorder recorder : recorders) {
+            try {
+                recorder.record(jp, executionTimeNs);
+            } catch (RuntimeException e) {
+                error(e);
+            }
+        }
+    }
+
+    /**
+     * Stops timing a call that threw an exception and records it to each `OpenMon` as a failed call.
+     *
+     * @param jp        The join point returned by `start`.
+     * @param throwable The exception that was thrown.
+     */
+    @Override
+    public void stop(JoinPoint.StaticPart jp, Throwable throwable) {
+        record(jp, NanoTimer.get().stop(), throwable);
+    }
+
+    /**
+     * Records the execution time of a call that threw an exception to each `OpenMon`.
+     *
+     * @param jp              The static part of the JoinPoint representing the intercepted method.
+     * @param executionTimeNs The execution time in nanoseconds.
+     * @param throwable       The exception that was thrown (may be null).
+     */
+    @Override
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs, Throwable throwable) {
+        if (throwable != null) {
+            put(throwable);
+        }
+        for (DurationRecorder recorder : recorders) {
+            try {
+                recorder.record(jp, executionTimeNs, throwable);
+            } catch (RuntimeException e) {
+                error(e);
+            }
+        }
+    }
+
+    /**
+     * Passes the exception to each `OpenMon`.
+     *
+     * @param jp        The `JoinPoint` where the exception was thrown.
+     * @param throwable The exception that was thrown.
+     */
+    @Override
+    public void exception(JoinPoint jp, Throwable throwable) {
+        put(throwable);
+        for (OpenMon<?> openMon : openMons) {
+            try {
+                openMon.exception(jp, throwable);
+            } catch (RuntimeException e) {
+                error(e);
+            }
+        }
+    }
+
+    private void error(RuntimeException e) {
+        // print the first one only so a broken tool can't flood the console
+        errors.increment();
+        if (errorPrinted.compareAndSet(false, true)) {
+            e.printStackTrace();
+        }
+    }
+
+    /**
+     * Returns the `OpenMon`s the calls are recorded to.
+     *
+     * @return The `OpenMon`s.
+     */
+    public List<OpenMon<?>> getOpenMons() {
+        return Collections.unmodifiableList(Arrays.asList(openMons));
+    }
+
+    /**
+     * Returns the number of exceptions thrown by the `OpenMon`s.
+     *
+     * @return The number of errors.
+     */
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    /**
+     * Closes each `OpenMon` that is `AutoCloseable`, i.e. stops the thread of an `AsyncOpenMon`.
+     */
+    @Override
+    public void close() {
+        for (OpenMon<?> openMon : openMons) {
+            if (openMon instanceof AutoCloseable closeable) {
+                try {
+                    closeable.close();
+                } catch (Exception e) {
+                    // non-propagation of this exception is by design
+                    e.printStackTrace();
+                }
+            }
+        }
+    }
+
+    @Override
+    public String toString() {
+        StringJoiner joiner = new StringJoiner(", ", "CompositeOpenMon(", ")");
+        for (OpenMon<?> openMon : openMons) {
+            joiner.add(String.valueOf(openMon));
+        }
+        return joiner.toString();
+    }
+}
@@ -0,0 +1,249 @@
+package org.automon.implementations;
+
+import org.aspectj.lang.JoinPoint;
+import org.automon.jmx.CountersMXBean;
+import org.automon.utils.Utils;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>A lightweight `OpenMon` implementation that only counts: calls to each join point, the calls that threw an
+ * exception, and the exceptions thrown of each type. It doesn't time calls.</p>
+ *
+ * <p>Every count is a `LongAdder` (striped internally so concurrent increments don't contend). The counts of a join
+ * point are found by its {@link org.automon.utils.JoinPointRegistry} id and the count of an exception type by a
+ * `ClassValue`, so counting allocates nothing and builds no labels. Labels are only built when the counts are read.
+ * Note unlike the other `OpenMon`s SQLExceptions are counted by class and not by error code and SQL state.</p>
+ *
+ * <p>The counts are shared by every `Counters` instance and are available via JMX ({@link CountersMXBean},
+ * `org.automon:type=aspect,purpose=counters,name=Counters`).</p>
+ *
+ * <p>To enable this class for monitoring, add the following line to your `automon.properties` file:</p>
+ *
+ * <pre>
+ * org.automon=counters
+ * </pre>
+ */
+public class Counters implements OpenMon<JoinPoint.StaticPart>, DurationRecorder {
+
+    private static final String PURPOSE = "counters";
+
+    private static final Registry REGISTRY = new Registry();
+
+    static {
+        Utils.registerWithJmx(PURPOSE, "Counters", REGISTRY);
+    }
+
+    /**
+     * Returns the counts of all join points and exceptions. This is also the object registered with JMX.
+     *
+     * @return The shared counts.
+     */
+    public static Registry getRegistry() {
+        return REGISTRY;
+    }
+
+    /**
+     * Returns the join point, which is the context passed to `stop`.
+     *
+     * @param jp The static part of the JoinPoint representing the intercepted method.
+     * @return The join point.
+     */
+    @Override
+    public JoinPoint.StaticPart start(JoinPoint.StaticPart jp) {
+        return jp;
+    }
+
+    /**
+     * Counts a completed call.
+     *
+     * @param jp The join point returned by `start`.
+     */
+    @Override
+    public void stop(JoinPoint.StaticPart jp) {
+        REGISTRY.getCounts(jp).invocations.increment();
+    }
+
+    /**
+     * Counts a completed call that threw an exception.
+     *
+     * @param jp        The join point returned by `start`.
+     * @param throwable The exception that was thrown.
+     */
+    @Override
+    public void stop(JoinPoint.StaticPart jp, Throwable throwable) {
+        JoinPointCounts counts = REGISTRY.getCounts(jp);
+        counts.invocations.increment();
+        counts.failures.increment();
+    }
+
+    /**
+     * Counts the exception by its type and in the total of all exceptions.
+     *
+     * @param jp        The `JoinPoint` where the exception was thrown (not used).
+     * @param throwable The thrown exception.
+     */
+    @Override
+    public void exception(JoinPoint jp, Throwable throwable) {
+        REGISTRY.exceptionCounts.get(throwable.getClass()).increment();
+        REGISTRY.allExceptions.increment();
+    }
+
+    /**
+     * Counts a call whose execution time was measured elsewhere (i.e. by `AsyncOpenMon`).
+     *
+     * @param jp              The static part of the JoinPoint representing the intercepted method.
+     * @param executionTimeNs The execution time (not used).
+     */
+    @Override
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs) {
+        stop(jp);
+    }
+
+    /**
+     * Counts a call that threw an exception whose execution time was measured elsewhere (i.e. by `CompositeOpenMon`).
+     *
+     * @param jp              The static part of the JoinPoint representing the intercepted method.
+     * @param executionTimeNs The execution time (not used).
+     * @param throwable       The exception that was thrown (not used).
+     */
+    @Override
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs, Throwable throwable) {
+        stop(jp, throwable);
+    }
+
+    /**
+     * The counts of one join point.
+     */
+    private static final class JoinPointCounts {
+        private final LongAdder invocations = new LongAdder();
+        private final LongAdder failures = new LongAdder();
+    }
+
+    /**
+     * The counts of every join point and exception type.
+     */
+    public static final class Registry implements CountersMXBean {
+
+        /**
+         * Indexed by join point id. Replaced (never modified in place after publication) when it needs to grow.
+         */
+        private volatile JoinPointCounts[] joinPointCounts = new JoinPointCounts[256];
+
+        private final Map<Class<?>, LongAdder> exceptionsByClass = new ConcurrentHashMap<>();
+
+        private final ClassValue<LongAdder> exceptionCounts = new ClassValue<>() {
+            @Override
+            protected LongAdder computeValue(Class<?> type) {
+                return exceptionsByClass.computeIfAbsent(type, key -> new LongAdder());
+            }
+        };
+
+        private final LongAdder allExceptions = new LongAdder();
+
+        private Registry() {
+        }
+
+        private JoinPointCounts getCounts(JoinPoint.StaticPart jp) {
+            int id = Utils.JOIN_POINTS.getId(jp);
+            JoinPointCounts[] counts = joinPointCounts;
+            if (id < counts.length) {
+                JoinPointCounts joinPointCount = counts[id];
+                if (joinPointCount != null) {
+                    return joinPointCount;
+                }
+            }
+            return createCounts(id);
+        }
+
+        private synchronized JoinPointCounts createCounts(int id) {
+            JoinPointCounts[] counts = joinPointCounts;
+            if (id >= counts.length) {
+                counts = Arrays.copyOf(counts, Math.max(counts.length * 2, id + 1));
+            }
+            if (counts[id] == null) {
+                counts[id] = new JoinPointCounts();
+            }
+            joinPointCounts = counts; // publish
+            return counts[id];
+        }
+
+        /**
+         * Returns the number of completed calls to the join point.
+         *
+         * @param jp The join point.
+         * @return The number of calls.
+         */
+        public long getInvocations(JoinPoint.StaticPart jp) {
+            return getCounts(jp).invocations.sum();
+        }
+
+        /**
+         * Returns the number of calls to the join point that threw an exception.
+         *
+         * @param jp The join point.
+         * @return The number of failed calls.
+         */
+        public long getFailures(JoinPoint.StaticPart jp) {
+            return getCounts(jp).failures.sum();
+        }
+
+        /**
+         * Returns the number of exceptions thrown of the given type (not including subclasses).
+         *
+         * @param type The exception class.
+         * @return The number of exceptions.
+         */
+        public long getExceptions(Class<? extends Throwable> type) {
+            LongAdder count = exceptionsByClass.get(type);
+            return count == null ? 0 : count.sum();
+        }
+
+        @Override
+        public Map<String, Long> getInvocations() {
+            Map<String, Long> snapshot = new TreeMap<>();
+            forEachJoinPoint((label, counts) -> snapshot.merge(label, counts.invocations.sum(), Long::sum));
+            return snapshot;
+        }
+
+        @Override
+        public Map<String, Long> getFailures() {
+            Map<String, Long> snapshot = new TreeMap<>();
+            forEachJoinPoint((label, counts) -> snapshot.merge(label, counts.failures.sum(), Long::sum));
+            return snapshot;
+        }
+
+        @Override
+        public Map<String, Long> getExceptions() {
+            Map<String, Long> snapshot = new TreeMap<>();
+            exceptionsByClass.forEach((type, count) -> snapshot.put(type.getName(), count.sum()));
+            snapshot.put(EXCEPTION_LABEL, allExceptions.sum());
+            return snapshot;
+        }
+
+        @Override
+        public void reset() {
+            forEachJoinPoint((label, counts) -> {
+                counts.invocations.reset();
+                counts.failures.reset();
+            });
+            exceptionsByClass.values().forEach(LongAdder::reset);
+            allExceptions.reset();
+        }
+
+        private void forEachJoinPoint(BiConsumer<String, JoinPointCounts> action) {
+            JoinPointCounts[] counts = joinPointCounts;
+            for (int id = 0; id < counts.length; id++) {
+                JoinPoint.StaticPart jp = Utils.JOIN_POINTS.get(id);
+                if (counts[id] != null && jp != null) {
+                    action.accept(Utils.getLabel(jp), counts[id]);
+                }
+            }
+        }
+    }
+}
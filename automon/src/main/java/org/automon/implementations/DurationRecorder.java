@@ -0,0 +1,42 @@
+package org.automon.implementations;
+
+import org.aspectj.lang.JoinPoint;
+
+/**
+ * <p>Implemented by `OpenMon`s that can record an execution time that was measured elsewhere, i.e. by another thread
+ * or an earlier call. {@link AsyncOpenMon} uses this to record durations in the backing monitoring tool from its
+ * consumer thread.</p>
+ */
+public interface DurationRecorder {
+
+    /**
+     * Records the execution time of a completed join point in the backing monitoring tool.
+     *
+     * @param jp              The static part of the JoinPoint representing the intercepted method.
+     * @param executionTimeNs The execution time in nanoseconds.
+     */
+    void record(JoinPoint.StaticPart jp, long executionTimeNs);
+
+    /**
+     * Records the execution time of a join point that threw an exception. By default it is recorded like any other
+     * call; implementations that count failures or keep exception details override it.
+     *
+     * @param jp              The static part of the JoinPoint representing the intercepted method.
+     * @param executionTimeNs The execution time in nanoseconds.
+     * @param throwable       The exception that was thrown, or null if the call failed but the exception isn't
+     *                        available (i.e. when recorded by the consumer thread of an `AsyncOpenMon`).
+     */
+    default void record(JoinPoint.StaticPart jp, long executionTimeNs, Throwable throwable) {
+        record(jp, executionTimeNs);
+    }
+
+    /**
+     * Returns whether `record` reads the state of the thread that made the call (i.e. its id, timer depth or MDC), so
+     * it must be called on that thread and can't be the backing `OpenMon` of an {@link AsyncOpenMon}.
+     *
+     * @return true if `record` must be called on the thread that made the call.
+     */
+    default boolean isCallerThreadRequired() {
+        return false;
+    }
+}
@@ -0,0 +1,253 @@
+package org.automon.implementations;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+import org.aspectj.lang.JoinPoint;
+import org.automon.jmx.HistogramMXBean;
+import org.automon.jmx.HistogramSnapshot;
+import org.automon.utils.AutomonPropertiesLoader;
+import org.automon.utils.Utils;
+
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicReferenceArray;
+
+/**
+ * <p>An `OpenMon` implementation that keeps an HdrHistogram (high dynamic range histogram) of the execution times of each
+ * join point, so accurate tail latencies (p99, p999, max) are available without Micrometer, Jamon or another registry.
+ * Only the HdrHistogram jar is required.</p>
+ *
+ * <p>Values are recorded in nanoseconds into a lock-free (wait-free) `org.HdrHistogram.Recorder`, which is safe for any
+ * number of recording threads. When the histograms are read the recorders' interval histograms are merged into a
+ * cumulative histogram per join point. Reading never blocks recording.</p>
+ *
+ * <p>The histograms are shared by every `HdrHistogram` instance and are available from {@link #getHistograms()} and via
+ * JMX ({@link HistogramMXBean}, `org.automon:type=aspect,purpose=hdrhistogram,name=HdrHistogram`).</p>
+ *
+ * <p>To enable this class for monitoring, add the following line to your `automon.properties` file:</p>
+ *
+ * <pre>
+ * org.automon=hdrhistogram
+ * </pre>
+ *
+ * <p>`org.automon.hdrhistogram.significantDigits` (default 2, i.e. values are accurate to 1%) controls the precision.
+ * Histograms resize automatically, so memory use depends on the range of recorded values, and each recorder holds
+ * several histograms. So by default a join point has one recorder. If many threads record the same join point
+ * `org.automon.hdrhistogram.stripes` spreads them (by thread id) across up to that many recorders, rounded up to a
+ * power of 2. A recorder is only created when a thread first records into it, so a join point only recorded by a few
+ * threads doesn't pay for the others.</p>
+ */
+public class HdrHistogram extends NanoOpenMonBase {
+
+    static final int DEFAULT_SIGNIFICANT_DIGITS = 2;
+    static final int DEFAULT_STRIPES = 1;
+
+    private static final String PURPOSE = "hdrhistogram";
+
+    private static final Histograms HISTOGRAMS = new Histograms(
+            Utils.AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.HDR_HISTOGRAM_SIGNIFICANT_DIGITS, DEFAULT_SIGNIFICANT_DIGITS),
+            Utils.AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.HDR_HISTOGRAM_STRIPES, DEFAULT_STRIPES));
+
+    static {
+        Utils.registerWithJmx(PURPOSE, "HdrHistogram", HISTOGRAMS);
+    }
+
+    /**
+     * Returns the histograms of all join points. This is also the object registered with JMX.
+     *
+     * @return The shared histograms.
+     */
+    public static Histograms getHistograms() {
+        return HISTOGRAMS;
+    }
+
+    /**
+     * Records the execution time in the join point's histogram.
+     *
+     * @param jp              The static part of the JoinPoint representing the intercepted method.
+     * @param executionTimeNs The execution time in nanoseconds.
+     */
+    @Override
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs) {
+        HISTOGRAMS.record(jp, executionTimeNs);
+    }
+
+    /**
+     * The histograms of every join point.
+     */
+    public static final class Histograms implements HistogramMXBean {
+
+        private final int significantDigits;
+        private final int stripeMask;
+        private final Map<JoinPoint.StaticPart, JoinPointHistogram> histograms = new ConcurrentHashMap<>();
+
+        Histograms(int significantDigits, int stripes) {
+            this.significantDigits = Math.max(0, Math.min(5, significantDigits));
+            this.stripeMask = Integer.highestOneBit(Math.max(1, stripes) * 2 - 1) - 1; // round up to a power of 2
+        }
+
+        void record(JoinPoint.StaticPart jp, long executionTimeNs) {
+            JoinPointHistogram histogram = histograms.get(jp);
+            if (histogram == null) {
+                histogram = histograms.computeIfAbsent(jp, key -> new JoinPointHistogram(Utils.getLabel(key), significantDigits, stripeMask + 1));
+            }
+            histogram.getRecorder((int) Thread.currentThread().getId() & stripeMask).recordValue(Math.max(0, executionTimeNs));
+        }
+
+        /**
+         * @return The maximum number of recorders per join point.
+         */
+        int getStripes() {
+            return stripeMask + 1;
+        }
+
+        /**
+         * @param jp The join point.
+         * @return The number of recorders the join point's threads created, or 0 if nothing has been recorded.
+         */
+        int getRecorders(JoinPoint.StaticPart jp) {
+            JoinPointHistogram histogram = histograms.get(jp);
+            return histogram == null ? 0 : histogram.getRecorders();
+        }
+
+        /**
+         * Returns a copy of the join point's cumulative histogram, which can be used for any percentile or for output
+         * with `Histogram.outputPercentileDistribution`.
+         *
+         * @param jp The join point.
+         * @return A copy of the histogram, or null if nothing has been recorded for the join point.
+         */
+        public Histogram getHistogram(JoinPoint.StaticPart jp) {
+            JoinPointHistogram histogram = histograms.get(jp);
+            return histogram == null ? null : histogram.copy();
+        }
+
+        /**
+         * Returns the percentiles of the join point.
+         *
+         * @param jp The join point.
+         * @return The snapshot, or null if nothing has been recorded for the join point.
+         */
+        public HistogramSnapshot getSnapshot(JoinPoint.StaticPart jp) {
+            JoinPointHistogram histogram = histograms.get(jp);
+            return histogram == null ? null : histogram.snapshot();
+        }
+
+        @Override
+        public List<HistogramSnapshot> getHistograms() {
+            List<HistogramSnapshot> snapshots = new ArrayList<>(histograms.size());
+            for (JoinPointHistogram histogram : histograms.values()) {
+                snapshots.add(histogram.snapshot());
+            }
+            snapshots.sort(Comparator.comparing(HistogramSnapshot::getLabel));
+            return snapshots;
+        }
+
+        @Override
+        public HistogramSnapshot getHistogram(String label) {
+            for (JoinPointHistogram histogram : histograms.values()) {
+                if (histogram.label.equals(label)) {
+                    return histogram.snapshot();
+                }
+            }
+            return null;
+        }
+
+        @Override
+        public int getSize() {
+            return histograms.size();
+        }
+
+        @Override
+        public void reset() {
+            histograms.values().forEach(JoinPointHistogram::reset);
+        }
+    }
+
+    /**
+     * The recorders of one join point and the cumulative histogram their intervals are merged into.
+     */
+    private static final class JoinPointHistogram {
+        private final String label;
+        private final int significantDigits;
+        /**
+         * Created when a thread first records into them.
+         */
+        private final AtomicReferenceArray<Recorder> recorders;
+        /**
+         * Guarded by this.
+         */
+        private final Histogram cumulative;
+        /**
+         * The last interval histogram of each recorder, reused for its next read. Guarded by this.
+         */
+        private final Histogram[] intervals;
+
+        private JoinPointHistogram(String label, int significantDigits, int stripes) {
+            this.label = label;
+            this.significantDigits = significantDigits;
+            this.recorders = new AtomicReferenceArray<>(stripes);
+            this.intervals = new Histogram[stripes];
+            this.cumulative = new Histogram(significantDigits);
+        }
+
+        private Recorder getRecorder(int stripe) {
+            Recorder recorder = recorders.get(stripe);
+            if (recorder == null) {
+                recorders.compareAndSet(stripe, null, new Recorder(significantDigits));
+                recorder = recorders.get(stripe);
+            }
+            return recorder;
+        }
+
+        /**
+         * @return The number of recorders created so far.
+         */
+        private int getRecorders() {
+            int created = 0;
+            for (int i = 0; i < recorders.length(); i++) {
+                if (recorders.get(i) != null) {
+                    created++;
+                }
+            }
+            return created;
+        }
+
+        /**
+         * Merges the values recorded since the last read into the cumulative histogram.
+         */
+        private void merge() {
+            for (int i = 0; i < recorders.length(); i++) {
+                Recorder recorder = recorders.get(i);
+                if (recorder != null) {
+                    intervals[i] = recorder.getIntervalHistogram(intervals[i]);
+                    cumulative.add(intervals[i]);
+                }
+            }
+        }
+
+        private synchronized Histogram copy() {
+            merge();
+            return cumulative.copy();
+        }
+
+        private synchronized HistogramSnapshot snapshot() {
+            merge();
+            Histogram h = cumulative;
+            if (h.getTotalCount() == 0) {
+                return new HistogramSnapshot(label, 0, 0, 0, 0, 0, 0, 0, 0);
+            }
+            return new HistogramSnapshot(label, h.getTotalCount(), h.getMinValue(), h.getMean(),
+                    h.getValueAtPercentile(50), h.getValueAtPercentile(90), h.getValueAtPercentile(99),
+                    h.getValueAtPercentile(99.9), h.getMaxValue());
+        }
+
+        private synchronized void reset() {
+            merge();
+            cumulative.reset();
+        }
+    }
+}
@@ -9,12 +9,18 @@ import org.automon.utils.AutomonExpirable;
 import org.automon.utils.Utils;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class is an `OpenMon` implementation that leverages Jamon for monitoring method executions and exceptions.
  * It provides capabilities for starting and stopping timers, tracking exceptions, and capturing detailed context information.
  */
-public class Jamon extends OpenMonBase<Monitor> {
+public class Jamon extends OpenMonBase<Monitor> implements DurationRecorder {
+
+    /**
+     * The units of Jamon time monitors (milliseconds).
+     */
+    private static final String TIME_UNITS = "ms.";
 
     /**
      * Starts a Jamon `Monitor` for the given join point.
@@ -24,7 +30,7 @@ public class Jamon extends OpenMonBase<Monitor> {
      */
     @Override
     public Monitor start(JoinPoint.StaticPart jp) {
-        return MonitorFactory.start(jp.toString());
+        return MonitorFactory.start(Utils.getLabel(jp));
     }
 
     /**
@@ -37,6 +43,18 @@ public class Jamon extends OpenMonBase<Monitor> {
         mon.stop();
     }
 
+    /**
+     * Adds an execution time measured elsewhere to the join point's time monitor (the same monitor `start` uses).
+     * Note as the monitor isn't started the 'active' statistics aren't updated.
+     *
+     * @param jp              The join point representing the intercepted method.
+     * @param executionTimeNs The execution time in nanoseconds.
+     */
+    @Override
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs) {
+        MonitorFactory.add(Utils.getLabel(jp), TIME_UNITS, executionTimeNs / (double) TimeUnit.MILLISECONDS.toNanos(1));
+    }
+
     /**
      * Stops the given Jamon `Monitor` and records an exception.
      * <p>
@@ -50,6 +68,26 @@ public class Jamon extends OpenMonBase<Monitor> {
     @Override
     public void stop(Monitor mon, Throwable throwable) {
         mon.stop();
+        setDetails(mon, throwable);
+    }
+
+    /**
+     * Adds an execution time measured elsewhere to the join point's time monitor and records the exception the same
+     * way `stop` does.
+     *
+     * @param jp              The join point representing the intercepted method.
+     * @param executionTimeNs The execution time in nanoseconds.
+     * @param throwable       The exception that was thrown (may be null).
+     */
+    @Override
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs, Throwable throwable) {
+        Monitor mon = MonitorFactory.add(Utils.getLabel(jp), TIME_UNITS, executionTimeNs / (double) TimeUnit.MILLISECONDS.toNanos(1));
+        if (throwable != null) {
+            setDetails(mon, throwable);
+        }
+    }
+
+    private void setDetails(Monitor mon, Throwable throwable) {
         put(throwable); // Store the exception in the internal map for later use
 
         // The 'get' always succeeds due to the 'put' above
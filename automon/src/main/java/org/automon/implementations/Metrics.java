@@ -3,16 +3,16 @@ package org.automon.implementations;
 import com.codahale.metrics.MetricRegistry;
 import com.codahale.metrics.Timer;
 import org.aspectj.lang.JoinPoint;
+import org.automon.utils.Utils;
 
 import java.util.List;
-
-import static com.codahale.metrics.MetricRegistry.name;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>Implementation of `OpenMon` that utilizes Yammer Metrics for monitoring method executions and exceptions.</p>
  * <p>It provides methods to start and stop timers for measuring method execution times and to track exceptions using counters.</p>
  */
-public class Metrics extends OpenMonBase<Timer> {
+public class Metrics extends OpenMonBase<Timer> implements DurationRecorder {
 
     /**
      * The `MetricRegistry` used to store and manage metrics.
@@ -46,7 +46,7 @@ public class Metrics extends OpenMonBase<Timer> {
      */
     @Override
     public Timer start(JoinPoint.StaticPart jp) {
-        return metrics.timer(name(jp.toString()));
+        return metrics.timer(Utils.getLabel(jp));
     }
 
     /**
@@ -59,6 +59,17 @@ public class Metrics extends OpenMonBase<Timer> {
         timer.time().stop();
     }
 
+    /**
+     * Adds an execution time measured elsewhere to the join point's `Timer`.
+     *
+     * @param jp              The join point representing the intercepted method.
+     * @param executionTimeNs The execution time in nanoseconds.
+     */
+    @Override
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs) {
+        metrics.timer(Utils.getLabel(jp)).update(executionTimeNs, TimeUnit.NANOSECONDS);
+    }
+
     /**
      * Tracks an exception by incrementing corresponding counters in the `MetricRegistry`.
      *
@@ -7,6 +7,9 @@ import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.aspectj.lang.JoinPoint;
 import org.automon.utils.Utils;
 
+import java.sql.SQLException;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
 import java.util.concurrent.TimeUnit;
 
 /**
@@ -47,13 +50,18 @@ import java.util.concurrent.TimeUnit;
  * <pre>
  * org.automon=micrometer
  * </pre>
+ *
+ * <p>Note: Building the label and looking up a meter in the registry costs more than many of the methods being
+ * monitored, so the `Timer` for each join point and the `Counter` for each exception type are resolved once and
+ * cached. The cache is discarded when {@link #setMeterRegistry(MeterRegistry)} replaces the registry.</p>
  */
-public class Micrometer extends OpenMonBase<TimerContext> {
+public class Micrometer extends NanoOpenMonBase {
 
     /**
-     * The `MeterRegistry` used to store and manage metrics.
+     * The `MeterRegistry` used to store and manage metrics along with the meters resolved from it.
+     * The registry and its meters are always replaced together so a meter from a previous registry is never used.
      */
-    private static MeterRegistry registry = new SimpleMeterRegistry();
+    private static volatile MeterCache meters = new MeterCache(new SimpleMeterRegistry());
 
     /**
      * Retrieves the `MeterRegistry` used by this `Micrometer` instance.
@@ -61,7 +69,7 @@ public class Micrometer extends OpenMonBase<TimerContext> {
      * @return The `MeterRegistry`.
      */
     public static MeterRegistry getMeterRegistry() {
-        return registry;
+        return meters.registry;
     }
 
     /**
@@ -71,40 +79,70 @@ public class Micrometer extends OpenMonBase<TimerContext> {
      * @param newMeterRegistry The new `MeterRegistry` to use.
      */
     public static void setMeterRegistry(MeterRegistry newMeterRegistry) {
-        registry = newMeterRegistry;
+        meters = new MeterCache(newMeterRegistry);
     }
 
     /**
-     * Starts monitoring by creating a `TimerContext` for the given join point.
+     * Records the execution time using the `Timer` associated with the join point.
      *
-     * @param jp The join point representing the intercepted method.
-     * @return A new `TimerContext` associated with the join point.
+     * @param jp              The join point representing the intercepted method.
+     * @param executionTimeNs The execution time in nanoseconds.
      */
     @Override
-    public TimerContext start(JoinPoint.StaticPart jp) {
-        return new TimerContext(jp);
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs) {
+        getCachedTimer(jp).record(executionTimeNs, TimeUnit.NANOSECONDS);
     }
 
     /**
-     * Stops the timer and records the execution time using the associated `Timer`.
+     * Tracks an exception by incrementing the corresponding counter in the `MeterRegistry`.
      *
-     * @param context The `TimerContext` containing the join point and start time information.
+     * @param jp        The join point where the exception occurred.
+     * @param throwable The exception that was thrown.
      */
     @Override
-    public void stop(TimerContext context) {
-        long executionTimeMs = context.stop();
-        getTimer(context.getJoinPoint().toString()).record(executionTimeMs, TimeUnit.MILLISECONDS);
+    protected void trackException(JoinPoint jp, Throwable throwable) {
+        getCachedCounter(throwable).increment();
     }
 
     /**
-     * Tracks an exception by incrementing the corresponding counter in the `MeterRegistry`.
+     * Retrieves the `Timer` for the given join point, creating it with {@link #getTimer(String)} the first time
+     * the join point is seen.
      *
-     * @param jp        The join point where the exception occurred.
-     * @param throwable The exception that was thrown.
+     * @param jp The join point representing the intercepted method.
+     * @return The cached `Timer` for the join point.
      */
-    @Override
-    protected void trackException(JoinPoint jp, Throwable throwable) {
-        getCounter(Utils.getLabel(throwable)).increment();
+    Timer getCachedTimer(JoinPoint.StaticPart jp) {
+        Map<JoinPoint.StaticPart, Timer> timers = meters.timers;
+        Timer timer = timers.get(jp);
+        if (timer == null) {
+            timer = getTimer(Utils.getLabel(jp));
+            Timer previous = timers.putIfAbsent(jp, timer);
+            return previous == null ? timer : previous;
+        }
+        return timer;
+    }
+
+    /**
+     * Retrieves the `Counter` for the given exception, creating it with {@link #getCounter(String)} the first time
+     * the exception type is seen. `SQLException` labels include the error code and state so they are cached by label
+     * rather than by class.
+     *
+     * @param throwable The exception being tracked.
+     * @return The cached `Counter` for the exception.
+     */
+    Counter getCachedCounter(Throwable throwable) {
+        MeterCache cache = meters;
+        if (throwable instanceof SQLException) {
+            return cache.sqlExceptionCounters.computeIfAbsent(Utils.getLabel(throwable), this::getCounter);
+        }
+
+        Counter counter = cache.exceptionCounters.get(throwable.getClass());
+        if (counter == null) {
+            counter = getCounter(Utils.getLabel(throwable));
+            Counter previous = cache.exceptionCounters.putIfAbsent(throwable.getClass(), counter);
+            return previous == null ? counter : previous;
+        }
+        return counter;
     }
 
     /**
@@ -119,7 +157,7 @@ public class Micrometer extends OpenMonBase<TimerContext> {
         return Timer.builder(methodName)
                 .tag("automon", "method")
                 .description("automon.org method timer")
-                .register(registry);
+                .register(getMeterRegistry());
     }
 
     /**
@@ -134,6 +172,23 @@ public class Micrometer extends OpenMonBase<TimerContext> {
         return Counter.builder(exceptionName)
                 .tag("automon", "exception")
                 .description("automon.org exception counter")
-                .register(registry);
+                .register(getMeterRegistry());
+    }
+
+    /**
+     * A `MeterRegistry` and the meters that have been resolved from it.
+     * <p>
+     * Note `JoinPoint.StaticPart` doesn't override `equals`/`hashCode` and AspectJ creates one per join point, so
+     * the timers are effectively keyed by identity. Reads are lock-free.
+     */
+    private static final class MeterCache {
+        private final MeterRegistry registry;
+        private final Map<JoinPoint.StaticPart, Timer> timers = new ConcurrentHashMap<>();
+        private final Map<Class<?>, Counter> exceptionCounters = new ConcurrentHashMap<>();
+        private final Map<String, Counter> sqlExceptionCounters = new ConcurrentHashMap<>();
+
+        private MeterCache(MeterRegistry registry) {
+            this.registry = registry;
+        }
     }
 }
@@ -0,0 +1,16 @@
+package org.automon.implementations;
+
+import org.aspectj.lang.JoinPoint;
+
+/**
+ * <p>A variant of the {@link OpenMon} contract for implementations that time join points in nanoseconds without
+ * allocating a context object per invocation.</p>
+ *
+ * <p>The context returned from {@link #start(JoinPoint.StaticPart)} is the static part of the join point itself, and the
+ * start time is kept by the calling thread's {@link NanoTimer}. When the invocation completes the measured duration is
+ * passed to {@link #record(JoinPoint.StaticPart, long)}.</p>
+ *
+ * <p>See {@link NanoOpenMonBase} for the standard implementation of `start` and `stop`.</p>
+ */
+public interface NanoOpenMon extends OpenMon<JoinPoint.StaticPart>, DurationRecorder {
+}
@@ -0,0 +1,35 @@
+package org.automon.implementations;
+
+import org.aspectj.lang.JoinPoint;
+
+/**
+ * <p>Base class for {@link NanoOpenMon} implementations.</p>
+ *
+ * <p>`start` pushes the current `System.nanoTime()` onto the thread's {@link NanoTimer} and returns the join point as
+ * the context, and `stop` pops it and calls {@link #record(JoinPoint.StaticPart, long)} with the elapsed nanoseconds,
+ * so no objects are created per invocation. Exception tracking is inherited from {@link OpenMonBase}.</p>
+ */
+public abstract class NanoOpenMonBase extends OpenMonBase<JoinPoint.StaticPart> implements NanoOpenMon {
+
+    /**
+     * Starts timing the given join point.
+     *
+     * @param jp The static part of the JoinPoint representing the intercepted method.
+     * @return The join point itself, which is passed back to `stop`.
+     */
+    @Override
+    public JoinPoint.StaticPart start(JoinPoint.StaticPart jp) {
+        NanoTimer.get().start();
+        return jp;
+    }
+
+    /**
+     * Stops timing the given join point and records its execution time.
+     *
+     * @param jp The join point returned by `start`.
+     */
+    @Override
+    public void stop(JoinPoint.StaticPart jp) {
+        record(jp, NanoTimer.get().stop());
+    }
+}
@@ -0,0 +1,86 @@
+package org.automon.implementations;
+
+import org.automon.utils.AutomonClock;
+
+import java.util.Arrays;
+
+/**
+ * <p>An allocation-free, nanosecond resolution timer used on the advice hot path.</p>
+ *
+ * <p>Rather than creating a timer object per invocation (see {@link BasicTimer}), each thread owns a single
+ * `NanoTimer` holding a primitive stack of start times. Around advice is always strictly nested on a given thread,
+ * so {@link #start()} pushes the time and the matching {@link #stop()} pops it and returns the elapsed nanoseconds.
+ * After the stack has grown to the deepest call nesting no further objects are created.</p>
+ *
+ * <p>The time is read from the {@link AutomonClock} (`System.nanoTime()` by default), which is monotonic, so unlike
+ * `System.currentTimeMillis()` sub-millisecond methods don't always record 0 and wall clock adjustments don't produce
+ * negative durations.</p>
+ */
+public final class NanoTimer {
+
+    /**
+     * The initial depth of the start time stack. It grows as needed for deeper call nesting.
+     */
+    private static final int INITIAL_DEPTH = 32;
+
+    /**
+     * One timer per thread. Note the timer itself is only ever accessed by its owning thread.
+     */
+    private static final ThreadLocal<NanoTimer> TIMERS = ThreadLocal.withInitial(NanoTimer::new);
+
+    /**
+     * Start times of the currently executing (nested) join points for this thread.
+     */
+    private long[] startTimes = new long[INITIAL_DEPTH];
+
+    /**
+     * The number of started but not yet stopped timers.
+     */
+    private int depth;
+
+    /**
+     * Use {@link #get()} to retrieve the timer for the current thread.
+     */
+    NanoTimer() {
+    }
+
+    /**
+     * Retrieves the timer associated with the current thread.
+     *
+     * @return The current thread's `NanoTimer`.
+     */
+    public static NanoTimer get() {
+        return TIMERS.get();
+    }
+
+    /**
+     * Records the current time as the start of a (possibly nested) timed invocation.
+     */
+    public void start() {
+        if (depth == startTimes.length) {
+            startTimes = Arrays.copyOf(startTimes, depth * 2);
+        }
+        startTimes[depth++] = AutomonClock.get().nanoTime();
+    }
+
+    /**
+     * Stops the most recently started timer.
+     *
+     * @return The elapsed time in nanoseconds, or 0 if there was no matching call to {@link #start()}.
+     */
+    public long stop() {
+        if (depth == 0) {
+            return 0; // unbalanced start/stop. hey it's just monitoring so don't throw an exception.
+        }
+        return AutomonClock.get().nanoTime() - startTimes[--depth];
+    }
+
+    /**
+     * Returns the number of timers that have been started but not yet stopped on this thread.
+     *
+     * @return The current nesting depth.
+     */
+    public int getDepth() {
+        return depth;
+    }
+}
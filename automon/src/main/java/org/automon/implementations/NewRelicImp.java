@@ -2,13 +2,18 @@ package org.automon.implementations;
 
 import com.newrelic.api.agent.NewRelic;
 import org.aspectj.lang.JoinPoint;
+import org.automon.utils.Utils;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
 
 /**
  * This class provides an `OpenMon` implementation that utilizes New Relic for monitoring method executions and exceptions.
  * It offers functionalities for starting and stopping timers to measure method execution time,
  * and for tracking exceptions using New Relic's error reporting capabilities.
  */
-public class NewRelicImp extends OpenMonBase<TimerContext> {
+public class NewRelicImp extends NanoOpenMonBase {
 
     /**
      * HACK ALERT: This variable is a workaround to force a `NoClassDefFoundError` to be thrown during the creation
@@ -25,24 +30,19 @@ public class NewRelicImp extends OpenMonBase<TimerContext> {
     private final NewRelic hackToCauseNoClassDefFoundErrorOnCreation = new NewRelic();
 
     /**
-     * Starts monitoring a method execution by creating a `TimerContext` for the given join point.
-     *
-     * @param jp The join point representing the intercepted method.
-     * @return The created `TimerContext` used to track the execution time.
+     * New Relic custom metric names ("Custom/" + label) so the name isn't concatenated on every call.
      */
-    @Override
-    public TimerContext start(JoinPoint.StaticPart jp) {
-        return new TimerContext(jp);
-    }
+    private final Map<JoinPoint.StaticPart, String> metricNames = new ConcurrentHashMap<>();
 
     /**
-     * Stops the timer and records the response time metric using New Relic.
+     * Records the response time metric using New Relic.
      *
-     * @param context The `TimerContext` containing the join point and start time information.
+     * @param jp              The join point representing the intercepted method.
+     * @param executionTimeNs The execution time in nanoseconds. New Relic expects milliseconds.
      */
     @Override
-    public void stop(TimerContext context) {
-        NewRelic.recordResponseTimeMetric("Custom/" + context.getJoinPoint().toString(), context.stop());
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs) {
+        NewRelic.recordResponseTimeMetric(getMetricName(jp), TimeUnit.NANOSECONDS.toMillis(executionTimeNs));
     }
 
     /**
@@ -55,4 +55,19 @@ public class NewRelicImp extends OpenMonBase<TimerContext> {
     protected void trackException(JoinPoint jp, Throwable throwable) {
         NewRelic.noticeError(throwable);
     }
-}
\ No newline at end of file
+
+    /**
+     * Returns the New Relic custom metric name for the join point.
+     *
+     * @param jp The join point representing the intercepted method.
+     * @return The metric name, i.e. "Custom/" followed by the label.
+     */
+    String getMetricName(JoinPoint.StaticPart jp) {
+        String metricName = metricNames.get(jp);
+        if (metricName == null) {
+            metricName = "Custom/" + Utils.getLabel(jp);
+            metricNames.putIfAbsent(jp, metricName);
+        }
+        return metricName;
+    }
+}
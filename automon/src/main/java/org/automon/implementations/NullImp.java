@@ -6,7 +6,7 @@ import org.aspectj.lang.JoinPoint;
  * <p>This class is a no-operation (noop) implementation of the `OpenMon` interface.</p>
  * <p>It is used when Automon monitoring is disabled, providing placeholder methods that do nothing.</p>
  */
-public final class NullImp implements OpenMon<Object> {
+public final class NullImp implements OpenMon<Object>, DurationRecorder {
 
     /**
      * A constant representing a no-operation object.
@@ -45,6 +45,17 @@ public final class NullImp implements OpenMon<Object> {
         // No operation
     }
 
+    /**
+     * Records an execution time (noop).
+     *
+     * @param jp              The join point (ignored in this implementation).
+     * @param executionTimeNs The execution time (ignored in this implementation).
+     */
+    @Override
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs) {
+        // No operation
+    }
+
     /**
      * Handles an exception (noop).
      *
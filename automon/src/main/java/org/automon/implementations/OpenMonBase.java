@@ -2,11 +2,13 @@ package org.automon.implementations;
 
 import org.aspectj.lang.JoinPoint;
 import org.automon.utils.AutomonExpirable;
+import org.automon.utils.ConcurrentExpiringMap;
 import org.automon.utils.Utils;
 
 import java.util.ArrayList;
 import java.util.List;
 import java.util.Map;
+import java.util.function.Function;
 
 /**
  * <p>Base implementation of the `OpenMon` interface, providing common functionality for monitoring implementations.</p>
@@ -20,8 +22,19 @@ public abstract class OpenMonBase<T> implements OpenMon<T> {
     /**
      * A map to store recently thrown exceptions, allowing for reuse and preventing memory leaks.
      * The map uses `Throwable` as the key and `AutomonExpirable` (which wraps the exception and additional context) as the value.
+     * It is lock-free so threads don't serialize on a shared monitor when many exceptions are thrown.
      */
-    private final Map<Throwable, AutomonExpirable> exceptionsMap = Utils.createExceptionMap();
+    private final ConcurrentExpiringMap<Throwable, AutomonExpirable> exceptionsMap = Utils.createExceptionStore();
+
+    /**
+     * The number of minutes a thrown exception is remembered.
+     */
+    private final int exceptionExpirationIntervalInMinutes = Utils.getExceptionExpirationIntervalInMinutes();
+
+    /**
+     * Creates the context for a newly seen exception. Kept in a field so a new lambda isn't created per exception.
+     */
+    private final Function<Throwable, AutomonExpirable> exceptionContextFactory = this::createExceptionContext;
 
     /**
      * Stops the monitoring context and records the associated exception.
@@ -85,16 +98,24 @@ public abstract class OpenMonBase<T> implements OpenMon<T> {
      * <p>
      * The exception is wrapped in an `AutomonExpirable` object, which includes a timestamp to allow for
      * automatic removal after a certain period. This prevents the map from growing indefinitely and avoids
-     * duplicate tracking of the same exception within the call stack.
+     * duplicate tracking of the same exception within the call stack. The check and the put are atomic.
      *
      * @param throwable The exception to be stored.
      */
     protected void put(Throwable throwable) {
-        if (!exceptionsMap.containsKey(throwable)) { // Avoid duplicates
-            AutomonExpirable automonExpirable = new AutomonExpirable();
-            automonExpirable.setThrowable(throwable);
-            exceptionsMap.put(throwable, automonExpirable);
-        }
+        exceptionsMap.computeIfAbsent(throwable, exceptionContextFactory); // Avoid duplicates
+    }
+
+    /**
+     * Creates the context stored for a newly seen exception.
+     *
+     * @param throwable The exception.
+     * @return The `AutomonExpirable` wrapping the exception.
+     */
+    private AutomonExpirable createExceptionContext(Throwable throwable) {
+        AutomonExpirable automonExpirable = new AutomonExpirable(exceptionExpirationIntervalInMinutes);
+        automonExpirable.setThrowable(throwable);
+        return automonExpirable;
     }
 
     /**
@@ -107,14 +128,24 @@ public abstract class OpenMonBase<T> implements OpenMon<T> {
         return exceptionsMap.get(throwable);
     }
 
+    /**
+     * Returns the size of the recently thrown exceptions store and the number of entries it has removed because they
+     * expired, because it was full, or because the exception was garbage collected.
+     *
+     * @return The exception store statistics.
+     */
+    public Map<String, Long> getExceptionStatistics() {
+        return exceptionsMap.getStatistics();
+    }
+
     /**
      * Returns the map containing recently thrown exceptions.
      * <p>
      * This method is primarily intended for testing purposes.
      *
-     * @return The map of exceptions.
+     * @return A copy of the map of exceptions.
      */
     Map<Throwable, AutomonExpirable> getExceptionsMap() {
-        return exceptionsMap;
+        return exceptionsMap.toMap();
     }
 }
\ No newline at end of file
@@ -1,14 +1,22 @@
 package org.automon.implementations;
 
+import org.automon.utils.AutomonPropertiesLoader;
 import org.automon.utils.Utils;
 
+import java.lang.ref.WeakReference;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * <p>Factory class for creating and managing instances of {@link OpenMon}, which are used for monitoring in Automon.</p>
  * <p>This factory maintains a map of OpenMon implementations, allowing you to retrieve instances by their fully qualified class names
  * or their simple class names (case-insensitive). It also provides a default `OpenMon` implementation to handle cases where
  * the requested implementation cannot be created.</p>
+ * <p>{@link OpenMonProvider}s in the classpath, including those of the pre-installed `OpenMon`s (see
+ * {@link OpenMonProviders}), are discovered with the `ServiceLoader` the first time an `OpenMon` is requested, and can
+ * be requested by their key. Other `OpenMon` classes can be added by class name and are created by reflection. The monitoring aspects share one factory per class loader
+ * ({@link #getSharedInstance(ClassLoader)}) so the providers are discovered, and the first available `OpenMon` found,
+ * once rather than for each aspect.</p>
  */
 public class OpenMonFactory {
 
@@ -21,11 +29,47 @@ public class OpenMonFactory {
     public static final String NULL_IMP = "org.automon.implementations.NullImp";
     public static final String NEW_RELIC = "org.automon.implementations.NewRelicImp";
     public static final String MICROMETER = "org.automon.implementations.Micrometer";
+    public static final String ASYNC = "org.automon.implementations.AsyncOpenMon";
+    public static final String HDR_HISTOGRAM = "org.automon.implementations.HdrHistogram";
+    public static final String COUNTERS = "org.automon.implementations.Counters";
+    public static final String TRACE_FILE = "org.automon.implementations.TraceFile";
+    public static final String CALL_TREE = "org.automon.implementations.CallTree";
 
     /**
-     * Map storing OpenMon implementations, where keys are both fully qualified and simple class names (lowercase).
+     * The factories shared by the aspects of each class loader. The references are weak so neither the factories nor
+     * their class loaders are kept once no aspect uses them.
      */
-    private final Map<String, String> openMonFactoryMap = new HashMap<String, String>();
+    private static final Map<ClassLoader, WeakReference<OpenMonFactory>> SHARED_INSTANCES = new WeakHashMap<>();
+
+    /**
+     * Map storing the OpenMon implementations added by class name, where keys are both fully qualified and simple class
+     * names (lowercase).
+     */
+    private final Map<String, String> openMonFactoryMap = new ConcurrentHashMap<>();
+
+    /**
+     * Providers added or discovered with the `ServiceLoader`, by lowercase key.
+     */
+    private final Map<String, OpenMonProvider> providers = new ConcurrentHashMap<>();
+
+    /**
+     * The pre-installed providers by the lowercase fully qualified and simple class names of their `OpenMon`s.
+     */
+    private final Map<String, OpenMonProvider> aliases = new ConcurrentHashMap<>();
+
+    /**
+     * The class loader used to discover providers and load `OpenMon` classes.
+     */
+    private final ClassLoader classLoader;
+
+    private volatile boolean discovered;
+    private volatile long discoveryNanos;
+
+    /**
+     * The provider of the first available `OpenMon`, once found.
+     */
+    private volatile OpenMonProvider firstAvailable;
+    private volatile boolean noneAvailable;
 
     /**
      * The default `OpenMon` implementation used when the requested one cannot be created.
@@ -34,18 +78,41 @@ public class OpenMonFactory {
 
     /**
      * Constructs an `OpenMonFactory` with the specified default `OpenMon` implementation.
-     * It also adds several pre-installed OpenMon implementations to the factory.
      *
      * @param defaultOpenMon The default `OpenMon` to use when the requested one is not available.
      */
     public OpenMonFactory(OpenMon defaultOpenMon) {
+        this(defaultOpenMon, OpenMonFactory.class.getClassLoader());
+    }
+
+    /**
+     * Constructs an `OpenMonFactory` that discovers providers and loads `OpenMon` classes with the given class loader.
+     *
+     * @param defaultOpenMon The default `OpenMon` to use when the requested one is not available.
+     * @param classLoader    The class loader, i.e. the one of the aspect.
+     */
+    public OpenMonFactory(OpenMon defaultOpenMon, ClassLoader classLoader) {
         this.defaultOpenMon = defaultOpenMon;
-        add(JAMON);
-        add(MICROMETER);
-        add(METRICS);
-        add(NEW_RELIC);
-        add(SYSOUT);
-        add(NULL_IMP);
+        this.classLoader = (classLoader == null) ? OpenMonFactory.class.getClassLoader() : classLoader;
+    }
+
+    /**
+     * Returns the factory shared by the aspects loaded by the given class loader, creating it if needed. Its default
+     * `OpenMon` is a `NullImp`. Note that `OpenMon`s added to it are available to each of those aspects.
+     *
+     * @param classLoader The class loader of the aspect.
+     * @return The shared factory.
+     */
+    public static OpenMonFactory getSharedInstance(ClassLoader classLoader) {
+        synchronized (SHARED_INSTANCES) {
+            WeakReference<OpenMonFactory> reference = SHARED_INSTANCES.get(classLoader);
+            OpenMonFactory factory = (reference == null) ? null : reference.get();
+            if (factory == null) {
+                factory = new OpenMonFactory(new NullImp(), classLoader);
+                SHARED_INSTANCES.put(classLoader, new WeakReference<>(factory));
+            }
+            return factory;
+        }
     }
 
     /**
@@ -76,14 +143,95 @@ public class OpenMonFactory {
         }
     }
 
+    /**
+     * Adds an `OpenMon` provider to the factory. Its key takes precedence over an `OpenMon` class with the same simple
+     * name.
+     *
+     * @param provider The provider.
+     */
+    public void add(OpenMonProvider provider) {
+        providers.put(provider.getKey().trim().toLowerCase(), provider);
+        firstAvailable = null;
+        noneAvailable = false;
+    }
+
+    /**
+     * Discovers the providers listed in `META-INF/services/org.automon.implementations.OpenMonProvider`, the first time
+     * it is called. A provider that can't be loaded is skipped.
+     */
+    private void discoverProviders() {
+        if (discovered) {
+            return;
+        }
+        synchronized (this) {
+            if (discovered) {
+                return;
+            }
+            long start = System.nanoTime();
+            Iterator<OpenMonProvider> iterator = ServiceLoader.load(OpenMonProvider.class, classLoader).iterator();
+            while (true) {
+                try {
+                    if (!iterator.hasNext()) {
+                        break;
+                    }
+                    OpenMonProvider provider = iterator.next();
+                    providers.putIfAbsent(provider.getKey().trim().toLowerCase(), provider);
+                    if (provider instanceof OpenMonProviders.BuiltInProvider builtIn) {
+                        aliases.putIfAbsent(builtIn.getClassName().toLowerCase(), provider);
+                        aliases.putIfAbsent(getJustClassName(builtIn.getClassName()).toLowerCase(), provider);
+                    }
+                } catch (ServiceConfigurationError | LinkageError e) {
+                    System.err.println("Automon: An OpenMonProvider couldn't be loaded, so it will be ignored: " + e);
+                }
+            }
+            discoveryNanos = System.nanoTime() - start;
+            discovered = true;
+        }
+    }
+
+    /**
+     * Returns the providers that were added or discovered.
+     *
+     * @return The providers by lowercase key.
+     */
+    public Map<String, OpenMonProvider> getProviders() {
+        discoverProviders();
+        return Collections.unmodifiableMap(providers);
+    }
+
+    /**
+     * Returns the time spent discovering providers with the `ServiceLoader`.
+     *
+     * @return The time in nanoseconds, or 0 if they haven't been discovered yet.
+     */
+    public long getDiscoveryNanos() {
+        return discoveryNanos;
+    }
+
     /**
      * Retrieves an instance of the specified `OpenMon` implementation.
      *
-     * @param key The fully qualified class name or the case-insensitive simple class name of the `OpenMon` implementation.
+     * @param key The key of a provider, the fully qualified class name or the case-insensitive simple class name of the
+     *            `OpenMon` implementation, or several comma-separated ones to record to each of them (see
+     *            {@link CompositeOpenMon}).
      * @return An instance of the requested `OpenMon` implementation, or the default `OpenMon` if creation fails.
      */
     public OpenMon getInstance(String key) {
+        if (key.indexOf(',') >= 0) {
+            return getCompositeInstance(key);
+        }
+
         String className = openMonFactoryMap.get(key);
+        if (className == null) {
+            discoverProviders();
+            OpenMonProvider provider = providers.get(key.trim().toLowerCase());
+            if (provider == null) {
+                provider = aliases.get(key.trim().toLowerCase());
+            }
+            if (provider != null) {
+                return create(provider);
+            }
+        }
         if (className == null) {
             className = openMonFactoryMap.get(key.toLowerCase());
         }
@@ -105,22 +253,91 @@ public class OpenMonFactory {
     }
 
     /**
-     * Retrieves the first available pre-installed `OpenMon` instance.
+     * Creates a {@link CompositeOpenMon} recording to each of the `OpenMon`s with the given comma-separated keys. Those
+     * listed in the `org.automon.composite.async` property are wrapped in an {@link AsyncOpenMon}, except those that
+     * must record on the calling thread (i.e. `tracefile`).
+     *
+     * @param keys The comma-separated keys (i.e. jamon,micrometer).
+     * @return The composite, the only `OpenMon` that could be created, or the default `OpenMon` if none could.
+     */
+    private OpenMon getCompositeInstance(String keys) {
+        List<String> asyncKeys = Arrays.asList(Utils.tokenize(Utils.AUTOMON_PROPERTIES.getProperties()
+                .getProperty(AutomonPropertiesLoader.COMPOSITE_ASYNC, "").toLowerCase(), ","));
+        List<OpenMon<?>> openMons = new ArrayList<>();
+        for (String key : Utils.tokenize(keys, ",")) {
+            if (key.isEmpty()) {
+                continue;
+            }
+            OpenMon<?> openMon = getInstance(key);
+            if (openMon == defaultOpenMon) {
+                continue; // the reason was already printed
+            }
+            if (asyncKeys.contains("*") || asyncKeys.contains(key.toLowerCase())) {
+                if (openMon instanceof DurationRecorder recorder && recorder.isCallerThreadRequired()) {
+                    System.err.println("Automon: The OpenMon '" + key + "' reads the state of the calling thread, so it" +
+                            " will be recorded on the calling thread rather than by an AsyncOpenMon.");
+                } else {
+                    openMon = new AsyncOpenMon(openMon);
+                }
+            }
+            openMons.add(openMon);
+        }
+
+        if (openMons.isEmpty()) {
+            return defaultOpenMon;
+        }
+        return openMons.size() == 1 ? openMons.get(0) : new CompositeOpenMon(openMons);
+    }
+
+    /**
+     * Retrieves the first available `OpenMon` instance.
      * <p>
-     * This method iterates through the pre-installed `OpenMon` types and attempts to create an instance of each.
-     * It returns the first successfully created instance. If all creations fail (likely due to missing dependencies),
-     * it returns the default `OpenMon`.
+     * This method attempts to create an instance of each provider (except those only {@link OpenMonProvider#REQUESTED_ONLY
+     * created when requested}) from the highest priority to the lowest, and returns the first successfully created
+     * instance. The one that was created is remembered so later calls (i.e. from other aspects sharing this factory)
+     * don't try the others again. If all creations fail (likely due to missing dependencies), it returns the default
+     * `OpenMon`.
      *
      * @return The first available `OpenMon` instance or the `defaultOpenMon`.
      */
     public OpenMon getFirstInstance() {
-        // Note: NewRelicImp is placed last due to a known issue where its exception handling might not be caught correctly
-        OpenMon openMon = Utils.createFirst(METRICS, JAMON, MICROMETER, NEW_RELIC);
-        if (openMon == null) {
+        OpenMonProvider provider = firstAvailable;
+        if (provider != null) {
+            OpenMon openMon = createQuietly(provider);
+            if (openMon != null) {
+                return openMon;
+            }
+        }
+        if (noneAvailable) {
             return defaultOpenMon;
         }
 
-        return openMon;
+        for (OpenMonProvider candidate : getFirstInstanceCandidates()) {
+            OpenMon openMon = createQuietly(candidate);
+            if (openMon != null) {
+                firstAvailable = candidate;
+                return openMon;
+            }
+        }
+        noneAvailable = true;
+        return defaultOpenMon;
+    }
+
+    /**
+     * Returns the providers tried by {@link #getFirstInstance()}, from the highest priority to the lowest.
+     *
+     * @return The providers.
+     */
+    List<OpenMonProvider> getFirstInstanceCandidates() {
+        discoverProviders();
+        List<OpenMonProvider> candidates = new ArrayList<>();
+        for (OpenMonProvider provider : providers.values()) {
+            if (provider.getPriority() != OpenMonProvider.REQUESTED_ONLY) {
+                candidates.add(provider);
+            }
+        }
+        candidates.sort(Comparator.comparingInt(OpenMonProvider::getPriority).reversed());
+        return candidates;
     }
 
     /**
@@ -129,7 +346,11 @@ public class OpenMonFactory {
      * @return A comma-separated string of OpenMon keys in alphabetical order, excluding fully qualified class names.
      */
     public String toString() {
-        List<String> keys = new ArrayList(openMonFactoryMap.keySet());
+        discoverProviders();
+        Set<String> allKeys = new HashSet<>(openMonFactoryMap.keySet());
+        allKeys.addAll(providers.keySet());
+        allKeys.addAll(aliases.keySet());
+        List<String> keys = new ArrayList<>(allKeys);
         Utils.removeClassNames(keys);
         Collections.sort(keys);
         return keys.toString();
@@ -143,7 +364,7 @@ public class OpenMonFactory {
      */
     private OpenMon create(String className) {
         try {
-            return (OpenMon) Class.forName(className).newInstance();
+            return newInstance(className);
         } catch (Throwable t) {
             System.err.println("Disabling Automon from " + getClass() + ": Failure in creating: '" + className +
                     "'. Remember a public noarg constructor is required." +
@@ -153,6 +374,33 @@ public class OpenMonFactory {
         }
     }
 
+    private OpenMon create(OpenMonProvider provider) {
+        try {
+            return provider.create();
+        } catch (Throwable t) {
+            System.err.println("Disabling Automon from " + getClass() + ": Failure in creating the OpenMon of the provider '" +
+                    provider.getKey() + "' (" + provider.getClass().getName() + ").");
+            t.printStackTrace();
+            return defaultOpenMon;
+        }
+    }
+
+    /**
+     * Creates the `OpenMon` of the provider, or returns null if it can't be created (i.e. its monitoring tool isn't in
+     * the classpath).
+     */
+    private static OpenMon createQuietly(OpenMonProvider provider) {
+        try {
+            return provider.create();
+        } catch (Throwable t) {
+            return null;
+        }
+    }
+
+    private OpenMon newInstance(String className) throws ReflectiveOperationException {
+        return (OpenMon) Class.forName(className, true, classLoader).getDeclaredConstructor().newInstance();
+    }
+
     /**
      * Clears the `openMonFactoryMap`, removing all registered OpenMon implementations.
      * <p>
@@ -160,5 +408,10 @@ public class OpenMonFactory {
      */
     void reset() {
         openMonFactoryMap.clear();
+        providers.clear();
+        aliases.clear();
+        discovered = true;
+        firstAvailable = null;
+        noneAvailable = false;
     }
-}
\ No newline at end of file
+}
@@ -0,0 +1,64 @@
+package org.automon.implementations;
+
+/**
+ * <p>Makes an `OpenMon` available to {@link OpenMonFactory} without configuring its class name. Providers are found
+ * with the `java.util.ServiceLoader` by listing them in `META-INF/services/org.automon.implementations.OpenMonProvider`
+ * of a jar, or can be added with {@link OpenMonFactory#add(OpenMonProvider)}.</p>
+ *
+ * <p>A provider only describes its `OpenMon`, which isn't created until it is requested by its key or chosen as the
+ * first available one (the one with the highest priority that can be created), so a provider must be cheap to
+ * construct.</p>
+ *
+ * <pre>
+ * public class MyToolProvider implements OpenMonProvider {
+ *     public String getKey() {
+ *         return "mytool";
+ *     }
+ *
+ *     public OpenMon create() {
+ *         return new MyToolOpenMon();
+ *     }
+ * }
+ * </pre>
+ */
+public interface OpenMonProvider {
+
+    /**
+     * The priority of a provider that doesn't override {@link #getPriority()}. It is above the priorities of the
+     * pre-installed `OpenMon`s (Metrics 40, Jamon 30, Micrometer 20 and NewRelic 10), so a discovered `OpenMon` is
+     * preferred to them when no `OpenMon` is configured.
+     */
+    int DEFAULT_PRIORITY = 100;
+
+    /**
+     * The priority of a provider whose `OpenMon` is only created when requested by its key, and never chosen as the
+     * first available one (i.e. `sysout` or `tracefile`).
+     */
+    int REQUESTED_ONLY = Integer.MIN_VALUE;
+
+    /**
+     * Returns the key used to request the `OpenMon`, i.e. in the `org.automon` property or via JMX. Keys are case
+     * insensitive.
+     *
+     * @return The key (i.e. "mytool").
+     */
+    String getKey();
+
+    /**
+     * Returns the priority of the `OpenMon` when the first available one is chosen. Higher priorities are tried first.
+     *
+     * @return The priority.
+     */
+    default int getPriority() {
+        return DEFAULT_PRIORITY;
+    }
+
+    /**
+     * Creates the `OpenMon`.
+     *
+     * @return A new `OpenMon`.
+     * @throws RuntimeException or LinkageError if it can't be created, i.e. when the monitoring tool isn't in the
+     *                          classpath.
+     */
+    OpenMon create();
+}
@@ -0,0 +1,172 @@
+package org.automon.implementations;
+
+/**
+ * <p>The providers of the pre-installed `OpenMon`s. They are listed in
+ * `META-INF/services/org.automon.implementations.OpenMonProvider` of the automon jar, so {@link OpenMonFactory} finds
+ * them with the `ServiceLoader` like any other provider, and each creates its `OpenMon` directly rather than by
+ * reflection.</p>
+ *
+ * <p>When no `OpenMon` is configured the first available one of Metrics, Jamon, Micrometer and NewRelic (in that order)
+ * is used. The others are only created when requested by their key.</p>
+ */
+public final class OpenMonProviders {
+
+    private OpenMonProviders() {
+    }
+
+    /**
+     * A pre-installed `OpenMon`. It can also be requested by its fully qualified class name and its simple class name.
+     */
+    abstract static class BuiltInProvider implements OpenMonProvider {
+        private final String key;
+        private final String className;
+        private final int priority;
+
+        BuiltInProvider(String key, String className, int priority) {
+            this.key = key;
+            this.className = className;
+            this.priority = priority;
+        }
+
+        @Override
+        public String getKey() {
+            return key;
+        }
+
+        /**
+         * @return The fully qualified class name of the `OpenMon`.
+         */
+        String getClassName() {
+            return className;
+        }
+
+        @Override
+        public int getPriority() {
+            return priority;
+        }
+    }
+
+    public static final class MetricsProvider extends BuiltInProvider {
+        public MetricsProvider() {
+            super("metrics", OpenMonFactory.METRICS, 40);
+        }
+
+        @Override
+        public OpenMon create() {
+            return new Metrics();
+        }
+    }
+
+    public static final class JamonProvider extends BuiltInProvider {
+        public JamonProvider() {
+            super("jamon", OpenMonFactory.JAMON, 30);
+        }
+
+        @Override
+        public OpenMon create() {
+            return new Jamon();
+        }
+    }
+
+    public static final class MicrometerProvider extends BuiltInProvider {
+        public MicrometerProvider() {
+            super("micrometer", OpenMonFactory.MICROMETER, 20);
+        }
+
+        @Override
+        public OpenMon create() {
+            return new Micrometer();
+        }
+    }
+
+    /**
+     * NewRelic has the lowest priority due to a known issue where its exception handling might not be caught correctly.
+     */
+    public static final class NewRelicProvider extends BuiltInProvider {
+        public NewRelicProvider() {
+            super("newrelicimp", OpenMonFactory.NEW_RELIC, 10);
+        }
+
+        @Override
+        public OpenMon create() {
+            return new NewRelicImp();
+        }
+    }
+
+    public static final class SysOutProvider extends BuiltInProvider {
+        public SysOutProvider() {
+            super("sysout", OpenMonFactory.SYSOUT, REQUESTED_ONLY);
+        }
+
+        @Override
+        public OpenMon create() {
+            return new SysOut();
+        }
+    }
+
+    public static final class NullImpProvider extends BuiltInProvider {
+        public NullImpProvider() {
+            super("nullimp", OpenMonFactory.NULL_IMP, REQUESTED_ONLY);
+        }
+
+        @Override
+        public OpenMon create() {
+            return new NullImp();
+        }
+    }
+
+    public static final class HdrHistogramProvider extends BuiltInProvider {
+        public HdrHistogramProvider() {
+            super("hdrhistogram", OpenMonFactory.HDR_HISTOGRAM, REQUESTED_ONLY);
+        }
+
+        @Override
+        public OpenMon create() {
+            return new HdrHistogram();
+        }
+    }
+
+    public static final class CountersProvider extends BuiltInProvider {
+        public CountersProvider() {
+            super("counters", OpenMonFactory.COUNTERS, REQUESTED_ONLY);
+        }
+
+        @Override
+        public OpenMon create() {
+            return new Counters();
+        }
+    }
+
+    public static final class TraceFileProvider extends BuiltInProvider {
+        public TraceFileProvider() {
+            super("tracefile", OpenMonFactory.TRACE_FILE, REQUESTED_ONLY);
+        }
+
+        @Override
+        public OpenMon create() {
+            return new TraceFile();
+        }
+    }
+
+    public static final class CallTreeProvider extends BuiltInProvider {
+        public CallTreeProvider() {
+            super("calltree", OpenMonFactory.CALL_TREE, REQUESTED_ONLY);
+        }
+
+        @Override
+        public OpenMon create() {
+            return new CallTree();
+        }
+    }
+
+    public static final class AsyncProvider extends BuiltInProvider {
+        public AsyncProvider() {
+            super("async", OpenMonFactory.ASYNC, REQUESTED_ONLY);
+        }
+
+        @Override
+        public OpenMon create() {
+            return new AsyncOpenMon();
+        }
+    }
+}
@@ -0,0 +1,64 @@
+package org.automon.implementations;
+
+import org.automon.utils.AutomonPropertiesLoader;
+import org.automon.utils.Utils;
+
+/**
+ * <p>Holds the `OpenMon` configured by `org.automon` in a `static final` field when `org.automon.specialize=true`, so
+ * the monitoring aspects can call it on a constant rather than through the `OpenMon` interface.</p>
+ *
+ * <p>The advice of `MonitoringAspect` is shared by every concrete aspect, so when several `OpenMon` implementations are
+ * used in a JVM (or one is replaced via JMX) its `start`/`stop` call sites see several receiver types, become
+ * megamorphic and are no longer inlined. The JIT treats a `static final` field as a constant of a known class, so
+ * calls on it are devirtualized and inlined whatever the call site's type profile, just as with a `MethodHandle` bound
+ * to the instance in a constant call site.</p>
+ *
+ * <p>The `OpenMon` is created once, when this class is initialized, and shared by every monitoring aspect. An aspect
+ * switched to another `OpenMon` (i.e. via JMX) uses the regular interface calls, and the shared `OpenMon` isn't closed
+ * by the switch.</p>
+ *
+ * <pre>
+ * org.automon=micrometer
+ * org.automon.specialize=true
+ * </pre>
+ */
+public final class SpecializedOpenMon {
+
+    private static final OpenMon OPEN_MON = isEnabled(Utils.AUTOMON_PROPERTIES) ?
+            create(Utils.AUTOMON_PROPERTIES.getProperties().getProperty(AutomonPropertiesLoader.CONFIGURED_OPEN_MON)) : null;
+
+    private SpecializedOpenMon() {
+    }
+
+    /**
+     * Returns the `OpenMon` bound when this class was initialized.
+     *
+     * @return The `OpenMon`, or null if specialization isn't enabled.
+     */
+    public static OpenMon get() {
+        return OPEN_MON;
+    }
+
+    static boolean isEnabled(AutomonPropertiesLoader properties) {
+        return "true".equalsIgnoreCase(properties.getProperties().getProperty(AutomonPropertiesLoader.SPECIALIZE, "false").trim());
+    }
+
+    /**
+     * Creates the `OpenMon` with the given key the way the monitoring aspects do.
+     *
+     * @param openMonKey The key(s) or class name(s). Null or empty creates the first available pre-installed `OpenMon`.
+     * @return The `OpenMon`.
+     */
+    static OpenMon create(String openMonKey) {
+        OpenMonFactory factory = OpenMonFactory.getSharedInstance(SpecializedOpenMon.class.getClassLoader());
+        if (openMonKey == null || openMonKey.trim().isEmpty()) {
+            return factory.getFirstInstance();
+        }
+        for (String key : Utils.tokenize(openMonKey, ",")) {
+            if (Utils.hasPackageName(key)) {
+                factory.add(key);
+            }
+        }
+        return factory.getInstance(openMonKey);
+    }
+}
@@ -9,39 +9,40 @@ import org.automon.utils.Utils;
  * <p>This implementation is primarily used for understanding the basic workings of Automon.
  * </p>
  */
-public final class SysOut implements OpenMon<TimerContext> {
+public final class SysOut extends NanoOpenMonBase {
 
     /**
      * Starts monitoring a method execution by printing a "start" message to `System.out`.
      *
      * @param jp The static part of the JoinPoint representing the intercepted method.
-     * @return A `TimerContext` object to track the execution time.
+     * @return The join point, which is passed back to `stop`.
      */
     @Override
-    public TimerContext start(JoinPoint.StaticPart jp) {
+    public JoinPoint.StaticPart start(JoinPoint.StaticPart jp) {
         System.out.println("SysOut.start(..): " + Utils.getLabel(jp));
-        return new TimerContext(jp);
+        return super.start(jp);
     }
 
     /**
-     * Stops monitoring a method execution and prints the elapsed time in milliseconds to `System.out`.
+     * Prints the elapsed time in nanoseconds to `System.out`.
      *
-     * @param context The `TimerContext` containing the join point and start time information.
+     * @param jp              The static part of the JoinPoint representing the intercepted method.
+     * @param executionTimeNs The execution time in nanoseconds.
      */
     @Override
-    public void stop(TimerContext context) {
-        System.out.println("SysOut.stop(..) ms.: " + context.stop());
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs) {
+        System.out.println("SysOut.stop(..) ns.: " + executionTimeNs);
     }
 
     /**
      * Stops monitoring a method execution, prints the elapsed time, and the exception information to `System.out`.
      *
-     * @param context   The `TimerContext` containing the join point and start time information.
+     * @param jp        The join point returned by `start`.
      * @param throwable The exception that occurred during the monitored execution.
      */
     @Override
-    public void stop(TimerContext context, Throwable throwable) {
-        System.out.println("SysOut.stop(..) ms.: " + context.stop() + " - Exception: " + throwable);
+    public void stop(JoinPoint.StaticPart jp, Throwable throwable) {
+        System.out.println("SysOut.stop(..) ns.: " + NanoTimer.get().stop() + " - Exception: " + throwable);
     }
 
     /**
@@ -54,4 +55,4 @@ public final class SysOut implements OpenMon<TimerContext> {
     public void exception(JoinPoint jp, Throwable throwable) {
         System.out.println("SysOut.exception(..): JoinPoint=" + jp + ", Exception=" + throwable);
     }
-}
\ No newline at end of file
+}
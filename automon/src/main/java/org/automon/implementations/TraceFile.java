@@ -0,0 +1,138 @@
+package org.automon.implementations;
+
+import org.aspectj.lang.JoinPoint;
+import org.automon.utils.AutomonClock;
+import org.automon.utils.AutomonPropertiesLoader;
+import org.automon.utils.LogTracingHelper;
+import org.automon.utils.TraceRingFile;
+import org.automon.utils.Utils;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.file.Path;
+
+/**
+ * <p>An `OpenMon` implementation that writes a fixed-size binary record of each call (end time, thread, join point,
+ * depth, execution time, whether it threw an exception and the request id) to a memory-mapped ring file
+ * ({@link TraceRingFile}). The file holds the most recent calls, costs no more than a few memory stores per call and
+ * survives the JVM crashing, so it can be used to see what the application was doing before an incident.</p>
+ *
+ * <p>To enable this class for monitoring, add the following line to your `automon.properties` file:</p>
+ *
+ * <pre>
+ * org.automon=tracefile
+ * </pre>
+ *
+ * <p>`org.automon.tracefile.path` (default `automon-trace-{pid}.bin`), `org.automon.tracefile.regions` and
+ * `org.automon.tracefile.recordsPerRegion` configure the file, which is shared by every `TraceFile` instance. Decode it
+ * with:</p>
+ *
+ * <pre>
+ * java -cp automon.jar org.automon.utils.TraceRingFileDecoder automon-trace-1234.bin [--json]
+ * </pre>
+ *
+ * <p>The thread, depth, request id and end time of a record are read from the thread that records it, so `TraceFile`
+ * can't record from the consumer thread of an {@link AsyncOpenMon} (see {@link #isCallerThreadRequired()}).</p>
+ */
+public class TraceFile extends NanoOpenMonBase {
+
+    static final String DEFAULT_PATH = "automon-trace-{pid}.bin";
+    static final int DEFAULT_RECORDS_PER_REGION = 65536;
+
+    private static TraceRingFile sharedFile;
+    private static boolean openFailed;
+
+    private final TraceRingFile file;
+
+    /**
+     * Constructs an instance that writes to the shared file, which is created the first time.
+     */
+    public TraceFile() {
+        this(getSharedFile());
+    }
+
+    /**
+     * Constructs an instance that writes to the given file. This method is primarily intended for testing purposes.
+     *
+     * @param file The file (may be null, in which case nothing is written).
+     */
+    TraceFile(TraceRingFile file) {
+        this.file = file;
+    }
+
+    private static synchronized TraceRingFile getSharedFile() {
+        if (sharedFile == null && !openFailed) {
+            String path = Utils.AUTOMON_PROPERTIES.getProperties().getProperty(AutomonPropertiesLoader.TRACE_FILE_PATH, DEFAULT_PATH)
+                    .trim().replace("{pid}", String.valueOf(ProcessHandle.current().pid()));
+            try {
+                sharedFile = new TraceRingFile(Path.of(path),
+                        Utils.AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.TRACE_FILE_REGIONS, Runtime.getRuntime().availableProcessors()),
+                        Utils.AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.TRACE_FILE_RECORDS_PER_REGION, DEFAULT_RECORDS_PER_REGION));
+            } catch (IOException | RuntimeException e) {
+                openFailed = true;
+                System.err.println("Automon: Unable to create the trace file '" + path + "', so no records will be written: " + e);
+            }
+        }
+        return sharedFile;
+    }
+
+    /**
+     * @return The file the records are written to (null if it couldn't be created).
+     */
+    public TraceRingFile getFile() {
+        return file;
+    }
+
+    /**
+     * Writes a record of a call that returned.
+     *
+     * @param jp              The static part of the JoinPoint representing the intercepted method.
+     * @param executionTimeNs The execution time in nanoseconds.
+     */
+    @Override
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs) {
+        write(jp, executionTimeNs, false);
+    }
+
+    /**
+     * Writes a record of a call that threw an exception and tracks the exception.
+     *
+     * @param jp        The join point returned by `start`.
+     * @param throwable The exception thrown by the intercepted method.
+     */
+    @Override
+    public void stop(JoinPoint.StaticPart jp, Throwable throwable) {
+        record(jp, NanoTimer.get().stop(), throwable);
+    }
+
+    /**
+     * Writes a record of a call that threw an exception and tracks the exception.
+     *
+     * @param jp              The static part of the JoinPoint representing the intercepted method.
+     * @param executionTimeNs The execution time in nanoseconds.
+     * @param throwable       The exception that was thrown (may be null).
+     */
+    @Override
+    public void record(JoinPoint.StaticPart jp, long executionTimeNs, Throwable throwable) {
+        write(jp, executionTimeNs, true);
+        if (throwable != null) {
+            put(throwable);
+        }
+    }
+
+    /**
+     * @return true as the record is made of the state of the calling thread.
+     */
+    @Override
+    public boolean isCallerThreadRequired() {
+        return true;
+    }
+
+    private void write(JoinPoint.StaticPart jp, long executionTimeNs, boolean failed) {
+        if (file != null) {
+            // the timer has been popped so the depth is that of the enclosing calls
+            file.write(jp, AutomonClock.get().currentTimeMillis(), Thread.currentThread().getId(), executionTimeNs,
+                    NanoTimer.get().getDepth(), failed, MDC.get(LogTracingHelper.REQUEST_ID));
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package org.automon.jmx;
+
+import javax.management.MXBean;
+
+/**
+ * <p>JMX interface for monitoring the buffer between `AsyncOpenMon` and the `OpenMon` it records to.</p>
+ * <p>The counters show whether the background consumer is keeping up: events that couldn't be buffered are either
+ * dropped or recorded on the calling thread depending on the overflow policy.</p>
+ */
+@MXBean
+public interface AsyncOpenMonMXBean {
+
+    /**
+     * Returns the `OpenMon` events are recorded to.
+     *
+     * @return The string representation of the backing `OpenMon`.
+     */
+    String getOpenMonString();
+
+    /**
+     * Returns what happens to an event when the buffer is full.
+     *
+     * @return drop or sync.
+     */
+    String getOverflowPolicy();
+
+    /**
+     * Changes what happens to an event when the buffer is full.
+     *
+     * @param overflowPolicy drop (lose the event) or sync (record it on the calling thread).
+     */
+    void setOverflowPolicy(String overflowPolicy);
+
+    /**
+     * Returns the number of events the buffer can hold.
+     *
+     * @return The buffer capacity.
+     */
+    long getBufferCapacity();
+
+    /**
+     * Returns the approximate number of events waiting to be recorded.
+     *
+     * @return The number of buffered events.
+     */
+    long getBufferSize();
+
+    /**
+     * Returns the number of events added to the buffer.
+     *
+     * @return The number of buffered events since startup.
+     */
+    long getBuffered();
+
+    /**
+     * Returns the number of events that were lost because the buffer was full.
+     *
+     * @return The number of dropped events.
+     */
+    long getDropped();
+
+    /**
+     * Returns the number of events recorded on the calling thread because the buffer was full (backpressure).
+     *
+     * @return The number of events recorded synchronously.
+     */
+    long getRecordedOnCallerThread();
+
+    /**
+     * Returns the number of buffered events the consumer has recorded.
+     *
+     * @return The number of consumed events.
+     */
+    long getConsumed();
+
+    /**
+     * Returns the number of times the consumer drained events from the buffer.
+     *
+     * @return The number of batches.
+     */
+    long getBatches();
+
+    /**
+     * Returns the number of recorded events where the method threw an exception.
+     *
+     * @return The number of failed calls.
+     */
+    long getFailed();
+
+    /**
+     * Returns the number of events the backing `OpenMon` threw an exception recording.
+     *
+     * @return The number of errors.
+     */
+    long getErrors();
+}
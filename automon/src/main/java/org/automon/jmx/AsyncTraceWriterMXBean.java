@@ -0,0 +1,83 @@
+package org.automon.jmx;
+
+import javax.management.MXBean;
+
+/**
+ * <p>JMX interface for monitoring the queue between the tracing aspects and the thread that writes their messages
+ * (`AsyncTraceWriter`).</p>
+ * <p>The counters show whether the writer is keeping up: messages that couldn't be queued are either dropped or
+ * logged on the calling thread depending on the overflow policy.</p>
+ */
+@MXBean
+public interface AsyncTraceWriterMXBean {
+
+    /**
+     * Returns what happens to a message when the queue is full.
+     *
+     * @return drop or sync.
+     */
+    String getOverflowPolicy();
+
+    /**
+     * Changes what happens to a message when the queue is full.
+     *
+     * @param overflowPolicy drop (lose the message) or sync (log it on the calling thread).
+     */
+    void setOverflowPolicy(String overflowPolicy);
+
+    /**
+     * Returns the number of messages the queue can hold.
+     *
+     * @return The queue capacity.
+     */
+    long getQueueCapacity();
+
+    /**
+     * Returns the number of messages waiting to be written (the queue depth).
+     *
+     * @return The number of queued messages.
+     */
+    long getQueueSize();
+
+    /**
+     * Returns the number of messages added to the queue.
+     *
+     * @return The number of queued messages since startup.
+     */
+    long getQueued();
+
+    /**
+     * Returns the number of messages that were lost because the queue was full.
+     *
+     * @return The number of dropped messages.
+     */
+    long getDropped();
+
+    /**
+     * Returns the number of messages logged on the calling thread because the queue was full.
+     *
+     * @return The number of messages logged synchronously.
+     */
+    long getLoggedOnCallerThread();
+
+    /**
+     * Returns the number of queued messages the writer thread has logged.
+     *
+     * @return The number of written messages.
+     */
+    long getWritten();
+
+    /**
+     * Returns the number of times the writer took messages from the queue.
+     *
+     * @return The number of batches.
+     */
+    long getBatches();
+
+    /**
+     * Returns the number of messages that threw an exception when formatted or logged.
+     *
+     * @return The number of errors.
+     */
+    long getErrors();
+}
@@ -0,0 +1,68 @@
+package org.automon.jmx;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * <p>The aggregated calls from one join point to another in the call graph of the `CallTree` `OpenMon`. Times are in
+ * nanoseconds.</p>
+ * <p>Returned by {@link CallTreeMXBean}, where it is shown as `CompositeData` by JMX consoles.</p>
+ */
+public class CallEdgeSnapshot {
+
+    private final String caller;
+    private final String callee;
+    private final long calls;
+    private final long inclusiveNs;
+    private final long exclusiveNs;
+    private final long exceptions;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param caller      The label of the calling join point (empty for the outermost calls of a request).
+     * @param callee      The label of the called join point.
+     * @param calls       The number of calls.
+     * @param inclusiveNs The total time of the calls including the join points they called.
+     * @param exclusiveNs The total time of the calls excluding the monitored join points they called.
+     * @param exceptions  The number of calls that threw an exception.
+     */
+    @ConstructorProperties({"caller", "callee", "calls", "inclusiveNs", "exclusiveNs", "exceptions"})
+    public CallEdgeSnapshot(String caller, String callee, long calls, long inclusiveNs, long exclusiveNs, long exceptions) {
+        this.caller = caller;
+        this.callee = callee;
+        this.calls = calls;
+        this.inclusiveNs = inclusiveNs;
+        this.exclusiveNs = exclusiveNs;
+        this.exceptions = exceptions;
+    }
+
+    public String getCaller() {
+        return caller;
+    }
+
+    public String getCallee() {
+        return callee;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public long getInclusiveNs() {
+        return inclusiveNs;
+    }
+
+    public long getExclusiveNs() {
+        return exclusiveNs;
+    }
+
+    public long getExceptions() {
+        return exceptions;
+    }
+
+    @Override
+    public String toString() {
+        return caller + " -> " + callee + ": calls=" + calls + ", inclusiveNs=" + inclusiveNs +
+                ", exclusiveNs=" + exclusiveNs + ", exceptions=" + exceptions;
+    }
+}
@@ -0,0 +1,82 @@
+package org.automon.jmx;
+
+import javax.management.MXBean;
+import java.util.List;
+
+/**
+ * <p>JMX interface for viewing the call graph aggregated by the `CallTree` `OpenMon` and the call trees of its slow
+ * requests.</p>
+ * <p>The graph is bounded: calls between join points that aren't in the graph once it is full are counted as dropped.</p>
+ */
+@MXBean
+public interface CallTreeMXBean {
+
+    /**
+     * Returns the edges of the call graph, most inclusive time first.
+     *
+     * @return A snapshot of each edge.
+     */
+    List<CallEdgeSnapshot> getEdges();
+
+    /**
+     * Returns the number of edges in the call graph.
+     *
+     * @return The number of edges.
+     */
+    int getSize();
+
+    /**
+     * Returns the maximum number of edges the call graph holds.
+     *
+     * @return The maximum number of edges.
+     */
+    int getMaxEdges();
+
+    /**
+     * Returns the number of calls that weren't added to the graph because it was full.
+     *
+     * @return The number of dropped calls.
+     */
+    long getDroppedCalls();
+
+    /**
+     * Returns the number of calls that weren't added to their request's tree because the tree was full. Their time is
+     * included in their caller's exclusive time.
+     *
+     * @return The number of truncated calls.
+     */
+    long getTruncatedCalls();
+
+    /**
+     * Returns the number of requests (outermost calls) that have completed.
+     *
+     * @return The number of requests.
+     */
+    long getRequests();
+
+    /**
+     * Returns the call trees of the most recent requests that were slower than the threshold, most recent first.
+     *
+     * @return The rendered call trees.
+     */
+    List<String> getSlowTrees();
+
+    /**
+     * Returns the time in milliseconds a request must take for its call tree to be exported.
+     *
+     * @return The threshold (negative if disabled).
+     */
+    double getSlowThresholdMs();
+
+    /**
+     * Changes the time in milliseconds a request must take for its call tree to be exported.
+     *
+     * @param slowThresholdMs The threshold. A negative value disables the export.
+     */
+    void setSlowThresholdMs(double slowThresholdMs);
+
+    /**
+     * Discards the call graph and the slow call trees.
+     */
+    void reset();
+}
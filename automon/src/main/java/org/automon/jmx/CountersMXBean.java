@@ -0,0 +1,39 @@
+package org.automon.jmx;
+
+import javax.management.MXBean;
+import java.util.Map;
+
+/**
+ * <p>JMX interface for viewing the counts kept by the `Counters` `OpenMon`.</p>
+ * <p>The counts are cumulative since the JVM started or the counters were last reset.</p>
+ */
+@MXBean
+public interface CountersMXBean {
+
+    /**
+     * Returns the number of completed calls to each join point, keyed by the join point label.
+     *
+     * @return The invocation counts.
+     */
+    Map<String, Long> getInvocations();
+
+    /**
+     * Returns the number of calls to each join point that threw an exception, keyed by the join point label.
+     *
+     * @return The failure counts.
+     */
+    Map<String, Long> getFailures();
+
+    /**
+     * Returns the number of exceptions thrown of each type, keyed by the exception class name. Also includes the total
+     * under `org.automon.Exceptions`.
+     *
+     * @return The exception counts.
+     */
+    Map<String, Long> getExceptions();
+
+    /**
+     * Sets every count back to 0.
+     */
+    void reset();
+}
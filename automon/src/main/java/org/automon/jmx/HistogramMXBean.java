@@ -0,0 +1,39 @@
+package org.automon.jmx;
+
+import javax.management.MXBean;
+import java.util.List;
+
+/**
+ * <p>JMX interface for viewing the latency percentiles recorded by the `HdrHistogram` `OpenMon`.</p>
+ * <p>The values are in nanoseconds and are cumulative since the JVM started or the histograms were last reset.</p>
+ */
+@MXBean
+public interface HistogramMXBean {
+
+    /**
+     * Returns the latency distribution of every join point that has been recorded, sorted by label.
+     *
+     * @return A snapshot of each join point's histogram.
+     */
+    List<HistogramSnapshot> getHistograms();
+
+    /**
+     * Returns the latency distribution of the join point with the given label.
+     *
+     * @param label The join point label.
+     * @return The snapshot, or null if no join point with the label has been recorded.
+     */
+    HistogramSnapshot getHistogram(String label);
+
+    /**
+     * Returns the number of join points with a histogram.
+     *
+     * @return The number of histograms.
+     */
+    int getSize();
+
+    /**
+     * Discards all recorded values.
+     */
+    void reset();
+}
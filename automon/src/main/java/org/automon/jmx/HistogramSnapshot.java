@@ -0,0 +1,88 @@
+package org.automon.jmx;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * <p>The latency distribution of one join point at the time it was read. All values are in nanoseconds.</p>
+ * <p>Returned by {@link HistogramMXBean}, where it is shown as `CompositeData` by JMX consoles.</p>
+ */
+public class HistogramSnapshot {
+
+    private final String label;
+    private final long count;
+    private final long min;
+    private final double mean;
+    private final long p50;
+    private final long p90;
+    private final long p99;
+    private final long p999;
+    private final long max;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param label The join point label.
+     * @param count The number of recorded calls.
+     * @param min   The fastest call.
+     * @param mean  The mean.
+     * @param p50   The median.
+     * @param p90   The 90th percentile.
+     * @param p99   The 99th percentile.
+     * @param p999  The 99.9th percentile.
+     * @param max   The slowest call.
+     */
+    @ConstructorProperties({"label", "count", "min", "mean", "p50", "p90", "p99", "p999", "max"})
+    public HistogramSnapshot(String label, long count, long min, double mean, long p50, long p90, long p99, long p999, long max) {
+        this.label = label;
+        this.count = count;
+        this.min = min;
+        this.mean = mean;
+        this.p50 = p50;
+        this.p90 = p90;
+        this.p99 = p99;
+        this.p999 = p999;
+        this.max = max;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getCount() {
+        return count;
+    }
+
+    public long getMin() {
+        return min;
+    }
+
+    public double getMean() {
+        return mean;
+    }
+
+    public long getP50() {
+        return p50;
+    }
+
+    public long getP90() {
+        return p90;
+    }
+
+    public long getP99() {
+        return p99;
+    }
+
+    public long getP999() {
+        return p999;
+    }
+
+    public long getMax() {
+        return max;
+    }
+
+    @Override
+    public String toString() {
+        return label + ": count=" + count + ", min=" + min + ", mean=" + Math.round(mean) + ", p50=" + p50 + ", p90=" + p90 +
+                ", p99=" + p99 + ", p999=" + p999 + ", max=" + max + " (ns.)";
+    }
+}
@@ -0,0 +1,77 @@
+package org.automon.jmx;
+
+import javax.management.MXBean;
+import java.util.List;
+
+/**
+ * <p>JMX interface for controlling individual join points of the monitoring and tracing aspects at runtime, i.e. to
+ * stop monitoring one hot method without disabling the whole aspect.</p>
+ * <p>Join points are selected by a glob matched against their label (`*` matches any characters and `?` one), i.e.
+ * `*OrderService.*` or `execution(void com.mycompany.OrderService.place(..))`. Each change is kept as a rule so it also
+ * applies to matching join points that haven't been called yet, and later rules override earlier ones.</p>
+ */
+@MXBean
+public interface JoinPointControlMXBean {
+
+    /**
+     * Returns the join points the aspects have seen, most calls first.
+     *
+     * @return A snapshot of each join point.
+     */
+    List<JoinPointSnapshot> getJoinPoints();
+
+    /**
+     * Returns the number of join points the aspects have seen.
+     *
+     * @return The number of join points.
+     */
+    int getSize();
+
+    /**
+     * Enables or disables monitoring of the matching join points.
+     *
+     * @param glob    The glob matched against the join point labels.
+     * @param enabled false to stop monitoring them.
+     * @return The number of join points seen so far that matched.
+     */
+    int setEnabled(String glob, boolean enabled);
+
+    /**
+     * Changes the probability a call to the matching join points is monitored. It applies in addition to the aspect's
+     * sampling.
+     *
+     * @param glob The glob matched against the join point labels.
+     * @param rate 0.0 to 1.0 (1.0 monitors every call).
+     * @return The number of join points seen so far that matched.
+     * @throws IllegalArgumentException If the rate is NaN or infinite.
+     */
+    int setSampleRate(String glob, double rate);
+
+    /**
+     * Changes what the tracing aspects log for the matching join points: `default` (the aspect's settings), `off`
+     * (no BEFORE, AFTER or SLOW messages, though the context is still added and failures are still logged) or `all`
+     * (BEFORE and AFTER messages even if the aspect only logs slow calls).
+     *
+     * @param glob  The glob matched against the join point labels.
+     * @param level default, off or all.
+     * @return The number of join points seen so far that matched.
+     */
+    int setTraceLevel(String glob, String level);
+
+    /**
+     * Returns the rules in the order they were added.
+     *
+     * @return The rules.
+     */
+    List<String> getRules();
+
+    /**
+     * Removes the rules so every join point is monitored and traced as configured by its aspect.
+     */
+    void clearRules();
+
+    /**
+     * Sets the call counts back to 0.
+     */
+    void resetCallCounts();
+}
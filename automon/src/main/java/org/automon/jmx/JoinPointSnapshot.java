@@ -0,0 +1,60 @@
+package org.automon.jmx;
+
+import java.beans.ConstructorProperties;
+
+/**
+ * <p>The control state and call count of one join point in the `JoinPointControl` registry.</p>
+ * <p>Returned by {@link JoinPointControlMXBean}, where it is shown as `CompositeData` by JMX consoles.</p>
+ */
+public class JoinPointSnapshot {
+
+    private final String label;
+    private final long calls;
+    private final boolean enabled;
+    private final double sampleRate;
+    private final String traceLevel;
+
+    /**
+     * Constructs a snapshot.
+     *
+     * @param label      The label of the join point.
+     * @param calls      The number of calls the monitoring aspects have seen.
+     * @param enabled    Whether the join point is monitored.
+     * @param sampleRate The probability a call to the join point is monitored.
+     * @param traceLevel What the tracing aspects log for the join point (default, off or all).
+     */
+    @ConstructorProperties({"label", "calls", "enabled", "sampleRate", "traceLevel"})
+    public JoinPointSnapshot(String label, long calls, boolean enabled, double sampleRate, String traceLevel) {
+        this.label = label;
+        this.calls = calls;
+        this.enabled = enabled;
+        this.sampleRate = sampleRate;
+        this.traceLevel = traceLevel;
+    }
+
+    public String getLabel() {
+        return label;
+    }
+
+    public long getCalls() {
+        return calls;
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    public double getSampleRate() {
+        return sampleRate;
+    }
+
+    public String getTraceLevel() {
+        return traceLevel;
+    }
+
+    @Override
+    public String toString() {
+        return label + ": calls=" + calls + ", enabled=" + enabled + ", sampleRate=" + sampleRate +
+                ", traceLevel=" + traceLevel;
+    }
+}
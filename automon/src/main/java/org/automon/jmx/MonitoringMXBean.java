@@ -1,6 +1,7 @@
 package org.automon.jmx;
 
 import javax.management.MXBean;
+import java.util.Map;
 
 /**
  * <p>This is a JMX MBean interface that allows for the dynamic configuration of the `MonitoringAspect` at runtime.</p>
@@ -14,7 +15,8 @@ public interface MonitoringMXBean extends EnableMXBean {
      * Dynamically changes the implementation of `OpenMon` used for monitoring.
      * This also allows enabling or disabling Automon monitoring at runtime.
      *
-     * @param openMon A string representing the desired `OpenMon` implementation (e.g., "jamon", "metrics").
+     * @param openMon A string representing the desired `OpenMon` implementation (e.g., "jamon", "metrics"), or several
+     *                comma-separated keys to record to each of them (e.g., "jamon,micrometer").
      */
     void setOpenMon(String openMon);
 
@@ -25,6 +27,38 @@ public interface MonitoringMXBean extends EnableMXBean {
      */
     String getOpenMonString();
 
+    /**
+     * Returns the number of times the `OpenMon` implementation was replaced. Calls in flight when it is replaced
+     * complete with the implementation they started with, which is then closed.
+     *
+     * @return The epoch of the current `OpenMon`.
+     */
+    long getOpenMonEpoch();
+
+    /**
+     * Returns the number of threads in a call monitored by the current `OpenMon` implementation. Nested calls aren't
+     * counted.
+     *
+     * @return The number of in-flight calls.
+     */
+    long getInFlightCalls();
+
+    /**
+     * Returns the time it took to initialize the aspect, i.e. to read its configuration and register it with JMX. The
+     * `OpenMon` is created later, on the first monitored call, unless `org.automon.lazy=false`.
+     *
+     * @return The time in nanoseconds.
+     */
+    long getInitializationNanos();
+
+    /**
+     * Returns the time it took to create the configured `OpenMon`, including discovering the `OpenMonProvider`s when
+     * this was the first aspect of its class loader to create one.
+     *
+     * @return The time in nanoseconds, or 0 if it hasn't been created yet or was set explicitly.
+     */
+    long getOpenMonCreationNanos();
+
     /**
      * Returns a list of all registered `OpenMon` implementations.
      * <p>
@@ -35,4 +69,63 @@ public interface MonitoringMXBean extends EnableMXBean {
      * @return A comma-separated list of valid `OpenMon` keys.
      */
     String getValidOpenMons();
+
+    /**
+     * Returns the statistics of the current `OpenMon`'s store of recently thrown exceptions: its size and maximum size
+     * and how many entries were removed because they expired, because the store was full, or because the exception
+     * was garbage collected.
+     *
+     * @return The exception store statistics, or an empty map if the `OpenMon` doesn't track exceptions.
+     */
+    Map<String, Long> getExceptionStatistics();
+
+    /**
+     * Returns the sampling mode: all (every call is monitored), fixed, ratelimited or adaptive.
+     *
+     * @return The sampling mode.
+     */
+    String getSamplingMode();
+
+    /**
+     * Changes the sampling mode.
+     *
+     * @param mode all, fixed, ratelimited or adaptive.
+     */
+    void setSamplingMode(String mode);
+
+    /**
+     * Returns the probability a call is monitored in `fixed` sampling mode.
+     *
+     * @return 0.0 to 1.0
+     */
+    double getSampleRate();
+
+    /**
+     * Changes the probability a call is monitored in `fixed` sampling mode (i.e. 0.01 monitors 1 in 100 calls).
+     *
+     * @param rate 0.0 to 1.0
+     */
+    void setSampleRate(double rate);
+
+    /**
+     * Returns the maximum number of calls per second per join point monitored in `ratelimited` and `adaptive` mode.
+     *
+     * @return The samples per second.
+     */
+    int getSamplesPerSecond();
+
+    /**
+     * Changes the maximum number of calls per second per join point monitored in `ratelimited` and `adaptive` mode.
+     *
+     * @param samplesPerSecond The samples per second.
+     */
+    void setSamplesPerSecond(int samplesPerSecond);
+
+    /**
+     * Returns the fraction of calls that were monitored for each join point, keyed by the join point label. Monitored
+     * counts can be divided by this rate to estimate the actual number of calls.
+     *
+     * @return The effective sample rate of each join point (empty when every call is monitored).
+     */
+    Map<String, Double> getEffectiveSampleRates();
 }
@@ -1,6 +1,7 @@
 package org.automon.jmx;
 
 import javax.management.MXBean;
+import java.util.Map;
 
 /**
  * This is a JMX MBean interface that provides control over the tracing aspect's tracing/logging functionality at runtime.
@@ -22,4 +23,57 @@ public interface TracingMXBean extends EnableMXBean {
      * @return `true` if logging is enabled, `false` otherwise.
      */
     boolean isLoggingEnabled();
+
+    /**
+     * Enables or disables writing the messages from a background thread (`AsyncTraceWriter`) rather than the traced
+     * thread.
+     *
+     * @param enabled `true` to write the messages asynchronously.
+     */
+    void enableAsyncLogging(boolean enabled);
+
+    /**
+     * Checks if the messages are written from a background thread.
+     *
+     * @return `true` if the messages are written asynchronously.
+     */
+    boolean isAsyncLoggingEnabled();
+
+    /**
+     * Sets the slow call threshold. When set, the 'BEFORE' and 'AFTER' messages aren't logged and a single 'SLOW'
+     * message with the full context is logged for calls that take at least the threshold. Failed calls are always
+     * logged.
+     *
+     * @param thresholdMs The threshold in milliseconds (i.e. 0.5). Negative logs every call.
+     */
+    void setSlowThresholdMs(double thresholdMs);
+
+    /**
+     * Returns the slow call threshold.
+     *
+     * @return The threshold in milliseconds, or -1 if every call is logged.
+     */
+    double getSlowThresholdMs();
+
+    /**
+     * Sets the slow call threshold of a join point, overriding the aspect's threshold.
+     *
+     * @param signature   The join point's short signature as it appears in the NDC (i.e. `MyService.find(..)`).
+     * @param thresholdMs The threshold in milliseconds. Negative logs every call to the join point.
+     */
+    void setJoinPointSlowThresholdMs(String signature, double thresholdMs);
+
+    /**
+     * Removes the threshold of a join point so it uses the aspect's threshold again.
+     *
+     * @param signature The join point's short signature.
+     */
+    void removeJoinPointSlowThreshold(String signature);
+
+    /**
+     * Returns the thresholds set for individual join points.
+     *
+     * @return The thresholds in milliseconds keyed by short signature.
+     */
+    Map<String, Double> getJoinPointSlowThresholdsMs();
 }
\ No newline at end of file
@@ -6,7 +6,8 @@ import org.aspectj.lang.annotation.Pointcut;
 /**
  * <p>This AspectJ aspect defines standard pointcuts for monitoring common classes in the JDK related to I/O operations.</p>
  *
- * <p>It includes pointcuts for JDBC (database interactions), IO (file and stream operations), and network (socket and connection) operations.</p>
+ * <p>It includes pointcuts for JDBC (database interactions), IO (file and stream operations), and network (socket and connection) operations,
+ * and for handing tasks to other threads (executors and `CompletableFuture`).</p>
  *
  * <p>**Note:**</p>
  * <ul>
@@ -67,4 +68,23 @@ public abstract class Jdk {
     )
     public void net() {
     }
-}
\ No newline at end of file
+
+    /**
+     * Pointcut for tasks handed to other threads.
+     * <p>
+     * This pointcut matches calls that pass a task to an `Executor`, `ExecutorService` or `ScheduledExecutorService`
+     * (including virtual thread executors) and the async methods of `CompletableFuture`. It is intended for the
+     * `ContextPropagationAspect`.
+     * </p>
+     */
+    @Pointcut(
+            "call(* java.util.concurrent.Executor+.execute(Runnable)) || " +
+                    "call(* java.util.concurrent.ExecutorService+.submit(..)) || " +
+                    "call(* java.util.concurrent.ExecutorService+.invokeAll(..)) || " +
+                    "call(* java.util.concurrent.ExecutorService+.invokeAny(..)) || " +
+                    "call(* java.util.concurrent.ScheduledExecutorService+.schedule*(..)) || " +
+                    "call(* java.util.concurrent.CompletableFuture+.*Async(..))"
+    )
+    public void executors() {
+    }
+}
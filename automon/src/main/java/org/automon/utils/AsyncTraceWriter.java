@@ -0,0 +1,421 @@
+package org.automon.utils;
+
+import org.aspectj.lang.JoinPoint;
+import org.automon.jmx.AsyncTraceWriterMXBean;
+import org.slf4j.Logger;
+import org.slf4j.MDC;
+import org.slf4j.event.Level;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * <p>Writes the messages of the tracing aspects from a background thread, so the latency of the logging backend isn't
+ * added to each traced call.</p>
+ *
+ * <p>{@link #offer(Logger, Level, String, Throwable)} captures the context of the calling thread in a compact event:
+ * the Automon entries of the MDC (the request id and, in the MDC mode, the NDC and the values added by the aspects;
+ * entries added by the application aren't copied) and, for the structured and chain contexts (see {@link LogTracingHelper.ContextMode}), the join
+ * points on the stack and a copy of the innermost frame. Parameters, the return value, `this` and the target are kept
+ * as objects and only converted to strings by the writer thread, which puts the context in its own MDC, logs the
+ * message with the aspect's logger and clears the MDC again. The writer's events add an `automon.thread` key with the
+ * name of the traced thread.</p>
+ *
+ * <p>The queue is bounded. When it is full the event is either dropped (`drop`, the default) or logged on the calling
+ * thread (`sync`), and both are counted. The counters are available via JMX ({@link AsyncTraceWriterMXBean}).</p>
+ *
+ * <p>Note values are formatted after the traced call continues, so a mutable parameter may be logged with changes made
+ * after the message was queued.</p>
+ *
+ * <p>To enable it for all tracing aspects, add the following to your `automon.properties` file (the
+ * `org.automon.tracing.async.*` properties in {@link AutomonPropertiesLoader} tune the queue):</p>
+ * <pre>
+ * org.automon.tracing.async=true
+ * </pre>
+ */
+public final class AsyncTraceWriter implements AsyncTraceWriterMXBean, AutoCloseable {
+
+    /**
+     * What to do with an event when the queue is full.
+     */
+    public enum OverflowPolicy {
+        /**
+         * Lose the event.
+         */
+        DROP,
+        /**
+         * Log the event on the calling thread.
+         */
+        SYNC;
+
+        static OverflowPolicy from(String name) {
+            if (name != null && name.trim().equalsIgnoreCase("sync")) {
+                return SYNC;
+            }
+            return DROP;
+        }
+    }
+
+    /**
+     * The purpose used for the JMX registration.
+     */
+    static final String PURPOSE = "async_trace";
+    /**
+     * The MDC key holding the name of the thread that was traced.
+     */
+    public static final String THREAD = "automon.thread";
+
+    private static final String NDC_PREFIX = "NDC";
+
+    static final int DEFAULT_BUFFER_SIZE = 8192;
+    static final int DEFAULT_BATCH_SIZE = 256;
+
+    private static final long IDLE_POLL_MILLIS = 10;
+    private static AsyncTraceWriter instance;
+
+    private final BlockingQueue<TraceEvent> queue;
+    private final int batchSize;
+    private final String name;
+    private final Thread writer;
+    private volatile OverflowPolicy overflowPolicy;
+    private volatile boolean running = true;
+
+    private final LongAdder queued = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder loggedOnCallerThread = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+    private final AtomicBoolean errorPrinted = new AtomicBoolean();
+    // only written by the writer thread
+    private volatile long written;
+    private volatile long batches;
+
+    /**
+     * Constructs a writer and starts its thread.
+     *
+     * @param name           The name used for the thread and the JMX registration.
+     * @param bufferSize     The number of events the queue holds.
+     * @param batchSize      The maximum number of events taken from the queue at a time.
+     * @param overflowPolicy What to do with an event when the queue is full.
+     */
+    public AsyncTraceWriter(String name, int bufferSize, int batchSize, OverflowPolicy overflowPolicy) {
+        this.queue = new ArrayBlockingQueue<>(Math.max(1, bufferSize));
+        this.batchSize = Math.max(1, batchSize);
+        this.overflowPolicy = overflowPolicy;
+        this.name = name;
+
+        writer = new Thread(this::write, "automon-" + name);
+        writer.setDaemon(true);
+        writer.start();
+        Utils.registerWithJmx(PURPOSE, name, this);
+    }
+
+    /**
+     * Returns the writer shared by the tracing aspects, creating it from the `org.automon.tracing.async.*` properties
+     * the first time (or after it was closed).
+     *
+     * @return The shared writer.
+     */
+    public static synchronized AsyncTraceWriter getInstance() {
+        if (instance == null || !instance.running) {
+            instance = new AsyncTraceWriter("AsyncTraceWriter",
+                    Utils.AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.TRACING_ASYNC_BUFFER_SIZE, DEFAULT_BUFFER_SIZE),
+                    Utils.AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.TRACING_ASYNC_BATCH_SIZE, DEFAULT_BATCH_SIZE),
+                    OverflowPolicy.from(Utils.AUTOMON_PROPERTIES.getProperties().getProperty(AutomonPropertiesLoader.TRACING_ASYNC_OVERFLOW)));
+        }
+        return instance;
+    }
+
+    /**
+     * Queues a message with the calling thread's context, unless the logger won't log it.
+     *
+     * @param logger    The logger to log the message with.
+     * @param level     The level.
+     * @param message   The message.
+     * @param throwable The exception to log with the message (may be null).
+     * @return false if the caller should log the message itself (the queue is full and the overflow policy is `sync`).
+     */
+    public boolean offer(Logger logger, Level level, String message, Throwable throwable) {
+        if (!isEnabled(logger, level)) {
+            return true;
+        }
+        if (running) {
+            TraceEvent event = TraceEvent.capture(logger, level, message, throwable);
+            // if it was closed after running was read the writer may have taken its last batch, so the event is taken
+            // back (unless it was already written) and handled like one offered after close
+            if (queue.offer(event) && (running || !queue.remove(event))) {
+                queued.increment();
+                return true;
+            }
+        }
+        if (overflowPolicy == OverflowPolicy.SYNC) {
+            loggedOnCallerThread.increment();
+            return false;
+        }
+        dropped.increment();
+        return true;
+    }
+
+    private static boolean isEnabled(Logger logger, Level level) {
+        return switch (level) {
+            case ERROR -> logger.isErrorEnabled();
+            case WARN -> logger.isWarnEnabled();
+            case INFO -> logger.isInfoEnabled();
+            case DEBUG -> logger.isDebugEnabled();
+            case TRACE -> logger.isTraceEnabled();
+        };
+    }
+
+    private void write() {
+        List<TraceEvent> batch = new ArrayList<>(batchSize);
+        while (running) {
+            try {
+                TraceEvent event = queue.poll(IDLE_POLL_MILLIS, TimeUnit.MILLISECONDS);
+                if (event != null) {
+                    batch.add(event);
+                    queue.drainTo(batch, batchSize - 1);
+                    write(batch);
+                }
+            } catch (InterruptedException e) {
+                break;
+            }
+        }
+        while (queue.drainTo(batch, batchSize) > 0) {
+            write(batch); // log anything queued before close
+        }
+    }
+
+    private void write(List<TraceEvent> batch) {
+        batches++;
+        for (TraceEvent event : batch) {
+            try {
+                event.log();
+                written++;
+            } catch (RuntimeException e) {
+                // print the first one only so a broken toString or appender can't flood the console
+                errors.increment();
+                if (errorPrinted.compareAndSet(false, true)) {
+                    e.printStackTrace();
+                }
+            } finally {
+                MDC.clear();
+            }
+        }
+        batch.clear();
+    }
+
+    /**
+     * Logs any queued events and stops the writer thread. Events offered afterwards, or while it closes and too late
+     * to be logged by the writer thread, are handled by the overflow policy.
+     */
+    @Override
+    public void close() {
+        running = false;
+        try {
+            writer.join(TimeUnit.SECONDS.toMillis(5));
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+
+        try {
+            Utils.unregisterWithJmx(PURPOSE, name);
+        } catch (Exception e) {
+            // non-propagation of this exception is by design
+        }
+    }
+
+    @Override
+    public String getOverflowPolicy() {
+        return overflowPolicy.name().toLowerCase();
+    }
+
+    @Override
+    public void setOverflowPolicy(String overflowPolicy) {
+        this.overflowPolicy = OverflowPolicy.from(overflowPolicy);
+    }
+
+    @Override
+    public long getQueueCapacity() {
+        return queue.size() + queue.remainingCapacity();
+    }
+
+    @Override
+    public long getQueueSize() {
+        return queue.size();
+    }
+
+    @Override
+    public long getQueued() {
+        return queued.sum();
+    }
+
+    @Override
+    public long getDropped() {
+        return dropped.sum();
+    }
+
+    @Override
+    public long getLoggedOnCallerThread() {
+        return loggedOnCallerThread.sum();
+    }
+
+    @Override
+    public long getWritten() {
+        return written;
+    }
+
+    @Override
+    public long getBatches() {
+        return batches;
+    }
+
+    @Override
+    public long getErrors() {
+        return errors.sum();
+    }
+
+    @Override
+    public String toString() {
+        return name;
+    }
+
+    /**
+     * A message and the context of the thread that logged it.
+     */
+    static final class TraceEvent {
+        private final Logger logger;
+        private final Level level;
+        private final String message;
+        private final Throwable throwable;
+        private final String threadName;
+        /**
+         * The Automon MDC entries as key/value pairs. Null if there are none.
+         */
+        private final String[] mdc;
+        /**
+         * The join points of the structured context or chain, outermost first. Null in the MDC mode.
+         */
+        private final JoinPoint.StaticPart[] stack;
+        /**
+         * A copy of the innermost frame of the structured context or chain. Null in the MDC mode.
+         */
+        private final TraceContext.Frame frame;
+
+        private TraceEvent(Logger logger, Level level, String message, Throwable throwable,
+                           String[] mdc, JoinPoint.StaticPart[] stack, TraceContext.Frame frame) {
+            this.logger = logger;
+            this.level = level;
+            this.message = message;
+            this.throwable = throwable;
+            this.threadName = Thread.currentThread().getName();
+            this.mdc = mdc;
+            this.stack = stack;
+            this.frame = frame;
+        }
+
+        static TraceEvent capture(Logger logger, Level level, String message, Throwable throwable) {
+            JoinPoint.StaticPart[] stack = null;
+            TraceContext.Frame frame = null;
+            String[] mdc;
+            switch (LogTracingHelper.getInstance().getContextMode()) {
+                case STRUCTURED -> {
+                    TraceContext context = TraceContext.current();
+                    if (context != null && context.getDepth() > 0) {
+                        stack = context.getJoinPoints();
+                        frame = context.peek().copy();
+                    }
+                    mdc = captureMdc(LogTracingHelper.REQUEST_ID);
+                }
+                case CHAIN -> {
+                    ContextChain chain = ContextChain.current();
+                    if (chain != null) {
+                        stack = new JoinPoint.StaticPart[chain.getDepth()];
+                        for (ContextChain node = chain; node != null; node = node.getParent()) {
+                            stack[node.getDepth() - 1] = node.getFrame().staticPart;
+                        }
+                        frame = chain.getFrame().copy();
+                    }
+                    mdc = captureMdc(LogTracingHelper.REQUEST_ID);
+                }
+                default -> mdc = captureMdcContext();
+            }
+            return new TraceEvent(logger, level, message, throwable, mdc, stack, frame);
+        }
+
+        /**
+         * Copies the entries the tracing aspects put in the MDC in the MDC mode, and the NDC entries.
+         */
+        private static String[] captureMdcContext() {
+            String[] pairs = captureMdc(LogTracingHelper.REQUEST_ID, LogTracingHelper.ENCLOSING_SIGNATURE,
+                    LogTracingHelper.KIND, LogTracingHelper.PARAMETERS, LogTracingHelper.THIS, LogTracingHelper.TARGET,
+                    LogTracingHelper.EXECUTION_TIME_MS, LogTracingHelper.EXECUTION_TIME_NS, LogTracingHelper.RETURN_VALUE,
+                    LogTracingHelper.EXCEPTION);
+            List<String> ndc = new ArrayList<>();
+            for (int i = 0; MDC.get(NDC_PREFIX + i) != null; i++) {
+                ndc.add(NDC_PREFIX + i);
+                ndc.add(MDC.get(NDC_PREFIX + i));
+            }
+            if (ndc.isEmpty()) {
+                return pairs;
+            }
+            if (pairs != null) {
+                ndc.addAll(Arrays.asList(pairs));
+            }
+            return ndc.toArray(new String[0]);
+        }
+
+        /**
+         * Copies the MDC entries with the given keys as key/value pairs.
+         *
+         * @return The pairs, or null if none of the keys are in the MDC.
+         */
+        private static String[] captureMdc(String... keys) {
+            String[] pairs = null;
+            int size = 0;
+            for (String key : keys) {
+                String value = MDC.get(key);
+                if (value != null) {
+                    if (pairs == null) {
+                        pairs = new String[keys.length * 2];
+                    }
+                    pairs[size++] = key;
+                    pairs[size++] = value;
+                }
+            }
+            return (pairs == null || size == pairs.length) ? pairs : Arrays.copyOf(pairs, size);
+        }
+
+        /**
+         * Logs the message with the captured context in the calling (writer) thread's MDC.
+         */
+        void log() {
+            if (mdc != null) {
+                for (int i = 0; i < mdc.length; i += 2) {
+                    MDC.put(mdc[i], mdc[i + 1]);
+                }
+            }
+            if (stack != null) {
+                for (int i = 0; i < stack.length; i++) {
+                    MDC.put(NDC_PREFIX + i, stack[i].getSignature().toShortString());
+                }
+            }
+            if (frame != null) {
+                frame.forEach(MDC::put);
+            }
+            MDC.put(THREAD, threadName);
+
+            switch (level) {
+                case ERROR -> logger.error(message, throwable);
+                case WARN -> logger.warn(message, throwable);
+                case INFO -> logger.info(message, throwable);
+                case DEBUG -> logger.debug(message, throwable);
+                case TRACE -> logger.trace(message, throwable);
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package org.automon.utils;
+
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.LockSupport;
+
+/**
+ * <p>The clock the tracing and monitoring aspects use to time join points (see {@link #get()}). Execution times are
+ * the difference of two {@link #nanoTime()} values, which are monotonic, so unlike `System.currentTimeMillis()`
+ * sub-millisecond calls don't always take 0 and wall clock adjustments don't produce negative durations.</p>
+ *
+ * <p>The clock is chosen with `org.automon.clock` in `automon.properties`:</p>
+ * <ul>
+ *     <li>`system` - `System.nanoTime()` and `System.currentTimeMillis()`. This is the default.</li>
+ *     <li>`coarse` - The times are read by a daemon ticker thread every `org.automon.clock.tickMicros` (default 1000)
+ *     and cached, so reading the clock is a single volatile read. The resolution is the tick, so calls shorter than
+ *     a tick often take 0. Use it when the cost of reading the time matters more than sub-tick precision.</li>
+ *     <li>A class name - Any subclass of `AutomonClock` with a no-argument constructor.</li>
+ * </ul>
+ * <p>Implementations must be thread-safe.</p>
+ */
+public abstract class AutomonClock implements AutoCloseable {
+
+    private static volatile AutomonClock clock = create(
+            Utils.AUTOMON_PROPERTIES.getProperties().getProperty(AutomonPropertiesLoader.CLOCK));
+
+    /**
+     * Returns the clock used by the aspects.
+     *
+     * @return The clock.
+     */
+    public static AutomonClock get() {
+        return clock;
+    }
+
+    /**
+     * Replaces the clock used by the aspects and closes the previous one. It should only be changed when no join
+     * points are being timed, as a duration started with one clock and stopped with another is meaningless.
+     *
+     * @param newClock The clock. Null restores the system clock.
+     */
+    public static void set(AutomonClock newClock) {
+        AutomonClock previous = clock;
+        clock = newClock == null ? new SystemClock() : newClock;
+        if (previous != clock) {
+            previous.close();
+        }
+    }
+
+    /**
+     * Creates the clock with the given key (system or coarse) or class name.
+     *
+     * @param key The key or class name. Null or empty returns the system clock.
+     * @return The clock. The system clock is returned if the key is unknown or the class can't be created.
+     */
+    public static AutomonClock create(String key) {
+        String name = key == null ? "" : key.trim();
+        switch (name.toLowerCase()) {
+            case "":
+            case "system":
+                return new SystemClock();
+            case "coarse":
+                long tickMicros = Utils.AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.CLOCK_TICK_MICROS, 1000);
+                return new CoarseClock(TimeUnit.MICROSECONDS.toNanos(tickMicros));
+            default:
+                break;
+        }
+
+        if (Utils.hasPackageName(name)) {
+            try {
+                return (AutomonClock) Class.forName(name).getDeclaredConstructor().newInstance();
+            } catch (Exception | LinkageError e) {
+                System.err.println("Automon: Unable to create the clock '" + name + "', so the system clock will be used: " + e);
+                return new SystemClock();
+            }
+        }
+
+        System.err.println("Automon: Unknown clock '" + name + "', so the system clock will be used. Valid values: system, coarse or a class name");
+        return new SystemClock();
+    }
+
+    /**
+     * Returns a monotonic time in nanoseconds, only meaningful when compared with another value from the same clock.
+     *
+     * @return The time in nanoseconds.
+     */
+    public abstract long nanoTime();
+
+    /**
+     * Returns the wall clock time.
+     *
+     * @return The milliseconds since 1970-01-01T00:00:00Z.
+     */
+    public abstract long currentTimeMillis();
+
+    /**
+     * Releases any resources held by the clock. Does nothing by default.
+     */
+    @Override
+    public void close() {
+    }
+
+    /**
+     * Reads the system clocks on each call.
+     */
+    public static final class SystemClock extends AutomonClock {
+        @Override
+        public long nanoTime() {
+            return System.nanoTime();
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return System.currentTimeMillis();
+        }
+
+        @Override
+        public String toString() {
+            return "system";
+        }
+    }
+
+    /**
+     * Returns the times read by a daemon ticker thread at a fixed interval. The thread is stopped by {@link #close()}.
+     */
+    public static final class CoarseClock extends AutomonClock {
+        private final long tickNanos;
+        private final Thread ticker;
+        private volatile long nanoTime;
+        private volatile long currentTimeMillis;
+        private volatile boolean closed;
+
+        /**
+         * Constructs the clock and starts its ticker thread.
+         *
+         * @param tickNanos How often the times are updated in nanoseconds (at least 1 microsecond).
+         */
+        public CoarseClock(long tickNanos) {
+            this.tickNanos = Math.max(TimeUnit.MICROSECONDS.toNanos(1), tickNanos);
+            tick();
+            ticker = new Thread(this::run, "automon-clock-ticker");
+            ticker.setDaemon(true);
+            ticker.start();
+        }
+
+        private void tick() {
+            nanoTime = System.nanoTime();
+            currentTimeMillis = System.currentTimeMillis();
+        }
+
+        private void run() {
+            while (!closed) {
+                LockSupport.parkNanos(tickNanos);
+                tick();
+            }
+        }
+
+        @Override
+        public long nanoTime() {
+            return nanoTime;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return currentTimeMillis;
+        }
+
+        /**
+         * @return How often the times are updated in nanoseconds.
+         */
+        public long getTickNanos() {
+            return tickNanos;
+        }
+
+        /**
+         * @return true if the ticker thread is running. This method is primarily intended for testing purposes.
+         */
+        boolean isTicking() {
+            return ticker.isAlive();
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+            LockSupport.unpark(ticker);
+        }
+
+        @Override
+        public String toString() {
+            return "coarse(tickNanos=" + tickNanos + ")";
+        }
+    }
+}
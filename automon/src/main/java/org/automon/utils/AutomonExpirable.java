@@ -1,6 +1,7 @@
 package org.automon.utils;
 
 import java.io.Serializable;
+import java.lang.ref.WeakReference;
 import java.util.Map;
 import java.util.concurrent.atomic.AtomicReference;
 
@@ -21,9 +22,10 @@ public class AutomonExpirable extends TimeExpirable {
      */
     private final AtomicReference<Serializable> jamonDetails = new AtomicReference<>();
     /**
-     * The throwable (exception) that occurred.
+     * The throwable (exception) that occurred. It is weakly referenced so that remembering the exception's context
+     * doesn't prevent the exception (and its stack trace) from being garbage collected.
      */
-    private Throwable throwable;
+    private WeakReference<Throwable> throwable;
     /**
      * A map containing the names and values of method arguments at the time of the exception.
      */
@@ -65,10 +67,10 @@ public class AutomonExpirable extends TimeExpirable {
     /**
      * Retrieves the throwable (exception) associated with this object.
      *
-     * @return The `Throwable` object.
+     * @return The `Throwable` object, or `null` if it has been garbage collected.
      */
     public Throwable getThrowable() {
-        return throwable;
+        return throwable == null ? null : throwable.get();
     }
 
     /**
@@ -77,7 +79,7 @@ public class AutomonExpirable extends TimeExpirable {
      * @param throwable The `Throwable` object to be set.
      */
     public void setThrowable(Throwable throwable) {
-        this.throwable = throwable;
+        this.throwable = throwable == null ? null : new WeakReference<>(throwable);
     }
 
     /**
@@ -108,6 +110,6 @@ public class AutomonExpirable extends TimeExpirable {
     public String toString() {
         return Utils.argNameValuePairsToString(argNamesAndValues) +
                 Utils.LINE_SEPARATOR +
-                Utils.getExceptionTrace(throwable);
+                Utils.getExceptionTrace(getThrowable());
     }
 }
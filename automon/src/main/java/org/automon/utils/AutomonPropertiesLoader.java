@@ -16,9 +16,149 @@ import java.util.Properties;
 public class AutomonPropertiesLoader {
 
     /**
-     * Property key for the configured OpenMon implementation.
+     * Property key for the configured OpenMon implementation. Several comma-separated keys (i.e. jamon,micrometer) record to each of them with a `CompositeOpenMon`.
      */
     public static final String CONFIGURED_OPEN_MON = "org.automon";
+    /**
+     * Property key for the format of join point labels (full, short, long or a `LabelCache.LabelFormat` class name).
+     */
+    public static final String LABEL_FORMAT = "org.automon.label.format";
+    /**
+     * Property key for the maximum number of recently thrown exceptions remembered by each `OpenMon`.
+     */
+    public static final String EXCEPTION_MAX_SIZE = "org.automon.exceptions.maxSize";
+    /**
+     * Property key for the number of minutes a thrown exception is remembered by each `OpenMon`.
+     */
+    public static final String EXCEPTION_EXPIRATION_MINUTES = "org.automon.exceptions.expirationIntervalInMinutes";
+    /**
+     * Property key for the sampling mode of the monitoring aspects (all, fixed, ratelimited or adaptive).
+     */
+    public static final String SAMPLING_MODE = "org.automon.sampling.mode";
+    /**
+     * Property key for the probability a call is monitored in `fixed` sampling mode (i.e. 0.01).
+     */
+    public static final String SAMPLING_RATE = "org.automon.sampling.rate";
+    /**
+     * Property key for the maximum number of calls per second per join point monitored in `ratelimited` and `adaptive` sampling mode.
+     */
+    public static final String SAMPLING_SAMPLES_PER_SECOND = "org.automon.sampling.samplesPerSecond";
+    /**
+     * Property key for the `OpenMon` that `AsyncOpenMon` records to from its background thread (i.e. micrometer).
+     */
+    public static final String ASYNC_OPEN_MON = "org.automon.async.openMon";
+    /**
+     * Property key for the number of stripes in the `AsyncOpenMon` buffer (default: the number of processors).
+     */
+    public static final String ASYNC_STRIPES = "org.automon.async.stripes";
+    /**
+     * Property key for the number of events each `AsyncOpenMon` buffer stripe holds.
+     */
+    public static final String ASYNC_BUFFER_SIZE = "org.automon.async.bufferSize";
+    /**
+     * Property key for the maximum number of events the `AsyncOpenMon` consumer drains from a stripe at a time.
+     */
+    public static final String ASYNC_BATCH_SIZE = "org.automon.async.batchSize";
+    /**
+     * Property key for what `AsyncOpenMon` does when the buffer is full: drop (the default) or sync (record on the calling thread).
+     */
+    public static final String ASYNC_OVERFLOW = "org.automon.async.overflow";
+    /**
+     * Property key for the comma-separated keys of the `OpenMon`s a `CompositeOpenMon` records to from an `AsyncOpenMon` thread (i.e. micrometer, or * for all of them).
+     */
+    public static final String COMPOSITE_ASYNC = "org.automon.composite.async";
+    /**
+     * Property key for whether the `org.automon` `OpenMon` is created once and called by the monitoring aspects on a constant so the JIT can inline it (`SpecializedOpenMon`, default: false).
+     */
+    public static final String SPECIALIZE = "org.automon.specialize";
+    /**
+     * Property key for whether a monitoring aspect creates its `OpenMon` on its first monitored call rather than when the aspect is created (default: true).
+     */
+    public static final String LAZY_OPEN_MON = "org.automon.lazy";
+    /**
+     * Property key for whether the aspects check and count each join point in `JoinPointControl`, so individual join points can be controlled via JMX (default: true).
+     */
+    public static final String CONTROL = "org.automon.control";
+    /**
+     * Property key for the number of significant digits of the `HdrHistogram` `OpenMon`'s histograms (0 to 5).
+     */
+    public static final String HDR_HISTOGRAM_SIGNIFICANT_DIGITS = "org.automon.hdrhistogram.significantDigits";
+    /**
+     * Property key for the maximum number of recorders per join point of the `HdrHistogram` `OpenMon` (default 1).
+     */
+    public static final String HDR_HISTOGRAM_STRIPES = "org.automon.hdrhistogram.stripes";
+    /**
+     * Property key for where the tracing aspects write the context: mdc (the default, the SLF4J MDC/NDC), structured (a reusable thread-local `TraceContext` read lazily by logging backends) or chain (a linked `ContextChain` suited to virtual threads and `ScopedValue`).
+     */
+    public static final String TRACING_CONTEXT = "org.automon.tracing.context";
+    /**
+     * Property key for the request id generator used by the `RequestIdAspect`s: uuid (the default), monotonic, snowflake, ulid or a `RequestIdGenerator` class name.
+     */
+    public static final String REQUEST_ID_GENERATOR = "org.automon.requestId.generator";
+    /**
+     * Property key for the node id (0-1023) of the snowflake request id generator (default: derived from the host name).
+     */
+    public static final String REQUEST_ID_NODE_ID = "org.automon.requestId.nodeId";
+    /**
+     * Property key for the clock used to time join points: system (the default, `System.nanoTime()`), coarse (a cached time updated by a ticker thread) or an `AutomonClock` class name.
+     */
+    public static final String CLOCK = "org.automon.clock";
+    /**
+     * Property key for how often in microseconds the coarse clock is updated (default: 1000).
+     */
+    public static final String CLOCK_TICK_MICROS = "org.automon.clock.tickMicros";
+    /**
+     * Property key for the units of the execution time the tracing aspects add to the context: ms (the default, `executionTimeMs`), ns (`executionTimeNs`) or both (i.e. ms,ns).
+     */
+    public static final String TRACING_EXECUTION_TIME_UNITS = "org.automon.tracing.executionTimeUnits";
+    /**
+     * Property key for the slow call threshold in milliseconds of the tracing aspects (default: -1, log every call). It can be set per aspect with `&lt;aspect class&gt;.slowThresholdMs`.
+     */
+    public static final String TRACING_SLOW_THRESHOLD_MS = "org.automon.tracing.slowThresholdMs";
+    /**
+     * Property key for whether the tracing aspects log from a background thread (`AsyncTraceWriter`) rather than the traced thread (default: false).
+     */
+    public static final String TRACING_ASYNC = "org.automon.tracing.async";
+    /**
+     * Property key for the number of messages the `AsyncTraceWriter` queue holds (default: 8192).
+     */
+    public static final String TRACING_ASYNC_BUFFER_SIZE = "org.automon.tracing.async.bufferSize";
+    /**
+     * Property key for the maximum number of messages the `AsyncTraceWriter` takes from its queue at a time (default: 256).
+     */
+    public static final String TRACING_ASYNC_BATCH_SIZE = "org.automon.tracing.async.batchSize";
+    /**
+     * Property key for what the `AsyncTraceWriter` does when its queue is full: drop (the default) or sync (log on the calling thread).
+     */
+    public static final String TRACING_ASYNC_OVERFLOW = "org.automon.tracing.async.overflow";
+    /**
+     * Property key for the file `TraceFile` writes its records to (default: automon-trace-{pid}.bin, where {pid} is replaced by the process id).
+     */
+    public static final String TRACE_FILE_PATH = "org.automon.tracefile.path";
+    /**
+     * Property key for the number of regions of the `TraceFile` ring file (default: the number of processors).
+     */
+    public static final String TRACE_FILE_REGIONS = "org.automon.tracefile.regions";
+    /**
+     * Property key for the number of records each region of the `TraceFile` ring file holds (default: 65536).
+     */
+    public static final String TRACE_FILE_RECORDS_PER_REGION = "org.automon.tracefile.recordsPerRegion";
+    /**
+     * Property key for the maximum number of nodes in the call tree of a request built by `CallTree` (default: 1000).
+     */
+    public static final String CALL_TREE_MAX_NODES = "org.automon.calltree.maxNodes";
+    /**
+     * Property key for the maximum number of edges in the call graph aggregated by `CallTree` (default: 10000).
+     */
+    public static final String CALL_TREE_MAX_EDGES = "org.automon.calltree.maxEdges";
+    /**
+     * Property key for the time in milliseconds a request must take for `CallTree` to export its call tree (default: 1000, negative to disable).
+     */
+    public static final String CALL_TREE_SLOW_THRESHOLD_MS = "org.automon.calltree.slowThresholdMs";
+    /**
+     * Property key for the number of slow call trees `CallTree` keeps (default: 10).
+     */
+    public static final String CALL_TREE_SLOW_TREES = "org.automon.calltree.slowTrees";
     /**
      * Default value for the configured OpenMon implementation (empty string).
      */
@@ -114,6 +254,50 @@ public class AutomonPropertiesLoader {
         return propertyValue.equalsIgnoreCase("true");
     }
 
+    /**
+     * Retrieves an integer property from the loaded Automon properties.
+     *
+     * @param key          The property key.
+     * @param defaultValue The value returned if the property is not found or is not a valid integer.
+     * @return The integer value of the property.
+     */
+    public int getInt(String key, int defaultValue) {
+        String propertyValue = getProperties().getProperty(key);
+        if (propertyValue == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Integer.parseInt(propertyValue.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Automon: The property '" + key + "' should be an integer but was '" + propertyValue +
+                    "'. Using the default: " + defaultValue);
+            return defaultValue;
+        }
+    }
+
+    /**
+     * Retrieves a double property from the loaded Automon properties.
+     *
+     * @param key          The property key.
+     * @param defaultValue The value returned if the property is not found or is not a valid number.
+     * @return The double value of the property.
+     */
+    public double getDouble(String key, double defaultValue) {
+        String propertyValue = getProperties().getProperty(key);
+        if (propertyValue == null) {
+            return defaultValue;
+        }
+
+        try {
+            return Double.parseDouble(propertyValue.trim());
+        } catch (NumberFormatException e) {
+            System.err.println("Automon: The property '" + key + "' should be a number but was '" + propertyValue +
+                    "'. Using the default: " + defaultValue);
+            return defaultValue;
+        }
+    }
+
     /**
      * Initializes the `automonProps` by loading properties from files and system properties,
      * with system properties taking precedence.
@@ -231,6 +415,8 @@ public class AutomonPropertiesLoader {
     Properties getDefaults() {
         Properties defaults = new Properties();
         defaults.put(CONFIGURED_OPEN_MON, EMPTY_DEFAULT_OPEN_MON);
+        defaults.put(EXCEPTION_MAX_SIZE, String.valueOf(ConcurrentExpiringMap.DEFAULT_MAX_SIZE));
+        defaults.put(EXCEPTION_EXPIRATION_MINUTES, String.valueOf(TimeExpirable.DEFAULT_EXPIRATION_INTERVAL_IN_MINUTES));
         return defaults;
     }
 
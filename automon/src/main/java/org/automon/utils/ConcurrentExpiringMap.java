@@ -0,0 +1,254 @@
+package org.automon.utils;
+
+import java.lang.ref.ReferenceQueue;
+import java.lang.ref.WeakReference;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Queue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Function;
+
+/**
+ * <p>A thread-safe, identity-keyed map whose entries are removed when they expire or when the map exceeds its maximum size.
+ * It is the lock-free replacement for a synchronized {@link ExpiringMap} and is used to remember recently thrown exceptions.</p>
+ *
+ * <ul>
+ *     <li>Keys are compared by identity (`==`) even if they override `equals`, as the same exception object is what is
+ *     being tracked as it propagates up the call stack.</li>
+ *     <li>{@link #computeIfAbsent(Object, Function)} is atomic so a value is only ever associated with a key once.</li>
+ *     <li>Expiry is amortized. Keys are kept in insertion order, and after each insertion the oldest entries are removed while
+ *     they are expired or while the map is over its maximum size. Only one thread purges at a time and the others don't wait.</li>
+ *     <li>Keys are weakly referenced, so a burst of distinct exceptions doesn't keep every exception and its stack trace
+ *     reachable until it expires. Entries whose key has been garbage collected are removed during the next purge. Note
+ *     values should not strongly reference their key or the key can't be collected.</li>
+ * </ul>
+ *
+ * <p>The number of entries removed because they expired, because the map was full, or because their key was collected
+ * is available from {@link #getStatistics()}.</p>
+ *
+ * <p>Reads and writes never block on a shared monitor, so threads don't serialize when many exceptions are thrown at once.</p>
+ *
+ * @param <K> The key type (typically `Throwable`).
+ * @param <V> The value type, which determines when an entry has expired.
+ */
+public class ConcurrentExpiringMap<K, V extends Expirable> {
+
+    /**
+     * The default maximum number of entries.
+     */
+    public static final int DEFAULT_MAX_SIZE = 10_000;
+
+    /**
+     * The entries, keyed by the identity of the key.
+     */
+    private final Map<IdentityKey<K>, V> map = new ConcurrentHashMap<>();
+
+    /**
+     * Keys in insertion order (oldest first) so expired entries can be found without scanning the whole map.
+     */
+    private final Queue<IdentityKey<K>> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    /**
+     * Keys that have been garbage collected.
+     */
+    private final ReferenceQueue<K> collectedKeys = new ReferenceQueue<>();
+
+    /**
+     * Set while a thread is removing old entries.
+     */
+    private final AtomicBoolean purging = new AtomicBoolean();
+
+    /**
+     * The maximum number of entries.
+     */
+    private final int maxSize;
+
+    /**
+     * Number of entries removed because they expired.
+     */
+    private final LongAdder expiredCount = new LongAdder();
+
+    /**
+     * Number of entries removed because the map was over its maximum size.
+     */
+    private final LongAdder evictedCount = new LongAdder();
+
+    /**
+     * Number of entries removed because their key was garbage collected.
+     */
+    private final LongAdder collectedCount = new LongAdder();
+
+    /**
+     * Constructs a map with the default maximum size.
+     */
+    public ConcurrentExpiringMap() {
+        this(DEFAULT_MAX_SIZE);
+    }
+
+    /**
+     * Constructs a map with the given maximum size.
+     *
+     * @param maxSize The maximum number of entries. When exceeded the oldest entries are removed even if they haven't expired.
+     */
+    public ConcurrentExpiringMap(int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * Returns the value associated with the key, or if there is none atomically associates the value created by the
+     * factory with it. The factory may be called more than once if threads race, but only one value is ever kept.
+     *
+     * @param key     The key.
+     * @param factory Creates the value if the key isn't in the map.
+     * @return The existing or newly added value.
+     */
+    public V computeIfAbsent(K key, Function<? super K, ? extends V> factory) {
+        V value = map.get(new IdentityKey<>(key, null));
+        if (value != null) {
+            return value;
+        }
+
+        value = factory.apply(key);
+        IdentityKey<K> identityKey = new IdentityKey<>(key, collectedKeys);
+        V previous = map.putIfAbsent(identityKey, value);
+        if (previous != null) {
+            return previous;
+        }
+
+        insertionOrder.offer(identityKey);
+        removeOldEntries();
+        return value;
+    }
+
+    /**
+     * Returns the value associated with the key.
+     *
+     * @param key The key.
+     * @return The value, or `null` if the key isn't in the map.
+     */
+    public V get(K key) {
+        return map.get(new IdentityKey<>(key, null));
+    }
+
+    /**
+     * Returns the number of entries.
+     *
+     * @return The number of entries.
+     */
+    public int size() {
+        return map.size();
+    }
+
+    /**
+     * Returns the maximum number of entries.
+     *
+     * @return The maximum number of entries.
+     */
+    public int getMaxSize() {
+        return maxSize;
+    }
+
+    /**
+     * Returns a point-in-time copy of the entries (oldest first).
+     *
+     * @return A copy of the map.
+     */
+    public Map<K, V> toMap() {
+        Map<K, V> copy = new LinkedHashMap<>();
+        for (IdentityKey<K> identityKey : insertionOrder) {
+            K key = identityKey.get();
+            V value = map.get(identityKey);
+            if (key != null && value != null) {
+                copy.put(key, value);
+            }
+        }
+        return copy;
+    }
+
+    /**
+     * Returns the size of the map and the number of entries removed for each reason.
+     *
+     * @return A map with the keys `size`, `maxSize`, `expired`, `evicted` and `collected`.
+     */
+    public Map<String, Long> getStatistics() {
+        Map<String, Long> statistics = new LinkedHashMap<>();
+        statistics.put("size", (long) size());
+        statistics.put("maxSize", (long) maxSize);
+        statistics.put("expired", expiredCount.sum());
+        statistics.put("evicted", evictedCount.sum());
+        statistics.put("collected", collectedCount.sum());
+        return statistics;
+    }
+
+    /**
+     * Removes entries whose key was garbage collected, and then the oldest entries while they are expired or the map is
+     * larger than its maximum size. Iteration stops at the first entry that is still needed. If another thread is already
+     * removing entries this method returns immediately.
+     */
+    void removeOldEntries() {
+        if (!purging.compareAndSet(false, true)) {
+            return;
+        }
+
+        try {
+            Object collected;
+            while ((collected = collectedKeys.poll()) != null) {
+                if (map.remove(collected) != null) {
+                    collectedCount.increment();
+                }
+            }
+
+            IdentityKey<K> oldest;
+            while ((oldest = insertionOrder.peek()) != null) {
+                V value = map.get(oldest);
+                if (value == null) {
+                    insertionOrder.poll(); // already removed (i.e. its key was collected)
+                } else if (value.isExpired()) {
+                    insertionOrder.poll();
+                    if (map.remove(oldest, value)) {
+                        expiredCount.increment();
+                    }
+                } else if (map.size() > maxSize) {
+                    insertionOrder.poll();
+                    if (map.remove(oldest, value)) {
+                        evictedCount.increment();
+                    }
+                } else {
+                    return; // Stop once an entry that should be kept is found
+                }
+            }
+        } finally {
+            purging.set(false);
+        }
+    }
+
+    /**
+     * Weakly references a key and compares it by identity. A key that has been collected is only equal to itself
+     * so its entry can still be removed.
+     */
+    private static final class IdentityKey<K> extends WeakReference<K> {
+        private final int hash;
+
+        private IdentityKey(K key, ReferenceQueue<K> queue) {
+            super(key, queue);
+            this.hash = System.identityHashCode(key);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+
+        @Override
+        public boolean equals(Object obj) {
+            if (this == obj) {
+                return true;
+            }
+            Object key = get();
+            return key != null && obj instanceof IdentityKey<?> other && other.get() == key;
+        }
+    }
+}
@@ -0,0 +1,172 @@
+package org.automon.utils;
+
+import org.aspectj.lang.JoinPoint;
+
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>The tracing context as a linked list of traced join points, used by {@link LogTracingHelper} when
+ * `org.automon.tracing.context=chain`.</p>
+ *
+ * <p>Each traced join point adds a node that points to its caller's node, and a thread only holds a reference to its
+ * innermost node, so an idle thread, i.e. one of millions of virtual threads, holds nothing. The join point and the
+ * caller of a node never change, but its values (parameters, return value, execution time, ...) are set by the thread
+ * that added it while the join point runs. A thread's context is therefore handed to another thread (see
+ * {@link ContextSnapshot}) as a copy of its innermost node linked to the same caller: the task sees the values as they
+ * were when it was submitted, and only reads the signatures of the nodes it shares with the submitting thread. On JVMs
+ * with `java.lang.ScopedValue` the context is bound with a scoped value when propagated to a task, so the task's thread
+ * doesn't need a thread-local at all (see {@link ScopedValues}).</p>
+ *
+ * <p>As with {@link TraceContext}, the values are only converted to strings when a log event reads them (i.e. through
+ * {@link TraceContextDataProvider}).</p>
+ */
+public final class ContextChain {
+
+    private static final ThreadLocal<ContextChain> CURRENT = new ThreadLocal<>();
+
+    private final TraceContext.Frame frame;
+    private final ContextChain parent;
+    private final int depth;
+
+    private ContextChain(JoinPoint.StaticPart jp, ContextChain parent) {
+        this.frame = new TraceContext.Frame();
+        this.frame.staticPart = jp;
+        this.parent = parent;
+        this.depth = parent == null ? 1 : parent.depth + 1;
+    }
+
+    private ContextChain(TraceContext.Frame frame, ContextChain parent, int depth) {
+        this.frame = frame;
+        this.parent = parent;
+        this.depth = depth;
+    }
+
+    /**
+     * Returns the calling thread's innermost node: the one it added last, or the one bound by the scope it runs in.
+     *
+     * @return The innermost node, or null if the thread has no context.
+     */
+    public static ContextChain current() {
+        ContextChain chain = CURRENT.get();
+        return chain != null ? chain : ScopedValues.get();
+    }
+
+    /**
+     * Adds a node for the join point to the calling thread's chain.
+     *
+     * @param jp The join point being entered.
+     * @return The new innermost node.
+     */
+    static ContextChain push(JoinPoint.StaticPart jp) {
+        ContextChain chain = new ContextChain(jp, current());
+        CURRENT.set(chain);
+        return chain;
+    }
+
+    /**
+     * Removes the calling thread's innermost node. The thread-local is cleared when the thread returns to the context
+     * bound by its scope (or to no context), so idle threads don't hold a reference.
+     */
+    static void pop() {
+        ContextChain chain = CURRENT.get();
+        if (chain == null) {
+            return;
+        }
+        if (chain.parent == null || chain.parent == ScopedValues.get()) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(chain.parent);
+        }
+    }
+
+    /**
+     * Makes the chain the calling thread's context.
+     *
+     * @param chain The chain.
+     * @return The thread's previous chain, to be passed to {@link #detach(ContextChain)}.
+     */
+    static ContextChain attach(ContextChain chain) {
+        ContextChain previous = CURRENT.get();
+        CURRENT.set(chain);
+        return previous;
+    }
+
+    /**
+     * Restores the calling thread's chain from before {@link #attach(ContextChain)}.
+     *
+     * @param previous The value returned by `attach`.
+     */
+    static void detach(ContextChain previous) {
+        if (previous == null) {
+            CURRENT.remove();
+        } else {
+            CURRENT.set(previous);
+        }
+    }
+
+    /**
+     * Returns a copy of the node with its current values, linked to the same caller, so it can be handed to another
+     * thread while the calling thread keeps changing its own node. Only call from the thread that added the node.
+     *
+     * @return The copy.
+     */
+    ContextChain copy() {
+        return new ContextChain(frame.copy(), parent, depth);
+    }
+
+    TraceContext.Frame getFrame() {
+        return frame;
+    }
+
+    /**
+     * @return The node of the calling join point, or null if this is the outermost one.
+     */
+    public ContextChain getParent() {
+        return parent;
+    }
+
+    /**
+     * @return The number of join points in the chain.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Passes each key and string value of the context to the action: the signatures of the chain as `NDC0` (the
+     * outermost) to `NDCn` and the values of this node.
+     *
+     * @param action Called with each key and value.
+     */
+    public void forEach(BiConsumer<String, String> action) {
+        ContextChain chain = this;
+        for (int i = depth - 1; i >= 0; i--) {
+            action.accept("NDC" + i, chain.frame.staticPart.getSignature().toShortString());
+            chain = chain.parent;
+        }
+        frame.forEach(action);
+    }
+
+    /**
+     * Returns a copy of the context with the values converted to strings.
+     *
+     * @param chain The innermost node (may be null).
+     * @return The context data, or an empty map if the chain is null.
+     */
+    public static Map<String, String> getContextData(ContextChain chain) {
+        if (chain == null) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> data = new HashMap<>();
+        chain.forEach(data::put);
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return getContextData(this).toString();
+    }
+}
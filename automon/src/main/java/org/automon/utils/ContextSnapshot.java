@@ -0,0 +1,422 @@
+package org.automon.utils;
+
+import org.aspectj.lang.JoinPoint;
+import org.slf4j.MDC;
+import org.slf4j.NDC;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.concurrent.Callable;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.function.BiConsumer;
+import java.util.function.BiFunction;
+import java.util.function.Consumer;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+/**
+ * <p>An immutable copy of the Automon context of a thread (the request id and the stack of traced signatures) that can
+ * be restored on another thread, so the context isn't lost when work is handed to an `Executor`, a `CompletableFuture`
+ * stage or a virtual thread.</p>
+ *
+ * <p>Only the Automon context is copied, not the whole MDC. In the MDC mode the snapshot holds the request id and the
+ * NDC strings, in the structured mode (see {@link TraceContext}) the request id and the join points on the stack, and
+ * in the chain mode (see {@link ContextChain}) the request id and a copy of the innermost node of the chain (linked to
+ * the same caller's node), so taking a snapshot copies a few references. When there is no context the shared empty snapshot is returned and wrapping a
+ * task returns the task itself.</p>
+ *
+ * <p>In the chain mode a wrapped task binds the chain with a `java.lang.ScopedValue` when the JVM supports it, so the
+ * thread running the task holds no thread-local unless the task itself traces join points. Otherwise the chain is set
+ * in a thread-local for the duration of the task.</p>
+ *
+ * <p>The context can be propagated by:</p>
+ * <ul>
+ *     <li>Wrapping tasks: `executor.execute(ContextSnapshot.capture().wrap(task))`</li>
+ *     <li>Wrapping executors: `ContextSnapshot.wrap(Executors.newVirtualThreadPerTaskExecutor())`</li>
+ *     <li>Weaving: the `ContextPropagationAspect`s wrap the tasks passed to the methods selected by their pointcut (i.e.
+ *     {@link org.automon.pointcuts.Jdk#executors()}).</li>
+ * </ul>
+ *
+ * <p>The restored context is removed when the task ends, leaving the worker thread as it was.</p>
+ */
+public final class ContextSnapshot {
+
+    /**
+     * The snapshot of a thread with no Automon context.
+     */
+    public static final ContextSnapshot EMPTY = new ContextSnapshot(null, null, null, null);
+
+    private static final String NDC_PREFIX = "NDC";
+
+    private final String requestId;
+    /**
+     * The NDC entries, outermost first (MDC mode). Null if there are none.
+     */
+    private final String[] signatures;
+    /**
+     * The join points of the `TraceContext` frames, outermost first (structured mode). Null if there are none.
+     */
+    private final JoinPoint.StaticPart[] joinPoints;
+    /**
+     * The innermost node of the context chain (chain mode). Null if there is none.
+     */
+    private final ContextChain chain;
+
+    private ContextSnapshot(String requestId, String[] signatures, JoinPoint.StaticPart[] joinPoints, ContextChain chain) {
+        this.requestId = requestId;
+        this.signatures = signatures;
+        this.joinPoints = joinPoints;
+        this.chain = chain;
+    }
+
+    /**
+     * Copies the Automon context of the calling thread.
+     *
+     * @return The snapshot, or {@link #EMPTY} if the thread has no context.
+     */
+    public static ContextSnapshot capture() {
+        String requestId = MDC.get(LogTracingHelper.REQUEST_ID);
+        String[] signatures = null;
+        JoinPoint.StaticPart[] joinPoints = null;
+        ContextChain chain = null;
+
+        switch (LogTracingHelper.getInstance().getContextMode()) {
+            case STRUCTURED -> {
+                TraceContext context = TraceContext.current();
+                if (context != null && context.getDepth() > 0) {
+                    joinPoints = context.getJoinPoints();
+                }
+            }
+            case CHAIN -> {
+                ContextChain current = ContextChain.current();
+                if (current != null) {
+                    chain = current.copy();
+                }
+            }
+            default -> signatures = getNdc();
+        }
+
+        if (requestId == null && signatures == null && joinPoints == null && chain == null) {
+            return EMPTY;
+        }
+        return new ContextSnapshot(requestId, signatures, joinPoints, chain);
+    }
+
+    private static String[] getNdc() {
+        List<String> ndc = null;
+        for (String entry = MDC.get(NDC_PREFIX + 0); entry != null; entry = MDC.get(NDC_PREFIX + ndc.size())) {
+            if (ndc == null) {
+                ndc = new ArrayList<>();
+            }
+            ndc.add(entry);
+        }
+        return ndc == null ? null : ndc.toArray(new String[0]);
+    }
+
+    /**
+     * @return true if there is no context to propagate.
+     */
+    public boolean isEmpty() {
+        return this == EMPTY;
+    }
+
+    /**
+     * @return The request id, or null if there isn't one.
+     */
+    public String getRequestId() {
+        return requestId;
+    }
+
+    /**
+     * @return The depth of the signature stack.
+     */
+    public int getDepth() {
+        if (chain != null) {
+            return chain.getDepth();
+        }
+        return signatures != null ? signatures.length : (joinPoints != null ? joinPoints.length : 0);
+    }
+
+    /**
+     * Adds the snapshot's context to the calling thread's context until the returned scope is closed.
+     * <pre>
+     * try (ContextSnapshot.Scope scope = snapshot.restore()) {
+     *     ...
+     * }
+     * </pre>
+     *
+     * @return The scope, which must be closed on the same thread.
+     */
+    public Scope restore() {
+        return restore(true);
+    }
+
+    private Scope restore(boolean attachChain) {
+        if (isEmpty()) {
+            return Scope.NOOP;
+        }
+
+        String previousRequestId = null;
+        if (requestId != null) {
+            previousRequestId = MDC.get(LogTracingHelper.REQUEST_ID);
+            MDC.put(LogTracingHelper.REQUEST_ID, requestId);
+        }
+        ContextChain previousChain = null;
+        boolean attached = attachChain && chain != null;
+        if (attached) {
+            previousChain = ContextChain.attach(chain);
+        }
+        if (signatures != null) {
+            for (String signature : signatures) {
+                NDC.push(signature);
+            }
+        }
+        if (joinPoints != null) {
+            TraceContext context = TraceContext.get();
+            for (JoinPoint.StaticPart jp : joinPoints) {
+                context.push(jp);
+            }
+        }
+        return new RestoredScope(this, previousRequestId, attached, previousChain);
+    }
+
+    /**
+     * Calls the task with this context, binding the context chain with a `ScopedValue` if possible.
+     */
+    private <T> T call(Callable<T> task) throws Exception {
+        if (chain != null && ScopedValues.isAvailable()) {
+            try (Scope scope = restore(false)) {
+                return ScopedValues.call(chain, task);
+            }
+        }
+        try (Scope scope = restore(true)) {
+            return task.call();
+        }
+    }
+
+    /**
+     * {@link #call(Callable)} for tasks that can't throw checked exceptions.
+     */
+    private <T> T callUnchecked(Callable<T> task) {
+        try {
+            return call(task);
+        } catch (RuntimeException e) {
+            throw e;
+        } catch (Exception e) {
+            // not thrown as the wrapped tasks don't declare checked exceptions
+            throw new IllegalStateException(e);
+        }
+    }
+
+    /**
+     * Returns a task that runs the given task with this context.
+     *
+     * @param task The task.
+     * @return The wrapped task, or the task itself if there is no context.
+     */
+    public Runnable wrap(Runnable task) {
+        if (isEmpty() || task == null) {
+            return task;
+        }
+        return () -> callUnchecked(() -> {
+            task.run();
+            return null;
+        });
+    }
+
+    /**
+     * Returns a task that runs the given task with this context.
+     *
+     * @param task The task.
+     * @param <T>  The result type.
+     * @return The wrapped task, or the task itself if there is no context.
+     */
+    public <T> Callable<T> wrap(Callable<T> task) {
+        if (isEmpty() || task == null) {
+            return task;
+        }
+        return () -> call(task);
+    }
+
+    /**
+     * Returns a supplier that runs the given supplier with this context.
+     *
+     * @param supplier The supplier.
+     * @param <T>      The result type.
+     * @return The wrapped supplier, or the supplier itself if there is no context.
+     */
+    public <T> Supplier<T> wrap(Supplier<T> supplier) {
+        if (isEmpty() || supplier == null) {
+            return supplier;
+        }
+        return () -> callUnchecked(supplier::get);
+    }
+
+    /**
+     * Wraps the arguments of a call whose declared parameter types are `Runnable`, `Callable`, `Supplier`, `Function`,
+     * `BiFunction`, `Consumer`, `BiConsumer` or a `Collection` of `Callable`s (i.e. `invokeAll`) so they run with this
+     * context. Other arguments are unchanged.
+     *
+     * @param parameterTypes The declared parameter types of the called method.
+     * @param args           The arguments.
+     * @return The arguments to pass instead (the same array if nothing was wrapped).
+     */
+    @SuppressWarnings({"unchecked", "rawtypes"})
+    public Object[] wrapArguments(Class<?>[] parameterTypes, Object[] args) {
+        if (isEmpty() || args == null || parameterTypes == null || parameterTypes.length != args.length) {
+            return args;
+        }
+
+        Object[] wrapped = args;
+        for (int i = 0; i < args.length; i++) {
+            Object arg = args[i];
+            Class<?> type = parameterTypes[i];
+            Object replacement = arg;
+            if (arg == null) {
+                continue;
+            } else if (type == Runnable.class) {
+                replacement = wrap((Runnable) arg);
+            } else if (type == Callable.class) {
+                replacement = wrap((Callable<?>) arg);
+            } else if (type == Supplier.class) {
+                replacement = wrap((Supplier<?>) arg);
+            } else if (type == Function.class) {
+                Function function = (Function) arg;
+                replacement = (Function) value -> callUnchecked(() -> function.apply(value));
+            } else if (type == BiFunction.class) {
+                BiFunction function = (BiFunction) arg;
+                replacement = (BiFunction) (value1, value2) -> callUnchecked(() -> function.apply(value1, value2));
+            } else if (type == Consumer.class) {
+                Consumer consumer = (Consumer) arg;
+                replacement = (Consumer) value -> callUnchecked(() -> {
+                    consumer.accept(value);
+                    return null;
+                });
+            } else if (type == BiConsumer.class) {
+                BiConsumer consumer = (BiConsumer) arg;
+                replacement = (BiConsumer) (value1, value2) -> callUnchecked(() -> {
+                    consumer.accept(value1, value2);
+                    return null;
+                });
+            } else if (type == Collection.class && ((Collection<?>) arg).stream().allMatch(Callable.class::isInstance)) {
+                replacement = wrapAll((Collection) arg);
+            }
+
+            if (replacement != arg) {
+                if (wrapped == args) {
+                    wrapped = args.clone();
+                }
+                wrapped[i] = replacement;
+            }
+        }
+        return wrapped;
+    }
+
+    /**
+     * Wraps each `Callable` in the collection. Used for `invokeAll` and `invokeAny`.
+     */
+    <T> Collection<Callable<T>> wrapAll(Collection<? extends Callable<T>> tasks) {
+        List<Callable<T>> wrapped = new ArrayList<>(tasks.size());
+        for (Callable<T> task : tasks) {
+            wrapped.add(wrap(task));
+        }
+        return wrapped;
+    }
+
+    /**
+     * Returns an executor that runs each task with the context of the thread that submitted it.
+     *
+     * @param executor The executor that runs the tasks.
+     * @return The wrapping executor.
+     */
+    public static Executor wrap(Executor executor) {
+        if (executor instanceof ExecutorService executorService) {
+            return wrap(executorService);
+        }
+        return executor instanceof ContextPropagatingExecutorService ? executor :
+                task -> executor.execute(capture().wrap(task));
+    }
+
+    /**
+     * Returns an executor service that runs each task with the context of the thread that submitted it.
+     *
+     * @param executorService The executor service that runs the tasks.
+     * @return The wrapping executor service.
+     */
+    public static ExecutorService wrap(ExecutorService executorService) {
+        return executorService instanceof ContextPropagatingExecutorService ? executorService :
+                new ContextPropagatingExecutorService(executorService);
+    }
+
+    @Override
+    public String toString() {
+        List<Object> stack = new ArrayList<>();
+        if (signatures != null) {
+            stack.addAll(List.of(signatures));
+        } else if (chain != null) {
+            for (ContextChain node = chain; node != null; node = node.getParent()) {
+                stack.add(0, node.getFrame().staticPart.getSignature().toShortString());
+            }
+        } else if (joinPoints != null) {
+            for (JoinPoint.StaticPart jp : joinPoints) {
+                stack.add(jp.getSignature().toShortString());
+            }
+        }
+        return "requestId=" + requestId + ", stack=" + stack;
+    }
+
+    /**
+     * A restored context. Closing it removes the context that was added.
+     */
+    public interface Scope extends AutoCloseable {
+        /**
+         * Does nothing. Returned when there is no context to restore.
+         */
+        Scope NOOP = () -> {
+        };
+
+        @Override
+        void close();
+    }
+
+    private static final class RestoredScope implements Scope {
+        private final ContextSnapshot snapshot;
+        private final String previousRequestId;
+        private final boolean attached;
+        private final ContextChain previousChain;
+
+        private RestoredScope(ContextSnapshot snapshot, String previousRequestId, boolean attached, ContextChain previousChain) {
+            this.snapshot = snapshot;
+            this.previousRequestId = previousRequestId;
+            this.attached = attached;
+            this.previousChain = previousChain;
+        }
+
+        @Override
+        public void close() {
+            if (attached) {
+                ContextChain.detach(previousChain);
+            }
+            if (snapshot.joinPoints != null) {
+                TraceContext context = TraceContext.get();
+                for (int i = 0; i < snapshot.joinPoints.length; i++) {
+                    context.pop();
+                }
+            }
+            if (snapshot.signatures != null) {
+                for (int i = 0; i < snapshot.signatures.length; i++) {
+                    NDC.pop();
+                }
+            }
+            if (snapshot.requestId != null) {
+                if (previousRequestId == null) {
+                    MDC.remove(LogTracingHelper.REQUEST_ID);
+                } else {
+                    MDC.put(LogTracingHelper.REQUEST_ID, previousRequestId);
+                }
+            }
+        }
+    }
+}
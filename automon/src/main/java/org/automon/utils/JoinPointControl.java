@@ -0,0 +1,360 @@
+package org.automon.utils;
+
+import org.aspectj.lang.JoinPoint;
+import org.automon.jmx.JoinPointControlMXBean;
+import org.automon.jmx.JoinPointSnapshot;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.regex.Pattern;
+
+/**
+ * <p>Enables, samples and sets the trace level of individual join points at runtime (see {@link JoinPointControlMXBean}),
+ * and counts the calls the monitoring aspects see for each of them.</p>
+ *
+ * <p>Each join point is identified by its id in {@link Utils#JOIN_POINTS} and its settings are packed in one int, so the
+ * advice finds the join point's entry in an array and decides with a single volatile read. Changes are made by glob
+ * rules that are applied to the join points seen so far and, in order, to each join point when it is first seen. A rule
+ * replaces the earlier one for the same glob and setting, so repeating a change doesn't grow the rules.</p>
+ *
+ * <p>The monitoring and tracing aspects use the shared instance, which is registered with JMX. Set
+ * `org.automon.control=false` to not check or count the join points at all.</p>
+ */
+public final class JoinPointControl implements JoinPointControlMXBean {
+
+    /**
+     * What the tracing aspects log for a join point.
+     */
+    public enum TraceLevel {
+        /**
+         * As configured for the aspect.
+         */
+        DEFAULT,
+        /**
+         * No BEFORE, AFTER or SLOW messages.
+         */
+        OFF,
+        /**
+         * BEFORE and AFTER messages even if the aspect only logs slow calls.
+         */
+        ALL;
+
+        static TraceLevel from(String name) {
+            return TraceLevel.valueOf(name.trim().toUpperCase());
+        }
+    }
+
+    private static final String PURPOSE = "control";
+
+    private static final boolean ACTIVE = !"false".equalsIgnoreCase(Utils.AUTOMON_PROPERTIES.getProperties()
+            .getProperty(AutomonPropertiesLoader.CONTROL, "true").trim());
+
+    /**
+     * The state of a join point nothing was changed for: enabled, every call sampled and the default trace level.
+     */
+    private static final int DEFAULT_STATE = 0;
+    private static final int DISABLED = 1;
+    private static final int TRACE_LEVEL_SHIFT = 1;
+    private static final int TRACE_LEVEL_MASK = 0b11 << TRACE_LEVEL_SHIFT;
+    /**
+     * The upper 16 bits hold the fraction of calls that are not sampled, in 1/65535ths, so 0 samples every call.
+     */
+    private static final int UNSAMPLED_SHIFT = 16;
+    private static final int UNSAMPLED_SCALE = 0xFFFF;
+    private static final int UNSAMPLED_MASK = UNSAMPLED_SCALE << UNSAMPLED_SHIFT;
+
+    private static final JoinPointControl INSTANCE = new JoinPointControl(Utils.JOIN_POINTS);
+
+    static {
+        Utils.registerWithJmx(PURPOSE, "JoinPointControl", INSTANCE);
+    }
+
+    private final JoinPointRegistry joinPoints;
+
+    /**
+     * The entries indexed by join point id. Replaced when it needs to grow, and republished after an entry is added.
+     */
+    private volatile Entry[] entries = new Entry[256];
+
+    /**
+     * Only changed while holding the lock.
+     */
+    private final List<Rule> rules = new ArrayList<>();
+
+    /**
+     * Constructs a registry for the join points of the given registry.
+     * <p>
+     * This constructor is primarily intended for testing purposes.
+     *
+     * @param joinPoints The registry assigning join point ids.
+     */
+    JoinPointControl(JoinPointRegistry joinPoints) {
+        this.joinPoints = joinPoints;
+    }
+
+    /**
+     * Returns the shared registry. This is also the object registered with JMX.
+     *
+     * @return The shared registry.
+     */
+    public static JoinPointControl getInstance() {
+        return INSTANCE;
+    }
+
+    /**
+     * Counts a call to the join point and returns whether the monitoring aspect should monitor it.
+     *
+     * @param jp The join point being called.
+     * @return false if the join point is disabled or this call wasn't sampled.
+     */
+    public boolean shouldMonitor(JoinPoint.StaticPart jp) {
+        if (!ACTIVE) {
+            return true;
+        }
+        Entry entry = getEntry(jp);
+        entry.calls.increment();
+        int state = entry.state;
+        if ((state & DISABLED) != 0) {
+            return false;
+        }
+        int unsampled = state >>> UNSAMPLED_SHIFT;
+        return unsampled == 0 || ThreadLocalRandom.current().nextInt(UNSAMPLED_SCALE) >= unsampled;
+    }
+
+    /**
+     * Returns whether the join point is monitored. The call isn't counted.
+     *
+     * @param jp The join point.
+     * @return false if the join point was disabled.
+     */
+    public boolean isEnabled(JoinPoint.StaticPart jp) {
+        return !ACTIVE || (getEntry(jp).state & DISABLED) == 0;
+    }
+
+    /**
+     * Returns what the tracing aspects log for the join point.
+     *
+     * @param jp The join point.
+     * @return The trace level.
+     */
+    public TraceLevel getTraceLevel(JoinPoint.StaticPart jp) {
+        if (!ACTIVE) {
+            return TraceLevel.DEFAULT;
+        }
+        return toTraceLevel(getEntry(jp).state);
+    }
+
+    private Entry getEntry(JoinPoint.StaticPart jp) {
+        int id = joinPoints.getId(jp);
+        Entry[] current = entries;
+        Entry entry = (id < current.length) ? current[id] : null;
+        return (entry != null) ? entry : addEntry(id, jp);
+    }
+
+    private synchronized Entry addEntry(int id, JoinPoint.StaticPart jp) {
+        Entry[] current = entries;
+        if (id < current.length && current[id] != null) {
+            return current[id];
+        }
+
+        Entry entry = new Entry(Utils.getLabel(jp));
+        for (Rule rule : rules) {
+            rule.apply(entry);
+        }
+        if (id >= current.length) {
+            current = Arrays.copyOf(current, Math.max(current.length * 2, id + 1));
+        }
+        current[id] = entry;
+        entries = current; // publish the entry
+        return entry;
+    }
+
+    private synchronized int addRule(Rule rule) {
+        // removed rather than replaced in place so the new rule is still applied after the other rules, as it was to
+        // the join points seen so far
+        rules.removeIf(existing -> existing.replacedBy(rule));
+        rules.add(rule);
+        int matched = 0;
+        for (Entry entry : entries) {
+            if (entry != null && rule.apply(entry)) {
+                matched++;
+            }
+        }
+        return matched;
+    }
+
+    @Override
+    public List<JoinPointSnapshot> getJoinPoints() {
+        List<JoinPointSnapshot> snapshots = new ArrayList<>();
+        for (Entry entry : entries) {
+            if (entry != null) {
+                int state = entry.state;
+                snapshots.add(new JoinPointSnapshot(entry.label, entry.calls.sum(), (state & DISABLED) == 0,
+                        toSampleRate(state), toTraceLevel(state).name().toLowerCase()));
+            }
+        }
+        snapshots.sort(Comparator.comparingLong(JoinPointSnapshot::getCalls).reversed());
+        return snapshots;
+    }
+
+    @Override
+    public int getSize() {
+        int size = 0;
+        for (Entry entry : entries) {
+            if (entry != null) {
+                size++;
+            }
+        }
+        return size;
+    }
+
+    @Override
+    public int setEnabled(String glob, boolean enabled) {
+        return addRule(new Rule(glob, DISABLED, enabled ? 0 : DISABLED, "enabled=" + enabled));
+    }
+
+    /**
+     * @param glob The glob matched against the join point labels.
+     * @param rate 0.0 to 1.0 (1.0 monitors every call). Values outside the range are clamped to it.
+     * @return The number of join points seen so far that matched.
+     * @throws IllegalArgumentException If the rate is NaN or infinite.
+     */
+    @Override
+    public int setSampleRate(String glob, double rate) {
+        if (!Double.isFinite(rate)) {
+            throw new IllegalArgumentException("The sample rate must be a number from 0.0 to 1.0: " + rate);
+        }
+        double clamped = Math.max(0.0, Math.min(1.0, rate));
+        int unsampled = (int) Math.round((1.0 - clamped) * UNSAMPLED_SCALE);
+        return addRule(new Rule(glob, UNSAMPLED_MASK, unsampled << UNSAMPLED_SHIFT, "sampleRate=" + clamped));
+    }
+
+    /**
+     * @param glob  The glob matched against the join point labels.
+     * @param level default, off or all.
+     * @return The number of join points seen so far that matched.
+     * @throws IllegalArgumentException If the level isn't valid.
+     */
+    @Override
+    public int setTraceLevel(String glob, String level) {
+        TraceLevel traceLevel = TraceLevel.from(level);
+        return addRule(new Rule(glob, TRACE_LEVEL_MASK, traceLevel.ordinal() << TRACE_LEVEL_SHIFT,
+                "traceLevel=" + traceLevel.name().toLowerCase()));
+    }
+
+    @Override
+    public synchronized List<String> getRules() {
+        List<String> descriptions = new ArrayList<>();
+        for (Rule rule : rules) {
+            descriptions.add(rule.toString());
+        }
+        return descriptions;
+    }
+
+    @Override
+    public synchronized void clearRules() {
+        rules.clear();
+        for (Entry entry : entries) {
+            if (entry != null) {
+                entry.state = DEFAULT_STATE;
+            }
+        }
+    }
+
+    @Override
+    public void resetCallCounts() {
+        for (Entry entry : entries) {
+            if (entry != null) {
+                entry.calls.reset();
+            }
+        }
+    }
+
+    private static double toSampleRate(int state) {
+        return 1.0 - (double) (state >>> UNSAMPLED_SHIFT) / UNSAMPLED_SCALE;
+    }
+
+    private static TraceLevel toTraceLevel(int state) {
+        return TraceLevel.values()[(state & TRACE_LEVEL_MASK) >>> TRACE_LEVEL_SHIFT];
+    }
+
+    /**
+     * Converts a glob to a regular expression: `*` matches any characters, `?` one character, and everything else
+     * matches itself.
+     *
+     * @param glob The glob.
+     * @return The pattern.
+     */
+    static Pattern toPattern(String glob) {
+        StringBuilder regex = new StringBuilder();
+        StringBuilder literal = new StringBuilder();
+        for (char c : glob.trim().toCharArray()) {
+            if (c == '*' || c == '?') {
+                if (literal.length() > 0) {
+                    regex.append(Pattern.quote(literal.toString()));
+                    literal.setLength(0);
+                }
+                regex.append(c == '*' ? ".*" : ".");
+            } else {
+                literal.append(c);
+            }
+        }
+        if (literal.length() > 0) {
+            regex.append(Pattern.quote(literal.toString()));
+        }
+        return Pattern.compile(regex.toString());
+    }
+
+    private static final class Entry {
+        private final String label;
+        private final LongAdder calls = new LongAdder();
+        /**
+         * Only changed while holding the registry's lock.
+         */
+        private volatile int state = DEFAULT_STATE;
+
+        private Entry(String label) {
+            this.label = label;
+        }
+    }
+
+    /**
+     * Sets the bits of `mask` to `value` in the state of the join points whose label matches the glob.
+     */
+    private static final class Rule {
+        private final String glob;
+        private final Pattern pattern;
+        private final int mask;
+        private final int value;
+        private final String description;
+
+        private Rule(String glob, int mask, int value, String description) {
+            this.glob = glob;
+            this.pattern = toPattern(glob);
+            this.mask = mask;
+            this.value = value;
+            this.description = description;
+        }
+
+        private boolean replacedBy(Rule rule) {
+            return mask == rule.mask && glob.trim().equals(rule.glob.trim());
+        }
+
+        private boolean apply(Entry entry) {
+            if (!pattern.matcher(entry.label).matches()) {
+                return false;
+            }
+            entry.state = (entry.state & ~mask) | value;
+            return true;
+        }
+
+        @Override
+        public String toString() {
+            return glob + ": " + description;
+        }
+    }
+}
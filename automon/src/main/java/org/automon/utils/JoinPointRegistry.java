@@ -0,0 +1,82 @@
+package org.automon.utils;
+
+import org.aspectj.lang.JoinPoint;
+
+import java.util.Arrays;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Assigns each join point a small, dense int id the first time it is seen, so per join point data can be kept in arrays
+ * and join points can be referred to from primitive values (i.e. an event written to a ring buffer).
+ * <p>
+ * Ids start at 0 and are never reused. AspectJ creates one `JoinPoint.StaticPart` per join point, so the number of ids
+ * is bounded by the number of woven join points. Lookups by join point are a single `ConcurrentHashMap.get`, and
+ * lookups by id read a volatile array.
+ * </p>
+ */
+public class JoinPointRegistry {
+
+    private static final int INITIAL_CAPACITY = 256;
+
+    private final Map<JoinPoint.StaticPart, Integer> ids = new ConcurrentHashMap<>();
+
+    /**
+     * The join points indexed by id. Replaced (never modified in place after publication) when it needs to grow.
+     */
+    private volatile JoinPoint.StaticPart[] joinPoints = new JoinPoint.StaticPart[INITIAL_CAPACITY];
+
+    /**
+     * The number of ids assigned. Only changed while holding the lock.
+     */
+    private volatile int size;
+
+    /**
+     * Returns the id of the join point, assigning the next id if it hasn't been seen before.
+     *
+     * @param jp The join point.
+     * @return The id of the join point.
+     */
+    public int getId(JoinPoint.StaticPart jp) {
+        Integer id = ids.get(jp);
+        return id != null ? id : register(jp);
+    }
+
+    private synchronized int register(JoinPoint.StaticPart jp) {
+        Integer id = ids.get(jp);
+        if (id != null) {
+            return id;
+        }
+
+        int newId = size;
+        JoinPoint.StaticPart[] current = joinPoints;
+        if (newId == current.length) {
+            current = Arrays.copyOf(current, current.length * 2);
+        }
+        current[newId] = jp;
+        joinPoints = current; // publish the array before the id can be seen
+        size = newId + 1;
+        ids.put(jp, newId);
+        return newId;
+    }
+
+    /**
+     * Returns the join point with the given id.
+     *
+     * @param id An id returned by {@link #getId(JoinPoint.StaticPart)}.
+     * @return The join point, or null if no join point has the id.
+     */
+    public JoinPoint.StaticPart get(int id) {
+        JoinPoint.StaticPart[] current = joinPoints;
+        return (id >= 0 && id < current.length) ? current[id] : null;
+    }
+
+    /**
+     * Returns the number of join points that have been assigned an id. Ids are 0 to size-1.
+     *
+     * @return The number of registered join points.
+     */
+    public int size() {
+        return size;
+    }
+}
@@ -0,0 +1,147 @@
+package org.automon.utils;
+
+import org.aspectj.lang.JoinPoint;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * <p>Resolves the monitoring label for a join point once and then reuses it.</p>
+ *
+ * <p>AspectJ rebuilds the signature string of a `JoinPoint.StaticPart` with reflection based formatting every time
+ * `toString()` is called. Because AspectJ creates a single `StaticPart` per join point, the formatted label can be
+ * computed on first use and kept in a concurrent map keyed by the `StaticPart` (which doesn't override
+ * `equals`/`hashCode` so lookups are by identity). Reads are lock-free.</p>
+ *
+ * <p>The label format is configurable in `automon.properties` with the {@link AutomonPropertiesLoader#LABEL_FORMAT}
+ * key:</p>
+ * <ul>
+ *     <li>`full` (default) - `JoinPoint.StaticPart.toString()`, i.e. `execution(String com.example.MyClass.myMethod(int))`</li>
+ *     <li>`short` - `JoinPoint.StaticPart.toShortString()`, i.e. `execution(MyClass.myMethod(..))`</li>
+ *     <li>`long` - `JoinPoint.StaticPart.toLongString()`, i.e. `execution(public java.lang.String com.example.MyClass.myMethod(int))`</li>
+ *     <li>The fully qualified class name of a {@link LabelFormat} with a public noarg constructor.</li>
+ * </ul>
+ */
+public class LabelCache {
+
+    /**
+     * `JoinPoint.StaticPart.toString()` (the default).
+     */
+    public static final LabelFormat FULL = JoinPoint.StaticPart::toString;
+
+    /**
+     * `JoinPoint.StaticPart.toShortString()`.
+     */
+    public static final LabelFormat SHORT = JoinPoint.StaticPart::toShortString;
+
+    /**
+     * `JoinPoint.StaticPart.toLongString()`.
+     */
+    public static final LabelFormat LONG = JoinPoint.StaticPart::toLongString;
+
+    /**
+     * Previously resolved labels.
+     */
+    private final Map<JoinPoint.StaticPart, String> labels = new ConcurrentHashMap<>();
+
+    /**
+     * The format used to build a label the first time a join point is seen.
+     */
+    private volatile LabelFormat format;
+
+    /**
+     * Constructs a `LabelCache` using the given format.
+     *
+     * @param format The format used to build labels.
+     */
+    public LabelCache(LabelFormat format) {
+        this.format = format;
+    }
+
+    /**
+     * Returns the {@link LabelFormat} associated with the configured value.
+     *
+     * @param formatStr `full`, `short`, `long` or the fully qualified class name of a `LabelFormat`. `null` or an empty
+     *                  string returns the default `full` format.
+     * @return The matching format. If a custom format can't be created the default `full` format is returned.
+     */
+    public static LabelFormat getFormat(String formatStr) {
+        if (formatStr == null || formatStr.trim().isEmpty() || "full".equalsIgnoreCase(formatStr.trim())) {
+            return FULL;
+        } else if ("short".equalsIgnoreCase(formatStr.trim())) {
+            return SHORT;
+        } else if ("long".equalsIgnoreCase(formatStr.trim())) {
+            return LONG;
+        }
+
+        LabelFormat labelFormat = Utils.createFirst(formatStr.trim());
+        if (labelFormat == null) {
+            System.err.println("Automon: Unable to create the LabelFormat '" + formatStr + "'. Using the default 'full' format." +
+                    " Remember a public noarg constructor is required.");
+            return FULL;
+        }
+        return labelFormat;
+    }
+
+    /**
+     * Returns the label for the given join point, formatting and caching it the first time it is seen.
+     *
+     * @param jp The static part of the join point.
+     * @return The label for the join point.
+     */
+    public String getLabel(JoinPoint.StaticPart jp) {
+        String label = labels.get(jp);
+        if (label == null) {
+            label = format.format(jp);
+            String previous = labels.putIfAbsent(jp, label);
+            return previous == null ? label : previous;
+        }
+        return label;
+    }
+
+    /**
+     * Changes the label format. Previously cached labels are discarded.
+     * <p>
+     * Note monitoring tools that already cache their own timers by join point (i.e. Micrometer) will keep the
+     * label they were created with.
+     *
+     * @param format The new format.
+     */
+    public void setFormat(LabelFormat format) {
+        this.format = format;
+        labels.clear();
+    }
+
+    /**
+     * Returns the current label format.
+     *
+     * @return The label format.
+     */
+    public LabelFormat getFormat() {
+        return format;
+    }
+
+    /**
+     * Returns the number of cached labels.
+     *
+     * @return The number of join points with a cached label.
+     */
+    public int size() {
+        return labels.size();
+    }
+
+    /**
+     * Builds the monitoring label for a join point. Implementations must be thread-safe.
+     */
+    @FunctionalInterface
+    public interface LabelFormat {
+
+        /**
+         * Builds the label for the given join point. This is only called the first time a join point is seen.
+         *
+         * @param jp The static part of the join point.
+         * @return The label.
+         */
+        String format(JoinPoint.StaticPart jp);
+    }
+}
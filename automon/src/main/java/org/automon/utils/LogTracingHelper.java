@@ -4,7 +4,7 @@ import org.aspectj.lang.JoinPoint;
 import org.slf4j.MDC;
 import org.slf4j.NDC;
 
-import java.util.UUID;
+import java.util.concurrent.TimeUnit;
 
 /**
  * <p>This utility class provides methods for managing logging context in AspectJ applications using SLF4J's MDC (Mapped Diagnostic Context) and NDC (Nested Diagnostic Context).</p>
@@ -18,6 +18,17 @@ import java.util.UUID;
  *
  * <p>**Singleton Pattern:** This class implements the singleton pattern, as a single instance is sufficient for all loggers in the application
  * due to the use of MDC and NDC.</p>
+ *
+ * <p>**Structured Context:** When `org.automon.tracing.context=structured` the context of each join point is kept in a
+ * reusable thread-local {@link TraceContext} instead of the MDC/NDC (the request id still uses the MDC). Nothing is
+ * converted to a string until a log event reads the context, i.e. through {@link TraceContextDataProvider} for
+ * log4j2. The default (`mdc`) puts strings in the MDC/NDC, which works with any SLF4J logging backend.</p>
+ *
+ * <p>**Context Chain:** When `org.automon.tracing.context=chain` the context is kept in a linked
+ * {@link ContextChain} instead: each join point adds a node pointing to its caller's and the thread only references the
+ * innermost one. This is the backend for virtual threads and `ScopedValue`s as an idle thread holds nothing and the
+ * context is handed to another thread by copying one node. Like the structured context, the values are only
+ * converted to strings when read by a log event.</p>
  */
 public class LogTracingHelper implements AutoCloseable {
     /**
@@ -31,6 +42,7 @@ public class LogTracingHelper implements AutoCloseable {
      */
     public static String PARAMETERS = "parameters";
     public static String EXECUTION_TIME_MS = "executionTimeMs";
+    public static String EXECUTION_TIME_NS = "executionTimeNs";
     public static String REQUEST_ID = "requestId";
     public static String KIND = "kind";
     public static String THIS = "this";
@@ -39,10 +51,67 @@ public class LogTracingHelper implements AutoCloseable {
     public static String RETURN_VALUE = "returnValue";
     public static String EXCEPTION = "exception";
 
+    /**
+     * Where the tracing context (all but the request id) is kept, set with `org.automon.tracing.context`.
+     */
+    public enum ContextMode {
+        /**
+         * Strings in the MDC/NDC (`mdc`, the default).
+         */
+        MDC,
+        /**
+         * The reusable thread-local {@link TraceContext} (`structured`).
+         */
+        STRUCTURED,
+        /**
+         * The linked {@link ContextChain} (`chain`).
+         */
+        CHAIN;
+
+        /**
+         * Returns the mode for the `org.automon.tracing.context` value.
+         *
+         * @param value mdc, structured or chain (case-insensitive).
+         * @return The mode. MDC if the value is null or unknown.
+         */
+        public static ContextMode fromString(String value) {
+            String mode = value == null ? "" : value.trim().toUpperCase();
+            for (ContextMode contextMode : values()) {
+                if (contextMode.name().equals(mode)) {
+                    return contextMode;
+                }
+            }
+            if (!mode.isEmpty()) {
+                System.err.println("Automon: Unknown tracing context '" + value + "', so mdc will be used. Valid values: mdc, structured, chain");
+            }
+            return MDC;
+        }
+    }
+
+    /**
+     * Creates the ids added by {@link #withRequestId()}.
+     */
+    private volatile RequestIdGenerator requestIdGenerator = RequestIdGenerator.create(
+            Utils.AUTOMON_PROPERTIES.getProperties().getProperty(AutomonPropertiesLoader.REQUEST_ID_GENERATOR));
+
+    /**
+     * The units {@link #withExecutionTimeNs(long)} adds the execution time in (`org.automon.tracing.executionTimeUnits`).
+     */
+    private volatile boolean executionTimeInMs = true;
+    private volatile boolean executionTimeInNs;
+
+    /**
+     * Where the context is written.
+     */
+    private volatile ContextMode contextMode = ContextMode.fromString(
+            Utils.AUTOMON_PROPERTIES.getProperties().getProperty(AutomonPropertiesLoader.TRACING_CONTEXT));
+
     /**
      * Private constructor to prevent external instantiation.
      */
     private LogTracingHelper() {
+        setExecutionTimeUnits(Utils.AUTOMON_PROPERTIES.getProperties().getProperty(
+                AutomonPropertiesLoader.TRACING_EXECUTION_TIME_UNITS, "ms"));
     }
 
     /**
@@ -54,6 +123,113 @@ public class LogTracingHelper implements AutoCloseable {
         return INSTANCE;
     }
 
+    /**
+     * Returns true if the context is written to the thread's {@link TraceContext} rather than the MDC/NDC.
+     *
+     * @return true if the structured context is used.
+     */
+    public boolean isStructuredContext() {
+        return contextMode == ContextMode.STRUCTURED;
+    }
+
+    /**
+     * Sets whether the context is written to the thread's {@link TraceContext} or the MDC/NDC. It should only be changed
+     * when no join points are being traced as a context is removed from where it was added.
+     * This method is primarily intended for testing purposes.
+     *
+     * @param structuredContext true to use the structured context.
+     */
+    public void setStructuredContext(boolean structuredContext) {
+        setContextMode(structuredContext ? ContextMode.STRUCTURED : ContextMode.MDC);
+    }
+
+    /**
+     * Returns where the context is written.
+     *
+     * @return The context mode.
+     */
+    public ContextMode getContextMode() {
+        return contextMode;
+    }
+
+    /**
+     * Sets where the context is written. It should only be changed when no join points are being traced as a context
+     * is removed from where it was added.
+     * This method is primarily intended for testing purposes.
+     *
+     * @param contextMode The context mode. Null restores the default (MDC).
+     */
+    public void setContextMode(ContextMode contextMode) {
+        this.contextMode = contextMode == null ? ContextMode.MDC : contextMode;
+    }
+
+    /**
+     * Returns the units {@link #withExecutionTimeNs(long)} adds the execution time in.
+     *
+     * @return ms, ns or ms,ns.
+     */
+    public String getExecutionTimeUnits() {
+        if (executionTimeInMs && executionTimeInNs) {
+            return "ms,ns";
+        }
+        return executionTimeInNs ? "ns" : "ms";
+    }
+
+    /**
+     * Sets the units {@link #withExecutionTimeNs(long)} adds the execution time in: ms (`executionTimeMs`), ns
+     * (`executionTimeNs`) or both (ms,ns).
+     *
+     * @param units A comma-separated list of ms and ns. Unknown units are ignored, and if there are no valid units ms
+     *              is used.
+     */
+    public void setExecutionTimeUnits(String units) {
+        boolean inMs = false;
+        boolean inNs = false;
+        for (String unit : (units == null ? "" : units).split(",")) {
+            switch (unit.trim().toLowerCase()) {
+                case "ms" -> inMs = true;
+                case "ns" -> inNs = true;
+                case "" -> {
+                }
+                default ->
+                        System.err.println("Automon: Unknown execution time unit '" + unit.trim() + "' is ignored. Valid values: ms, ns");
+            }
+        }
+        executionTimeInMs = inMs || !inNs;
+        executionTimeInNs = inNs;
+    }
+
+    /**
+     * Returns the generator of the ids added by {@link #withRequestId()}.
+     *
+     * @return The request id generator.
+     */
+    public RequestIdGenerator getRequestIdGenerator() {
+        return requestIdGenerator;
+    }
+
+    /**
+     * Sets the generator of the ids added by {@link #withRequestId()} (`org.automon.requestId.generator` in
+     * `automon.properties` sets the initial one).
+     *
+     * @param requestIdGenerator The generator. Null restores the default (uuid).
+     */
+    public void setRequestIdGenerator(RequestIdGenerator requestIdGenerator) {
+        this.requestIdGenerator = requestIdGenerator == null ? RequestIdGenerator.create(null) : requestIdGenerator;
+    }
+
+    /**
+     * @return The innermost frame of the thread's structured context or context chain, or null if there isn't one.
+     */
+    private TraceContext.Frame currentFrame() {
+        if (contextMode == ContextMode.CHAIN) {
+            ContextChain chain = ContextChain.current();
+            return chain == null ? null : chain.getFrame();
+        }
+        TraceContext context = TraceContext.current();
+        return context == null ? null : context.peek();
+    }
+
     private static boolean isKindExecution(String kind) {
         return METHOD_EXECUTION_KIND.equals(kind) || CONSTRUCTOR_EXECUTION_KIND.equals(kind);
     }
@@ -90,7 +266,15 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This `LogTracingHelper` instance for method chaining.
      */
     public LogTracingHelper withParameters(JoinPoint joinPoint) {
-        MDC.put(PARAMETERS, Utils.paramsToMap(joinPoint).toString());
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.joinPoint = joinPoint;
+                frame.parameters = true;
+            }
+        } else {
+            MDC.put(PARAMETERS, Utils.paramsToMap(joinPoint).toString());
+        }
         return this;
     }
 
@@ -104,7 +288,11 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This `LogTracingHelper` instance for method chaining.
      */
     public LogTracingHelper withSignature(JoinPoint.StaticPart joinPointStaticPart) {
-        NDC.push(joinPointStaticPart.getSignature().toShortString());
+        switch (contextMode) {
+            case STRUCTURED -> TraceContext.get().push(joinPointStaticPart);
+            case CHAIN -> ContextChain.push(joinPointStaticPart);
+            default -> NDC.push(joinPointStaticPart.getSignature().toShortString());
+        }
         return this;
     }
 
@@ -118,7 +306,14 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This `LogTracingHelper` instance for method chaining.
      */
     public LogTracingHelper withEnclosingSignature(JoinPoint.StaticPart thisEnclosingJoinPointStaticPart) {
-        MDC.put(ENCLOSING_SIGNATURE, thisEnclosingJoinPointStaticPart.getSignature().toShortString());
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.enclosingStaticPart = thisEnclosingJoinPointStaticPart;
+            }
+        } else {
+            MDC.put(ENCLOSING_SIGNATURE, thisEnclosingJoinPointStaticPart.getSignature().toShortString());
+        }
         return this;
     }
 
@@ -132,7 +327,14 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This `LogTracingHelper` instance for method chaining.
      */
     public LogTracingHelper withException(String exceptionClassStr) {
-        MDC.put(EXCEPTION, exceptionClassStr);
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.exception = exceptionClassStr;
+            }
+        } else {
+            MDC.put(EXCEPTION, exceptionClassStr);
+        }
         return this;
     }
 
@@ -146,12 +348,51 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This `LogTracingHelper` instance for method chaining.
      */
     public LogTracingHelper withExecutionTime(long milliseconds) {
-        MDC.put(EXECUTION_TIME_MS, String.valueOf(milliseconds));
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.executionTimeMs = milliseconds;
+            }
+        } else {
+            MDC.put(EXECUTION_TIME_MS, String.valueOf(milliseconds));
+        }
+        return this;
+    }
+
+    /**
+     * Adds the execution time to the MDC in the configured units (see {@link #setExecutionTimeUnits(String)}).
+     * <p>
+     * Example MDC entries: `"executionTimeMs" : "42"`, `"executionTimeNs" : "42318250"`
+     * </p>
+     *
+     * @param nanoseconds The execution time in nanoseconds, i.e. the difference of two {@link AutomonClock#nanoTime()}s.
+     * @return This `LogTracingHelper` instance for method chaining.
+     */
+    public LogTracingHelper withExecutionTimeNs(long nanoseconds) {
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                if (executionTimeInMs) {
+                    frame.executionTimeMs = TimeUnit.NANOSECONDS.toMillis(nanoseconds);
+                }
+                if (executionTimeInNs) {
+                    frame.executionTimeNs = nanoseconds;
+                }
+            }
+        } else {
+            if (executionTimeInMs) {
+                MDC.put(EXECUTION_TIME_MS, String.valueOf(TimeUnit.NANOSECONDS.toMillis(nanoseconds)));
+            }
+            if (executionTimeInNs) {
+                MDC.put(EXECUTION_TIME_NS, String.valueOf(nanoseconds));
+            }
+        }
         return this;
     }
 
     /**
-     * Adds a unique request ID to the MDC.
+     * Adds a unique request ID to the MDC. The id is created by the {@link RequestIdGenerator} configured with
+     * `org.automon.requestId.generator` (a UUID by default).
      * <p>
      * Example MDC entry: `"requestId" : "550e8400-e29b-41d4-a716-446655440000"`
      * </p>
@@ -159,7 +400,7 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This `LogTracingHelper` instance for method chaining.
      */
     public LogTracingHelper withRequestId() {
-        MDC.put(REQUEST_ID, UUID.randomUUID().toString());
+        MDC.put(REQUEST_ID, requestIdGenerator.nextId());
         return this;
     }
 
@@ -173,10 +414,35 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This `LogTracingHelper` instance for method chaining.
      */
     public LogTracingHelper withReturnValue(String retValue) {
-        MDC.put(RETURN_VALUE, retValue);
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.setReturnValue(retValue);
+            }
+        } else {
+            MDC.put(RETURN_VALUE, retValue);
+        }
         return this;
     }
 
+    /**
+     * Adds the return value to the context. In the structured context the value is only converted to a string if a log
+     * event reads it.
+     *
+     * @param retValue The return value of the intercepted method or advice.
+     * @return This `LogTracingHelper` instance for method chaining.
+     */
+    public LogTracingHelper withReturnValue(Object retValue) {
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.setReturnValue(retValue);
+            }
+            return this;
+        }
+        return withReturnValue(objectToString(retValue));
+    }
+
     /**
      * Adds the join point kind (e.g., "method-execution") to the MDC.
      * <p>
@@ -187,7 +453,14 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This `LogTracingHelper` instance for method chaining.
      */
     public LogTracingHelper withKind(JoinPoint.StaticPart thisJoinPointStaticPart) {
-        MDC.put(KIND, thisJoinPointStaticPart.getKind());
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.kind = true;
+            }
+        } else {
+            MDC.put(KIND, thisJoinPointStaticPart.getKind());
+        }
         return this;
     }
 
@@ -201,7 +474,15 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This `LogTracingHelper` instance for method chaining.
      */
     public LogTracingHelper withThis(JoinPoint joinPoint) {
-        MDC.put(THIS, objectToString(joinPoint.getThis()));
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.joinPoint = joinPoint;
+                frame.thisObject = true;
+            }
+        } else {
+            MDC.put(THIS, objectToString(joinPoint.getThis()));
+        }
         return this;
     }
 
@@ -213,7 +494,15 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This LogTracingHelper instance
      */
     public LogTracingHelper withTarget(JoinPoint joinPoint) {
-        MDC.put(TARGET, objectToString(joinPoint.getTarget()));
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.joinPoint = joinPoint;
+                frame.target = true;
+            }
+        } else {
+            MDC.put(TARGET, objectToString(joinPoint.getTarget()));
+        }
         return this;
     }
 
@@ -223,7 +512,14 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This LogTracingHelper instance
      */
     public LogTracingHelper removeTarget() {
-        MDC.remove(TARGET);
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.target = false;
+            }
+        } else {
+            MDC.remove(TARGET);
+        }
         return this;
     }
 
@@ -233,7 +529,14 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This LogTracingHelper instance
      */
     public LogTracingHelper removeParameters() {
-        MDC.remove(PARAMETERS);
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.parameters = false;
+            }
+        } else {
+            MDC.remove(PARAMETERS);
+        }
         return this;
     }
 
@@ -243,7 +546,16 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This LogTracingHelper instance
      */
     public LogTracingHelper removeSignature() {
-        NDC.pop();
+        switch (contextMode) {
+            case STRUCTURED -> {
+                TraceContext context = TraceContext.current();
+                if (context != null) {
+                    context.pop();
+                }
+            }
+            case CHAIN -> ContextChain.pop();
+            default -> NDC.pop();
+        }
         return this;
     }
 
@@ -253,7 +565,14 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This LogTracingHelper instance
      */
     public LogTracingHelper removeEnclosingSignature() {
-        MDC.remove(ENCLOSING_SIGNATURE);
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.enclosingStaticPart = null;
+            }
+        } else {
+            MDC.remove(ENCLOSING_SIGNATURE);
+        }
         return this;
     }
 
@@ -263,7 +582,14 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This LogTracingHelper instance
      */
     public LogTracingHelper removeException() {
-        MDC.remove(EXCEPTION);
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.exception = null;
+            }
+        } else {
+            MDC.remove(EXCEPTION);
+        }
         return this;
     }
 
@@ -273,7 +599,16 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This LogTracingHelper instance
      */
     public LogTracingHelper removeExecutionTime() {
-        MDC.remove(EXECUTION_TIME_MS);
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.executionTimeMs = -1;
+                frame.executionTimeNs = -1;
+            }
+        } else {
+            MDC.remove(EXECUTION_TIME_MS);
+            MDC.remove(EXECUTION_TIME_NS);
+        }
         return this;
     }
 
@@ -293,7 +628,14 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This LogTracingHelper instance
      */
     public LogTracingHelper removeReturnValue() {
-        MDC.remove(RETURN_VALUE);
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.removeReturnValue();
+            }
+        } else {
+            MDC.remove(RETURN_VALUE);
+        }
         return this;
     }
 
@@ -303,7 +645,14 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This LogTracingHelper instance
      */
     public LogTracingHelper removeKind() {
-        MDC.remove(KIND);
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.kind = false;
+            }
+        } else {
+            MDC.remove(KIND);
+        }
         return this;
     }
 
@@ -313,7 +662,14 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This LogTracingHelper instance
      */
     public LogTracingHelper removeThis() {
-        MDC.remove(THIS);
+        if (contextMode != ContextMode.MDC) {
+            TraceContext.Frame frame = currentFrame();
+            if (frame != null) {
+                frame.thisObject = false;
+            }
+        } else {
+            MDC.remove(THIS);
+        }
         return this;
     }
 
@@ -346,10 +702,11 @@ public class LogTracingHelper implements AutoCloseable {
      * @return This LogTracingHelper instance
      */
     public LogTracingHelper withFullContext(JoinPoint joinPoint, JoinPoint.StaticPart thisJoinPointStaticPart, JoinPoint.StaticPart thisEnclosingJoinPointStaticPart) {
-        return withEnclosingSignature(thisEnclosingJoinPointStaticPart).
+        // the signature is added first as it starts the structured context's frame
+        return withSignature(thisJoinPointStaticPart).
+                withEnclosingSignature(thisEnclosingJoinPointStaticPart).
                 withKind(thisJoinPointStaticPart).
                 withParameters(joinPoint).
-                withSignature(thisJoinPointStaticPart).
                 withTarget(joinPoint).
                 withThis(joinPoint);
     }
@@ -393,10 +750,16 @@ public class LogTracingHelper implements AutoCloseable {
      * </ul>
      * Note: If an MDC element does not exist, its removal is safe and won't throw an exception,
      * as per SLF4J documentation.
+     * <p>
+     * In the structured and chain modes the values are kept in the current frame, so it is just popped. Clearing them
+     * after the pop would change the caller's frame, which in the chain mode may also be shared with other threads.
      *
      * @return This LogTracingHelper instance for method chaining
      */
     public LogTracingHelper removeFullContext() {
+        if (contextMode != ContextMode.MDC) {
+            return removeSignature();
+        }
         return removeEnclosingSignature().
                 removeException().
                 removeExecutionTime().
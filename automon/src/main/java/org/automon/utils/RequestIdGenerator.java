@@ -0,0 +1,241 @@
+package org.automon.utils;
+
+import java.net.InetAddress;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * <p>Creates the request ids added by the `RequestIdAspect`s (see {@link LogTracingHelper#withRequestId()}).</p>
+ *
+ * <p>The implementation is chosen with `org.automon.requestId.generator` in `automon.properties`:</p>
+ * <ul>
+ *     <li>`uuid` - A random `UUID` (i.e. `550e8400-e29b-41d4-a716-446655440000`). This is the default. It is the most
+ *     widely recognized format but uses `SecureRandom`, which can contend at high request rates.</li>
+ *     <li>`monotonic` - A random per JVM prefix and an increasing counter (i.e. `k3j9x0a1-1a2b`). Each thread takes
+ *     blocks of ids from a shared counter so ids are unique within the JVM with almost no contention. The fastest.</li>
+ *     <li>`snowflake` - A 64-bit number made up of the time in milliseconds, a node id and a sequence (i.e.
+ *     `7203851283749191680`), so ids are unique across nodes with different node ids and sort by time. The node id is
+ *     `org.automon.requestId.nodeId` (0-1023), or if not set is derived from the host name.</li>
+ *     <li>`ulid` - A ULID (i.e. `01J5Q2W8X9Z3B7N4K6M1P0R2S5`): the time in milliseconds and 80 random bits in 26
+ *     characters, so ids sort by time and are unique across nodes without any configuration.</li>
+ *     <li>A class name - Any class implementing `RequestIdGenerator` with a no-argument constructor.</li>
+ * </ul>
+ * <p>Implementations must be thread-safe.</p>
+ */
+public interface RequestIdGenerator {
+
+    /**
+     * Returns a new request id.
+     *
+     * @return The id.
+     */
+    String nextId();
+
+    /**
+     * Creates the generator with the given key (uuid, monotonic, snowflake or ulid) or class name.
+     *
+     * @param generator The key or class name. Null or empty returns the `uuid` generator.
+     * @return The generator. The `uuid` generator is returned if the key is unknown or the class can't be created.
+     */
+    static RequestIdGenerator create(String generator) {
+        String key = generator == null ? "" : generator.trim();
+        switch (key.toLowerCase()) {
+            case "":
+            case "uuid":
+                return new Uuid();
+            case "monotonic":
+                return new Monotonic();
+            case "snowflake":
+                return new Snowflake(Snowflake.getConfiguredNodeId());
+            case "ulid":
+                return new Ulid();
+            default:
+                break;
+        }
+
+        if (Utils.hasPackageName(key)) {
+            try {
+                return (RequestIdGenerator) Class.forName(key).getDeclaredConstructor().newInstance();
+            } catch (Exception | LinkageError e) {
+                System.err.println("Automon: Unable to create the request id generator '" + key + "', so uuid will be used: " + e);
+                return new Uuid();
+            }
+        }
+
+        System.err.println("Automon: Unknown request id generator '" + key + "', so uuid will be used. Valid values: uuid, monotonic, snowflake, ulid or a class name");
+        return new Uuid();
+    }
+
+    /**
+     * Random (version 4) UUIDs.
+     */
+    class Uuid implements RequestIdGenerator {
+        @Override
+        public String nextId() {
+            return UUID.randomUUID().toString();
+        }
+
+        @Override
+        public String toString() {
+            return "uuid";
+        }
+    }
+
+    /**
+     * A random per instance prefix followed by a counter in base 36. Each thread reserves a block of counter values at a
+     * time so the shared counter is only updated once per block.
+     */
+    class Monotonic implements RequestIdGenerator {
+        static final int BLOCK_SIZE = 1024;
+
+        private final String prefix = Long.toString(ThreadLocalRandom.current().nextLong() >>> 1, 36) + "-";
+        private final AtomicLong nextBlock = new AtomicLong();
+        private final ThreadLocal<long[]> block = ThreadLocal.withInitial(() -> new long[]{0, 0}); // next, end
+
+        @Override
+        public String nextId() {
+            long[] range = block.get();
+            if (range[0] == range[1]) {
+                range[0] = nextBlock.getAndIncrement() * BLOCK_SIZE;
+                range[1] = range[0] + BLOCK_SIZE;
+            }
+            return prefix + Long.toString(range[0]++, 36);
+        }
+
+        @Override
+        public String toString() {
+            return "monotonic";
+        }
+    }
+
+    /**
+     * Snowflake style ids: 41 bits of milliseconds since 2024-01-01 UTC, a 10 bit node id and a 12 bit sequence. If more
+     * than 4096 ids are needed in a millisecond the following millisecond is used rather than waiting, so ids are always
+     * unique and increasing on a node.
+     */
+    class Snowflake implements RequestIdGenerator {
+        static final long EPOCH_MILLIS = 1_704_067_200_000L; // 2024-01-01T00:00:00Z
+        static final int NODE_BITS = 10;
+        static final int SEQUENCE_BITS = 12;
+        static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+
+        private final long node;
+        private final LongSupplier clock;
+        /**
+         * The last (time << SEQUENCE_BITS | sequence) handed out.
+         */
+        private final AtomicLong last = new AtomicLong();
+
+        /**
+         * Constructs a generator for the given node.
+         *
+         * @param nodeId The node id (0 to 1023). Other values are masked to 10 bits.
+         */
+        public Snowflake(int nodeId) {
+            this(nodeId, System::currentTimeMillis);
+        }
+
+        /**
+         * Constructs a generator using the given clock. This method is primarily intended for testing purposes.
+         */
+        Snowflake(int nodeId, LongSupplier clock) {
+            this.node = nodeId & MAX_NODE_ID;
+            this.clock = clock;
+        }
+
+        static int getConfiguredNodeId() {
+            int nodeId = Utils.AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.REQUEST_ID_NODE_ID, -1);
+            if (nodeId >= 0) {
+                return nodeId & MAX_NODE_ID;
+            }
+            try {
+                return InetAddress.getLocalHost().getHostName().hashCode() & MAX_NODE_ID;
+            } catch (Exception e) {
+                return ThreadLocalRandom.current().nextInt(MAX_NODE_ID + 1);
+            }
+        }
+
+        /**
+         * Returns the next id as a number.
+         *
+         * @return The id.
+         */
+        public long nextLongId() {
+            long now = (clock.getAsLong() - EPOCH_MILLIS) << SEQUENCE_BITS;
+            long previous;
+            long next;
+            do {
+                previous = last.get();
+                next = Math.max(now, previous + 1);
+            } while (!last.compareAndSet(previous, next));
+
+            long time = next >>> SEQUENCE_BITS;
+            long sequence = next & ((1L << SEQUENCE_BITS) - 1);
+            return (time << (NODE_BITS + SEQUENCE_BITS)) | (node << SEQUENCE_BITS) | sequence;
+        }
+
+        @Override
+        public String nextId() {
+            return Long.toString(nextLongId());
+        }
+
+        @Override
+        public String toString() {
+            return "snowflake(node=" + node + ")";
+        }
+    }
+
+    /**
+     * ULIDs (https://github.com/ulid/spec): 48 bits of milliseconds since 1970 and 80 random bits, encoded as 26
+     * Crockford base 32 characters. The random bits come from `ThreadLocalRandom`, which is fast but not suitable where
+     * ids must be unguessable.
+     */
+    class Ulid implements RequestIdGenerator {
+        private static final char[] ENCODING = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+
+        private final LongSupplier clock;
+
+        /**
+         * Constructs a generator using the system clock.
+         */
+        public Ulid() {
+            this(System::currentTimeMillis);
+        }
+
+        /**
+         * Constructs a generator using the given clock. This method is primarily intended for testing purposes.
+         */
+        Ulid(LongSupplier clock) {
+            this.clock = clock;
+        }
+
+        @Override
+        public String nextId() {
+            ThreadLocalRandom random = ThreadLocalRandom.current();
+            long time = clock.getAsLong();
+            long randomHigh = random.nextLong() & 0xFFFFL; // 16 bits
+            long randomLow = random.nextLong(); // 64 bits
+
+            char[] chars = new char[26];
+            // 48 bit time: 10 characters (the first holds 3 bits)
+            for (int i = 9; i >= 0; i--) {
+                chars[i] = ENCODING[(int) (time & 0x1F)];
+                time >>>= 5;
+            }
+            // 80 random bits: 16 characters, encoded from the least significant end
+            for (int i = 25; i >= 10; i--) {
+                chars[i] = ENCODING[(int) (randomLow & 0x1F)];
+                randomLow = (randomLow >>> 5) | ((randomHigh & 0x1F) << 59);
+                randomHigh >>>= 5;
+            }
+            return new String(chars);
+        }
+
+        @Override
+        public String toString() {
+            return "ulid";
+        }
+    }
+}
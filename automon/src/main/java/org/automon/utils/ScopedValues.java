@@ -0,0 +1,110 @@
+package org.automon.utils;
+
+import java.lang.invoke.MethodHandle;
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.MethodType;
+import java.util.concurrent.Callable;
+
+/**
+ * <p>Binds the {@link ContextChain} with `java.lang.ScopedValue` when the JVM supports it (final in JDK 25, or an
+ * earlier JDK with `--enable-preview`). Automon is compiled for Java 17 so `ScopedValue` is found and called through
+ * method handles.</p>
+ *
+ * <p>A scoped value is bound for the duration of a call and is inherited by the tasks of a `StructuredTaskScope`,
+ * without a per-thread map. When `ScopedValue` isn't available {@link #isAvailable()} is false, nothing is ever bound
+ * and the context chain is only kept in a `ThreadLocal`.</p>
+ */
+final class ScopedValues {
+
+    private static final Object KEY;
+    private static final MethodHandle WHERE;
+    private static final MethodHandle RUN;
+    private static final MethodHandle OR_ELSE;
+
+    static {
+        Object key = null;
+        MethodHandle where = null;
+        MethodHandle run = null;
+        MethodHandle orElse = null;
+        try {
+            Class<?> scopedValue = Class.forName("java.lang.ScopedValue");
+            Class<?> carrier = Class.forName("java.lang.ScopedValue$Carrier");
+            MethodHandles.Lookup lookup = MethodHandles.publicLookup();
+            key = lookup.findStatic(scopedValue, "newInstance", MethodType.methodType(scopedValue)).invoke();
+            where = lookup.findStatic(scopedValue, "where", MethodType.methodType(carrier, scopedValue, Object.class));
+            run = lookup.findVirtual(carrier, "run", MethodType.methodType(void.class, Runnable.class));
+            orElse = lookup.findVirtual(scopedValue, "orElse", MethodType.methodType(Object.class, Object.class));
+            // fails here rather than on first use if preview APIs aren't enabled
+            orElse.invoke(key, null);
+        } catch (Throwable e) {
+            key = null;
+        }
+        KEY = key;
+        WHERE = where;
+        RUN = run;
+        OR_ELSE = orElse;
+    }
+
+    private ScopedValues() {
+    }
+
+    /**
+     * @return true if `ScopedValue` can be used.
+     */
+    static boolean isAvailable() {
+        return KEY != null;
+    }
+
+    /**
+     * Returns the chain bound to the current scope.
+     *
+     * @return The bound chain, or null if none is bound or `ScopedValue` isn't available.
+     */
+    static ContextChain get() {
+        if (KEY == null) {
+            return null;
+        }
+        try {
+            return (ContextChain) OR_ELSE.invoke(KEY, null);
+        } catch (Throwable e) {
+            return null;
+        }
+    }
+
+    /**
+     * Calls the operation with the chain bound. Must only be called if {@link #isAvailable()}.
+     *
+     * @param chain     The chain to bind.
+     * @param operation The operation.
+     * @param <T>       The result type.
+     * @return The result of the operation.
+     * @throws Exception Any exception thrown by the operation.
+     */
+    static <T> T call(ContextChain chain, Callable<T> operation) throws Exception {
+        Object[] result = new Object[1];
+        Throwable[] thrown = new Throwable[1];
+        Runnable runnable = () -> {
+            try {
+                result[0] = operation.call();
+            } catch (Throwable e) {
+                thrown[0] = e;
+            }
+        };
+
+        try {
+            Object carrier = WHERE.invoke(KEY, chain);
+            RUN.invoke(carrier, runnable);
+        } catch (Throwable e) {
+            throw new IllegalStateException("Automon: Unable to bind the context with ScopedValue", e);
+        }
+
+        if (thrown[0] instanceof Exception exception) {
+            throw exception;
+        } else if (thrown[0] instanceof Error error) {
+            throw error;
+        }
+        @SuppressWarnings("unchecked")
+        T value = (T) result[0];
+        return value;
+    }
+}
@@ -0,0 +1,168 @@
+package org.automon.utils;
+
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.function.LongConsumer;
+
+/**
+ * A bounded, lock-free, multiple producer/single consumer buffer of `long` values.
+ * <p>
+ * The buffer is split into stripes and each producer thread writes to the stripe selected by its thread id, so threads
+ * rarely contend on the same stripe. Each stripe is an array based ring (the Vyukov bounded queue algorithm): a producer
+ * claims a slot with one CAS, writes the value and then publishes it by setting the slot's sequence number. Nothing is
+ * allocated when a value is offered or drained.
+ * </p>
+ * <p>
+ * {@link #offer(long)} never blocks. It returns false if the producer's stripe is full, which the caller can use to apply
+ * its own backpressure policy (drop the value, handle it on the calling thread, ...). {@link #drain(LongConsumer, int)}
+ * must only be called by one thread at a time. Values from one thread are drained in the order they were offered.
+ * </p>
+ */
+public final class StripedLongRingBuffer {
+
+    private final Stripe[] stripes;
+    private final int stripeMask;
+
+    /**
+     * Constructs a buffer.
+     *
+     * @param stripes           The number of stripes. Rounded up to a power of 2.
+     * @param capacityPerStripe The number of values each stripe holds. Rounded up to a power of 2.
+     */
+    public StripedLongRingBuffer(int stripes, int capacityPerStripe) {
+        int stripeCount = powerOfTwo(stripes);
+        int capacity = powerOfTwo(capacityPerStripe);
+        this.stripes = new Stripe[stripeCount];
+        for (int i = 0; i < stripeCount; i++) {
+            this.stripes[i] = new Stripe(capacity);
+        }
+        this.stripeMask = stripeCount - 1;
+    }
+
+    static int powerOfTwo(int value) {
+        int atLeastOne = Math.max(1, Math.min(value, 1 << 30));
+        return Integer.highestOneBit(atLeastOne) == atLeastOne ? atLeastOne : Integer.highestOneBit(atLeastOne) << 1;
+    }
+
+    /**
+     * Adds a value to the calling thread's stripe.
+     *
+     * @param value The value.
+     * @return false if the stripe was full and the value wasn't added.
+     */
+    public boolean offer(long value) {
+        return stripes[(int) Thread.currentThread().getId() & stripeMask].offer(value);
+    }
+
+    /**
+     * Removes values from each stripe and passes them to the consumer. Must only be called by one thread at a time.
+     *
+     * @param consumer       Called with each value.
+     * @param maxPerStripe   The maximum number of values drained from each stripe, so one busy stripe can't starve the others.
+     * @return The number of values drained.
+     */
+    public int drain(LongConsumer consumer, int maxPerStripe) {
+        int drained = 0;
+        for (Stripe stripe : stripes) {
+            drained += stripe.drain(consumer, maxPerStripe);
+        }
+        return drained;
+    }
+
+    /**
+     * Returns the approximate number of values waiting to be drained.
+     *
+     * @return The number of values in the buffer.
+     */
+    public long size() {
+        long size = 0;
+        for (Stripe stripe : stripes) {
+            size += stripe.size();
+        }
+        return size;
+    }
+
+    /**
+     * Returns the total number of values the buffer can hold.
+     *
+     * @return The number of stripes multiplied by the capacity of each stripe.
+     */
+    public long capacity() {
+        return (long) stripes.length * stripes[0].values.length;
+    }
+
+    /**
+     * Returns the number of stripes.
+     *
+     * @return The number of stripes.
+     */
+    public int getStripes() {
+        return stripes.length;
+    }
+
+    /**
+     * One bounded ring. A slot whose sequence equals the producer position is free, and one whose sequence is one more
+     * than the consumer position holds a published value.
+     */
+    private static final class Stripe {
+        private final long[] values;
+        private final AtomicLongArray sequences;
+        private final int mask;
+        private final AtomicLong tail = new AtomicLong();
+        /**
+         * Only written by the draining thread.
+         */
+        private volatile long head;
+
+        private Stripe(int capacity) {
+            values = new long[capacity];
+            sequences = new AtomicLongArray(capacity);
+            for (int i = 0; i < capacity; i++) {
+                sequences.set(i, i);
+            }
+            mask = capacity - 1;
+        }
+
+        private boolean offer(long value) {
+            long position = tail.get();
+            while (true) {
+                int index = (int) position & mask;
+                long difference = sequences.get(index) - position;
+                if (difference == 0) {
+                    if (tail.compareAndSet(position, position + 1)) {
+                        values[index] = value;
+                        sequences.lazySet(index, position + 1); // publish
+                        return true;
+                    }
+                    position = tail.get();
+                } else if (difference < 0) {
+                    return false; // full
+                } else {
+                    position = tail.get(); // another producer claimed the slot
+                }
+            }
+        }
+
+        private int drain(LongConsumer consumer, int max) {
+            long position = head;
+            int drained = 0;
+            while (drained < max) {
+                int index = (int) position & mask;
+                if (sequences.get(index) != position + 1) {
+                    break; // empty, or the producer hasn't published the value yet
+                }
+                long value = values[index];
+                sequences.lazySet(index, position + values.length); // free the slot for the next lap
+                position++;
+                drained++;
+                consumer.accept(value);
+            }
+            head = position;
+            return drained;
+        }
+
+        private long size() {
+            return Math.max(0, tail.get() - head);
+        }
+    }
+}
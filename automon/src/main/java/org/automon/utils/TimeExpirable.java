@@ -10,7 +10,7 @@ public class TimeExpirable implements Expirable {
     /**
      * The default expiration interval in minutes (default: 2).
      */
-    private static final int DEFAULT_EXPIRATION_INTERVAL_IN_MINUTES = 2;
+    static final int DEFAULT_EXPIRATION_INTERVAL_IN_MINUTES = 2;
 
     /**
      * Number of seconds in a minute.
@@ -0,0 +1,280 @@
+package org.automon.utils;
+
+import org.aspectj.lang.JoinPoint;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.function.BiConsumer;
+
+/**
+ * <p>A structured alternative to the SLF4J MDC/NDC used by {@link LogTracingHelper} when
+ * `org.automon.tracing.context=structured`.</p>
+ *
+ * <p>Each thread has one `TraceContext` holding a stack of frames, one per traced join point that hasn't returned yet.
+ * A frame only keeps references (the join point, the return value, ...) and the frame objects are reused, so entering
+ * and leaving a traced method allocates nothing and converts nothing to a string. The values are only converted to
+ * strings when a log event actually reads them, i.e. through {@link TraceContextDataProvider} for log4j2, or
+ * {@link #getContextData()} for other logging backends.</p>
+ *
+ * <p>The keys are the same as the MDC keys ({@link LogTracingHelper#PARAMETERS} etc.) and the signatures on the stack
+ * are returned as `NDC0`, `NDC1`, ... as SLF4J's NDC does. Only the innermost frame's values are returned, so when it
+ * is removed the values of the calling join point are visible again.</p>
+ *
+ * <p>Note because values are formatted when first logged, an argument that is modified by the method before anything
+ * is logged shows its modified value.</p>
+ */
+public final class TraceContext {
+
+    private static final ThreadLocal<TraceContext> CONTEXT = new ThreadLocal<>();
+
+    private static final int INITIAL_DEPTH = 16;
+
+    private Frame[] frames = new Frame[INITIAL_DEPTH];
+    private int depth;
+
+    private TraceContext() {
+    }
+
+    /**
+     * Returns the calling thread's context, creating it if needed.
+     *
+     * @return The thread's context.
+     */
+    public static TraceContext get() {
+        TraceContext context = CONTEXT.get();
+        if (context == null) {
+            context = new TraceContext();
+            CONTEXT.set(context);
+        }
+        return context;
+    }
+
+    /**
+     * Returns the calling thread's context without creating it.
+     *
+     * @return The thread's context, or null if the thread has never traced a join point.
+     */
+    public static TraceContext current() {
+        return CONTEXT.get();
+    }
+
+    /**
+     * Starts a frame for the join point.
+     *
+     * @param jp The join point being entered.
+     * @return The new innermost frame.
+     */
+    Frame push(JoinPoint.StaticPart jp) {
+        if (depth == frames.length) {
+            frames = Arrays.copyOf(frames, depth * 2);
+        }
+        Frame frame = frames[depth];
+        if (frame == null) {
+            frame = new Frame();
+            frames[depth] = frame;
+        }
+        depth++;
+        frame.staticPart = jp;
+        return frame;
+    }
+
+    /**
+     * Returns the innermost frame.
+     *
+     * @return The innermost frame, or null if no join point is being traced.
+     */
+    Frame peek() {
+        return depth == 0 ? null : frames[depth - 1];
+    }
+
+    /**
+     * Ends the innermost frame, releasing its references so they can be garbage collected.
+     */
+    void pop() {
+        if (depth > 0) {
+            frames[--depth].clear();
+        }
+    }
+
+    /**
+     * Returns the number of join points being traced.
+     *
+     * @return The depth of the stack.
+     */
+    public int getDepth() {
+        return depth;
+    }
+
+    /**
+     * Returns the join points on the stack, outermost first.
+     *
+     * @return A copy of the join points.
+     */
+    JoinPoint.StaticPart[] getJoinPoints() {
+        JoinPoint.StaticPart[] joinPoints = new JoinPoint.StaticPart[depth];
+        for (int i = 0; i < depth; i++) {
+            joinPoints[i] = frames[i].staticPart;
+        }
+        return joinPoints;
+    }
+
+    /**
+     * Passes each key and string value of the context to the action. This is when the values are converted to strings.
+     *
+     * @param action Called with each key and value.
+     */
+    public void forEach(BiConsumer<String, String> action) {
+        for (int i = 0; i < depth; i++) {
+            action.accept("NDC" + i, frames[i].staticPart.getSignature().toShortString());
+        }
+        if (depth > 0) {
+            frames[depth - 1].forEach(action);
+        }
+    }
+
+    /**
+     * Returns a copy of the context with the values converted to strings.
+     *
+     * @return The context data, or an empty map if no join point is being traced.
+     */
+    public Map<String, String> getContextData() {
+        if (depth == 0) {
+            return Collections.emptyMap();
+        }
+        Map<String, String> data = new HashMap<>();
+        forEach(data::put);
+        return data;
+    }
+
+    @Override
+    public String toString() {
+        return getContextData().toString();
+    }
+
+    /**
+     * The context of one traced join point. Flags record which values were added so removing one is just clearing it.
+     * Values are formatted the first time they are read (capped by {@link Utils#toStringWithLimit(Object)}) and the
+     * strings are kept until the frame is removed, so the 'BEFORE' and 'AFTER' messages and any logging in between
+     * format them once. The values are only set by the thread that owns the frame, but a frame may be read by others
+     * (i.e. a {@link ContextChain} copy shared by several tasks), so the formatted strings are volatile.
+     */
+    static final class Frame {
+        JoinPoint.StaticPart staticPart;
+        JoinPoint.StaticPart enclosingStaticPart;
+        JoinPoint joinPoint;
+        boolean kind;
+        boolean parameters;
+        boolean thisObject;
+        boolean target;
+        private boolean hasReturnValue;
+        private Object returnValue;
+        long executionTimeMs = -1;
+        long executionTimeNs = -1;
+        String exception;
+
+        // formatted values, created when first read
+        private volatile String parametersString;
+        private volatile String thisString;
+        private volatile String targetString;
+        private volatile String returnValueString;
+
+        void setReturnValue(Object value) {
+            returnValue = value;
+            returnValueString = null;
+            hasReturnValue = true;
+        }
+
+        void removeReturnValue() {
+            returnValue = null;
+            returnValueString = null;
+            hasReturnValue = false;
+        }
+
+        void forEach(BiConsumer<String, String> action) {
+            if (enclosingStaticPart != null) {
+                action.accept(LogTracingHelper.ENCLOSING_SIGNATURE, enclosingStaticPart.getSignature().toShortString());
+            }
+            if (kind) {
+                action.accept(LogTracingHelper.KIND, staticPart.getKind());
+            }
+            if (joinPoint != null) {
+                if (parameters) {
+                    String value = parametersString;
+                    if (value == null) {
+                        parametersString = value = Utils.paramsToString(joinPoint);
+                    }
+                    action.accept(LogTracingHelper.PARAMETERS, value);
+                }
+                if (thisObject) {
+                    String value = thisString;
+                    if (value == null) {
+                        thisString = value = Utils.toStringWithLimit(joinPoint.getThis());
+                    }
+                    action.accept(LogTracingHelper.THIS, value);
+                }
+                if (target) {
+                    String value = targetString;
+                    if (value == null) {
+                        targetString = value = Utils.toStringWithLimit(joinPoint.getTarget());
+                    }
+                    action.accept(LogTracingHelper.TARGET, value);
+                }
+            }
+            if (executionTimeMs >= 0) {
+                action.accept(LogTracingHelper.EXECUTION_TIME_MS, String.valueOf(executionTimeMs));
+            }
+            if (executionTimeNs >= 0) {
+                action.accept(LogTracingHelper.EXECUTION_TIME_NS, String.valueOf(executionTimeNs));
+            }
+            if (hasReturnValue) {
+                String value = returnValueString;
+                if (value == null) {
+                    returnValueString = value = Utils.toStringWithLimit(returnValue);
+                }
+                action.accept(LogTracingHelper.RETURN_VALUE, value);
+            }
+            if (exception != null) {
+                action.accept(LogTracingHelper.EXCEPTION, exception);
+            }
+        }
+
+        /**
+         * Returns a copy of the frame's values, so they can be formatted by another thread after this frame has
+         * changed (see {@link AsyncTraceWriter}).
+         */
+        Frame copy() {
+            Frame copy = new Frame();
+            copy.staticPart = staticPart;
+            copy.enclosingStaticPart = enclosingStaticPart;
+            copy.joinPoint = joinPoint;
+            copy.kind = kind;
+            copy.parameters = parameters;
+            copy.thisObject = thisObject;
+            copy.target = target;
+            copy.hasReturnValue = hasReturnValue;
+            copy.returnValue = returnValue;
+            copy.executionTimeMs = executionTimeMs;
+            copy.executionTimeNs = executionTimeNs;
+            copy.exception = exception;
+            copy.parametersString = parametersString;
+            copy.thisString = thisString;
+            copy.targetString = targetString;
+            copy.returnValueString = returnValueString;
+            return copy;
+        }
+
+        private void clear() {
+            staticPart = null;
+            enclosingStaticPart = null;
+            joinPoint = null;
+            kind = parameters = thisObject = target = hasReturnValue = false;
+            returnValue = null;
+            parametersString = thisString = targetString = returnValueString = null;
+            executionTimeMs = -1;
+            executionTimeNs = -1;
+            exception = null;
+        }
+    }
+}
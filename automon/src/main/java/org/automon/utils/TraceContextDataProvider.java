@@ -0,0 +1,27 @@
+package org.automon.utils;
+
+import org.apache.logging.log4j.core.util.ContextDataProvider;
+
+import java.util.Collections;
+import java.util.Map;
+
+/**
+ * <p>Adds the calling thread's {@link TraceContext} (or {@link ContextChain} when
+ * `org.automon.tracing.context=chain`) to each log4j2 log event, so the structured tracing context is available to
+ * layouts (i.e. `%X{parameters}` or `%X` in a `PatternLayout`, or a `JsonTemplateLayout`) just like the
+ * MDC.</p>
+ *
+ * <p>log4j2 finds this class with the `ServiceLoader` (see `META-INF/services`) and only calls it when a log event is
+ * created, i.e. after the level check, so the context is only converted to strings for events that are logged.</p>
+ */
+public class TraceContextDataProvider implements ContextDataProvider {
+
+    @Override
+    public Map<String, String> supplyContextData() {
+        if (LogTracingHelper.getInstance().getContextMode() == LogTracingHelper.ContextMode.CHAIN) {
+            return ContextChain.getContextData(ContextChain.current());
+        }
+        TraceContext context = TraceContext.current();
+        return context == null ? Collections.emptyMap() : context.getContextData();
+    }
+}
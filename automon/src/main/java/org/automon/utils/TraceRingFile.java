@@ -0,0 +1,230 @@
+package org.automon.utils;
+
+import org.aspectj.lang.JoinPoint;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.Writer;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * <p>A memory-mapped file holding the most recent trace records, for analysis after an incident (see
+ * {@link TraceRingFileDecoder}).</p>
+ *
+ * <p>The file is a 64 byte header followed by a number of regions, each a ring of fixed-size 64 byte records. A thread
+ * always writes to the same region (its id modulo the number of regions), so threads seldom share a region and
+ * writing a record is an atomic increment and a few stores into the mapped memory. As the pages belong to the
+ * operating system the records survive the JVM crashing. Once a region is full its oldest records are overwritten, so
+ * the file holds the last `recordsPerRegion` calls of each region.</p>
+ *
+ * <p>Record layout (little endian):</p>
+ * <pre>
+ *  0 long  end time (epoch milliseconds, 0 while the record is being written)
+ *  8 long  thread id
+ * 16 long  duration (nanoseconds)
+ * 24 int   join point id (see {@link JoinPointRegistry})
+ * 28 short depth (the number of enclosing monitored calls)
+ * 30 byte  outcome (0 returned, 1 threw an exception)
+ * 31 byte  request id length
+ * 32 byte[32] request id (ASCII, truncated to 32 characters)
+ * </pre>
+ *
+ * <p>The join point ids are written to a side table, the file name with `.sym` appended, as `id&lt;tab&gt;join point`
+ * lines the first time each id is recorded.</p>
+ */
+public final class TraceRingFile implements AutoCloseable {
+
+    static final int MAGIC = 0x4155544D; // "AUTM"
+    static final int VERSION = 1;
+    static final int HEADER_SIZE = 64;
+    static final int RECORD_SIZE = 64;
+    static final int REQUEST_ID_BYTES = 32;
+
+    // header offsets
+    static final int HEADER_MAGIC = 0;
+    static final int HEADER_VERSION = 4;
+    static final int HEADER_RECORD_SIZE = 8;
+    static final int HEADER_REGIONS = 12;
+    static final int HEADER_RECORDS_PER_REGION = 16;
+    static final int HEADER_START_MILLIS = 24;
+
+    // record offsets
+    static final int END_MILLIS = 0;
+    static final int THREAD_ID = 8;
+    static final int DURATION_NS = 16;
+    static final int JOIN_POINT_ID = 24;
+    static final int DEPTH = 28;
+    static final int OUTCOME = 30;
+    static final int REQUEST_ID_LENGTH = 31;
+    static final int REQUEST_ID = 32;
+
+    /**
+     * The cursors are spaced out so each region's cursor is on its own cache line.
+     */
+    private static final int CURSOR_STRIDE = 8;
+
+    private final Path path;
+    private final Path symbolsPath;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int regions;
+    private final int recordsPerRegion;
+    private final AtomicLongArray cursors;
+    private final Writer symbols;
+    private volatile int symbolsWritten;
+
+    /**
+     * Creates (or replaces) the file and maps it into memory.
+     *
+     * @param path             The file. The side table is written to the same path with `.sym` appended.
+     * @param regions          The number of regions.
+     * @param recordsPerRegion The number of records each region holds.
+     * @throws IOException If the file can't be created or mapped.
+     */
+    public TraceRingFile(Path path, int regions, int recordsPerRegion) throws IOException {
+        this.path = path;
+        this.symbolsPath = Path.of(path + ".sym");
+        this.regions = Math.max(1, regions);
+        long maxRecords = (Integer.MAX_VALUE - HEADER_SIZE) / RECORD_SIZE;
+        this.recordsPerRegion = (int) Math.max(1, Math.min(recordsPerRegion, maxRecords / this.regions));
+        this.cursors = new AtomicLongArray(this.regions * CURSOR_STRIDE);
+
+        long size = HEADER_SIZE + (long) this.regions * this.recordsPerRegion * RECORD_SIZE;
+        Path parent = path.toAbsolutePath().getParent();
+        if (parent != null) {
+            Files.createDirectories(parent);
+        }
+        channel = FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE,
+                StandardOpenOption.TRUNCATE_EXISTING);
+        buffer = channel.map(FileChannel.MapMode.READ_WRITE, 0, size);
+        buffer.order(ByteOrder.LITTLE_ENDIAN);
+        buffer.putInt(HEADER_MAGIC, MAGIC);
+        buffer.putInt(HEADER_VERSION, VERSION);
+        buffer.putInt(HEADER_RECORD_SIZE, RECORD_SIZE);
+        buffer.putInt(HEADER_REGIONS, this.regions);
+        buffer.putInt(HEADER_RECORDS_PER_REGION, this.recordsPerRegion);
+        buffer.putLong(HEADER_START_MILLIS, System.currentTimeMillis());
+
+        symbols = new BufferedWriter(Files.newBufferedWriter(symbolsPath, StandardCharsets.UTF_8));
+    }
+
+    /**
+     * Writes a record to the calling thread's region.
+     *
+     * @param jp         The join point.
+     * @param endMillis  When the call ended (epoch milliseconds).
+     * @param threadId   The id of the thread that made the call.
+     * @param durationNs The execution time in nanoseconds.
+     * @param depth      The number of enclosing monitored calls.
+     * @param failed     true if the call threw an exception.
+     * @param requestId  The request id (may be null).
+     */
+    public void write(JoinPoint.StaticPart jp, long endMillis, long threadId, long durationNs, int depth,
+                      boolean failed, String requestId) {
+        int id = Utils.JOIN_POINTS.getId(jp);
+        if (id >= symbolsWritten) {
+            writeSymbols(id);
+        }
+
+        int region = (int) Math.floorMod(threadId, (long) regions);
+        long slot = cursors.getAndIncrement(region * CURSOR_STRIDE) % recordsPerRegion;
+        int offset = HEADER_SIZE + (int) ((long) region * recordsPerRegion + slot) * RECORD_SIZE;
+
+        buffer.putLong(offset + END_MILLIS, 0); // marks the record as incomplete until it is written
+        buffer.putLong(offset + THREAD_ID, threadId);
+        buffer.putLong(offset + DURATION_NS, durationNs);
+        buffer.putInt(offset + JOIN_POINT_ID, id);
+        buffer.putShort(offset + DEPTH, (short) Math.min(depth, Short.MAX_VALUE));
+        buffer.put(offset + OUTCOME, (byte) (failed ? 1 : 0));
+        int length = requestId == null ? 0 : Math.min(requestId.length(), REQUEST_ID_BYTES);
+        buffer.put(offset + REQUEST_ID_LENGTH, (byte) length);
+        for (int i = 0; i < length; i++) {
+            char c = requestId.charAt(i);
+            buffer.put(offset + REQUEST_ID + i, (byte) (c < 128 ? c : '?'));
+        }
+        buffer.putLong(offset + END_MILLIS, endMillis);
+    }
+
+    /**
+     * Appends the join points up to the given id to the side table. Join point ids are dense so the table is written
+     * in id order.
+     */
+    private synchronized void writeSymbols(int id) {
+        int written = symbolsWritten;
+        if (id < written) {
+            return;
+        }
+        try {
+            for (int i = written; i <= id; i++) {
+                JoinPoint.StaticPart jp = Utils.JOIN_POINTS.get(i);
+                symbols.write(i + "\t" + (jp == null ? "?" : jp.toString()) + "\n");
+            }
+            symbols.flush();
+        } catch (IOException e) {
+            System.err.println("Automon: Unable to write the trace file symbols to " + symbolsPath + ": " + e);
+        }
+        symbolsWritten = id + 1;
+    }
+
+    /**
+     * Writes the changed pages of the file to the storage device. The operating system does this on its own, so this
+     * is only needed to protect against the machine (rather than the JVM) failing.
+     */
+    public void force() {
+        buffer.force();
+    }
+
+    /**
+     * @return The file the records are written to.
+     */
+    public Path getPath() {
+        return path;
+    }
+
+    /**
+     * @return The side table of join point ids.
+     */
+    public Path getSymbolsPath() {
+        return symbolsPath;
+    }
+
+    /**
+     * @return The number of regions.
+     */
+    public int getRegions() {
+        return regions;
+    }
+
+    /**
+     * @return The number of records each region holds.
+     */
+    public int getRecordsPerRegion() {
+        return recordsPerRegion;
+    }
+
+    /**
+     * Writes the records to the storage device and closes the file.
+     */
+    @Override
+    public synchronized void close() {
+        try {
+            buffer.force();
+            symbols.close();
+            channel.close();
+        } catch (IOException e) {
+            System.err.println("Automon: Unable to close the trace file " + path + ": " + e);
+        }
+    }
+
+    @Override
+    public String toString() {
+        return "TraceRingFile(" + path + ", regions=" + regions + ", recordsPerRegion=" + recordsPerRegion + ")";
+    }
+}
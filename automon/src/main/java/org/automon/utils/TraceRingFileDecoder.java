@@ -0,0 +1,222 @@
+package org.automon.utils;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import static org.automon.utils.TraceRingFile.*;
+
+/**
+ * <p>Converts a {@link TraceRingFile} to text or JSON lines, oldest record first.</p>
+ *
+ * <pre>
+ * java -cp automon.jar org.automon.utils.TraceRingFileDecoder automon-trace-1234.bin [--json]
+ * </pre>
+ *
+ * <p>Text lines look like `2024-08-18T10:28:35.809Z thread=1 depth=1 execution(String com.example.MyService.find(int)) 1234567ns ok requestId=...`
+ * and JSON lines hold the same values. The file can be decoded while the application is still writing to it.</p>
+ */
+public final class TraceRingFileDecoder {
+
+    private TraceRingFileDecoder() {
+    }
+
+    /**
+     * Decodes the file given as the first argument to standard out. Add `--json` for JSON lines.
+     *
+     * @param args The file and optionally `--json`.
+     * @throws IOException If the file can't be read.
+     */
+    public static void main(String[] args) throws IOException {
+        if (args.length == 0) {
+            System.err.println("Usage: java -cp automon.jar " + TraceRingFileDecoder.class.getName() + " <trace file> [--json]");
+            System.exit(1);
+        }
+        boolean json = args.length > 1 && args[1].equals("--json");
+        decode(Path.of(args[0]), json, System.out);
+    }
+
+    /**
+     * Writes the records of the file as text or JSON lines.
+     *
+     * @param file The trace file.
+     * @param json true for JSON lines.
+     * @param out  Where the lines are written.
+     * @throws IOException If the file can't be read.
+     */
+    public static void decode(Path file, boolean json, PrintStream out) throws IOException {
+        for (Record record : read(file)) {
+            out.println(json ? record.toJson() : record.toString());
+        }
+    }
+
+    /**
+     * Reads the complete records of the file, oldest first.
+     *
+     * @param file The trace file.
+     * @return The records.
+     * @throws IOException If the file can't be read or isn't a trace file.
+     */
+    public static List<Record> read(Path file) throws IOException {
+        Map<Integer, String> symbols = readSymbols(Path.of(file + ".sym"));
+        ByteBuffer buffer;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            buffer = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()).order(ByteOrder.LITTLE_ENDIAN);
+        }
+        if (buffer.capacity() < HEADER_SIZE || buffer.getInt(HEADER_MAGIC) != MAGIC) {
+            throw new IOException("Not an Automon trace file: " + file);
+        }
+        if (buffer.getInt(HEADER_VERSION) != VERSION) {
+            throw new IOException("Unsupported Automon trace file version " + buffer.getInt(HEADER_VERSION) + ": " + file);
+        }
+
+        int recordSize = buffer.getInt(HEADER_RECORD_SIZE);
+        long records = (long) buffer.getInt(HEADER_REGIONS) * buffer.getInt(HEADER_RECORDS_PER_REGION);
+        List<Record> result = new ArrayList<>();
+        for (long i = 0; i < records; i++) {
+            int offset = (int) (HEADER_SIZE + i * recordSize);
+            if (offset + recordSize > buffer.capacity()) {
+                break;
+            }
+            long endMillis = buffer.getLong(offset + END_MILLIS);
+            if (endMillis == 0) {
+                continue; // never written or incomplete
+            }
+            int id = buffer.getInt(offset + JOIN_POINT_ID);
+            byte[] requestId = new byte[Math.min(buffer.get(offset + REQUEST_ID_LENGTH) & 0xFF, REQUEST_ID_BYTES)];
+            buffer.get(offset + REQUEST_ID, requestId);
+            result.add(new Record(endMillis,
+                    buffer.getLong(offset + THREAD_ID),
+                    id,
+                    symbols.getOrDefault(id, "joinPoint#" + id),
+                    buffer.getShort(offset + DEPTH),
+                    buffer.getLong(offset + DURATION_NS),
+                    buffer.get(offset + OUTCOME) != 0,
+                    requestId.length == 0 ? null : new String(requestId, StandardCharsets.US_ASCII)));
+        }
+        result.sort(Comparator.comparingLong(Record::getEndMillis));
+        return result;
+    }
+
+    private static Map<Integer, String> readSymbols(Path symbolsFile) throws IOException {
+        Map<Integer, String> symbols = new HashMap<>();
+        if (Files.exists(symbolsFile)) {
+            for (String line : Files.readAllLines(symbolsFile, StandardCharsets.UTF_8)) {
+                int tab = line.indexOf('\t');
+                if (tab > 0) {
+                    symbols.put(Integer.parseInt(line.substring(0, tab)), line.substring(tab + 1));
+                }
+            }
+        }
+        return symbols;
+    }
+
+    private static String jsonString(String value) {
+        if (value == null) {
+            return "null";
+        }
+        StringBuilder json = new StringBuilder("\"");
+        for (char c : value.toCharArray()) {
+            switch (c) {
+                case '"' -> json.append("\\\"");
+                case '\\' -> json.append("\\\\");
+                case '\n' -> json.append("\\n");
+                case '\t' -> json.append("\\t");
+                default -> {
+                    if (c < 0x20) {
+                        json.append(String.format("\\u%04x", (int) c));
+                    } else {
+                        json.append(c);
+                    }
+                }
+            }
+        }
+        return json.append('"').toString();
+    }
+
+    /**
+     * A decoded record.
+     */
+    public static final class Record {
+        private final long endMillis;
+        private final long threadId;
+        private final int joinPointId;
+        private final String joinPoint;
+        private final int depth;
+        private final long durationNs;
+        private final boolean failed;
+        private final String requestId;
+
+        Record(long endMillis, long threadId, int joinPointId, String joinPoint, int depth, long durationNs,
+               boolean failed, String requestId) {
+            this.endMillis = endMillis;
+            this.threadId = threadId;
+            this.joinPointId = joinPointId;
+            this.joinPoint = joinPoint;
+            this.depth = depth;
+            this.durationNs = durationNs;
+            this.failed = failed;
+            this.requestId = requestId;
+        }
+
+        public long getEndMillis() {
+            return endMillis;
+        }
+
+        public long getThreadId() {
+            return threadId;
+        }
+
+        public int getJoinPointId() {
+            return joinPointId;
+        }
+
+        public String getJoinPoint() {
+            return joinPoint;
+        }
+
+        public int getDepth() {
+            return depth;
+        }
+
+        public long getDurationNs() {
+            return durationNs;
+        }
+
+        public boolean isFailed() {
+            return failed;
+        }
+
+        public String getRequestId() {
+            return requestId;
+        }
+
+        String toJson() {
+            return "{\"time\":" + jsonString(Instant.ofEpochMilli(endMillis).toString()) +
+                    ",\"thread\":" + threadId +
+                    ",\"depth\":" + depth +
+                    ",\"joinPoint\":" + jsonString(joinPoint) +
+                    ",\"durationNs\":" + durationNs +
+                    ",\"outcome\":" + (failed ? "\"exception\"" : "\"ok\"") +
+                    ",\"requestId\":" + jsonString(requestId) + "}";
+        }
+
+        @Override
+        public String toString() {
+            return Instant.ofEpochMilli(endMillis) + " thread=" + threadId + " depth=" + depth + " " + joinPoint + " " +
+                    durationNs + "ns " + (failed ? "exception" : "ok") + (requestId == null ? "" : " requestId=" + requestId);
+        }
+    }
+}
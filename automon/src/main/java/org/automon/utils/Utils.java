@@ -43,6 +43,17 @@ public class Utils {
      */
     public static AutomonPropertiesLoader AUTOMON_PROPERTIES = new AutomonPropertiesLoader();
 
+    /**
+     * Labels for join points, resolved once per join point in the configured format
+     */
+    public static final LabelCache LABELS = new LabelCache(LabelCache.getFormat(
+            AUTOMON_PROPERTIES.getProperties().getProperty(AutomonPropertiesLoader.LABEL_FORMAT)));
+
+    /**
+     * Dense int ids for join points, shared by everything that keeps per join point data in arrays or primitive events
+     */
+    public static final JoinPointRegistry JOIN_POINTS = new JoinPointRegistry();
+
     /**
      * Creates a thread-safe map for storing exceptions with expiration capabilities
      *
@@ -52,6 +63,28 @@ public class Utils {
         return Collections.synchronizedMap(new ExpiringMap<Throwable, AutomonExpirable>());
     }
 
+    /**
+     * Creates a lock-free store for recently thrown exceptions. Entries are removed when they expire, when the
+     * store grows past its maximum size ({@link AutomonPropertiesLoader#EXCEPTION_MAX_SIZE}), or when the
+     * exception is garbage collected.
+     *
+     * @return A concurrent, identity-keyed store for exceptions that expire over time
+     */
+    public static ConcurrentExpiringMap<Throwable, AutomonExpirable> createExceptionStore() {
+        return new ConcurrentExpiringMap<>(AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.EXCEPTION_MAX_SIZE,
+                ConcurrentExpiringMap.DEFAULT_MAX_SIZE));
+    }
+
+    /**
+     * Returns the number of minutes a thrown exception is remembered ({@link AutomonPropertiesLoader#EXCEPTION_EXPIRATION_MINUTES}).
+     *
+     * @return The expiration interval in minutes
+     */
+    public static int getExceptionExpirationIntervalInMinutes() {
+        return AUTOMON_PROPERTIES.getInt(AutomonPropertiesLoader.EXCEPTION_EXPIRATION_MINUTES,
+                TimeExpirable.DEFAULT_EXPIRATION_INTERVAL_IN_MINUTES);
+    }
+
     /**
      * Generates a monitoring label for a thrown exception
      *
@@ -68,13 +101,14 @@ public class Utils {
     }
 
     /**
-     * Generates a monitoring label from an intercepted JoinPoint
+     * Generates a monitoring label from an intercepted JoinPoint. The label is built once per join point
+     * and cached (see {@link LabelCache}).
      *
      * @param jp The intercepted JoinPoint
      * @return A label suitable for monitoring/timer
      */
     public static String getLabel(JoinPoint.StaticPart jp) {
-        return jp.toString();
+        return LABELS.getLabel(jp);
     }
 
     /**
@@ -149,6 +183,24 @@ public class Utils {
         return sb.append(LINE_SEPARATOR).toString();
     }
 
+    /**
+     * Converts the join point's parameters to a string in the same format as `paramsToMap(joinPoint).toString()`
+     * (i.e. `{name=John, age=30}`), but with each value capped by {@link #toStringWithLimit(Object)}.
+     *
+     * @param joinPoint The join point
+     * @return The parameter names and values
+     */
+    public static String paramsToString(JoinPoint joinPoint) {
+        StringBuilder sb = new StringBuilder("{");
+        for (Map.Entry<String, Object> entry : paramsToMap(joinPoint).entrySet()) {
+            if (sb.length() > 1) {
+                sb.append(", ");
+            }
+            sb.append(entry.getKey()).append('=').append(toStringWithLimit(entry.getValue()));
+        }
+        return sb.append('}').toString();
+    }
+
     /**
      * Converts a method parameter to a string with length limiting and null handling
      *
@@ -160,8 +212,8 @@ public class Utils {
             return NULL_STR;
         }
 
-        String value = parameter.toString();
         try {
+            String value = parameter.toString();
             if (value.length() > DEFAULT_ARG_STRING_MAX_LENGTH) {
                 value = value.substring(0, DEFAULT_ARG_STRING_MAX_LENGTH) + DEFAULT_MAX_STRING_ENDING;
             }
@@ -351,4 +403,17 @@ public class Utils {
         return AUTOMON_PROPERTIES.getBoolean(key);
     }
 
+    /**
+     * Returns the slow call threshold of a tracing aspect based on properties: `&lt;object&gt;.slowThresholdMs`, or if
+     * not set `org.automon.tracing.slowThresholdMs`.
+     *
+     * @param object The object representing the aspect
+     * @return The threshold in milliseconds, or -1 if every call should be logged
+     */
+    public static double getSlowThresholdMs(Object object) {
+        double defaultThresholdMs = AUTOMON_PROPERTIES.getDouble(AutomonPropertiesLoader.TRACING_SLOW_THRESHOLD_MS, -1);
+        return object == null ? defaultThresholdMs :
+                AUTOMON_PROPERTIES.getDouble(object + ".slowThresholdMs", defaultThresholdMs);
+    }
+
 }
@@ -1,13 +1,17 @@
 package org.automon.aspects.monitoring;
 
+import org.aspectj.lang.JoinPoint;
 import org.automon.implementations.NullImp;
 import org.automon.implementations.OpenMon;
+import org.automon.utils.JoinPointControl;
+import org.automon.utils.Utils;
 import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class BaseMonitoringAspectTest {
 
@@ -32,5 +36,86 @@ public class BaseMonitoringAspectTest {
         assertThat(baseMonitoringAspect.getOpenMon()).isEqualTo(openMon);
     }
 
+    @Test
+    public void testLazyOpenMon() throws Exception {
+        BaseMonitoringAspect aspect = new BaseMonitoringAspect();
+        aspect.initialize("lazy_test", true);
+        try {
+            assertThat(aspect.getInitializationNanos()).isGreaterThan(0);
+            assertThat(aspect.getOpenMonEpoch()).describedAs("Not created until the first call").isEqualTo(0);
+            assertThat(aspect.getOpenMonCreationNanos()).isEqualTo(0);
+
+            OpenMonBinding binding = aspect.acquireOpenMon();
+            binding.release();
+            assertThat(binding.getOpenMon()).isNotInstanceOf(NullImp.class);
+            assertThat(aspect.getOpenMonEpoch()).isEqualTo(1);
+            assertThat(aspect.getOpenMonCreationNanos()).isGreaterThan(0);
+
+            aspect.acquireOpenMon().release();
+            assertThat(aspect.getOpenMonEpoch()).describedAs("Created once").isEqualTo(1);
+        } finally {
+            Utils.unregisterWithJmx("lazy_test", aspect);
+        }
+    }
+
+    @Test
+    public void testSetOpenMonBeforeFirstCall() throws Exception {
+        BaseMonitoringAspect aspect = new BaseMonitoringAspect();
+        aspect.initialize("lazy_set_test", true);
+        try {
+            aspect.setOpenMon(openMon);
+            OpenMonBinding binding = aspect.acquireOpenMon();
+            binding.release();
+            assertThat(binding.getOpenMon())
+                    .describedAs("The configured OpenMon is no longer created")
+                    .isSameAs(openMon);
+            assertThat(aspect.getOpenMonCreationNanos()).isEqualTo(0);
+        } finally {
+            Utils.unregisterWithJmx("lazy_set_test", aspect);
+        }
+    }
+
+    @Test
+    public void testJoinPointControl() {
+        JoinPoint.StaticPart jp = mock(JoinPoint.StaticPart.class);
+        when(jp.toString()).thenReturn("execution(void BaseMonitoringAspectTest.testJoinPointControl())");
+        assertThat(baseMonitoringAspect.shouldMonitor(jp)).isTrue();
 
-}
\ No newline at end of file
+        JoinPointControl.getInstance().setEnabled("*BaseMonitoringAspectTest.testJoinPointControl()*", false);
+        try {
+            assertThat(baseMonitoringAspect.shouldMonitor(jp)).isFalse();
+        } finally {
+            JoinPointControl.getInstance().clearRules();
+        }
+        assertThat(baseMonitoringAspect.shouldMonitor(jp)).isTrue();
+    }
+
+    @Test
+    public void testSampling() {
+        assertThat(baseMonitoringAspect.getSamplingMode()).
+                describedAs("By default every call is monitored").
+                isEqualTo("all");
+        assertThat(baseMonitoringAspect.getSampler()).isSameAs(Sampler.ALL);
+
+        baseMonitoringAspect.setSamplesPerSecond(5);
+        baseMonitoringAspect.setSamplingMode("ratelimited");
+        assertThat(baseMonitoringAspect.getSamplingMode()).isEqualTo("ratelimited");
+        assertThat(baseMonitoringAspect.getSamplesPerSecond()).isEqualTo(5);
+
+        JoinPoint.StaticPart jp = mock(JoinPoint.StaticPart.class);
+        int monitored = 0;
+        for (int i = 0; i < 100; i++) {
+            if (baseMonitoringAspect.shouldMonitor(jp)) {
+                monitored++;
+            }
+        }
+        assertThat(monitored).isEqualTo(5);
+
+        baseMonitoringAspect.setSampleRate(0.5);
+        assertThat(baseMonitoringAspect.getSampleRate()).isEqualTo(0.5);
+        assertThat(baseMonitoringAspect.getSamplingMode()).isEqualTo("ratelimited");
+
+        baseMonitoringAspect.enable(false);
+        assertThat(baseMonitoringAspect.shouldMonitor(jp)).isFalse();
+    }
+}
@@ -16,6 +16,7 @@ import org.junit.jupiter.api.Test;
 import org.springframework.context.ApplicationContext;
 
 import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
 import static org.mockito.Mockito.*;
 
 public class MonitoringAspectTest {
@@ -144,6 +145,16 @@ public class MonitoringAspectTest {
         verify(openMon, never()).exception(any(JoinPoint.class), eq(HelloWorld.TEST_RUNTIME_EXCEPTION));
     }
 
+    @Test
+    public void testOpenMonFailureStopsOnce() {
+        HelloWorld obj = new HelloWorld();
+        IllegalStateException broken = new IllegalStateException("broken OpenMon");
+        doThrow(broken).when(openMon).stop(any());
+
+        assertThatThrownBy(obj::hello).isSameAs(broken);
+        verify(openMon, never()).stop(any(), any(Throwable.class)); // the call was already stopped
+    }
+
     @Aspect
     static class MyInheritedMonitoringAspect extends MonitoringAspect {
 
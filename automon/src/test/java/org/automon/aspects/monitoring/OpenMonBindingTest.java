@@ -0,0 +1,194 @@
+package org.automon.aspects.monitoring;
+
+import org.aspectj.lang.JoinPoint;
+import org.automon.implementations.NullImp;
+import org.automon.implementations.OpenMon;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.withSettings;
+
+public class OpenMonBindingTest {
+
+    private final BaseMonitoringAspect aspect = new BaseMonitoringAspect();
+
+    private static OpenMon mockCloseable() {
+        return mock(OpenMon.class, withSettings().extraInterfaces(AutoCloseable.class));
+    }
+
+    @Test
+    public void testNestedCalls() throws Exception {
+        OpenMon openMon = mockCloseable();
+        OpenMonEpochs epochs = new OpenMonEpochs();
+        OpenMonBinding binding = new OpenMonBinding(openMon, 3, false, epochs);
+        assertThat(binding.getEpoch()).isEqualTo(3);
+        epochs.enter(binding.getEpoch());
+        epochs.enter(binding.getEpoch());
+        assertThat(epochs.getThreadsInFlight(3)).describedAs("Nested calls aren't counted").isEqualTo(1);
+
+        binding.release();
+        epochs.retire(binding);
+        assertThat(binding.isClosed()).describedAs("The outer call is still in flight").isFalse();
+
+        binding.release();
+        assertThat(epochs.getThreadsInFlight(3)).isEqualTo(0);
+        assertThat(binding.isClosed()).isTrue();
+        verify((AutoCloseable) openMon, times(1)).close();
+    }
+
+    @Test
+    public void testRetireClosesWhenDrained() throws Exception {
+        OpenMon openMon = mockCloseable();
+        OpenMonEpochs epochs = new OpenMonEpochs();
+        OpenMonBinding binding = new OpenMonBinding(openMon, 0, false, epochs);
+        epochs.enter(binding.getEpoch());
+
+        epochs.retire(binding);
+        assertThat(binding.isRetired()).isTrue();
+        assertThat(binding.isClosed()).describedAs("A call is still in flight").isFalse();
+        assertThat(epochs.getRetired()).isEqualTo(1);
+        verify((AutoCloseable) openMon, never()).close();
+
+        binding.release();
+        assertThat(binding.isClosed()).isTrue();
+        assertThat(epochs.getRetired()).isEqualTo(0);
+        verify((AutoCloseable) openMon, times(1)).close();
+    }
+
+    @Test
+    public void testNewerBindingProtectedByOuterCall() throws Exception {
+        OpenMon openMon = mockCloseable();
+        OpenMonEpochs epochs = new OpenMonEpochs();
+        OpenMonBinding older = new OpenMonBinding(new NullImp(), 0, false, epochs);
+        OpenMonBinding newer = new OpenMonBinding(openMon, 1, false, epochs);
+        epochs.enter(older.getEpoch());
+        epochs.enter(newer.getEpoch()); // a nested call that started after the switch
+
+        epochs.retire(older);
+        epochs.retire(newer);
+        assertThat(newer.isClosed()).describedAs("The outer call's epoch protects the newer binding").isFalse();
+
+        newer.release();
+        older.release();
+        assertThat(older.isClosed()).isTrue();
+        assertThat(newer.isClosed()).isTrue();
+        verify((AutoCloseable) openMon, times(1)).close();
+    }
+
+    @Test
+    public void testSharedIsNotClosed() throws Exception {
+        OpenMon openMon = mockCloseable();
+        OpenMonBinding binding = new OpenMonBinding(openMon, 0, true, new OpenMonEpochs());
+        assertThat(binding.isShared()).isTrue();
+
+        binding.retire();
+        binding.close();
+        assertThat(binding.isRetired()).isTrue();
+        verify((AutoCloseable) openMon, never()).close();
+    }
+
+    @Test
+    public void testSetOpenMon() throws Exception {
+        OpenMon first = mockCloseable();
+        OpenMon second = mockCloseable();
+        aspect.setOpenMon(first);
+        long epoch = aspect.getOpenMonEpoch();
+
+        OpenMonBinding inFlight = aspect.acquireOpenMon();
+        assertThat(inFlight.getOpenMon()).isSameAs(first);
+        assertThat(aspect.getInFlightCalls()).isEqualTo(1);
+
+        aspect.setOpenMon(second);
+        assertThat(aspect.getOpenMonEpoch()).isEqualTo(epoch + 1);
+        assertThat(aspect.getOpenMon()).isSameAs(second);
+        assertThat(aspect.getInFlightCalls()).isEqualTo(0);
+        assertThat(inFlight.getOpenMon()).describedAs("The in-flight call keeps its OpenMon").isSameAs(first);
+        verify((AutoCloseable) first, never()).close();
+
+        OpenMonBinding next = aspect.acquireOpenMon();
+        assertThat(next.getOpenMon()).isSameAs(second);
+        next.release();
+
+        inFlight.release();
+        verify((AutoCloseable) first, times(1)).close();
+        verify((AutoCloseable) second, never()).close();
+
+        aspect.setOpenMon(second);
+        assertThat(aspect.getOpenMonEpoch()).describedAs("Setting the same OpenMon does nothing").isEqualTo(epoch + 1);
+    }
+
+    @Test
+    public void testSwitchWhileCallsAreInFlight() throws Exception {
+        aspect.setOpenMon(new ClosingOpenMon());
+        int threads = 4;
+        CountDownLatch done = new CountDownLatch(threads);
+        AtomicReference<Throwable> failure = new AtomicReference<>();
+        for (int i = 0; i < threads; i++) {
+            Thread thread = new Thread(() -> {
+                try {
+                    for (int j = 0; j < 20_000; j++) {
+                        OpenMonBinding binding = aspect.acquireOpenMon();
+                        try {
+                            assertThat(((ClosingOpenMon) binding.getOpenMon()).closed)
+                                    .describedAs("An acquired OpenMon is never closed").isFalse();
+                        } finally {
+                            binding.release();
+                        }
+                    }
+                } catch (Throwable e) {
+                    failure.compareAndSet(null, e);
+                } finally {
+                    done.countDown();
+                }
+            });
+            thread.start();
+        }
+
+        ClosingOpenMon previous = (ClosingOpenMon) aspect.getOpenMon();
+        while (done.getCount() > 0) {
+            ClosingOpenMon next = new ClosingOpenMon();
+            aspect.setOpenMon(next);
+            Thread.sleep(1);
+            previous = next;
+        }
+        done.await();
+        aspect.setOpenMon(new NullImp());
+
+        assertThat(failure.get()).isNull();
+        assertThat(previous.closed).describedAs("Replaced OpenMons are closed once drained").isTrue();
+        assertThat(aspect.getInFlightCalls()).isEqualTo(0);
+    }
+
+    private static final class ClosingOpenMon implements OpenMon<Object>, AutoCloseable {
+        private volatile boolean closed;
+
+        @Override
+        public Object start(JoinPoint.StaticPart jp) {
+            return null;
+        }
+
+        @Override
+        public void stop(Object context) {
+        }
+
+        @Override
+        public void stop(Object context, Throwable throwable) {
+        }
+
+        @Override
+        public void exception(JoinPoint jp, Throwable throwable) {
+        }
+
+        @Override
+        public void close() {
+            closed = true;
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package org.automon.aspects.monitoring;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SamplerTest {
+
+    private static final long SECOND = 1_000_000_000L;
+
+    private final AtomicLong now = new AtomicLong();
+    private final JoinPoint.StaticPart jp = mockJoinPoint("hot()");
+    private final JoinPoint.StaticPart jp2 = mockJoinPoint("cold()");
+
+    private static JoinPoint.StaticPart mockJoinPoint(String name) {
+        JoinPoint.StaticPart jp = mock(JoinPoint.StaticPart.class);
+        Signature signature = mock(Signature.class);
+        when(signature.toString()).thenReturn(name);
+        when(jp.getSignature()).thenReturn(signature);
+        when(jp.toString()).thenReturn(name);
+        return jp;
+    }
+
+    private int sample(Sampler sampler, JoinPoint.StaticPart jp, int calls) {
+        int sampled = 0;
+        for (int i = 0; i < calls; i++) {
+            if (sampler.sample(jp)) {
+                sampled++;
+            }
+        }
+        return sampled;
+    }
+
+    @Test
+    public void testModeFrom() {
+        assertThat(Sampler.Mode.from(null)).isEqualTo(Sampler.Mode.ALL);
+        assertThat(Sampler.Mode.from(" Adaptive ")).isEqualTo(Sampler.Mode.ADAPTIVE);
+        assertThat(Sampler.Mode.from("ratelimited")).isEqualTo(Sampler.Mode.RATELIMITED);
+        assertThat(Sampler.Mode.from("i_do_not_exist")).
+                describedAs("Unknown modes monitor every call").
+                isEqualTo(Sampler.Mode.ALL);
+    }
+
+    @Test
+    public void testAll() {
+        assertThat(sample(Sampler.ALL, jp, 1000)).isEqualTo(1000);
+        assertThat(Sampler.ALL.getEffectiveSampleRates()).
+                describedAs("No per join point state is kept when every call is monitored").
+                isEmpty();
+    }
+
+    @Test
+    public void testFixed() {
+        Sampler sampler = new Sampler(Sampler.Mode.FIXED, 0.1, 0, now::get);
+        int sampled = sample(sampler, jp, 100_000);
+
+        assertThat(sampled).isBetween(9_000, 11_000);
+        assertThat(sampler.getEffectiveSampleRate(jp)).isEqualTo(sampled / 100_000.0);
+    }
+
+    @Test
+    public void testRateLimited() {
+        Sampler sampler = new Sampler(Sampler.Mode.RATELIMITED, 0, 10, now::get);
+        assertThat(sample(sampler, jp, 1000)).isEqualTo(10);
+        assertThat(sample(sampler, jp2, 5)).
+                describedAs("Each join point has its own limit").
+                isEqualTo(5);
+
+        now.addAndGet(SECOND);
+        assertThat(sample(sampler, jp, 1000)).
+                describedAs("The limit is reset each second").
+                isEqualTo(10);
+        assertThat(sampler.getEffectiveSampleRate(jp)).isEqualTo(20 / 2000.0);
+        assertThat(sampler.getEffectiveSampleRates()).containsOnlyKeys("hot()", "cold()");
+    }
+
+    @Test
+    public void testAdaptive() {
+        Sampler sampler = new Sampler(Sampler.Mode.ADAPTIVE, 0, 100, now::get);
+        assertThat(sample(sampler, jp, 100_000)).
+                describedAs("Until the call rate is known only the cap applies").
+                isEqualTo(100);
+        assertThat(sample(sampler, jp2, 50)).
+                describedAs("Join points called less than samplesPerSecond are always monitored").
+                isEqualTo(50);
+
+        now.addAndGet(SECOND);
+        sample(sampler, jp2, 50);
+        double previousRate = sampler.getEffectiveSampleRate(jp);
+        int sampled = sample(sampler, jp, 100_000);
+        assertThat(sampled).
+                describedAs("The hot join point backs off to about 100 / 100,000 of its calls").
+                isBetween(60, 100);
+        assertThat(sampler.getEffectiveSampleRate(jp)).isEqualTo((100 + sampled) / 200_000.0, within(1e-9));
+        assertThat(sampler.getEffectiveSampleRate(jp)).isLessThan(previousRate + 0.001);
+        assertThat(sampler.getEffectiveSampleRate(jp2)).isEqualTo(1.0);
+    }
+}
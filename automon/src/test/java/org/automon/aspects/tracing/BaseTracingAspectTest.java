@@ -0,0 +1,142 @@
+package org.automon.aspects.tracing;
+
+import org.apache.logging.log4j.core.LogEvent;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.automon.utils.AsyncTraceWriter;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class BaseTracingAspectTest {
+
+    private final TracingAspect aspect = new TracingAspect();
+    private final JoinPoint.StaticPart fast = mockJoinPoint("MyService.fast()");
+    private final JoinPoint.StaticPart slow = mockJoinPoint("MyService.slow(..)");
+    private ListAppender listAppender;
+
+    private static JoinPoint.StaticPart mockJoinPoint(String signature) {
+        JoinPoint.StaticPart jp = mock(JoinPoint.StaticPart.class);
+        Signature sig = mock(Signature.class);
+        when(sig.toShortString()).thenReturn(signature);
+        when(jp.getSignature()).thenReturn(sig);
+        return jp;
+    }
+
+    @BeforeEach
+    public void setUp() {
+        listAppender = TestTracingAspectBase.getListAppender();
+        listAppender.clear();
+    }
+
+    @AfterEach
+    public void tearDown() {
+        listAppender.clear();
+    }
+
+    private List<String> messages() {
+        return listAppender.getEvents().stream().
+                filter(event -> event.getLoggerName().equals(TracingAspect.class.getName())).
+                map(LogEvent::getMessage).
+                map(message -> message.getFormattedMessage().split(" - ")[1].split(":")[0]).
+                toList();
+    }
+
+    @Test
+    public void testEveryCallLoggedByDefault() {
+        assertThat(aspect.getSlowThresholdMs()).isEqualTo(-1);
+        aspect.logBefore(fast);
+        aspect.logAfter(fast, 10);
+
+        assertThat(messages()).containsExactly("BEFORE", "AFTER");
+    }
+
+    @Test
+    public void testSlowThreshold() {
+        aspect.setSlowThresholdMs(0.5);
+        assertThat(aspect.getSlowThresholdMs()).isEqualTo(0.5);
+
+        aspect.logBefore(fast);
+        aspect.logAfter(fast, 499_999);
+        assertThat(messages()).describedAs("Calls under the threshold aren't logged").isEmpty();
+
+        aspect.logBefore(fast);
+        aspect.logAfter(fast, 500_000);
+        assertThat(messages()).containsExactly("SLOW");
+        assertThat(listAppender.getEvents().get(0).getLevel().name()).isEqualTo("WARN");
+
+        aspect.enableLogging(false);
+        aspect.logAfter(fast, 1_000_000);
+        assertThat(messages()).hasSize(1);
+    }
+
+    @Test
+    public void testJoinPointThresholds() {
+        aspect.setJoinPointSlowThresholdMs("MyService.slow(..)", 100);
+        assertThat(aspect.getJoinPointSlowThresholdsMs()).containsEntry("MyService.slow(..)", 100.0);
+
+        aspect.logAfter(fast, 1_000_000);
+        aspect.logAfter(slow, 1_000_000);
+        assertThat(messages()).describedAs("Join points without a threshold use the aspect's").containsExactly("AFTER");
+
+        aspect.setSlowThresholdMs(1);
+        assertThat(aspect.getSlowThresholdNs(fast)).isEqualTo(1_000_000);
+        assertThat(aspect.getSlowThresholdNs(slow)).isEqualTo(100_000_000);
+
+        aspect.removeJoinPointSlowThreshold("MyService.slow(..)");
+        assertThat(aspect.getJoinPointSlowThresholdsMs()).isEmpty();
+        assertThat(aspect.getSlowThresholdNs(slow)).isEqualTo(1_000_000);
+
+        aspect.setJoinPointSlowThresholdMs("MyService.slow(..)", -1);
+        assertThat(aspect.getSlowThresholdNs(slow)).describedAs("Every call to the join point is logged").isEqualTo(-1);
+    }
+
+    @Test
+    public void testJoinPointThresholdChangedWhileResolving() throws InterruptedException {
+        aspect.setJoinPointSlowThresholdMs("MyService.slow(..)", 100);
+        AtomicBoolean running = new AtomicBoolean(true);
+        Thread resolver = new Thread(() -> {
+            while (running.get()) {
+                aspect.getSlowThresholdNs(slow);
+            }
+        });
+        resolver.start();
+        try {
+            for (int i = 1; i <= 1_000; i++) {
+                aspect.setJoinPointSlowThresholdMs("MyService.slow(..)", i);
+                assertThat(aspect.getSlowThresholdNs(slow))
+                        .describedAs("A change is seen by the next call")
+                        .isEqualTo(i * 1_000_000L);
+            }
+        } finally {
+            running.set(false);
+            resolver.join();
+        }
+        assertThat(aspect.getSlowThresholdNs(slow)).isEqualTo(1_000_000_000L);
+    }
+
+    @Test
+    public void testAsyncLogging() {
+        assertThat(aspect.isAsyncLoggingEnabled()).isFalse();
+        aspect.enableAsyncLogging(true);
+        assertThat(aspect.isAsyncLoggingEnabled()).isTrue();
+
+        aspect.logBefore(fast);
+        aspect.logAfter(fast, 10);
+        AsyncTraceWriter.getInstance().close(); // writes the queued messages
+        assertThat(messages()).containsExactly("BEFORE", "AFTER");
+
+        aspect.enableAsyncLogging(false);
+        assertThat(aspect.isAsyncLoggingEnabled()).isFalse();
+    }
+
+    static class TracingAspect extends BaseTracingAspect {
+    }
+}
@@ -0,0 +1,106 @@
+package org.automon.aspects.tracing.spring;
+
+import org.aspectj.lang.Aspects;
+import org.aspectj.lang.annotation.Aspect;
+import org.aspectj.lang.annotation.Pointcut;
+import org.automon.jmx.EnableMXBean;
+import org.automon.utils.LogTracingHelper;
+import org.automon.utils.Utils;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class ContextPropagationAspectTest {
+    private final ContextPropagation aspect = Aspects.aspectOf(ContextPropagation.class);
+    private final LogTracingHelper helper = LogTracingHelper.getInstance();
+
+    @BeforeEach
+    void setUp() {
+        aspect.enable(true);
+        helper.withRequestId();
+    }
+
+    @AfterEach
+    void tearDown() {
+        helper.removeRequestId();
+        aspect.enable(true);
+    }
+
+    @Test
+    void testNoArgConstructor_defaultsToEnabled() {
+        assertThat(new ContextPropagation().isEnabled()).isTrue();
+    }
+
+    @Test
+    void testParameterizedConstructor_setsEnabledState() {
+        assertThat(new ContextPropagation(true).isEnabled()).isTrue();
+        assertThat(new ContextPropagation(false).isEnabled()).isFalse();
+    }
+
+    @Test
+    public void testJmxRegistration() throws Throwable {
+        ContextPropagation aspect = new ContextPropagation();
+        EnableMXBean mxBean = Utils.getMxBean(aspect.getPurpose(), aspect, EnableMXBean.class);
+        assertThat(mxBean.isEnabled()).describedAs("Should be enabled").isTrue();
+    }
+
+    @Test
+    void testPropagation() throws Exception {
+        String requestId = MDC.get(LogTracingHelper.REQUEST_ID);
+        MyExecutorTestClass myTestClass = new MyExecutorTestClass();
+
+        assertThat(myTestClass.submit()).describedAs("The task sees the caller's request id").isEqualTo(requestId);
+        assertThat(myTestClass.supplyAsync()).isEqualTo(requestId);
+        assertThat(myTestClass.submitEmpty()).describedAs("The worker thread's context is removed after the task").isNull();
+    }
+
+    @Test
+    void testDisable() throws Exception {
+        aspect.enable(false);
+        assertThat(new MyExecutorTestClass().submit()).isNull();
+    }
+
+    @Aspect
+    static class ContextPropagation extends ContextPropagationAspect {
+
+        public ContextPropagation() {
+        }
+
+        public ContextPropagation(boolean enable) {
+            super(enable);
+        }
+
+        @Pointcut("org.automon.pointcuts.Jdk.executors() && within(org.automon.aspects.tracing.spring.ContextPropagationAspectTest.MyExecutorTestClass)")
+        public void select() {
+        }
+    }
+
+    public static class MyExecutorTestClass {
+        private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+        public String submit() throws Exception {
+            return executor.submit(() -> MDC.get(LogTracingHelper.REQUEST_ID)).get();
+        }
+
+        public String submitEmpty() throws Exception {
+            submit();
+            // not woven as it is called from outside MyExecutorTestClass
+            return ContextPropagationAspectTest.submitUnwoven(executor);
+        }
+
+        public String supplyAsync() {
+            return CompletableFuture.supplyAsync(() -> MDC.get(LogTracingHelper.REQUEST_ID), executor).join();
+        }
+    }
+
+    private static String submitUnwoven(ExecutorService executor) throws Exception {
+        return executor.submit(() -> MDC.get(LogTracingHelper.REQUEST_ID)).get();
+    }
+}
@@ -0,0 +1,154 @@
+package org.automon.implementations;
+
+import org.aspectj.lang.JoinPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.verify;
+
+public class AsyncOpenMonTest {
+
+    private final RecordingOpenMon backend = new RecordingOpenMon();
+    private final JoinPoint.StaticPart staticPart = mock(JoinPoint.StaticPart.class);
+    private AsyncOpenMon openMon;
+
+    @AfterEach
+    public void tearDown() throws Exception {
+        if (openMon != null) {
+            openMon.close();
+        }
+    }
+
+    private void waitForConsumer(long events) throws InterruptedException {
+        long end = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        while (openMon.getConsumed() < events && System.nanoTime() < end) {
+            Thread.sleep(5);
+        }
+    }
+
+    @Test
+    public void testEncode() {
+        long event = AsyncOpenMon.encode(12345, 987_654_321L, true);
+        assertThat(AsyncOpenMon.decodeId(event)).isEqualTo(12345);
+        assertThat(AsyncOpenMon.decodeDuration(event)).isEqualTo(987_654_321L);
+        assertThat(AsyncOpenMon.decodeFailed(event)).isTrue();
+        assertThat(AsyncOpenMon.decodeFailed(AsyncOpenMon.encode(1, 5, false))).isFalse();
+        assertThat(AsyncOpenMon.decodeDuration(AsyncOpenMon.encode(1, -5, false))).isEqualTo(0);
+        assertThat(AsyncOpenMon.decodeDuration(AsyncOpenMon.encode(1, Long.MAX_VALUE, false))).
+                describedAs("Durations too long to fit are capped").
+                isEqualTo((1L << 40) - 1);
+    }
+
+    @Test
+    public void testRecordedByConsumer() throws InterruptedException {
+        openMon = new AsyncOpenMon(backend, 1, 16, 4, AsyncOpenMon.OverflowPolicy.DROP);
+        for (int i = 0; i < 10; i++) {
+            openMon.stop(openMon.start(staticPart));
+        }
+        openMon.stop(openMon.start(staticPart), new RuntimeException());
+        waitForConsumer(11);
+
+        assertThat(backend.counts.get(staticPart)).isEqualTo(11);
+        assertThat(backend.threads).describedAs("Durations should be recorded by the consumer thread").
+                doesNotContainKey(Thread.currentThread().getName());
+        assertThat(openMon.getBuffered()).isEqualTo(11);
+        assertThat(openMon.getConsumed()).isEqualTo(11);
+        assertThat(openMon.getFailed()).isEqualTo(1);
+        assertThat(openMon.getDropped()).isEqualTo(0);
+        assertThat(openMon.getBatches()).isGreaterThan(0);
+    }
+
+    @Test
+    public void testOverflow() {
+        openMon = new AsyncOpenMon(backend, 1, 4, 4, AsyncOpenMon.OverflowPolicy.DROP);
+        openMon.close(); // stop the consumer so events are handled by the overflow policy
+
+        openMon.record(staticPart, 100);
+        assertThat(openMon.getDropped()).isEqualTo(1);
+        assertThat(backend.counts).isEmpty();
+
+        openMon.setOverflowPolicy("sync");
+        assertThat(openMon.getOverflowPolicy()).isEqualTo("sync");
+        openMon.record(staticPart, 100);
+        assertThat(openMon.getRecordedOnCallerThread()).isEqualTo(1);
+        assertThat(backend.counts.get(staticPart)).isEqualTo(1);
+        assertThat(backend.threads).containsKey(Thread.currentThread().getName());
+    }
+
+    @Test
+    public void testCloseRecordsBufferedEvents() {
+        openMon = new AsyncOpenMon(backend, 2, 1024, 1, AsyncOpenMon.OverflowPolicy.DROP);
+        for (int i = 0; i < 500; i++) {
+            openMon.record(staticPart, i);
+        }
+        openMon.close();
+
+        assertThat(openMon.getBufferSize()).isEqualTo(0);
+        assertThat(backend.counts.get(staticPart)).isEqualTo(500 - (int) openMon.getDropped());
+    }
+
+    @Test
+    public void testCloseWhilePublishing() throws InterruptedException {
+        openMon = new AsyncOpenMon(backend, 4, 1024, 16, AsyncOpenMon.OverflowPolicy.DROP);
+        int threads = 4;
+        Thread[] publishers = new Thread[threads];
+        for (int i = 0; i < threads; i++) {
+            publishers[i] = new Thread(() -> {
+                for (int j = 0; j < 50_000; j++) {
+                    openMon.record(staticPart, j);
+                }
+            });
+            publishers[i].start();
+        }
+        Thread.sleep(5);
+        openMon.close();
+        for (Thread publisher : publishers) {
+            publisher.join();
+        }
+
+        assertThat(openMon.getBufferSize()).describedAs("No event is left in the buffer").isEqualTo(0);
+        assertThat(openMon.getConsumed()).isEqualTo(openMon.getBuffered());
+        assertThat(openMon.getBuffered() + openMon.getDropped()).isEqualTo(threads * 50_000L);
+    }
+
+    @Test
+    public void testExceptionIsPassedToBackend() {
+        OpenMon backendMock = mock(NanoOpenMon.class);
+        openMon = new AsyncOpenMon(backendMock, 1, 4, 4, AsyncOpenMon.OverflowPolicy.DROP);
+        JoinPoint jp = mock(JoinPoint.class);
+        RuntimeException exception = new RuntimeException();
+        openMon.exception(jp, exception);
+        verify(backendMock).exception(jp, exception);
+    }
+
+    @Test
+    public void testBackendMustBeDurationRecorder() {
+        openMon = new AsyncOpenMon(mock(OpenMon.class), 1, 4, 4, AsyncOpenMon.OverflowPolicy.DROP);
+        assertThat(openMon.getOpenMon()).isInstanceOf(NullImp.class);
+    }
+
+    @Test
+    public void testBackendMustNotRequireCallerThread() {
+        openMon = new AsyncOpenMon(new TraceFile(null), 1, 4, 4, AsyncOpenMon.OverflowPolicy.DROP);
+        assertThat(openMon.getOpenMon())
+                .describedAs("TraceFile records the state of the calling thread")
+                .isInstanceOf(NullImp.class);
+    }
+
+    private static class RecordingOpenMon extends NanoOpenMonBase {
+        private final Map<JoinPoint.StaticPart, Integer> counts = new ConcurrentHashMap<>();
+        private final Map<String, Boolean> threads = new ConcurrentHashMap<>();
+
+        @Override
+        public void record(JoinPoint.StaticPart jp, long executionTimeNs) {
+            counts.merge(jp, 1, Integer::sum);
+            threads.put(Thread.currentThread().getName(), true);
+        }
+    }
+}
@@ -0,0 +1,189 @@
+package org.automon.implementations;
+
+import org.aspectj.lang.JoinPoint;
+import org.automon.jmx.CallEdgeSnapshot;
+import org.automon.utils.AutomonClock;
+import org.automon.utils.LogTracingHelper;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CallTreeTest {
+
+    private static final long MS = 1_000_000;
+
+    private final ManualClock clock = new ManualClock();
+    private final JoinPoint.StaticPart request = mockJoinPoint("CallTreeTest.request()");
+    private final JoinPoint.StaticPart service = mockJoinPoint("CallTreeTest.service()");
+    private final JoinPoint.StaticPart repository = mockJoinPoint("CallTreeTest.repository()");
+
+    @AfterEach
+    public void tearDown() {
+        AutomonClock.set(null);
+        MDC.clear();
+    }
+
+    private static JoinPoint.StaticPart mockJoinPoint(String label) {
+        JoinPoint.StaticPart jp = mock(JoinPoint.StaticPart.class);
+        when(jp.toString()).thenReturn(label);
+        return jp;
+    }
+
+    /**
+     * request (100ms) calls service twice (30ms each), and the second service call calls repository (10ms) which fails.
+     */
+    private void executeRequest(CallTree openMon) {
+        AutomonClock.set(clock);
+        CallTree.Node requestNode = openMon.start(request);
+        clock.advance(10 * MS);
+
+        CallTree.Node serviceNode = openMon.start(service);
+        clock.advance(30 * MS);
+        openMon.stop(serviceNode);
+        serviceNode = openMon.start(service);
+        clock.advance(20 * MS);
+        CallTree.Node repositoryNode = openMon.start(repository);
+        clock.advance(10 * MS);
+        openMon.stop(repositoryNode, new RuntimeException("repository"));
+        openMon.stop(serviceNode);
+
+        clock.advance(30 * MS);
+        openMon.stop(requestNode);
+    }
+
+    @Test
+    public void testGraph() {
+        CallTree.Graph graph = new CallTree.Graph(100, 100, -1, 10);
+        CallTree openMon = new CallTree(graph);
+        executeRequest(openMon);
+        executeRequest(openMon);
+
+        assertThat(graph.getRequests()).isEqualTo(2);
+        assertThat(graph.getSize()).isEqualTo(3);
+
+        CallEdgeSnapshot root = graph.getEdge(null, request);
+        assertThat(root.getCaller()).isEmpty();
+        assertThat(root.getCallee()).isEqualTo("CallTreeTest.request()");
+        assertThat(root.getCalls()).isEqualTo(2);
+        assertThat(root.getInclusiveNs()).isEqualTo(2 * 100 * MS);
+        assertThat(root.getExclusiveNs()).isEqualTo(2 * 40 * MS);
+
+        CallEdgeSnapshot serviceEdge = graph.getEdge(request, service);
+        assertThat(serviceEdge.getCalls()).describedAs("Calls from the same caller share an edge").isEqualTo(4);
+        assertThat(serviceEdge.getInclusiveNs()).isEqualTo(2 * 60 * MS);
+        assertThat(serviceEdge.getExclusiveNs()).isEqualTo(2 * 50 * MS);
+        assertThat(serviceEdge.getExceptions()).isEqualTo(0);
+
+        CallEdgeSnapshot repositoryEdge = graph.getEdge(service, repository);
+        assertThat(repositoryEdge.getCalls()).isEqualTo(2);
+        assertThat(repositoryEdge.getInclusiveNs()).isEqualTo(2 * 10 * MS);
+        assertThat(repositoryEdge.getExceptions()).isEqualTo(2);
+
+        assertThat(graph.getEdges()).extracting(CallEdgeSnapshot::getCallee)
+                .describedAs("Most inclusive time first")
+                .containsExactly("CallTreeTest.request()", "CallTreeTest.service()", "CallTreeTest.repository()");
+        assertThat(graph.getEdge(request, repository)).isNull();
+        assertThat(openMon.getExceptionsMap()).hasSize(2);
+
+        graph.reset();
+        assertThat(graph.getSize()).isEqualTo(0);
+        assertThat(graph.getRequests()).isEqualTo(0);
+    }
+
+    @Test
+    public void testSlowTrees() {
+        CallTree.Graph graph = new CallTree.Graph(100, 100, 50, 1);
+        CallTree openMon = new CallTree(graph);
+        MDC.put(LogTracingHelper.REQUEST_ID, "request-1");
+        executeRequest(openMon);
+
+        assertThat(graph.getSlowThresholdMs()).isEqualTo(50);
+        assertThat(graph.getSlowTrees()).containsExactly(
+                "Slow request 100.000 ms (requestId=request-1):\n" +
+                        "CallTreeTest.request() calls=1 total=100.000ms self=40.000ms\n" +
+                        "  CallTreeTest.service() calls=2 total=60.000ms self=50.000ms\n" +
+                        "    CallTreeTest.repository() calls=1 total=10.000ms self=10.000ms exceptions=1");
+
+        MDC.put(LogTracingHelper.REQUEST_ID, "request-2");
+        executeRequest(openMon);
+        assertThat(graph.getSlowTrees()).describedAs("Only the most recent trees are kept").hasSize(1);
+        assertThat(graph.getSlowTrees().get(0)).contains("requestId=request-2");
+
+        graph.setSlowThresholdMs(101);
+        graph.reset();
+        executeRequest(openMon);
+        assertThat(graph.getSlowTrees()).describedAs("The request wasn't slow").isEmpty();
+    }
+
+    @Test
+    public void testMaxNodes() {
+        CallTree.Graph graph = new CallTree.Graph(2, 100, -1, 10);
+        CallTree openMon = new CallTree(graph);
+        executeRequest(openMon);
+
+        assertThat(graph.getTruncatedCalls()).describedAs("repository didn't fit in the tree").isEqualTo(1);
+        assertThat(graph.getEdge(service, repository)).isNull();
+        assertThat(graph.getEdge(request, service).getExclusiveNs())
+                .describedAs("The truncated call's time is part of its caller's exclusive time")
+                .isEqualTo(60 * MS);
+    }
+
+    @Test
+    public void testMaxEdges() {
+        CallTree.Graph graph = new CallTree.Graph(100, 2, -1, 10);
+        CallTree openMon = new CallTree(graph);
+        executeRequest(openMon);
+
+        assertThat(graph.getSize()).isEqualTo(2);
+        assertThat(graph.getMaxEdges()).isEqualTo(2);
+        assertThat(graph.getDroppedCalls()).isEqualTo(1);
+    }
+
+    @Test
+    public void testNewTreePerRequest() {
+        CallTree.Graph graph = new CallTree.Graph(100, 100, -1, 10);
+        CallTree openMon = new CallTree(graph);
+        openMon.stop(openMon.start(service));
+        openMon.stop(openMon.start(service));
+
+        assertThat(graph.getRequests()).isEqualTo(2);
+        assertThat(graph.getEdge(null, service).getCalls()).isEqualTo(2);
+    }
+
+    @Test
+    public void testJmxRegistration() throws Exception {
+        CallTree openMon = new CallTree();
+        openMon.stop(openMon.start(mockJoinPoint("CallTreeTest.testJmxRegistration()")));
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.automon:type=aspect,purpose=calltree,name=CallTree");
+        assertThat(mBeanServer.isRegistered(name)).isTrue();
+        assertThat((Long) mBeanServer.getAttribute(name, "Requests")).isGreaterThanOrEqualTo(1L);
+    }
+
+    private static final class ManualClock extends AutomonClock {
+        private long nanoTime;
+
+        void advance(long ns) {
+            nanoTime += ns;
+        }
+
+        @Override
+        public long nanoTime() {
+            return nanoTime;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return nanoTime / MS;
+        }
+    }
+}
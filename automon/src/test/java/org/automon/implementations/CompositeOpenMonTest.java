@@ -0,0 +1,143 @@
+package org.automon.implementations;
+
+import com.jamonapi.MonitorFactory;
+import org.aspectj.lang.JoinPoint;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.anyLong;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.mockito.Mockito.withSettings;
+
+public class CompositeOpenMonTest {
+
+    private static JoinPoint.StaticPart mockJoinPoint(String label) {
+        JoinPoint.StaticPart jp = mock(JoinPoint.StaticPart.class);
+        when(jp.toString()).thenReturn(label);
+        return jp;
+    }
+
+    private static NanoOpenMon mockNanoOpenMon() {
+        return mock(NanoOpenMon.class, withSettings().extraInterfaces(AutoCloseable.class));
+    }
+
+    @Test
+    public void testStartStop() {
+        NanoOpenMon first = mockNanoOpenMon();
+        NanoOpenMon second = mockNanoOpenMon();
+        CompositeOpenMon openMon = new CompositeOpenMon(List.of(first, second));
+        JoinPoint.StaticPart jp = mockJoinPoint("CompositeOpenMonTest.testStartStop()");
+
+        JoinPoint.StaticPart context = openMon.start(jp);
+        assertThat(context).describedAs("The join point is the context so nothing is allocated").isSameAs(jp);
+        openMon.stop(context);
+        RuntimeException exception = new RuntimeException();
+        openMon.stop(openMon.start(jp), exception);
+
+        verify(first).record(eq(jp), anyLong());
+        verify(second).record(eq(jp), anyLong());
+        verify(first).record(eq(jp), anyLong(), eq(exception));
+        verify(second).record(eq(jp), anyLong(), eq(exception));
+        verify(first, times(0)).start(jp);
+        assertThat(openMon.getExceptionsMap()).hasSize(1);
+    }
+
+    @Test
+    public void testSameDuration() {
+        Counters counters = new Counters();
+        HdrHistogram histogram = new HdrHistogram();
+        CompositeOpenMon openMon = new CompositeOpenMon(List.of(counters, histogram));
+        JoinPoint.StaticPart jp = mockJoinPoint("CompositeOpenMonTest.testSameDuration()");
+
+        openMon.record(jp, 1_000_000);
+
+        assertThat(Counters.getRegistry().getInvocations(jp)).isEqualTo(1);
+        assertThat(HdrHistogram.getHistograms().getSnapshot(jp).getMax()).isBetween(990_000L, 1_010_000L);
+    }
+
+    @Test
+    public void testFailedCall() {
+        Counters counters = new Counters();
+        Jamon jamon = new Jamon();
+        CompositeOpenMon openMon = new CompositeOpenMon(List.of(counters, jamon));
+        JoinPoint.StaticPart jp = mockJoinPoint("CompositeOpenMonTest.testFailedCall()");
+
+        openMon.stop(openMon.start(jp), new RuntimeException("failed"));
+
+        assertThat(Counters.getRegistry().getInvocations(jp)).isEqualTo(1);
+        assertThat(Counters.getRegistry().getFailures(jp)).describedAs("The call is recorded as failed").isEqualTo(1);
+        assertThat(jamon.getExceptionsMap()).hasSize(1);
+        assertThat(MonitorFactory.getMonitor("CompositeOpenMonTest.testFailedCall()", "ms.").getMonKey().getDetails())
+                .describedAs("Jamon attaches the exception to the time monitor")
+                .isNotNull();
+    }
+
+    @Test
+    public void testException() {
+        NanoOpenMon first = mockNanoOpenMon();
+        NanoOpenMon second = mockNanoOpenMon();
+        CompositeOpenMon openMon = new CompositeOpenMon(List.of(first, second));
+        JoinPoint jp = mock(JoinPoint.class);
+        RuntimeException exception = new RuntimeException();
+
+        openMon.exception(jp, exception);
+
+        verify(first).exception(jp, exception);
+        verify(second).exception(jp, exception);
+    }
+
+    @Test
+    public void testIsolatesErrors() {
+        NanoOpenMon broken = mockNanoOpenMon();
+        NanoOpenMon working = mockNanoOpenMon();
+        JoinPoint.StaticPart jp = mockJoinPoint("CompositeOpenMonTest.testIsolatesErrors()");
+        doThrow(new IllegalStateException("broken")).when(broken).record(eq(jp), anyLong());
+        CompositeOpenMon openMon = new CompositeOpenMon(List.of(broken, working));
+
+        openMon.record(jp, 100);
+        openMon.record(jp, 100);
+
+        verify(working, times(2)).record(jp, 100);
+        assertThat(openMon.getErrors()).isEqualTo(2);
+    }
+
+    @Test
+    public void testIgnoresNonDurationRecorders() {
+        OpenMon<?> notARecorder = mock(OpenMon.class);
+        NullImp nullImp = new NullImp();
+        CompositeOpenMon openMon = new CompositeOpenMon(List.of(notARecorder, nullImp));
+
+        assertThat(openMon.getOpenMons()).containsExactly(nullImp);
+    }
+
+    @Test
+    public void testClose() throws Exception {
+        NanoOpenMon first = mockNanoOpenMon();
+        NullImp second = new NullImp();
+        new CompositeOpenMon(List.of(first, second)).close();
+
+        verify((AutoCloseable) first).close();
+    }
+
+    @Test
+    public void testFactory() {
+        OpenMonFactory factory = new OpenMonFactory(new NullImp());
+        OpenMon openMon = factory.getInstance("jamon, Metrics");
+        assertThat(openMon).isInstanceOf(CompositeOpenMon.class);
+        assertThat(((CompositeOpenMon) openMon).getOpenMons())
+                .hasSize(2)
+                .hasExactlyElementsOfTypes(Jamon.class, Metrics.class);
+
+        assertThat(factory.getInstance("jamon,I_DO_NOT_EXIST"))
+                .describedAs("Keys that can't be created are skipped")
+                .isInstanceOf(Jamon.class);
+        assertThat(factory.getInstance("I_DO_NOT_EXIST,")).isInstanceOf(NullImp.class);
+    }
+}
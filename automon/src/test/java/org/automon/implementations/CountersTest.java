@@ -0,0 +1,104 @@
+package org.automon.implementations;
+
+import org.aspectj.lang.JoinPoint;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class CountersTest {
+
+    private final Counters openMon = new Counters();
+
+    private static JoinPoint.StaticPart mockJoinPoint(String label) {
+        JoinPoint.StaticPart jp = mock(JoinPoint.StaticPart.class);
+        when(jp.toString()).thenReturn(label);
+        return jp;
+    }
+
+    @Test
+    public void testStartStop() {
+        JoinPoint.StaticPart jp = mockJoinPoint("CountersTest.testStartStop()");
+        JoinPoint.StaticPart context = openMon.start(jp);
+        assertThat(context).describedAs("The join point is the context so nothing is allocated").isSameAs(jp);
+        openMon.stop(context);
+        openMon.stop(openMon.start(jp), new RuntimeException());
+        openMon.record(jp, 100);
+
+        assertThat(Counters.getRegistry().getInvocations(jp)).isEqualTo(3);
+        assertThat(Counters.getRegistry().getFailures(jp)).isEqualTo(1);
+        assertThat(Counters.getRegistry().getInvocations()).containsEntry("CountersTest.testStartStop()", 3L);
+        assertThat(Counters.getRegistry().getFailures()).containsEntry("CountersTest.testStartStop()", 1L);
+    }
+
+    @Test
+    public void testException() {
+        JoinPoint jp = mock(JoinPoint.class);
+        long total = Counters.getRegistry().getExceptions().getOrDefault(OpenMon.EXCEPTION_LABEL, 0L);
+        long before = Counters.getRegistry().getExceptions(IllegalStateException.class);
+
+        openMon.exception(jp, new IllegalStateException());
+        openMon.exception(jp, new IllegalStateException());
+        openMon.exception(jp, new UnsupportedOperationException());
+
+        assertThat(Counters.getRegistry().getExceptions(IllegalStateException.class)).isEqualTo(before + 2);
+        assertThat(Counters.getRegistry().getExceptions(RuntimeException.class)).
+                describedAs("Exceptions are counted by their exact class").
+                isEqualTo(0);
+        assertThat(Counters.getRegistry().getExceptions()).
+                containsEntry(IllegalStateException.class.getName(), before + 2).
+                containsEntry(OpenMon.EXCEPTION_LABEL, total + 3);
+    }
+
+    @Test
+    public void testManyJoinPoints() throws InterruptedException {
+        List<JoinPoint.StaticPart> jps = new ArrayList<>();
+        for (int i = 0; i < 300; i++) {
+            jps.add(mockJoinPoint("CountersTest.testManyJoinPoints" + i + "()"));
+        }
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 4; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 1000; i++) {
+                    openMon.stop(openMon.start(jps.get(i % jps.size())));
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        long invocations = jps.stream().mapToLong(jp -> Counters.getRegistry().getInvocations(jp)).sum();
+        assertThat(invocations).isEqualTo(4000);
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.automon:type=aspect,purpose=counters,name=Counters");
+        assertThat(mBeanServer.isRegistered(name)).isTrue();
+        assertThat(mBeanServer.getAttribute(name, "Invocations")).isNotNull();
+        assertThat(mBeanServer.getAttribute(name, "Exceptions")).isNotNull();
+    }
+
+    @Test
+    public void testReset() {
+        JoinPoint.StaticPart jp = mockJoinPoint("CountersTest.testReset()");
+        openMon.stop(openMon.start(jp), new RuntimeException());
+        Counters.getRegistry().reset();
+
+        assertThat(Counters.getRegistry().getInvocations(jp)).isEqualTo(0);
+        assertThat(Counters.getRegistry().getFailures(jp)).isEqualTo(0);
+        assertThat(Counters.getRegistry().getExceptions()).containsEntry(OpenMon.EXCEPTION_LABEL, 0L);
+    }
+}
@@ -0,0 +1,143 @@
+package org.automon.implementations;
+
+import org.HdrHistogram.Histogram;
+import org.aspectj.lang.JoinPoint;
+import org.automon.jmx.HistogramSnapshot;
+import org.junit.jupiter.api.Test;
+
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+import javax.management.openmbean.CompositeData;
+import java.lang.management.ManagementFactory;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class HdrHistogramTest {
+
+    private final HdrHistogram openMon = new HdrHistogram();
+
+    private static JoinPoint.StaticPart mockJoinPoint(String label) {
+        JoinPoint.StaticPart jp = mock(JoinPoint.StaticPart.class);
+        when(jp.toString()).thenReturn(label);
+        return jp;
+    }
+
+    @Test
+    public void testStartStop() {
+        JoinPoint.StaticPart jp = mockJoinPoint("HdrHistogramTest.testStartStop()");
+        JoinPoint.StaticPart context = openMon.start(jp);
+        assertThat(context).describedAs("The join point is the context so nothing is allocated").isSameAs(jp);
+        openMon.stop(context);
+        openMon.stop(openMon.start(jp), new RuntimeException());
+
+        assertThat(HdrHistogram.getHistograms().getSnapshot(jp).getCount()).isEqualTo(2);
+    }
+
+    @Test
+    public void testPercentiles() {
+        JoinPoint.StaticPart jp = mockJoinPoint("HdrHistogramTest.testPercentiles()");
+        for (int i = 1; i <= 1000; i++) {
+            openMon.record(jp, i * 1000L); // 1 to 1000 microseconds
+        }
+
+        HistogramSnapshot snapshot = HdrHistogram.getHistograms().getSnapshot(jp);
+        assertThat(snapshot.getLabel()).isEqualTo("HdrHistogramTest.testPercentiles()");
+        assertThat(snapshot.getCount()).isEqualTo(1000);
+        assertThat(snapshot.getP50()).describedAs("Values are accurate to 1%").isBetween(495_000L, 505_000L);
+        assertThat(snapshot.getP99()).isBetween(985_000L, 995_000L);
+        assertThat(snapshot.getP999()).isBetween(995_000L, 1_005_000L);
+        assertThat(snapshot.getMax()).isBetween(995_000L, 1_005_000L);
+        assertThat(snapshot.getMin()).isBetween(990L, 1010L);
+
+        assertThat(HdrHistogram.getHistograms().getHistogram("HdrHistogramTest.testPercentiles()").getCount()).isEqualTo(1000);
+        assertThat(HdrHistogram.getHistograms().getHistogram("I_DO_NOT_EXIST")).isNull();
+        Histogram copy = HdrHistogram.getHistograms().getHistogram(jp);
+        assertThat(copy.getTotalCount()).isEqualTo(1000);
+
+        HdrHistogram.getHistograms().reset();
+        assertThat(HdrHistogram.getHistograms().getSnapshot(jp).getCount()).isEqualTo(0);
+    }
+
+    @Test
+    public void testMultipleThreads() throws InterruptedException {
+        JoinPoint.StaticPart jp = mockJoinPoint("HdrHistogramTest.testMultipleThreads()");
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    openMon.record(jp, 100);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(HdrHistogram.getHistograms().getSnapshot(jp).getCount()).
+                describedAs("The values from every thread should be recorded").
+                isEqualTo(80_000);
+        assertThat(HdrHistogram.getHistograms().getStripes()).
+                describedAs("One recorder per join point by default").
+                isEqualTo(HdrHistogram.DEFAULT_STRIPES);
+    }
+
+    @Test
+    public void testStripes() throws InterruptedException {
+        HdrHistogram.Histograms histograms = new HdrHistogram.Histograms(2, 3);
+        assertThat(histograms.getStripes()).describedAs("Rounded up to a power of 2").isEqualTo(4);
+
+        JoinPoint.StaticPart jp = mockJoinPoint("HdrHistogramTest.testStripes()");
+        histograms.record(jp, 100);
+        assertThat(histograms.getRecorders(jp)).
+                describedAs("Recorders are only created for the threads that record").
+                isEqualTo(1);
+
+        List<Thread> threads = new ArrayList<>();
+        for (int t = 0; t < 8; t++) {
+            Thread thread = new Thread(() -> {
+                for (int i = 0; i < 10_000; i++) {
+                    histograms.record(jp, 100);
+                }
+            });
+            threads.add(thread);
+            thread.start();
+        }
+
+        for (Thread thread : threads) {
+            thread.join();
+        }
+
+        assertThat(histograms.getRecorders(jp)).isBetween(1, 4);
+        assertThat(histograms.getSnapshot(jp).getCount()).
+                describedAs("The values from every recorder should be merged").
+                isEqualTo(80_001);
+    }
+
+    @Test
+    public void testJmx() throws Exception {
+        JoinPoint.StaticPart jp = mockJoinPoint("HdrHistogramTest.testJmx()");
+        openMon.record(jp, 5000);
+
+        MBeanServer mBeanServer = ManagementFactory.getPlatformMBeanServer();
+        ObjectName name = new ObjectName("org.automon:type=aspect,purpose=hdrhistogram,name=HdrHistogram");
+        CompositeData[] histograms = (CompositeData[]) mBeanServer.getAttribute(name, "Histograms");
+
+        assertThat(histograms).anySatisfy(histogram -> {
+            assertThat(histogram.get("label")).isEqualTo("HdrHistogramTest.testJmx()");
+            assertThat(histogram.get("count")).isEqualTo(1L);
+        });
+    }
+
+    @Test
+    public void testFactory() {
+        OpenMonFactory factory = new OpenMonFactory(new NullImp());
+        assertThat(factory.getInstance("hdrhistogram")).isInstanceOf(HdrHistogram.class);
+    }
+}
@@ -38,6 +38,14 @@ public class JamonTest {
         assertThat(mon.getActive()).describedAs("The monitor should have been started").isEqualTo(1);
     }
 
+    @Test
+    public void testRecord() {
+        openMon.record(staticPart, 2_500_000);
+        Monitor mon = MonitorFactory.getMonitor(SharedConstants.LABEL, "ms.");
+        assertThat(mon.getHits()).describedAs("The duration should be added to the join point's time monitor").isEqualTo(1);
+        assertThat(mon.getTotal()).describedAs("Jamon time monitors are in milliseconds").isEqualTo(2.5);
+    }
+
     @Test
     public void testStop() {
         Monitor mon = openMon.start(staticPart);
@@ -42,6 +42,14 @@ public class MetricsTest {
         assertThat(mon.getCount()).describedAs("The timer should have completed/been stopped").isEqualTo(1);
     }
 
+    @Test
+    public void testRecord() {
+        openMon.record(staticPart, 2_500_000);
+        Timer timer = openMon.start(staticPart);
+        assertThat(timer.getCount()).describedAs("The duration should be added to the join point's timer").isEqualTo(1);
+        assertThat(timer.getSnapshot().getMax()).isEqualTo(2_500_000);
+    }
+
     @Test
     public void testStopWithException() {
         Timer mon = openMon.start(staticPart);
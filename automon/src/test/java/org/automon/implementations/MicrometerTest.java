@@ -7,6 +7,7 @@ import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 
+import java.sql.SQLException;
 import java.util.concurrent.TimeUnit;
 
 import static org.assertj.core.api.Assertions.assertThat;
@@ -32,13 +33,13 @@ public class MicrometerTest {
 
     @Test
     public void testStart() {
-        TimerContext mon = openMon.start(staticPart);
+        JoinPoint.StaticPart mon = openMon.start(staticPart);
         assertThat(openMon.getTimer(staticPart.toString()).count()).describedAs("A timer that wasn't started should not have a count").isEqualTo(0);
     }
 
     @Test
     public void testStop() {
-        TimerContext mon = openMon.start(staticPart);
+        JoinPoint.StaticPart mon = openMon.start(staticPart);
         sleep(250);
         openMon.stop(mon);
         assertThat(openMon.getTimer(staticPart.toString()).count())
@@ -55,6 +56,15 @@ public class MicrometerTest {
         }
     }
 
+    @Test
+    public void testStop_SubMillisecond() {
+        JoinPoint.StaticPart mon = openMon.start(staticPart);
+        openMon.stop(mon);
+        assertThat(mon).describedAs("The join point is the context so nothing is allocated").isSameAs(staticPart);
+        assertThat(openMon.getTimer(staticPart.toString()).totalTime(TimeUnit.NANOSECONDS))
+                .describedAs("Nanosecond resolution should record time for sub-millisecond calls").isGreaterThan(0);
+    }
+
     @Test
     public void testTimerNotNull() {
         assertThat(openMon.getTimer(staticPart.toString())).isNotNull();
@@ -67,7 +77,7 @@ public class MicrometerTest {
 
     @Test
     public void testStopWithException() {
-        TimerContext mon = openMon.start(staticPart);
+        JoinPoint.StaticPart mon = openMon.start(staticPart);
         openMon.stop(mon, new RuntimeException("my exception"));
         assertThat(openMon.getTimer(staticPart.toString()).count())
                 .describedAs("The timer should have completed/been stopped").isEqualTo(1);
@@ -83,6 +93,40 @@ public class MicrometerTest {
     }
 
 
+    @Test
+    public void testCachedTimer() {
+        assertThat(openMon.getCachedTimer(staticPart)).
+                describedAs("The timer should only be resolved once per join point").
+                isSameAs(openMon.getCachedTimer(staticPart));
+    }
+
+    @Test
+    public void testCachedCounter() {
+        assertThat(openMon.getCachedCounter(new RuntimeException("one"))).
+                describedAs("The counter should only be resolved once per exception type").
+                isSameAs(openMon.getCachedCounter(new RuntimeException("two")));
+        assertThat(openMon.getCachedCounter(new SQLException("reason", "state1", 1))).
+                describedAs("SQLExceptions with different error codes are different counters").
+                isNotSameAs(openMon.getCachedCounter(new SQLException("reason", "state2", 2)));
+    }
+
+    @Test
+    public void testCacheInvalidatedWithNewRegistry() {
+        JoinPoint.StaticPart mon = openMon.start(staticPart);
+        openMon.stop(mon);
+        openMon.exception(jp, SharedConstants.EXCEPTION);
+
+        MeterRegistry registry = new SimpleMeterRegistry();
+        Micrometer.setMeterRegistry(registry);
+        mon = openMon.start(staticPart);
+        openMon.stop(mon);
+
+        assertThat(registry.get(SharedConstants.LABEL).timer().count())
+                .describedAs("The timer should have been recreated in the new registry").isEqualTo(1);
+        assertThat(registry.find(SharedConstants.EXCEPTION_LABEL).counter())
+                .describedAs("No exception was thrown since the registry was replaced").isNull();
+    }
+
     @Test
     public void setMetricRegistry() {
         MeterRegistry registry = new SimpleMeterRegistry();
@@ -0,0 +1,53 @@
+package org.automon.implementations;
+
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class NanoTimerTest {
+
+    @Test
+    public void testGet_SameTimerPerThread() {
+        assertThat(NanoTimer.get()).isSameAs(NanoTimer.get());
+    }
+
+    @Test
+    public void testStartStop() throws InterruptedException {
+        NanoTimer timer = new NanoTimer();
+        timer.start();
+        Thread.sleep(5);
+        assertThat(timer.getDepth()).isEqualTo(1);
+        assertThat(timer.stop()).describedAs("Elapsed time should be in nanoseconds").isGreaterThanOrEqualTo(5_000_000);
+        assertThat(timer.getDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void testNested() throws InterruptedException {
+        NanoTimer timer = new NanoTimer();
+        timer.start();
+        Thread.sleep(5);
+        timer.start();
+        long inner = timer.stop();
+        long outer = timer.stop();
+        assertThat(outer).describedAs("The outer call includes the inner call").isGreaterThan(inner);
+    }
+
+    @Test
+    public void testDeepNesting() {
+        NanoTimer timer = new NanoTimer();
+        for (int i = 0; i < 100; i++) {
+            timer.start();
+        }
+        assertThat(timer.getDepth()).isEqualTo(100);
+        for (int i = 0; i < 100; i++) {
+            assertThat(timer.stop()).isGreaterThanOrEqualTo(0);
+        }
+        assertThat(timer.getDepth()).isEqualTo(0);
+    }
+
+    @Test
+    public void testStop_Unbalanced() {
+        NanoTimer timer = new NanoTimer();
+        assertThat(timer.stop()).describedAs("No exception should be thrown").isEqualTo(0);
+    }
+}
@@ -6,6 +6,7 @@ import org.junit.jupiter.api.Test;
 
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
 
 public class OpenMonFactoryTest {
 
@@ -63,6 +64,82 @@ public class OpenMonFactoryTest {
     public void testGetFirstInstance() {
         assertThat(factory.getFirstInstance()).isNotNull();
         assertThat(factory.getFirstInstance()).isNotEqualTo(defaultValue);
+        assertThat(factory.getFirstInstance())
+                .describedAs("Metrics has the highest priority of the pre-installed OpenMons")
+                .isInstanceOf(Metrics.class);
     }
 
+    @Test
+    public void testBuiltInProviders() {
+        assertThat(factory.getProviders()).containsKeys("jamon", "metrics", "micrometer", "newrelicimp", "sysout",
+                "nullimp", "hdrhistogram", "counters", "tracefile", "calltree", "async");
+        assertThat(factory.getFirstInstanceCandidates())
+                .extracting(OpenMonProvider::getKey)
+                .describedAs("OpenMons that are only created when requested")
+                .doesNotContain("sysout", "nullimp", "hdrhistogram", "counters", "tracefile", "calltree", "async");
+        assertThat(factory.getInstance("HdrHistogram")).isInstanceOf(HdrHistogram.class);
+        assertThat(factory.getInstance(OpenMonFactory.COUNTERS)).isInstanceOf(Counters.class);
+        assertThat(factory.toString()).contains("asyncopenmon");
+    }
+
+    @Test
+    public void testDiscoveredProvider() {
+        assertThat(factory.getProviders()).containsKey("discovered");
+        assertThat(factory.getDiscoveryNanos()).isGreaterThan(0);
+        assertThat(factory.getInstance("Discovered")).isInstanceOf(NullImp.class).isNotEqualTo(defaultValue);
+        assertThat(factory.toString()).contains("discovered");
+    }
+
+    @Test
+    public void testProviderPriority() {
+        OpenMon preferred = mock(OpenMon.class);
+        factory.add(mockProvider("preferred", OpenMonProvider.DEFAULT_PRIORITY, preferred));
+        OpenMonProvider broken = mockProvider("broken", OpenMonProvider.DEFAULT_PRIORITY + 1, null);
+        when(broken.create()).thenThrow(new NoClassDefFoundError("not in the classpath"));
+        factory.add(broken);
+
+        assertThat(factory.getFirstInstanceCandidates())
+                .extracting(OpenMonProvider::getKey)
+                .startsWith("broken", "preferred", "metrics", "jamon", "micrometer", "newrelicimp");
+        assertThat(factory.getFirstInstance())
+                .describedAs("The highest priority OpenMon that can be created")
+                .isSameAs(preferred);
+        assertThat(factory.getInstance("broken")).isEqualTo(defaultValue);
+    }
+
+    @Test
+    public void testSharedInstance() {
+        ClassLoader classLoader = getClass().getClassLoader();
+        assertThat(OpenMonFactory.getSharedInstance(classLoader)).isSameAs(OpenMonFactory.getSharedInstance(classLoader));
+        assertThat(OpenMonFactory.getSharedInstance(classLoader).getFirstInstance()).isInstanceOf(Metrics.class);
+    }
+
+    private static OpenMonProvider mockProvider(String key, int priority, OpenMon openMon) {
+        OpenMonProvider provider = mock(OpenMonProvider.class);
+        when(provider.getKey()).thenReturn(key);
+        when(provider.getPriority()).thenReturn(priority);
+        when(provider.create()).thenReturn(openMon);
+        return provider;
+    }
+
+    /**
+     * Listed in `META-INF/services` of the test resources. Its priority is low so it is never chosen by
+     * `getFirstInstance`.
+     */
+    public static class DiscoveredProvider implements OpenMonProvider {
+        @Override
+        public String getKey() {
+            return "discovered";
+        }
+
+        @Override
+        public int getPriority() {
+            return -1;
+        }
+
+        @Override
+        public OpenMon create() {
+            return new NullImp();
+        }
+    }
 }
\ No newline at end of file
@@ -0,0 +1,45 @@
+package org.automon.implementations;
+
+import org.automon.utils.AutomonPropertiesLoader;
+import org.junit.jupiter.api.Test;
+
+import java.util.Properties;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class SpecializedOpenMonTest {
+
+    private static AutomonPropertiesLoader mockProperties(String specialize) {
+        Properties properties = new Properties();
+        if (specialize != null) {
+            properties.setProperty(AutomonPropertiesLoader.SPECIALIZE, specialize);
+        }
+        AutomonPropertiesLoader loader = mock(AutomonPropertiesLoader.class);
+        when(loader.getProperties()).thenReturn(properties);
+        return loader;
+    }
+
+    @Test
+    public void testDisabledByDefault() {
+        assertThat(SpecializedOpenMon.get()).isNull();
+    }
+
+    @Test
+    public void testIsEnabled() {
+        assertThat(SpecializedOpenMon.isEnabled(mockProperties(null))).isFalse();
+        assertThat(SpecializedOpenMon.isEnabled(mockProperties("false"))).isFalse();
+        assertThat(SpecializedOpenMon.isEnabled(mockProperties(" TRUE "))).isTrue();
+    }
+
+    @Test
+    public void testCreate() {
+        assertThat(SpecializedOpenMon.create("jamon")).isInstanceOf(Jamon.class);
+        assertThat(SpecializedOpenMon.create(NullImp.class.getName())).isInstanceOf(NullImp.class);
+        assertThat(SpecializedOpenMon.create("jamon,metrics")).isInstanceOf(CompositeOpenMon.class);
+        assertThat(SpecializedOpenMon.create(null))
+                .describedAs("The first available OpenMon is created, as by the aspects")
+                .isNotNull();
+    }
+}
@@ -0,0 +1,97 @@
+package org.automon.implementations;
+
+import org.aspectj.lang.JoinPoint;
+import org.automon.utils.LogTracingHelper;
+import org.automon.utils.TraceRingFile;
+import org.automon.utils.TraceRingFileDecoder;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TraceFileTest {
+
+    private Path dir;
+    private TraceRingFile file;
+    private TraceFile openMon;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("automon-tracefile");
+        file = new TraceRingFile(dir.resolve("trace.bin"), 1, 16);
+        openMon = new TraceFile(file);
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        MDC.clear();
+        file.close();
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static JoinPoint.StaticPart mockJoinPoint(String label) {
+        JoinPoint.StaticPart jp = mock(JoinPoint.StaticPart.class);
+        when(jp.toString()).thenReturn(label);
+        return jp;
+    }
+
+    @Test
+    public void testStartStop() throws IOException {
+        JoinPoint.StaticPart outer = mockJoinPoint("TraceFileTest.outer()");
+        JoinPoint.StaticPart inner = mockJoinPoint("TraceFileTest.inner()");
+        MDC.put(LogTracingHelper.REQUEST_ID, "request-1");
+
+        JoinPoint.StaticPart outerContext = openMon.start(outer);
+        openMon.stop(openMon.start(inner), new RuntimeException("inner"));
+        openMon.stop(outerContext);
+
+        List<TraceRingFileDecoder.Record> records = TraceRingFileDecoder.read(file.getPath());
+        assertThat(records).extracting(TraceRingFileDecoder.Record::getJoinPoint)
+                .containsExactlyInAnyOrder("TraceFileTest.inner()", "TraceFileTest.outer()");
+        for (TraceRingFileDecoder.Record record : records) {
+            assertThat(record.getThreadId()).isEqualTo(Thread.currentThread().getId());
+            assertThat(record.getRequestId()).isEqualTo("request-1");
+            if (record.getJoinPoint().equals("TraceFileTest.inner()")) {
+                assertThat(record.getDepth()).isEqualTo(1);
+                assertThat(record.isFailed()).isTrue();
+            } else {
+                assertThat(record.getDepth()).isEqualTo(0);
+                assertThat(record.isFailed()).isFalse();
+            }
+        }
+        assertThat(openMon.getExceptionsMap()).describedAs("Exceptions are still tracked").hasSize(1);
+    }
+
+    @Test
+    public void testNoFile() {
+        TraceFile noFile = new TraceFile(null);
+        JoinPoint.StaticPart jp = mockJoinPoint("TraceFileTest.testNoFile()");
+        noFile.stop(noFile.start(jp));
+        noFile.stop(noFile.start(jp), new RuntimeException());
+
+        assertThat(noFile.getFile()).isNull();
+        assertThat(NanoTimer.get().getDepth()).describedAs("The timer is still popped").isEqualTo(0);
+    }
+
+    /**
+     * Only checks the provider: creating the `OpenMon` would create the shared file in the working directory.
+     */
+    @Test
+    public void testFactory() {
+        OpenMonFactory factory = new OpenMonFactory(new NullImp());
+        assertThat(factory.getProviders().get("tracefile")).isInstanceOf(OpenMonProviders.TraceFileProvider.class);
+    }
+}
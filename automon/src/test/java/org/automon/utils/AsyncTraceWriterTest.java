@@ -0,0 +1,153 @@
+package org.automon.utils;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.core.LogEvent;
+import org.apache.logging.log4j.core.LoggerContext;
+import org.apache.logging.log4j.core.appender.AbstractAppender;
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.slf4j.MDC;
+import org.slf4j.NDC;
+import org.slf4j.event.Level;
+
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.doAnswer;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class AsyncTraceWriterTest {
+
+    private static final Logger LOGGER = LoggerFactory.getLogger(AsyncTraceWriterTest.class);
+    private AsyncTraceWriter writer;
+
+    @AfterEach
+    void tearDown() {
+        if (writer != null) {
+            writer.close();
+        }
+        MDC.clear();
+        LogTracingHelper.getInstance().setContextMode(null);
+    }
+
+    @SuppressWarnings("unchecked")
+    private static List<LogEvent> getEvents() throws Exception {
+        LoggerContext context = (LoggerContext) LogManager.getContext(false);
+        AbstractAppender appender = context.getConfiguration().getAppender("ListAppender");
+        return (List<LogEvent>) appender.getClass().getMethod("getEvents").invoke(appender);
+    }
+
+    /**
+     * Returns the line formatted by the ListAppender's layout (`message: MDC={...}`). The context data of the stored
+     * event isn't used as it refers to the writer's reusable context map, which the writer clears after logging.
+     */
+    private static String findMessage(String message) throws Exception {
+        return getEvents().stream().
+                filter(event -> event.getLoggerName().equals(AsyncTraceWriterTest.class.getName())).
+                map(event -> event.getMessage().getFormattedMessage()).
+                filter(formattedMessage -> formattedMessage.contains(message)).
+                findFirst().
+                orElseThrow();
+    }
+
+    private static JoinPoint.StaticPart mockJoinPoint(String signature) {
+        JoinPoint.StaticPart jp = mock(JoinPoint.StaticPart.class);
+        Signature sig = mock(Signature.class);
+        when(sig.toShortString()).thenReturn(signature);
+        when(jp.getSignature()).thenReturn(sig);
+        return jp;
+    }
+
+    @Test
+    void testMdcContext() throws Exception {
+        writer = new AsyncTraceWriter("AsyncTraceWriterTest-mdc", 16, 4, AsyncTraceWriter.OverflowPolicy.DROP);
+        MDC.put(LogTracingHelper.REQUEST_ID, "request-1");
+        MDC.put("thread", "application value");
+        NDC.push("traced()");
+        try {
+            assertThat(writer.offer(LOGGER, Level.INFO, "async-mdc", null)).isTrue();
+        } finally {
+            NDC.pop();
+        }
+        writer.close();
+
+        assertThat(findMessage("async-mdc")).
+                contains(LogTracingHelper.REQUEST_ID + "=request-1").
+                contains("NDC0=traced()").
+                contains(AsyncTraceWriter.THREAD + "=" + Thread.currentThread().getName()).
+                describedAs("Only the Automon entries of the MDC are copied").
+                doesNotContain("application value");
+        assertThat(writer.getQueued()).isEqualTo(1);
+        assertThat(writer.getWritten()).isEqualTo(1);
+        assertThat(writer.getBatches()).isEqualTo(1);
+        assertThat(writer.getQueueSize()).isEqualTo(0);
+        assertThat(writer.getQueueCapacity()).isEqualTo(16);
+    }
+
+    @Test
+    void testStructuredContextFormattedByWriter() throws Exception {
+        LogTracingHelper helper = LogTracingHelper.getInstance();
+        helper.setContextMode(LogTracingHelper.ContextMode.CHAIN);
+        writer = new AsyncTraceWriter("AsyncTraceWriterTest-chain", 16, 4, AsyncTraceWriter.OverflowPolicy.DROP);
+
+        JoinPoint joinPoint = mock(JoinPoint.class);
+        when(joinPoint.getArgs()).thenReturn(new Object[]{"value1"});
+        helper.withSignature(mockJoinPoint("outer()")).withSignature(mockJoinPoint("inner()")).withParameters(joinPoint).withExecutionTime(3);
+        try {
+            writer.offer(LOGGER, Level.WARN, "async-chain", null);
+        } finally {
+            helper.removeFullContext();
+            helper.removeSignature();
+        }
+        writer.close();
+
+        assertThat(findMessage("async-chain")).
+                contains("NDC0=outer()").
+                contains("NDC1=inner()").
+                contains(LogTracingHelper.PARAMETERS + "={param0=value1}").
+                describedAs("The values were copied before they were removed").
+                contains(LogTracingHelper.EXECUTION_TIME_MS + "=3");
+    }
+
+    @Test
+    void testOverflow() throws Exception {
+        Logger logger = mock(Logger.class);
+        when(logger.isInfoEnabled()).thenReturn(true);
+        CountDownLatch writing = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        doAnswer(invocation -> {
+            writing.countDown();
+            release.await(5, TimeUnit.SECONDS);
+            return null;
+        }).when(logger).info(anyString(), (Throwable) any());
+
+        writer = new AsyncTraceWriter("AsyncTraceWriterTest-overflow", 1, 1, AsyncTraceWriter.OverflowPolicy.DROP);
+        writer.offer(logger, Level.INFO, "first", null);
+        assertThat(writing.await(5, TimeUnit.SECONDS)).isTrue(); // the writer is blocked logging the first message
+        assertThat(writer.offer(logger, Level.INFO, "second", null)).isTrue();
+        assertThat(writer.offer(logger, Level.INFO, "dropped", null)).isTrue();
+        assertThat(writer.getDropped()).isEqualTo(1);
+
+        writer.setOverflowPolicy("sync");
+        assertThat(writer.getOverflowPolicy()).isEqualTo("sync");
+        assertThat(writer.offer(logger, Level.INFO, "sync", null)).describedAs("The caller logs it").isFalse();
+        assertThat(writer.getLoggedOnCallerThread()).isEqualTo(1);
+        assertThat(writer.getQueueSize()).isEqualTo(1);
+
+        assertThat(writer.offer(logger, Level.DEBUG, "disabled level", null)).isTrue();
+        assertThat(writer.getQueued()).describedAs("Levels the logger won't log aren't queued").isEqualTo(2);
+
+        release.countDown();
+        writer.close();
+        assertThat(writer.getWritten()).isEqualTo(2);
+    }
+}
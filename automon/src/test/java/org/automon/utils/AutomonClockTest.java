@@ -0,0 +1,83 @@
+package org.automon.utils;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.BooleanSupplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.within;
+
+class AutomonClockTest {
+
+    @AfterEach
+    void tearDown() {
+        AutomonClock.set(null);
+    }
+
+    private static void waitFor(BooleanSupplier condition) throws InterruptedException {
+        long end = System.currentTimeMillis() + 5000;
+        while (!condition.getAsBoolean() && System.currentTimeMillis() < end) {
+            Thread.sleep(5);
+        }
+        assertThat(condition.getAsBoolean()).isTrue();
+    }
+
+    @Test
+    void testCreate() {
+        assertThat(AutomonClock.create(null)).isInstanceOf(AutomonClock.SystemClock.class);
+        assertThat(AutomonClock.create(" System ")).isInstanceOf(AutomonClock.SystemClock.class);
+        assertThat(AutomonClock.create("unknown")).isInstanceOf(AutomonClock.SystemClock.class);
+        assertThat(AutomonClock.create("com.example.NoSuchClock")).isInstanceOf(AutomonClock.SystemClock.class);
+        assertThat(AutomonClock.create(FixedClock.class.getName())).isInstanceOf(FixedClock.class);
+
+        try (AutomonClock coarse = AutomonClock.create("coarse")) {
+            assertThat(coarse).isInstanceOf(AutomonClock.CoarseClock.class);
+            assertThat(((AutomonClock.CoarseClock) coarse).getTickNanos()).isEqualTo(TimeUnit.MILLISECONDS.toNanos(1));
+        }
+    }
+
+    @Test
+    void testSystemClock() {
+        AutomonClock clock = new AutomonClock.SystemClock();
+        long start = clock.nanoTime();
+        assertThat(clock.nanoTime()).isGreaterThanOrEqualTo(start);
+        assertThat(clock.currentTimeMillis()).isCloseTo(System.currentTimeMillis(), within(1000L));
+    }
+
+    @Test
+    void testCoarseClock() throws InterruptedException {
+        AutomonClock.CoarseClock clock = new AutomonClock.CoarseClock(TimeUnit.MILLISECONDS.toNanos(1));
+        long start = clock.nanoTime();
+        assertThat(start).describedAs("The time is read when the clock is created").isPositive();
+        waitFor(() -> clock.nanoTime() > start);
+        assertThat(clock.currentTimeMillis()).isCloseTo(System.currentTimeMillis(), within(1000L));
+
+        clock.close();
+        waitFor(() -> !clock.isTicking());
+    }
+
+    @Test
+    void testSetClosesPreviousClock() throws InterruptedException {
+        AutomonClock.CoarseClock coarse = new AutomonClock.CoarseClock(TimeUnit.MILLISECONDS.toNanos(1));
+        AutomonClock.set(coarse);
+        assertThat(AutomonClock.get()).isSameAs(coarse);
+
+        AutomonClock.set(new FixedClock());
+        assertThat(AutomonClock.get().nanoTime()).isEqualTo(42);
+        waitFor(() -> !coarse.isTicking());
+    }
+
+    public static class FixedClock extends AutomonClock {
+        @Override
+        public long nanoTime() {
+            return 42;
+        }
+
+        @Override
+        public long currentTimeMillis() {
+            return 42;
+        }
+    }
+}
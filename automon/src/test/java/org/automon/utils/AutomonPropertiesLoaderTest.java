@@ -27,6 +27,18 @@ public class AutomonPropertiesLoaderTest {
         AutomonPropertiesLoader loader = new AutomonPropertiesLoader();
         Properties properties = loader.getProperties();
         assertThat(properties.getProperty(AutomonPropertiesLoader.CONFIGURED_OPEN_MON)).isEmpty();
+        assertThat(loader.getInt(AutomonPropertiesLoader.EXCEPTION_MAX_SIZE, 0)).isEqualTo(ConcurrentExpiringMap.DEFAULT_MAX_SIZE);
+        assertThat(loader.getInt(AutomonPropertiesLoader.EXCEPTION_EXPIRATION_MINUTES, 0)).isEqualTo(2);
+    }
+
+    @Test
+    public void testGetInt() {
+        AutomonPropertiesLoader loader = new AutomonPropertiesLoader();
+        loader.getProperties().setProperty("myint", " 42 ");
+        loader.getProperties().setProperty("mynonint", "abc");
+        assertThat(loader.getInt("myint", 0)).isEqualTo(42);
+        assertThat(loader.getInt("mynonint", 7)).describedAs("Invalid numbers use the default").isEqualTo(7);
+        assertThat(loader.getInt("I_DO_NOT_EXIST", 7)).isEqualTo(7);
     }
 
 
@@ -0,0 +1,143 @@
+package org.automon.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.*;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class ConcurrentExpiringMapTest {
+
+    @Test
+    public void testComputeIfAbsent_OnlyOnce() {
+        ConcurrentExpiringMap<String, Expirable> map = new ConcurrentExpiringMap<>();
+        Expirable object1 = mock(Expirable.class);
+        Expirable object2 = mock(Expirable.class);
+        String key = "Hello";
+        assertThat(map.computeIfAbsent(key, k -> object1)).isSameAs(object1);
+        assertThat(map.computeIfAbsent(key, k -> object2)).describedAs("The first value should be kept").isSameAs(object1);
+        assertThat(map.get(key)).isSameAs(object1);
+        assertThat(map.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testIdentityKeys() {
+        ConcurrentExpiringMap<String, Expirable> map = new ConcurrentExpiringMap<>();
+        String key1 = new String("Hello");
+        String key2 = new String("Hello");
+        map.computeIfAbsent(key1, k -> mock(Expirable.class));
+        assertThat(map.get(key2)).describedAs("Equal keys that are different objects are different entries").isNull();
+        map.computeIfAbsent(key2, k -> mock(Expirable.class));
+        assertThat(map.size()).isEqualTo(2);
+    }
+
+    @Test
+    public void testRemove_Expired() {
+        ConcurrentExpiringMap<String, Expirable> map = new ConcurrentExpiringMap<>();
+        Expirable object1 = mock(Expirable.class);
+        Expirable object2 = mock(Expirable.class);
+        Expirable object3 = mock(Expirable.class);
+        Expirable object4 = mock(Expirable.class);
+
+        map.computeIfAbsent("Hello", k -> object1);
+        map.computeIfAbsent("Cruel", k -> object2);
+        map.computeIfAbsent("World", k -> object3);
+        assertThat(map.toMap()).containsOnlyKeys("Hello", "Cruel", "World");
+
+        // expire the 2 oldest objects so they will be removed on next put.
+        when(object1.isExpired()).thenReturn(true);
+        when(object2.isExpired()).thenReturn(true);
+        map.computeIfAbsent("Now", k -> object4);
+        assertThat(map.toMap()).containsOnlyKeys("World", "Now");
+    }
+
+    @Test
+    public void testRemove_StopsAtFirstUnexpired() {
+        ConcurrentExpiringMap<String, Expirable> map = new ConcurrentExpiringMap<>();
+        Expirable object1 = mock(Expirable.class);
+        Expirable object2 = mock(Expirable.class);
+        when(object2.isExpired()).thenReturn(true);
+
+        map.computeIfAbsent("Hello", k -> object1);
+        map.computeIfAbsent("World", k -> object2);
+        map.removeOldEntries();
+        assertThat(map.toMap()).
+                describedAs("Entries newer than an unexpired entry are removed later").
+                containsOnlyKeys("Hello", "World");
+    }
+
+    @Test
+    public void testMaxSize() {
+        ConcurrentExpiringMap<String, Expirable> map = new ConcurrentExpiringMap<>(2);
+        map.computeIfAbsent("Hello", k -> mock(Expirable.class));
+        map.computeIfAbsent("Cruel", k -> mock(Expirable.class));
+        map.computeIfAbsent("World", k -> mock(Expirable.class));
+        assertThat(map.toMap()).describedAs("The oldest entry should be removed").containsOnlyKeys("Cruel", "World");
+        assertThat(map.getMaxSize()).isEqualTo(2);
+    }
+
+    @Test
+    public void testConcurrentPuts() throws Exception {
+        ConcurrentExpiringMap<Throwable, AutomonExpirable> map = new ConcurrentExpiringMap<>();
+        RuntimeException shared = new RuntimeException("shared");
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        List<Future<AutomonExpirable>> futures = new ArrayList<>();
+        List<Throwable> uniques = new CopyOnWriteArrayList<>(); // keys are weak, so keep them reachable
+        for (int i = 0; i < 100; i++) {
+            futures.add(executor.submit(() -> {
+                RuntimeException unique = new RuntimeException("unique");
+                uniques.add(unique);
+                map.computeIfAbsent(unique, k -> new AutomonExpirable());
+                return map.computeIfAbsent(shared, k -> new AutomonExpirable());
+            }));
+        }
+
+        AutomonExpirable first = futures.get(0).get();
+        for (Future<AutomonExpirable> future : futures) {
+            assertThat(future.get()).describedAs("Every thread should see the same value").isSameAs(first);
+        }
+        executor.shutdown();
+        assertThat(map.size()).isEqualTo(101);
+        assertThat(uniques).hasSize(100);
+    }
+
+    @Test
+    public void testStatistics() {
+        ConcurrentExpiringMap<String, Expirable> map = new ConcurrentExpiringMap<>(1);
+        Expirable expired = mock(Expirable.class);
+        when(expired.isExpired()).thenReturn(true);
+        map.computeIfAbsent("Hello", k -> expired);
+        map.computeIfAbsent("Cruel", k -> mock(Expirable.class));
+        map.computeIfAbsent("World", k -> mock(Expirable.class));
+
+        assertThat(map.getStatistics()).
+                containsEntry("size", 1L).
+                containsEntry("maxSize", 1L).
+                containsEntry("expired", 1L).
+                containsEntry("evicted", 1L).
+                containsEntry("collected", 0L);
+    }
+
+    @Test
+    public void testWeakKeys() throws InterruptedException {
+        ConcurrentExpiringMap<Object, Expirable> map = new ConcurrentExpiringMap<>();
+        map.computeIfAbsent(new Object(), k -> mock(Expirable.class));
+        Object key = new Object();
+        map.computeIfAbsent(key, k -> mock(Expirable.class));
+
+        for (int i = 0; i < 50 && map.getStatistics().get("collected") == 0; i++) {
+            System.gc();
+            Thread.sleep(20);
+            map.removeOldEntries();
+        }
+
+        assertThat(map.getStatistics().get("collected")).
+                describedAs("The unreachable key should have been garbage collected and its entry removed").
+                isEqualTo(1L);
+        assertThat(map.toMap()).containsOnlyKeys(key);
+    }
+}
@@ -0,0 +1,108 @@
+package org.automon.utils;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.Test;
+
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ContextChainTest {
+
+    private static JoinPoint.StaticPart mockJoinPoint(String signature) {
+        JoinPoint.StaticPart jp = mock(JoinPoint.StaticPart.class);
+        Signature sig = mock(Signature.class);
+        when(sig.toShortString()).thenReturn(signature);
+        when(jp.getSignature()).thenReturn(sig);
+        return jp;
+    }
+
+    @Test
+    void testPushPop() {
+        assertThat(ContextChain.current()).isNull();
+
+        ContextChain outer = ContextChain.push(mockJoinPoint("outer()"));
+        outer.getFrame().executionTimeMs = 7;
+        ContextChain inner = ContextChain.push(mockJoinPoint("inner()"));
+
+        assertThat(ContextChain.current()).isSameAs(inner);
+        assertThat(inner.getParent()).isSameAs(outer);
+        assertThat(inner.getDepth()).isEqualTo(2);
+        assertThat(ContextChain.getContextData(inner)).
+                containsEntry("NDC0", "outer()").
+                containsEntry("NDC1", "inner()").
+                describedAs("Only the innermost node's values").
+                doesNotContainKey(LogTracingHelper.EXECUTION_TIME_MS);
+
+        ContextChain.pop();
+        assertThat(ContextChain.current()).isSameAs(outer);
+        assertThat(ContextChain.getContextData(outer)).containsEntry(LogTracingHelper.EXECUTION_TIME_MS, "7");
+
+        ContextChain.pop();
+        ContextChain.pop(); // an extra pop is ignored
+        assertThat(ContextChain.current()).isNull();
+        assertThat(ContextChain.getContextData(null)).isEmpty();
+    }
+
+    @Test
+    void testNodesAreNotReused() {
+        ContextChain outer = ContextChain.push(mockJoinPoint("outer()"));
+        ContextChain first = ContextChain.push(mockJoinPoint("first()"));
+        ContextChain.pop();
+        ContextChain second = ContextChain.push(mockJoinPoint("second()"));
+        ContextChain.pop();
+        ContextChain.pop();
+
+        assertThat(second).describedAs("Nodes aren't reused").isNotSameAs(first);
+        assertThat(ContextChain.getContextData(first)).
+                describedAs("A node held by another thread is unchanged by later pushes").
+                containsEntry("NDC1", "first()");
+        assertThat(first.getParent()).isSameAs(outer).isSameAs(second.getParent());
+    }
+
+    @Test
+    void testCopy() {
+        ContextChain outer = ContextChain.push(mockJoinPoint("outer()"));
+        ContextChain inner = ContextChain.push(mockJoinPoint("inner()"));
+        inner.getFrame().executionTimeMs = 7;
+
+        ContextChain copy = inner.copy();
+        inner.getFrame().executionTimeMs = 8;
+        ContextChain.pop();
+        ContextChain.pop();
+
+        assertThat(copy).isNotSameAs(inner);
+        assertThat(copy.getParent()).describedAs("Linked to the same caller").isSameAs(outer);
+        assertThat(copy.getDepth()).isEqualTo(2);
+        assertThat(ContextChain.getContextData(copy)).
+                containsEntry("NDC1", "inner()").
+                describedAs("Later changes to the node aren't seen by the copy").
+                containsEntry(LogTracingHelper.EXECUTION_TIME_MS, "7");
+    }
+
+    @Test
+    void testAttachDetach() throws InterruptedException {
+        ContextChain chain = ContextChain.push(mockJoinPoint("main()"));
+        AtomicReference<String> seen = new AtomicReference<>();
+        AtomicReference<ContextChain> after = new AtomicReference<>();
+
+        Thread thread = new Thread(() -> {
+            ContextChain previous = ContextChain.attach(chain);
+            ContextChain.push(mockJoinPoint("task()"));
+            seen.set(ContextChain.getContextData(ContextChain.current()).toString());
+            ContextChain.pop();
+            ContextChain.detach(previous);
+            after.set(ContextChain.current());
+        });
+        thread.start();
+        thread.join();
+        ContextChain.pop();
+
+        assertThat(seen.get()).contains("NDC0=main()", "NDC1=task()");
+        assertThat(after.get()).isNull();
+        assertThat(ContextChain.current()).isNull();
+    }
+}
@@ -0,0 +1,180 @@
+package org.automon.utils;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.MDC;
+import org.slf4j.NDC;
+
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.Function;
+import java.util.function.Supplier;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class ContextSnapshotTest {
+
+    private final LogTracingHelper helper = LogTracingHelper.getInstance();
+    private final ExecutorService executor = Executors.newSingleThreadExecutor();
+
+    @AfterEach
+    void tearDown() {
+        MDC.clear();
+        helper.setContextMode(null);
+        executor.shutdownNow();
+    }
+
+    private static JoinPoint.StaticPart mockJoinPoint(String signature) {
+        JoinPoint.StaticPart jp = mock(JoinPoint.StaticPart.class);
+        Signature sig = mock(Signature.class);
+        when(sig.toShortString()).thenReturn(signature);
+        when(jp.getSignature()).thenReturn(sig);
+        return jp;
+    }
+
+    private static Map<String, String> getMdc() {
+        Map<String, String> mdc = MDC.getCopyOfContextMap();
+        return mdc == null ? Map.of() : mdc;
+    }
+
+    @Test
+    void testEmpty() {
+        ContextSnapshot snapshot = ContextSnapshot.capture();
+        Runnable task = () -> {
+        };
+
+        assertThat(snapshot).isSameAs(ContextSnapshot.EMPTY);
+        assertThat(snapshot.wrap(task)).describedAs("Nothing to propagate so the task isn't wrapped").isSameAs(task);
+        assertThat(snapshot.restore()).isSameAs(ContextSnapshot.Scope.NOOP);
+    }
+
+    @Test
+    void testMdc() throws Exception {
+        MDC.put(LogTracingHelper.REQUEST_ID, "request-1");
+        MDC.put("unrelated", "not copied");
+        NDC.push("outer()");
+        NDC.push("inner()");
+
+        ContextSnapshot snapshot = ContextSnapshot.capture();
+        assertThat(snapshot.getRequestId()).isEqualTo("request-1");
+        assertThat(snapshot.getDepth()).isEqualTo(2);
+
+        Future<Map<String, String>> future = executor.submit(snapshot.wrap((Callable<Map<String, String>>) ContextSnapshotTest::getMdc));
+        assertThat(future.get()).
+                containsEntry(LogTracingHelper.REQUEST_ID, "request-1").
+                containsEntry("NDC0", "outer()").
+                containsEntry("NDC1", "inner()").
+                doesNotContainKey("unrelated");
+        assertThat(executor.submit(ContextSnapshotTest::getMdc).get()).
+                describedAs("The context is removed when the task ends").
+                isEmpty();
+    }
+
+    @Test
+    void testRestoreKeepsExistingContext() {
+        MDC.put(LogTracingHelper.REQUEST_ID, "request-1");
+        NDC.push("submitter()");
+        ContextSnapshot snapshot = ContextSnapshot.capture();
+
+        MDC.put(LogTracingHelper.REQUEST_ID, "request-2");
+        try (ContextSnapshot.Scope scope = snapshot.restore()) {
+            assertThat(MDC.get(LogTracingHelper.REQUEST_ID)).isEqualTo("request-1");
+            assertThat(MDC.get("NDC1")).isEqualTo("submitter()");
+        }
+        assertThat(MDC.get(LogTracingHelper.REQUEST_ID)).isEqualTo("request-2");
+        assertThat(MDC.get("NDC0")).isEqualTo("submitter()");
+        assertThat(MDC.get("NDC1")).isNull();
+    }
+
+    @Test
+    void testStructuredContext() throws Exception {
+        helper.setStructuredContext(true);
+        helper.withSignature(mockJoinPoint("traced()"));
+        try {
+            ContextSnapshot snapshot = ContextSnapshot.capture();
+            assertThat(snapshot.getDepth()).isEqualTo(1);
+            assertThat(snapshot.toString()).contains("traced()");
+
+            Future<Map<String, String>> future = executor.submit(snapshot.wrap(
+                    (Callable<Map<String, String>>) () -> TraceContext.get().getContextData()));
+            assertThat(future.get()).containsEntry("NDC0", "traced()");
+            assertThat(executor.submit(() -> TraceContext.get().getDepth()).get()).isEqualTo(0);
+        } finally {
+            helper.removeSignature();
+        }
+    }
+
+    @Test
+    void testChainContext() throws Exception {
+        helper.setContextMode(LogTracingHelper.ContextMode.CHAIN);
+        helper.withSignature(mockJoinPoint("traced()"));
+        try {
+            ContextChain.current().getFrame().executionTimeMs = 5;
+            ContextSnapshot snapshot = ContextSnapshot.capture();
+            ContextChain.current().getFrame().executionTimeMs = 9;
+            assertThat(snapshot.getDepth()).isEqualTo(1);
+            assertThat(snapshot.toString()).contains("traced()");
+
+            Future<Map<String, String>> future = executor.submit(snapshot.wrap(
+                    (Callable<Map<String, String>>) () -> ContextChain.getContextData(ContextChain.current())));
+            assertThat(future.get()).
+                    containsEntry("NDC0", "traced()").
+                    describedAs("The task sees the values as they were when it was submitted").
+                    containsEntry(LogTracingHelper.EXECUTION_TIME_MS, "5");
+            assertThat(executor.submit(ContextChain::current).get()).
+                    describedAs("The worker thread holds nothing after the task").
+                    isNull();
+        } finally {
+            helper.removeSignature();
+        }
+        assertThat(ContextChain.current()).isNull();
+    }
+
+    @Test
+    void testWrapExecutorService() throws Exception {
+        ExecutorService wrapped = ContextSnapshot.wrap(executor);
+        assertThat(ContextSnapshot.wrap(wrapped)).describedAs("Already wrapped").isSameAs(wrapped);
+
+        MDC.put(LogTracingHelper.REQUEST_ID, "request-3");
+        assertThat(wrapped.submit(() -> MDC.get(LogTracingHelper.REQUEST_ID)).get()).isEqualTo("request-3");
+
+        Callable<String> task = () -> MDC.get(LogTracingHelper.REQUEST_ID);
+        assertThat(wrapped.invokeAll(List.of(task, task))).allSatisfy(result -> assertThat(result.get()).isEqualTo("request-3"));
+        assertThat(wrapped.invokeAny(List.of(task))).isEqualTo("request-3");
+
+        MDC.remove(LogTracingHelper.REQUEST_ID);
+        assertThat(wrapped.submit(() -> MDC.get(LogTracingHelper.REQUEST_ID)).get()).isNull();
+    }
+
+    @Test
+    void testWrapArguments() {
+        MDC.put(LogTracingHelper.REQUEST_ID, "request-4");
+        ContextSnapshot snapshot = ContextSnapshot.capture();
+        MDC.clear();
+
+        Supplier<String> supplier = () -> MDC.get(LogTracingHelper.REQUEST_ID);
+        Function<String, String> function = prefix -> prefix + MDC.get(LogTracingHelper.REQUEST_ID);
+        Object[] args = {supplier, function, "unchanged", List.of("not a task")};
+        Object[] wrapped = snapshot.wrapArguments(new Class<?>[]{Supplier.class, Function.class, String.class, java.util.Collection.class}, args);
+
+        assertThat(wrapped).isNotSameAs(args);
+        assertThat(((Supplier<?>) wrapped[0]).get()).isEqualTo("request-4");
+        @SuppressWarnings("unchecked")
+        Function<String, String> wrappedFunction = (Function<String, String>) wrapped[1];
+        assertThat(wrappedFunction.apply("id=")).isEqualTo("id=request-4");
+        assertThat(wrapped[2]).isSameAs(args[2]);
+        assertThat(wrapped[3]).describedAs("Collections of non tasks are unchanged").isSameAs(args[3]);
+        assertThat(MDC.get(LogTracingHelper.REQUEST_ID)).isNull();
+
+        Object[] noTasks = {"a"};
+        assertThat(snapshot.wrapArguments(new Class<?>[]{String.class}, noTasks)).isSameAs(noTasks);
+    }
+}
@@ -0,0 +1,141 @@
+package org.automon.utils;
+
+import org.aspectj.lang.JoinPoint;
+import org.automon.jmx.JoinPointSnapshot;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.assertj.core.api.Assertions.offset;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class JoinPointControlTest {
+
+    private final JoinPointControl control = new JoinPointControl(new JoinPointRegistry());
+
+    private static JoinPoint.StaticPart mockJoinPoint(String label) {
+        JoinPoint.StaticPart jp = mock(JoinPoint.StaticPart.class);
+        when(jp.toString()).thenReturn(label);
+        return jp;
+    }
+
+    @Test
+    public void testDefault() {
+        JoinPoint.StaticPart jp = mockJoinPoint("execution(void com.mycompany.OrderService.place())");
+        assertThat(control.shouldMonitor(jp)).isTrue();
+        assertThat(control.isEnabled(jp)).isTrue();
+        assertThat(control.getTraceLevel(jp)).isEqualTo(JoinPointControl.TraceLevel.DEFAULT);
+
+        JoinPointSnapshot snapshot = control.getJoinPoints().get(0);
+        assertThat(snapshot.getLabel()).isEqualTo("execution(void com.mycompany.OrderService.place())");
+        assertThat(snapshot.getCalls()).isEqualTo(1);
+        assertThat(snapshot.isEnabled()).isTrue();
+        assertThat(snapshot.getSampleRate()).isEqualTo(1.0);
+        assertThat(snapshot.getTraceLevel()).isEqualTo("default");
+    }
+
+    @Test
+    public void testSetEnabled() {
+        JoinPoint.StaticPart place = mockJoinPoint("execution(void com.mycompany.OrderService.place())");
+        JoinPoint.StaticPart find = mockJoinPoint("execution(Order com.mycompany.OrderService.find(int))");
+        JoinPoint.StaticPart other = mockJoinPoint("execution(void com.mycompany.Other.place())");
+        control.shouldMonitor(place);
+        control.shouldMonitor(other);
+
+        assertThat(control.setEnabled("*OrderService.*", false))
+                .describedAs("Only the join points seen so far are counted")
+                .isEqualTo(1);
+        assertThat(control.shouldMonitor(place)).isFalse();
+        assertThat(control.isEnabled(place)).isFalse();
+        assertThat(control.shouldMonitor(find)).describedAs("The rule applies to new join points").isFalse();
+        assertThat(control.shouldMonitor(other)).isTrue();
+
+        control.setEnabled("execution(void com.mycompany.OrderService.place())", true);
+        assertThat(control.shouldMonitor(place)).describedAs("Later rules override earlier ones").isTrue();
+        assertThat(control.shouldMonitor(find)).isFalse();
+        assertThat(control.getRules()).containsExactly(
+                "*OrderService.*: enabled=false",
+                "execution(void com.mycompany.OrderService.place()): enabled=true");
+
+        control.clearRules();
+        assertThat(control.getRules()).isEmpty();
+        assertThat(control.shouldMonitor(find)).isTrue();
+    }
+
+    @Test
+    public void testSetSampleRate() {
+        JoinPoint.StaticPart jp = mockJoinPoint("execution(void com.mycompany.Hot.run())");
+        control.setSampleRate("*Hot*", 0.0);
+        for (int i = 0; i < 100; i++) {
+            assertThat(control.shouldMonitor(jp)).isFalse();
+        }
+
+        control.setSampleRate("*Hot*", 0.25);
+        int monitored = 0;
+        for (int i = 0; i < 10_000; i++) {
+            if (control.shouldMonitor(jp)) {
+                monitored++;
+            }
+        }
+        assertThat(monitored).isBetween(2_000, 3_000);
+        assertThat(control.getJoinPoints().get(0).getSampleRate()).isCloseTo(0.25, offset(0.001));
+        assertThat(control.getJoinPoints().get(0).getCalls()).isEqualTo(10_100);
+        assertThat(control.isEnabled(jp)).isTrue();
+
+        control.resetCallCounts();
+        assertThat(control.getJoinPoints().get(0).getCalls()).isEqualTo(0);
+
+        assertThatThrownBy(() -> control.setSampleRate("*Hot*", Double.NaN)).isInstanceOf(IllegalArgumentException.class);
+        assertThatThrownBy(() -> control.setSampleRate("*Hot*", Double.POSITIVE_INFINITY))
+                .isInstanceOf(IllegalArgumentException.class);
+        assertThat(control.getRules()).describedAs("Invalid rates aren't stored").containsExactly("*Hot*: sampleRate=0.25");
+    }
+
+    @Test
+    public void testSetTraceLevel() {
+        JoinPoint.StaticPart jp = mockJoinPoint("execution(void com.mycompany.Noisy.log())");
+        control.setTraceLevel("*Noisy*", "off");
+        assertThat(control.getTraceLevel(jp)).isEqualTo(JoinPointControl.TraceLevel.OFF);
+        control.setTraceLevel("*Noisy*", "ALL");
+        assertThat(control.getTraceLevel(jp)).isEqualTo(JoinPointControl.TraceLevel.ALL);
+        assertThat(control.isEnabled(jp)).describedAs("The other settings are kept").isTrue();
+
+        assertThatThrownBy(() -> control.setTraceLevel("*", "verbose")).isInstanceOf(IllegalArgumentException.class);
+    }
+
+    @Test
+    public void testRuleReplaced() {
+        JoinPoint.StaticPart place = mockJoinPoint("execution(void com.mycompany.OrderService.place())");
+        JoinPoint.StaticPart find = mockJoinPoint("execution(Order com.mycompany.OrderService.find(int))");
+        for (int i = 0; i < 100; i++) {
+            control.setSampleRate("*OrderService.*", 0.5);
+        }
+        control.setEnabled("*OrderService.place()", false);
+        control.setTraceLevel("*OrderService.*", "off");
+        control.setEnabled(" *OrderService.place() ", true);
+
+        assertThat(control.getRules())
+                .describedAs("A rule replaces the one with the same glob and setting, and is applied last")
+                .containsExactly(
+                        "*OrderService.*: sampleRate=0.5",
+                        "*OrderService.*: traceLevel=off",
+                        " *OrderService.place() : enabled=true");
+        assertThat(control.isEnabled(place)).isTrue();
+        assertThat(control.getTraceLevel(find)).isEqualTo(JoinPointControl.TraceLevel.OFF);
+    }
+
+    @Test
+    public void testToPattern() {
+        assertThat(JoinPointControl.toPattern("*Service.find(..)*").matcher("execution(Order com.x.Service.find(..))").matches()).isTrue();
+        assertThat(JoinPointControl.toPattern("*Service.find(..)").matcher("execution(Order com.x.Service.find(int))").matches()).isFalse();
+        assertThat(JoinPointControl.toPattern("Service.fin?").matcher("Service.find").matches()).isTrue();
+        assertThat(JoinPointControl.toPattern("Service.fin?").matcher("ServiceXfind").matches())
+                .describedAs("Only * and ? are wildcards").isFalse();
+    }
+
+    @Test
+    public void testSharedInstance() {
+        assertThat(JoinPointControl.getInstance()).isSameAs(JoinPointControl.getInstance());
+    }
+}
@@ -0,0 +1,42 @@
+package org.automon.utils;
+
+import org.aspectj.lang.JoinPoint;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+
+public class JoinPointRegistryTest {
+
+    private final JoinPointRegistry registry = new JoinPointRegistry();
+
+    @Test
+    public void testGetId() {
+        JoinPoint.StaticPart jp1 = mock(JoinPoint.StaticPart.class);
+        JoinPoint.StaticPart jp2 = mock(JoinPoint.StaticPart.class);
+
+        assertThat(registry.getId(jp1)).isEqualTo(0);
+        assertThat(registry.getId(jp2)).isEqualTo(1);
+        assertThat(registry.getId(jp1)).describedAs("A join point keeps its id").isEqualTo(0);
+        assertThat(registry.size()).isEqualTo(2);
+
+        assertThat(registry.get(0)).isSameAs(jp1);
+        assertThat(registry.get(1)).isSameAs(jp2);
+        assertThat(registry.get(2)).isNull();
+        assertThat(registry.get(-1)).isNull();
+    }
+
+    @Test
+    public void testGrow() {
+        JoinPoint.StaticPart[] joinPoints = new JoinPoint.StaticPart[1000];
+        for (int i = 0; i < joinPoints.length; i++) {
+            joinPoints[i] = mock(JoinPoint.StaticPart.class);
+            assertThat(registry.getId(joinPoints[i])).isEqualTo(i);
+        }
+
+        for (int i = 0; i < joinPoints.length; i++) {
+            assertThat(registry.get(i)).isSameAs(joinPoints[i]);
+        }
+        assertThat(registry.size()).isEqualTo(1000);
+    }
+}
@@ -0,0 +1,75 @@
+package org.automon.utils;
+
+import org.aspectj.lang.JoinPoint;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.*;
+
+public class LabelCacheTest {
+
+    private final JoinPoint.StaticPart staticPart = mock(JoinPoint.StaticPart.class);
+
+    @BeforeEach
+    public void setUp() throws Exception {
+        when(staticPart.toString()).thenReturn("execution(void com.mypackage.MyClass.myMethod(String))");
+        when(staticPart.toShortString()).thenReturn("execution(MyClass.myMethod(..))");
+        when(staticPart.toLongString()).thenReturn("execution(public void com.mypackage.MyClass.myMethod(java.lang.String))");
+    }
+
+    @Test
+    public void testGetLabel_Cached() {
+        LabelCache cache = new LabelCache(LabelCache.FULL);
+        assertThat(cache.getLabel(staticPart)).isEqualTo("execution(void com.mypackage.MyClass.myMethod(String))");
+        assertThat(cache.getLabel(staticPart)).isEqualTo("execution(void com.mypackage.MyClass.myMethod(String))");
+        assertThat(cache.size()).isEqualTo(1);
+    }
+
+    @Test
+    public void testGetLabel_FormatCalledOnce() {
+        LabelCache.LabelFormat format = mock(LabelCache.LabelFormat.class);
+        when(format.format(staticPart)).thenReturn("mylabel");
+        LabelCache cache = new LabelCache(format);
+        cache.getLabel(staticPart);
+        cache.getLabel(staticPart);
+        cache.getLabel(staticPart);
+        verify(format, times(1)).format(staticPart);
+    }
+
+    @Test
+    public void testSetFormat() {
+        LabelCache cache = new LabelCache(LabelCache.FULL);
+        cache.getLabel(staticPart);
+        cache.setFormat(LabelCache.SHORT);
+        assertThat(cache.getLabel(staticPart)).
+                describedAs("Changing the format should discard previous labels").
+                isEqualTo("execution(MyClass.myMethod(..))");
+    }
+
+    @Test
+    public void testGetFormat() {
+        assertThat(LabelCache.getFormat(null)).isSameAs(LabelCache.FULL);
+        assertThat(LabelCache.getFormat("")).isSameAs(LabelCache.FULL);
+        assertThat(LabelCache.getFormat("FULL")).isSameAs(LabelCache.FULL);
+        assertThat(LabelCache.getFormat("short")).isSameAs(LabelCache.SHORT);
+        assertThat(LabelCache.getFormat(" long ")).isSameAs(LabelCache.LONG);
+        assertThat(LabelCache.getFormat(UpperCaseFormat.class.getName())).isInstanceOf(UpperCaseFormat.class);
+        assertThat(LabelCache.getFormat("com.i.do.not.Exist")).
+                describedAs("Should default to the full format").
+                isSameAs(LabelCache.FULL);
+    }
+
+    @Test
+    public void testCustomFormat() {
+        LabelCache cache = new LabelCache(LabelCache.getFormat(UpperCaseFormat.class.getName()));
+        assertThat(cache.getLabel(staticPart)).isEqualTo("EXECUTION(MYCLASS.MYMETHOD(..))");
+    }
+
+    public static class UpperCaseFormat implements LabelCache.LabelFormat {
+        @Override
+        public String format(JoinPoint.StaticPart jp) {
+            return jp.toShortString().toUpperCase();
+        }
+    }
+}
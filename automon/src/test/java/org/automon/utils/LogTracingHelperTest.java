@@ -8,6 +8,8 @@ import org.mockito.MockedStatic;
 import org.slf4j.MDC;
 import org.slf4j.NDC;
 
+import java.util.Map;
+
 import static org.assertj.core.api.Assertions.assertThat;
 import static org.automon.utils.LogTracingHelper.*;
 import static org.mockito.Mockito.*;
@@ -73,6 +75,52 @@ class LogTracingHelperTest {
         }
     }
 
+    @Test
+    void testWithExecutionTimeNs() {
+        try (MockedStatic<MDC> mdcMock = mockStatic(MDC.class)) {
+            logTracingHelper.withExecutionTimeNs(2_500_000L);
+            mdcMock.verify(() -> MDC.put(eq(EXECUTION_TIME_MS), eq("2")));
+            mdcMock.verify(() -> MDC.put(eq(EXECUTION_TIME_NS), anyString()), never());
+
+            logTracingHelper.setExecutionTimeUnits("ns, ms");
+            assertThat(logTracingHelper.getExecutionTimeUnits()).isEqualTo("ms,ns");
+            logTracingHelper.withExecutionTimeNs(7_000_123L);
+            mdcMock.verify(() -> MDC.put(eq(EXECUTION_TIME_MS), eq("7")));
+            mdcMock.verify(() -> MDC.put(eq(EXECUTION_TIME_NS), eq("7000123")));
+
+            logTracingHelper.removeExecutionTime();
+            mdcMock.verify(() -> MDC.remove(eq(EXECUTION_TIME_NS)));
+        } finally {
+            logTracingHelper.setExecutionTimeUnits("ms");
+        }
+    }
+
+    @Test
+    void testExecutionTimeUnits() {
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.toShortString()).thenReturn("myMethod()");
+        when(staticPart.getSignature()).thenReturn(signature);
+        try {
+            logTracingHelper.setExecutionTimeUnits("ns");
+            assertThat(logTracingHelper.getExecutionTimeUnits()).isEqualTo("ns");
+
+            logTracingHelper.setStructuredContext(true);
+            logTracingHelper.withSignature(staticPart).withExecutionTimeNs(1_500L);
+            assertThat(TraceContext.current().getContextData()).
+                    containsEntry(EXECUTION_TIME_NS, "1500").
+                    doesNotContainKey(EXECUTION_TIME_MS);
+            logTracingHelper.removeExecutionTime();
+            assertThat(TraceContext.current().getContextData()).doesNotContainKey(EXECUTION_TIME_NS);
+            logTracingHelper.removeSignature();
+
+            logTracingHelper.setExecutionTimeUnits("seconds");
+            assertThat(logTracingHelper.getExecutionTimeUnits()).describedAs("Defaults to ms").isEqualTo("ms");
+        } finally {
+            logTracingHelper.setStructuredContext(false);
+            logTracingHelper.setExecutionTimeUnits("ms");
+        }
+    }
+
     @Test
     void testWithRequestId() {
         try (MockedStatic<MDC> mdcMock = mockStatic(MDC.class)) {
@@ -292,6 +340,62 @@ class LogTracingHelperTest {
         }
     }
 
+    @Test
+    void testRemoveNestedFullContextStructured() {
+        testRemoveNestedFullContext(ContextMode.STRUCTURED);
+    }
+
+    @Test
+    void testRemoveNestedFullContextChain() {
+        testRemoveNestedFullContext(ContextMode.CHAIN);
+    }
+
+    private void testRemoveNestedFullContext(ContextMode contextMode) {
+        JoinPoint outer = mockFullJoinPoint("outer()", "outerThis", "outerTarget");
+        JoinPoint inner = mockFullJoinPoint("inner()", "innerThis", "innerTarget");
+        logTracingHelper.setContextMode(contextMode);
+        try {
+            logTracingHelper.withFullContext(outer, outer.getStaticPart(), outer.getStaticPart());
+            logTracingHelper.withFullContext(inner, inner.getStaticPart(), inner.getStaticPart());
+            assertThat(getContextData(contextMode)).containsEntry(THIS, "innerThis").containsEntry(TARGET, "innerTarget");
+
+            logTracingHelper.removeFullContext();
+            assertThat(getContextData(contextMode))
+                    .describedAs("The caller's frame keeps its values")
+                    .containsEntry("NDC0", "outer()")
+                    .containsEntry(THIS, "outerThis")
+                    .containsEntry(TARGET, "outerTarget")
+                    .doesNotContainKey("NDC1");
+
+            logTracingHelper.removeFullContext();
+            assertThat(getContextData(contextMode)).isEmpty();
+        } finally {
+            logTracingHelper.setContextMode(ContextMode.MDC);
+        }
+    }
+
+    private static Map<String, String> getContextData(ContextMode contextMode) {
+        if (contextMode == ContextMode.CHAIN) {
+            return ContextChain.getContextData(ContextChain.current());
+        }
+        TraceContext context = TraceContext.current();
+        return context == null ? Map.of() : context.getContextData();
+    }
+
+    private static JoinPoint mockFullJoinPoint(String signature, Object thisObject, Object target) {
+        JoinPoint jp = mock(JoinPoint.class);
+        JoinPoint.StaticPart staticPart = mock(JoinPoint.StaticPart.class);
+        MethodSignature methodSignature = mock(MethodSignature.class);
+        when(methodSignature.toShortString()).thenReturn(signature);
+        when(staticPart.getSignature()).thenReturn(methodSignature);
+        when(staticPart.getKind()).thenReturn("method-execution");
+        when(jp.getStaticPart()).thenReturn(staticPart);
+        when(jp.getArgs()).thenReturn(new Object[0]);
+        when(jp.getThis()).thenReturn(thisObject);
+        when(jp.getTarget()).thenReturn(target);
+        return jp;
+    }
+
     @Test
     void testAutoCloseable() {
         try (MockedStatic<MDC> mdcMock = mockStatic(MDC.class);
@@ -329,4 +433,140 @@ class LogTracingHelperTest {
         int result = LogTracingHelper.getStringAsNumberOrDefault(null);
         assertThat(result).isEqualTo(0);
     }
-}
\ No newline at end of file
+
+    @Test
+    void testStructuredContext() {
+        Object[] args = {"value1"};
+        when(joinPoint.getArgs()).thenReturn(args);
+        when(joinPoint.getThis()).thenReturn("myThisString");
+        when(staticPart.getKind()).thenReturn("method-call");
+        MethodSignature signature = mock(MethodSignature.class);
+        when(signature.toShortString()).thenReturn("myMethod()");
+        when(staticPart.getSignature()).thenReturn(signature);
+        MethodSignature enclosingSignature = mock(MethodSignature.class);
+        when(enclosingSignature.toShortString()).thenReturn("enclosingMethod()");
+        when(enclosingStaticPart.getSignature()).thenReturn(enclosingSignature);
+
+        logTracingHelper.setStructuredContext(true);
+        try (MockedStatic<MDC> mdcMock = mockStatic(MDC.class);
+             MockedStatic<NDC> ndcMock = mockStatic(NDC.class)) {
+            logTracingHelper.withFullContext(joinPoint, staticPart, enclosingStaticPart);
+            verify(joinPoint, never()).getArgs(); // nothing is converted to a string until the context is read
+            logTracingHelper.withExecutionTime(42).withReturnValue((Object) 22);
+
+            assertThat(TraceContext.current().getContextData()).
+                    containsEntry("NDC0", "myMethod()").
+                    containsEntry(ENCLOSING_SIGNATURE, "enclosingMethod()").
+                    containsEntry(KIND, "method-call").
+                    containsEntry(PARAMETERS, "{param0=value1}").
+                    containsEntry(THIS, "myThisString").
+                    containsEntry(EXECUTION_TIME_MS, "42").
+                    containsEntry(RETURN_VALUE, "22");
+
+            logTracingHelper.removeReturnValue();
+            assertThat(TraceContext.current().getContextData()).doesNotContainKey(RETURN_VALUE);
+
+            logTracingHelper.removeFullContext();
+            assertThat(TraceContext.current().getDepth()).isEqualTo(0);
+            assertThat(TraceContext.current().getContextData()).isEmpty();
+
+            mdcMock.verifyNoInteractions();
+            ndcMock.verifyNoInteractions();
+        } finally {
+            logTracingHelper.setStructuredContext(false);
+        }
+    }
+
+    @Test
+    void testStructuredContextNested() {
+        JoinPoint.StaticPart inner = mock(JoinPoint.StaticPart.class);
+        MethodSignature outerSignature = mock(MethodSignature.class);
+        when(outerSignature.toShortString()).thenReturn("outer()");
+        when(staticPart.getSignature()).thenReturn(outerSignature);
+        MethodSignature innerSignature = mock(MethodSignature.class);
+        when(innerSignature.toShortString()).thenReturn("inner()");
+        when(inner.getSignature()).thenReturn(innerSignature);
+
+        logTracingHelper.setStructuredContext(true);
+        try {
+            logTracingHelper.withSignature(staticPart).withExecutionTime(1);
+            logTracingHelper.withSignature(inner).withException("java.lang.RuntimeException");
+            assertThat(TraceContext.current().getContextData()).
+                    containsEntry("NDC0", "outer()").
+                    containsEntry("NDC1", "inner()").
+                    containsEntry(EXCEPTION, "java.lang.RuntimeException").
+                    doesNotContainKey(EXECUTION_TIME_MS);
+
+            logTracingHelper.close();
+            assertThat(TraceContext.current().getContextData()).
+                    describedAs("The outer join point's context is visible again").
+                    containsEntry("NDC0", "outer()").
+                    containsEntry(EXECUTION_TIME_MS, "1").
+                    doesNotContainKeys("NDC1", EXCEPTION);
+
+            logTracingHelper.removeBasicContext();
+            assertThat(TraceContext.current().getDepth()).isEqualTo(0);
+        } finally {
+            logTracingHelper.setStructuredContext(false);
+        }
+    }
+
+    @Test
+    void testChainContext() {
+        JoinPoint.StaticPart inner = mock(JoinPoint.StaticPart.class);
+        MethodSignature outerSignature = mock(MethodSignature.class);
+        when(outerSignature.toShortString()).thenReturn("outer()");
+        when(staticPart.getSignature()).thenReturn(outerSignature);
+        MethodSignature innerSignature = mock(MethodSignature.class);
+        when(innerSignature.toShortString()).thenReturn("inner()");
+        when(inner.getSignature()).thenReturn(innerSignature);
+
+        logTracingHelper.setContextMode(LogTracingHelper.ContextMode.CHAIN);
+        try (MockedStatic<NDC> ndcMock = mockStatic(NDC.class)) {
+            assertThat(logTracingHelper.isStructuredContext()).isFalse();
+            logTracingHelper.withSignature(staticPart).withExecutionTime(1);
+            logTracingHelper.withSignature(inner).withException("java.lang.RuntimeException");
+            assertThat(ContextChain.getContextData(ContextChain.current())).
+                    containsEntry("NDC0", "outer()").
+                    containsEntry("NDC1", "inner()").
+                    containsEntry(EXCEPTION, "java.lang.RuntimeException");
+
+            logTracingHelper.close();
+            assertThat(ContextChain.getContextData(ContextChain.current())).
+                    containsEntry("NDC0", "outer()").
+                    containsEntry(EXECUTION_TIME_MS, "1").
+                    doesNotContainKeys("NDC1", EXCEPTION);
+
+            logTracingHelper.removeBasicContext();
+            assertThat(ContextChain.current()).isNull();
+            ndcMock.verifyNoInteractions();
+        } finally {
+            logTracingHelper.setContextMode(null);
+        }
+        assertThat(logTracingHelper.getContextMode()).isEqualTo(LogTracingHelper.ContextMode.MDC);
+    }
+
+    @Test
+    void testContextModeFromString() {
+        assertThat(LogTracingHelper.ContextMode.fromString(" Chain ")).isEqualTo(LogTracingHelper.ContextMode.CHAIN);
+        assertThat(LogTracingHelper.ContextMode.fromString("structured")).isEqualTo(LogTracingHelper.ContextMode.STRUCTURED);
+        assertThat(LogTracingHelper.ContextMode.fromString(null)).isEqualTo(LogTracingHelper.ContextMode.MDC);
+        assertThat(LogTracingHelper.ContextMode.fromString("unknown")).isEqualTo(LogTracingHelper.ContextMode.MDC);
+    }
+
+    @Test
+    void testRequestIdGenerator() {
+        RequestIdGenerator original = logTracingHelper.getRequestIdGenerator();
+        try {
+            logTracingHelper.setRequestIdGenerator(() -> "my-id");
+            logTracingHelper.withRequestId();
+            assertThat(MDC.get(REQUEST_ID)).isEqualTo("my-id");
+            logTracingHelper.removeRequestId();
+
+            logTracingHelper.setRequestIdGenerator(null);
+            assertThat(logTracingHelper.getRequestIdGenerator()).isInstanceOf(RequestIdGenerator.Uuid.class);
+        } finally {
+            logTracingHelper.setRequestIdGenerator(original);
+        }
+    }
+}
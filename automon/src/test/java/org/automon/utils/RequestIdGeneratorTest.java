@@ -0,0 +1,96 @@
+package org.automon.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+class RequestIdGeneratorTest {
+
+    private static void assertUnique(RequestIdGenerator generator) throws InterruptedException {
+        Set<String> ids = ConcurrentHashMap.newKeySet();
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        for (int t = 0; t < 8; t++) {
+            executor.execute(() -> {
+                for (int i = 0; i < 5000; i++) {
+                    ids.add(generator.nextId());
+                }
+            });
+        }
+        executor.shutdown();
+        assertThat(executor.awaitTermination(10, TimeUnit.SECONDS)).isTrue();
+        assertThat(ids).describedAs("Ids are unique across threads").hasSize(40_000);
+    }
+
+    @Test
+    void testCreate() {
+        assertThat(RequestIdGenerator.create(null)).isInstanceOf(RequestIdGenerator.Uuid.class);
+        assertThat(RequestIdGenerator.create(" Monotonic ")).isInstanceOf(RequestIdGenerator.Monotonic.class);
+        assertThat(RequestIdGenerator.create("snowflake")).isInstanceOf(RequestIdGenerator.Snowflake.class);
+        assertThat(RequestIdGenerator.create("ulid")).isInstanceOf(RequestIdGenerator.Ulid.class);
+        assertThat(RequestIdGenerator.create(RequestIdGenerator.Ulid.class.getName())).isInstanceOf(RequestIdGenerator.Ulid.class);
+        assertThat(RequestIdGenerator.create("i_do_not_exist")).isInstanceOf(RequestIdGenerator.Uuid.class);
+        assertThat(RequestIdGenerator.create("com.i_do_not_exist.Generator")).isInstanceOf(RequestIdGenerator.Uuid.class);
+    }
+
+    @Test
+    void testUuid() throws InterruptedException {
+        RequestIdGenerator generator = new RequestIdGenerator.Uuid();
+        assertThat(UUID.fromString(generator.nextId())).isNotNull();
+        assertUnique(generator);
+    }
+
+    @Test
+    void testMonotonic() throws InterruptedException {
+        RequestIdGenerator generator = new RequestIdGenerator.Monotonic();
+        String first = generator.nextId();
+        String second = generator.nextId();
+        String prefix = first.substring(0, first.indexOf('-') + 1);
+        assertThat(second).startsWith(prefix);
+        assertThat(Long.parseLong(second.substring(prefix.length()), 36)).
+                isEqualTo(Long.parseLong(first.substring(prefix.length()), 36) + 1);
+        assertUnique(generator);
+    }
+
+    @Test
+    void testSnowflake() throws InterruptedException {
+        AtomicLong now = new AtomicLong(RequestIdGenerator.Snowflake.EPOCH_MILLIS + 1000);
+        RequestIdGenerator.Snowflake generator = new RequestIdGenerator.Snowflake(5, now::get);
+
+        long id = generator.nextLongId();
+        assertThat(id >>> 22).describedAs("Milliseconds since the epoch").isEqualTo(1000);
+        assertThat((id >>> 12) & 1023).describedAs("Node id").isEqualTo(5);
+        assertThat(id & 4095).describedAs("Sequence").isEqualTo(0);
+
+        long previous = id;
+        for (int i = 0; i < 10_000; i++) {
+            long next = generator.nextLongId();
+            assertThat(next).describedAs("Ids increase even when the sequence overflows").isGreaterThan(previous);
+            previous = next;
+        }
+
+        now.set(RequestIdGenerator.Snowflake.EPOCH_MILLIS); // clock moves backwards
+        assertThat(generator.nextLongId()).isGreaterThan(previous);
+
+        assertUnique(new RequestIdGenerator.Snowflake(1));
+    }
+
+    @Test
+    void testUlid() throws InterruptedException {
+        RequestIdGenerator generator = new RequestIdGenerator.Ulid(() -> 1469918176385L);
+        String id = generator.nextId();
+        assertThat(id).hasSize(26).matches("[0-9A-HJKMNP-TV-Z]{26}");
+        assertThat(id).describedAs("The timestamp from the ULID spec example").startsWith("01ARYZ6S41");
+
+        RequestIdGenerator later = new RequestIdGenerator.Ulid(() -> 1469918176386L);
+        assertThat(later.nextId()).isGreaterThan(id);
+        assertUnique(new RequestIdGenerator.Ulid());
+    }
+}
@@ -0,0 +1,79 @@
+package org.automon.utils;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.assertj.core.api.Assertions.assertThat;
+
+public class StripedLongRingBufferTest {
+
+    @Test
+    public void testPowerOfTwo() {
+        assertThat(StripedLongRingBuffer.powerOfTwo(0)).isEqualTo(1);
+        assertThat(StripedLongRingBuffer.powerOfTwo(1)).isEqualTo(1);
+        assertThat(StripedLongRingBuffer.powerOfTwo(6)).isEqualTo(8);
+        assertThat(StripedLongRingBuffer.powerOfTwo(8)).isEqualTo(8);
+    }
+
+    @Test
+    public void testOfferAndDrain() {
+        StripedLongRingBuffer buffer = new StripedLongRingBuffer(1, 4);
+        assertThat(buffer.capacity()).isEqualTo(4);
+        for (long i = 1; i <= 4; i++) {
+            assertThat(buffer.offer(i)).isTrue();
+        }
+        assertThat(buffer.offer(5)).describedAs("The buffer is full").isFalse();
+        assertThat(buffer.size()).isEqualTo(4);
+
+        List<Long> values = new ArrayList<>();
+        assertThat(buffer.drain(values::add, 3)).isEqualTo(3);
+        assertThat(values).containsExactly(1L, 2L, 3L);
+
+        assertThat(buffer.offer(5)).isTrue();
+        assertThat(buffer.offer(6)).isTrue();
+        assertThat(buffer.drain(values::add, 10)).isEqualTo(3);
+        assertThat(values).describedAs("Values wrap around the ring in order").containsExactly(1L, 2L, 3L, 4L, 5L, 6L);
+        assertThat(buffer.size()).isEqualTo(0);
+        assertThat(buffer.drain(values::add, 10)).isEqualTo(0);
+    }
+
+    @Test
+    public void testConcurrentProducers() throws InterruptedException {
+        StripedLongRingBuffer buffer = new StripedLongRingBuffer(2, 1024);
+        int threads = 4;
+        int perThread = 50_000;
+        AtomicLong sum = new AtomicLong();
+        AtomicLong count = new AtomicLong();
+
+        List<Thread> producers = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            Thread producer = new Thread(() -> {
+                for (int i = 1; i <= perThread; i++) {
+                    while (!buffer.offer(i)) {
+                        Thread.yield();
+                    }
+                }
+            });
+            producers.add(producer);
+            producer.start();
+        }
+
+        long expected = (long) threads * perThread;
+        while (count.get() < expected) {
+            buffer.drain(value -> {
+                sum.addAndGet(value);
+                count.incrementAndGet();
+            }, 100);
+        }
+        for (Thread producer : producers) {
+            producer.join();
+        }
+
+        assertThat(count.get()).isEqualTo(expected);
+        assertThat(sum.get()).describedAs("Every value should be drained exactly once").
+                isEqualTo(threads * ((long) perThread * (perThread + 1) / 2));
+    }
+}
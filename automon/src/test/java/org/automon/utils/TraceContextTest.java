@@ -0,0 +1,114 @@
+package org.automon.utils;
+
+import org.aspectj.lang.JoinPoint;
+import org.aspectj.lang.Signature;
+import org.junit.jupiter.api.Test;
+
+import java.util.Map;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+class TraceContextTest {
+
+    private static JoinPoint.StaticPart mockJoinPoint(String signature) {
+        JoinPoint.StaticPart jp = mock(JoinPoint.StaticPart.class);
+        Signature sig = mock(Signature.class);
+        when(sig.toShortString()).thenReturn(signature);
+        when(jp.getSignature()).thenReturn(sig);
+        return jp;
+    }
+
+    @Test
+    void testFramesAreReused() {
+        TraceContext context = TraceContext.get();
+        assertThat(TraceContext.get()).isSameAs(context);
+
+        TraceContext.Frame frame = context.push(mockJoinPoint("first()"));
+        frame.executionTimeMs = 5;
+        context.pop();
+        TraceContext.Frame reused = context.push(mockJoinPoint("second()"));
+
+        assertThat(reused).isSameAs(frame);
+        assertThat(context.getContextData()).
+                describedAs("Popping a frame clears its values").
+                containsOnlyKeys("NDC0").
+                containsEntry("NDC0", "second()");
+        context.pop();
+    }
+
+    @Test
+    void testDeepStack() {
+        TraceContext context = TraceContext.get();
+        for (int i = 0; i < 100; i++) {
+            context.push(mockJoinPoint("method" + i + "()"));
+        }
+        assertThat(context.getDepth()).isEqualTo(100);
+        assertThat(context.getContextData()).containsEntry("NDC99", "method99()").hasSize(100);
+
+        for (int i = 0; i < 101; i++) {
+            context.pop(); // an extra pop is ignored
+        }
+        assertThat(context.getDepth()).isEqualTo(0);
+    }
+
+    @Test
+    void testThreadLocal() throws InterruptedException {
+        TraceContext.get().push(mockJoinPoint("main()"));
+        AtomicReference<TraceContext> other = new AtomicReference<>();
+        Thread thread = new Thread(() -> other.set(TraceContext.current()));
+        thread.start();
+        thread.join();
+
+        assertThat(other.get()).describedAs("Other threads don't see this thread's context").isNull();
+        TraceContext.get().pop();
+    }
+
+    @Test
+    void testDataProvider() {
+        TraceContextDataProvider provider = new TraceContextDataProvider();
+        TraceContext.get().push(mockJoinPoint("provided()")).exception = "java.io.IOException";
+
+        Map<String, String> data = provider.supplyContextData();
+        assertThat(data).containsEntry("NDC0", "provided()").containsEntry(LogTracingHelper.EXCEPTION, "java.io.IOException");
+
+        TraceContext.get().pop();
+        assertThat(provider.supplyContextData()).isEmpty();
+    }
+
+    @Test
+    void testValuesFormattedOnce() {
+        JoinPoint joinPoint = mock(JoinPoint.class);
+        AtomicInteger toStringCalls = new AtomicInteger();
+        Object dto = new Object() {
+            @Override
+            public String toString() {
+                toStringCalls.incrementAndGet();
+                return "B".repeat(1000);
+            }
+        };
+        when(joinPoint.getArgs()).thenReturn(new Object[]{dto});
+
+        TraceContext context = TraceContext.get();
+        TraceContext.Frame frame = context.push(mockJoinPoint("dto()"));
+        frame.joinPoint = joinPoint;
+        frame.parameters = true;
+        frame.setReturnValue(dto);
+        assertThat(toStringCalls.get()).describedAs("Nothing is formatted until the context is read").isEqualTo(0);
+
+        Map<String, String> data = context.getContextData();
+        context.getContextData();
+        assertThat(toStringCalls.get()).describedAs("Each value is formatted once").isEqualTo(2);
+        assertThat(data.get(LogTracingHelper.RETURN_VALUE)).
+                describedAs("Values are capped").
+                hasSizeLessThan(200).
+                endsWith(Utils.DEFAULT_MAX_STRING_ENDING);
+
+        frame.setReturnValue("changed");
+        assertThat(context.getContextData()).containsEntry(LogTracingHelper.RETURN_VALUE, "changed");
+        context.pop();
+    }
+}
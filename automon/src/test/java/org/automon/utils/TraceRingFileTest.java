@@ -0,0 +1,151 @@
+package org.automon.utils;
+
+import org.aspectj.lang.JoinPoint;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Comparator;
+import java.util.List;
+import java.util.stream.Stream;
+
+import static org.assertj.core.api.Assertions.assertThat;
+import static org.assertj.core.api.Assertions.assertThatThrownBy;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+public class TraceRingFileTest {
+
+    private Path dir;
+
+    @BeforeEach
+    public void setUp() throws IOException {
+        dir = Files.createTempDirectory("automon-trace");
+    }
+
+    @AfterEach
+    public void tearDown() throws IOException {
+        try (Stream<Path> files = Files.walk(dir)) {
+            files.sorted(Comparator.reverseOrder()).forEach(path -> path.toFile().delete());
+        }
+    }
+
+    private static JoinPoint.StaticPart mockJoinPoint(String label) {
+        JoinPoint.StaticPart jp = mock(JoinPoint.StaticPart.class);
+        when(jp.toString()).thenReturn(label);
+        return jp;
+    }
+
+    @Test
+    public void testWriteAndRead() throws IOException {
+        JoinPoint.StaticPart jp1 = mockJoinPoint("execution(void TraceRingFileTest.first())");
+        JoinPoint.StaticPart jp2 = mockJoinPoint("execution(String TraceRingFileTest.second(int))");
+        Path path = dir.resolve("trace.bin");
+        try (TraceRingFile file = new TraceRingFile(path, 2, 16)) {
+            assertThat(Files.size(path)).isEqualTo(TraceRingFile.HEADER_SIZE + 2 * 16 * TraceRingFile.RECORD_SIZE);
+            file.write(jp1, 1000, 1, 5000, 0, false, "request-1");
+            file.write(jp2, 2000, 2, 7000, 1, true, null);
+        }
+
+        List<TraceRingFileDecoder.Record> records = TraceRingFileDecoder.read(path);
+        assertThat(records).hasSize(2);
+        TraceRingFileDecoder.Record first = records.get(0);
+        assertThat(first.getEndMillis()).isEqualTo(1000);
+        assertThat(first.getThreadId()).isEqualTo(1);
+        assertThat(first.getJoinPoint()).isEqualTo("execution(void TraceRingFileTest.first())");
+        assertThat(first.getJoinPointId()).isEqualTo(Utils.JOIN_POINTS.getId(jp1));
+        assertThat(first.getDurationNs()).isEqualTo(5000);
+        assertThat(first.getDepth()).isEqualTo(0);
+        assertThat(first.isFailed()).isFalse();
+        assertThat(first.getRequestId()).isEqualTo("request-1");
+
+        TraceRingFileDecoder.Record second = records.get(1);
+        assertThat(second.getJoinPoint()).isEqualTo("execution(String TraceRingFileTest.second(int))");
+        assertThat(second.getDepth()).isEqualTo(1);
+        assertThat(second.isFailed()).isTrue();
+        assertThat(second.getRequestId()).isNull();
+
+        assertThat(Files.readAllLines(Path.of(path + ".sym")))
+                .describedAs("Every join point up to the highest recorded id is in the side table")
+                .hasSize(Utils.JOIN_POINTS.getId(jp2) + 1)
+                .contains(Utils.JOIN_POINTS.getId(jp1) + "\texecution(void TraceRingFileTest.first())");
+    }
+
+    @Test
+    public void testWraparound() throws IOException {
+        JoinPoint.StaticPart jp = mockJoinPoint("execution(void TraceRingFileTest.wraparound())");
+        Path path = dir.resolve("wraparound.bin");
+        try (TraceRingFile file = new TraceRingFile(path, 1, 4)) {
+            for (int i = 1; i <= 10; i++) {
+                file.write(jp, i, 1, i, 0, false, null);
+            }
+        }
+
+        List<TraceRingFileDecoder.Record> records = TraceRingFileDecoder.read(path);
+        assertThat(records).describedAs("Only the last 4 calls are kept, oldest first")
+                .extracting(TraceRingFileDecoder.Record::getEndMillis)
+                .containsExactly(7L, 8L, 9L, 10L);
+    }
+
+    @Test
+    public void testRegions() throws IOException {
+        JoinPoint.StaticPart jp = mockJoinPoint("execution(void TraceRingFileTest.regions())");
+        Path path = dir.resolve("regions.bin");
+        try (TraceRingFile file = new TraceRingFile(path, 2, 2)) {
+            for (int i = 1; i <= 4; i++) {
+                file.write(jp, i, 1, 0, 0, false, null);
+            }
+            file.write(jp, 100, 2, 0, 0, false, null);
+        }
+
+        assertThat(TraceRingFileDecoder.read(path))
+                .describedAs("A busy thread doesn't overwrite the records of another region")
+                .extracting(TraceRingFileDecoder.Record::getEndMillis)
+                .containsExactly(3L, 4L, 100L);
+    }
+
+    @Test
+    public void testRequestIdTruncated() throws IOException {
+        JoinPoint.StaticPart jp = mockJoinPoint("execution(void TraceRingFileTest.requestId())");
+        Path path = dir.resolve("requestId.bin");
+        try (TraceRingFile file = new TraceRingFile(path, 1, 1)) {
+            file.write(jp, 1, 1, 0, 0, false, "550e8400-e29b-41d4-a716-446655440000");
+        }
+
+        assertThat(TraceRingFileDecoder.read(path).get(0).getRequestId()).isEqualTo("550e8400-e29b-41d4-a716-44665544");
+    }
+
+    @Test
+    public void testDecode() throws IOException {
+        JoinPoint.StaticPart jp = mockJoinPoint("execution(void TraceRingFileTest.\"decode\"())");
+        Path path = dir.resolve("decode.bin");
+        try (TraceRingFile file = new TraceRingFile(path, 1, 4)) {
+            file.write(jp, 1000, 7, 1234, 2, true, "abc");
+        }
+
+        ByteArrayOutputStream text = new ByteArrayOutputStream();
+        TraceRingFileDecoder.decode(path, false, new PrintStream(text));
+        assertThat(text.toString().trim()).isEqualTo(
+                "1970-01-01T00:00:01Z thread=7 depth=2 execution(void TraceRingFileTest.\"decode\"()) 1234ns exception requestId=abc");
+
+        ByteArrayOutputStream json = new ByteArrayOutputStream();
+        TraceRingFileDecoder.decode(path, true, new PrintStream(json));
+        assertThat(json.toString().trim()).isEqualTo(
+                "{\"time\":\"1970-01-01T00:00:01Z\",\"thread\":7,\"depth\":2," +
+                        "\"joinPoint\":\"execution(void TraceRingFileTest.\\\"decode\\\"())\",\"durationNs\":1234," +
+                        "\"outcome\":\"exception\",\"requestId\":\"abc\"}");
+    }
+
+    @Test
+    public void testNotATraceFile() throws IOException {
+        Path path = dir.resolve("other.bin");
+        Files.write(path, new byte[128]);
+
+        assertThatThrownBy(() -> TraceRingFileDecoder.read(path)).isInstanceOf(IOException.class);
+    }
+}
@@ -150,6 +150,30 @@ public class UtilsTest {
         assertThat(Utils.toStringWithLimit(sb.toString())).describedAs("String too long should be truncated").endsWith(Utils.DEFAULT_MAX_STRING_ENDING);
     }
 
+    @Test
+    public void testToStringWithLimit_toStringThrows() {
+        Object broken = new Object() {
+            @Override
+            public String toString() {
+                throw new IllegalStateException();
+            }
+        };
+        assertThat(Utils.toStringWithLimit(broken)).isEqualTo(UNKNOWN);
+    }
+
+    @Test
+    public void testParamsToString() {
+        JoinPoint jp = mock(JoinPoint.class);
+        when(jp.getArgs()).thenReturn(new Object[]{"Steve", null, "A".repeat(1000)});
+
+        String params = Utils.paramsToString(jp);
+        assertThat(params).startsWith("{param0=Steve, param1=" + Utils.NULL_STR + ", param2=AAA").endsWith(Utils.DEFAULT_MAX_STRING_ENDING + "}");
+        assertThat(params.length()).describedAs("Long values are truncated").isLessThan(200);
+
+        when(jp.getArgs()).thenReturn(new Object[]{"Steve", 20});
+        assertThat(Utils.paramsToString(jp)).isEqualTo(Utils.paramsToMap(jp).toString());
+    }
+
     @Test
     public void testGetExceptionTrace() {
         assertThat(Utils.getExceptionTrace(null)).isEqualTo(UNKNOWN);